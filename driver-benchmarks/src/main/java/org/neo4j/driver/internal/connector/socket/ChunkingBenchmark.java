@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.util.InMemoryChannel;
+
+/**
+ * Splitting messages into chunks with {@link ChunkedOutput} and putting them back together with {@link ChunkedInput},
+ * for messages that fit in a single chunk and messages spread over many.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 10, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class ChunkingBenchmark
+{
+    /** Longs per message written and read with {@link #writeLongs()} and {@link #readLongs()} */
+    private static final int LONGS = 1024;
+
+    /** Messages read back to back with {@link #readMessages()} */
+    private static final int MESSAGES = 100;
+
+    @Param( {"16", "8192", "65536"} )
+    public int messageSize;
+
+    private byte[] payload;
+    private byte[] into;
+
+    private final InMemoryChannel out = new InMemoryChannel();
+    private ChunkedOutput output;
+    private Runnable outputBoundary;
+
+    private final InMemoryChannel chunkedBytes = new InMemoryChannel();
+    private ChunkedInput bytesInput;
+    private Runnable bytesInputBoundary;
+
+    private final InMemoryChannel chunkedLongs = new InMemoryChannel();
+    private ChunkedInput longsInput;
+    private Runnable longsInputBoundary;
+
+    private final InMemoryChannel chunkedMessages = new InMemoryChannel();
+    private ChunkedInput messagesInput;
+    private Runnable messagesInputBoundary;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        payload = new byte[messageSize];
+        for ( int i = 0; i < messageSize; i++ )
+        {
+            payload[i] = (byte) i;
+        }
+        into = new byte[messageSize];
+
+        output = new ChunkedOutput( out );
+        outputBoundary = output.messageBoundaryHook();
+
+        ChunkedOutput setupOutput = new ChunkedOutput( chunkedBytes );
+        setupOutput.writeBytes( payload, 0, messageSize );
+        setupOutput.messageBoundaryHook().run();
+        setupOutput.flush();
+        bytesInput = new ChunkedInput( chunkedBytes );
+        bytesInputBoundary = bytesInput.messageBoundaryHook();
+
+        setupOutput = new ChunkedOutput( chunkedLongs );
+        for ( int i = 0; i < LONGS; i++ )
+        {
+            setupOutput.writeLong( i );
+        }
+        setupOutput.messageBoundaryHook().run();
+        setupOutput.flush();
+        longsInput = new ChunkedInput( chunkedLongs );
+        longsInputBoundary = longsInput.messageBoundaryHook();
+
+        setupOutput = new ChunkedOutput( chunkedMessages );
+        for ( int i = 0; i < MESSAGES; i++ )
+        {
+            setupOutput.writeBytes( payload, 0, messageSize );
+            setupOutput.messageBoundaryHook().run();
+        }
+        setupOutput.flush();
+        messagesInput = new ChunkedInput( chunkedMessages );
+        messagesInputBoundary = messagesInput.messageBoundaryHook();
+    }
+
+    @Benchmark
+    public int writeBytes() throws IOException
+    {
+        out.clear();
+        output.writeBytes( payload, 0, messageSize );
+        outputBoundary.run();
+        output.flush();
+        return out.size();
+    }
+
+    /** Like {@link #writeBytes()}, for a connection parked in a pool after each message, leasing its buffer again */
+    @Benchmark
+    public int writeBytesAndPark() throws IOException
+    {
+        out.clear();
+        output.writeBytes( payload, 0, messageSize );
+        outputBoundary.run();
+        output.flush();
+        output.park();
+        return out.size();
+    }
+
+    @Benchmark
+    public byte[] readBytes() throws IOException
+    {
+        chunkedBytes.rewind();
+        bytesInput.readBytes( into, 0, messageSize );
+        bytesInputBoundary.run();
+        return into;
+    }
+
+    @Benchmark
+    public byte[] readMessages() throws IOException
+    {
+        chunkedMessages.rewind();
+        for ( int i = 0; i < MESSAGES; i++ )
+        {
+            messagesInput.readBytes( into, 0, messageSize );
+            messagesInputBoundary.run();
+        }
+        return into;
+    }
+
+    @Benchmark
+    public int writeLongs() throws IOException
+    {
+        out.clear();
+        for ( int i = 0; i < LONGS; i++ )
+        {
+            output.writeLong( i );
+        }
+        outputBoundary.run();
+        output.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public long readLongs() throws IOException
+    {
+        chunkedLongs.rewind();
+        long sum = 0;
+        for ( int i = 0; i < LONGS; i++ )
+        {
+            sum += longsInput.readLong();
+        }
+        longsInputBoundary.run();
+        return sum;
+    }
+}
@@ -0,0 +1,440 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.Entity;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.RecordFields;
+import org.neo4j.driver.internal.SimpleNode;
+import org.neo4j.driver.internal.SimplePath;
+import org.neo4j.driver.internal.SimpleRelationship;
+import org.neo4j.driver.internal.StandardPreparedStatement;
+import org.neo4j.driver.internal.util.InMemoryChannel;
+import org.neo4j.driver.internal.value.NodeValue;
+import org.neo4j.driver.internal.value.PathValue;
+
+import static org.neo4j.driver.Values.value;
+
+/**
+ * Encoding and decoding of whole Bolt messages with {@link PackStreamMessageFormatV1}, chunking included, as they go
+ * over the wire: records of wide rows, of nodes and of paths coming in, and statements with parameters going out.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 10, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class MessageFormatBenchmark
+{
+    /** Fields in wide and numeric rows, nodes in node rows and relationships in paths */
+    @Param( {"10", "100"} )
+    public int width;
+
+    private final PackStreamMessageFormatV1 format = new PackStreamMessageFormatV1();
+
+    private final InMemoryChannel wideRecord = new InMemoryChannel();
+    private final InMemoryChannel numericRecord = new InMemoryChannel();
+    private final InMemoryChannel nodeRecord = new InMemoryChannel();
+    private final InMemoryChannel lazyNodeRecord = new InMemoryChannel();
+    private final InMemoryChannel pathRecord = new InMemoryChannel();
+    private final InMemoryChannel vectorRecord = new InMemoryChannel();
+    private MessageFormat.Reader wideRecordReader;
+    private MessageFormat.Reader numericRecordReader;
+    private MessageFormat.Reader nodeRecordReader;
+    private MessageFormat.Reader lazyNodeRecordReader;
+    private MessageFormat.Reader pathRecordReader;
+    private MessageFormat.Reader vectorRecordReader;
+
+    private final InMemoryChannel out = new InMemoryChannel();
+    private MessageFormat.Writer writer;
+    private RunMessage run;
+    private PreparedRunMessage preparedRun;
+    private List<Object> bulkRows;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        Value[] wideRow = new Value[width];
+        for ( int i = 0; i < width; i++ )
+        {
+            switch ( i % 4 )
+            {
+            case 0: wideRow[i] = value( i * 1000L ); break;
+            case 1: wideRow[i] = value( "field value " + i ); break;
+            case 2: wideRow[i] = value( i / 3.0 ); break;
+            default: wideRow[i] = value( i % 2 == 0 ); break;
+            }
+        }
+        write( wideRecord, new RecordMessage( wideRow ) );
+
+        Value[] numericRow = new Value[width];
+        for ( int i = 0; i < width; i++ )
+        {
+            numericRow[i] = i % 2 == 0 ? value( i * 1000L ) : value( i / 3.0 );
+        }
+        write( numericRecord, new RecordMessage( numericRow ) );
+
+        Value[] nodes = new Value[width];
+        for ( int i = 0; i < width; i++ )
+        {
+            nodes[i] = new NodeValue( node( i ) );
+        }
+        write( nodeRecord, new RecordMessage( nodes ) );
+        write( lazyNodeRecord, new RecordMessage( nodes ) );
+
+        List<Entity> path = new ArrayList<>();
+        path.add( node( 0 ) );
+        for ( int i = 1; i <= width; i++ )
+        {
+            path.add( new SimpleRelationship( i, i - 1, i, "KNOWS", properties( 2 ) ) );
+            path.add( node( i ) );
+        }
+        write( pathRecord, new RecordMessage( new Value[]{new PathValue( new SimplePath( path ) )} ) );
+
+        double[] vector = new double[width * 10];
+        for ( int i = 0; i < vector.length; i++ )
+        {
+            vector[i] = i / 7.0;
+        }
+        write( vectorRecord, new RecordMessage( new Value[]{value( vector )} ) );
+
+        wideRecordReader = format.newReader( wideRecord );
+        numericRecordReader = format.newReader( numericRecord );
+        nodeRecordReader = format.newReader( nodeRecord );
+        lazyNodeRecordReader = new PackStreamMessageFormatV1( true ).newReader( lazyNodeRecord );
+        pathRecordReader = format.newReader( pathRecord );
+        vectorRecordReader = format.newReader( vectorRecord );
+
+        writer = format.newWriter( out );
+        Map<String,Value> parameters = properties( width );
+        parameters.put( "list", value( new ArrayList<Object>( parameters.keySet() ) ) );
+        run = new RunMessage( "UNWIND {list} AS x CREATE (n:Node {name: x})", parameters );
+        String[] names = parameters.keySet().toArray( new String[parameters.size()] );
+        Value[] values = new Value[names.length];
+        for ( int i = 0; i < names.length; i++ )
+        {
+            values[i] = parameters.get( names[i] );
+        }
+        bulkRows = new ArrayList<>();
+        for ( int i = 0; i < width * 100; i++ )
+        {
+            bulkRows.add( (long) i );
+        }
+        preparedRun = new PreparedRunMessage(
+                new StandardPreparedStatement( "UNWIND {list} AS x CREATE (n:Node {name: x})", names ), values );
+    }
+
+    @Benchmark
+    public void decodeWideRecord( Blackhole bh ) throws IOException
+    {
+        wideRecord.rewind();
+        wideRecordReader.read( new ConsumingHandler( bh ) );
+    }
+
+    @Benchmark
+    public void readNumericRecordAsValues( Blackhole bh ) throws IOException
+    {
+        numericRecord.rewind();
+        numericRecordReader.read( new NumericHandler( bh, false ) );
+    }
+
+    @Benchmark
+    public void readNumericRecordTyped( Blackhole bh ) throws IOException
+    {
+        numericRecord.rewind();
+        numericRecordReader.read( new NumericHandler( bh, true ) );
+    }
+
+    @Benchmark
+    public void decodeNodeRecord( Blackhole bh ) throws IOException
+    {
+        nodeRecord.rewind();
+        nodeRecordReader.read( new ConsumingHandler( bh ) );
+    }
+
+    @Benchmark
+    public void skipNodeRecord( Blackhole bh ) throws IOException
+    {
+        nodeRecord.rewind();
+        nodeRecordReader.read( new DiscardingHandler( bh ) );
+    }
+
+    @Benchmark
+    public void readTwoFieldsOfNodeRecord( Blackhole bh ) throws IOException
+    {
+        nodeRecord.rewind();
+        nodeRecordReader.read( new FieldReadingHandler( bh, 2 ) );
+    }
+
+    @Benchmark
+    public void readTwoFieldsOfNodeRecordLazily( Blackhole bh ) throws IOException
+    {
+        lazyNodeRecord.rewind();
+        lazyNodeRecordReader.read( new FieldReadingHandler( bh, 2 ) );
+    }
+
+    @Benchmark
+    public void decodePathRecord( Blackhole bh ) throws IOException
+    {
+        pathRecord.rewind();
+        pathRecordReader.read( new ConsumingHandler( bh ) );
+    }
+
+    @Benchmark
+    public void readVectorRecord( Blackhole bh ) throws IOException
+    {
+        vectorRecord.rewind();
+        vectorRecordReader.read( new VectorReadingHandler( bh ) );
+    }
+
+    @Benchmark
+    public int encodeRunWithParameters() throws IOException
+    {
+        out.clear();
+        writer.write( run ).flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int encodeRunAndPullAll() throws IOException
+    {
+        out.clear();
+        writer.write( run ).write( PullAllMessage.PULL_ALL ).flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int encodeRunWithListConvertedToValues() throws IOException
+    {
+        out.clear();
+        writer.write( new RunMessage( "UNWIND {rows} AS x CREATE (n:Node {id: x})",
+                Values.parameters( "rows", bulkRows ) ) ).flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int encodeRunWithListSentDirectly() throws IOException
+    {
+        out.clear();
+        writer.write( new RunMessage( "UNWIND {rows} AS x CREATE (n:Node {id: x})",
+                Values.directParameters( "rows", bulkRows ) ) ).flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int encodePreparedRunWithParameters() throws IOException
+    {
+        out.clear();
+        writer.write( preparedRun ).flush();
+        return out.size();
+    }
+
+    private void write( InMemoryChannel channel, Message message ) throws IOException
+    {
+        format.newWriter( channel ).write( message ).flush();
+    }
+
+    private static SimpleNode node( long id )
+    {
+        List<String> labels = new ArrayList<>();
+        labels.add( "Person" );
+        labels.add( "Employee" );
+        return new SimpleNode( id, labels, properties( 5 ) );
+    }
+
+    private static Map<String,Value> properties( int count )
+    {
+        Map<String,Value> properties = new HashMap<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            properties.put( "property" + i, i % 2 == 0 ? value( i ) : value( "value " + i ) );
+        }
+        return properties;
+    }
+
+    /** Declines records, the way a result that was discarded does */
+    private static class DiscardingHandler extends ConsumingHandler
+    {
+        DiscardingHandler( Blackhole bh )
+        {
+            super( bh );
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            return false;
+        }
+    }
+
+    /** Reads the first field of a record as an array of doubles */
+    private static class VectorReadingHandler extends ConsumingHandler
+    {
+        VectorReadingHandler( Blackhole bh )
+        {
+            super( bh );
+        }
+
+        @Override
+        public void handleRecordMessage( RecordFields fields )
+        {
+            bh.consume( fields.get( 0 ).asDoubleArray() );
+        }
+    }
+
+    /** Reads the first few fields of a record as values */
+    private static class FieldReadingHandler extends ConsumingHandler
+    {
+        private final int fieldsToRead;
+
+        FieldReadingHandler( Blackhole bh, int fieldsToRead )
+        {
+            super( bh );
+            this.fieldsToRead = fieldsToRead;
+        }
+
+        @Override
+        public void handleRecordMessage( RecordFields fields )
+        {
+            for ( int i = 0; i < fieldsToRead; i++ )
+            {
+                bh.consume( fields.get( i ) );
+            }
+        }
+    }
+
+    /** Reads every field of a numeric record, either through values or through the typed getters */
+    private static class NumericHandler extends ConsumingHandler
+    {
+        private final boolean typed;
+
+        NumericHandler( Blackhole bh, boolean typed )
+        {
+            super( bh );
+            this.typed = typed;
+        }
+
+        @Override
+        public void handleRecordMessage( RecordFields fields )
+        {
+            for ( int i = 0; i < fields.size(); i++ )
+            {
+                if ( i % 2 == 0 )
+                {
+                    bh.consume( typed ? fields.getLong( i ) : fields.get( i ).javaLong() );
+                }
+                else
+                {
+                    bh.consume( typed ? fields.getDouble( i ) : fields.get( i ).javaDouble() );
+                }
+            }
+        }
+    }
+
+    /** Hands decoded records to the blackhole, so that decoding can't be optimized away */
+    private static class ConsumingHandler implements MessageHandler
+    {
+        protected final Blackhole bh;
+
+        ConsumingHandler( Blackhole bh )
+        {
+            this.bh = bh;
+        }
+
+        @Override
+        public void handleRecordMessage( RecordFields fields )
+        {
+            bh.consume( fields );
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            return true;
+        }
+
+        @Override
+        public void handleSuccessMessage( Map<String,Value> meta )
+        {
+            bh.consume( meta );
+        }
+
+        @Override
+        public void handleInitMessage( String clientNameAndVersion )
+        {
+        }
+
+        @Override
+        public void handleRunMessage( String statement, Map<String,Value> parameters )
+        {
+        }
+
+        @Override
+        public void handlePreparedRunMessage( StandardPreparedStatement statement, Value[] parameterValues )
+        {
+        }
+
+        @Override
+        public void handlePullAllMessage()
+        {
+        }
+
+        @Override
+        public void handleDiscardAllMessage()
+        {
+        }
+
+        @Override
+        public void handleAckFailureMessage()
+        {
+        }
+
+        @Override
+        public void handleFailureMessage( String code, String message )
+        {
+        }
+
+        @Override
+        public void handleIgnoredMessage()
+        {
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.util.InMemoryChannel;
+
+/**
+ * Raw PackStream encoding and decoding of strings and integers, the bulk of most records, without any message framing
+ * or chunking. Strings are ASCII of the given length, integers are spread over every size PackStream has an encoding
+ * for.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 10, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class PackStreamBenchmark
+{
+    /** Values packed per operation */
+    private static final int VALUES = 100;
+
+    private static final long[] INTEGERS = {1, -16, 127, -128, 32767, -32768, Integer.MAX_VALUE, Long.MAX_VALUE};
+
+    private final InMemoryChannel out = new InMemoryChannel();
+    private final PackStream.Packer packer = new PackStream.Packer( new BufferedChannelOutput( out ) );
+
+    private final BufferedChannelInput input = new BufferedChannelInput( 8192 );
+    private final PackStream.Unpacker unpacker = new PackStream.Unpacker( input );
+
+    private final InMemoryChannel packedIntegers = new InMemoryChannel();
+
+    @State( Scope.Thread )
+    public static class Strings
+    {
+        @Param( {"16", "4096", "65536"} )
+        public int stringLength;
+
+        private String string;
+        private final InMemoryChannel packed = new InMemoryChannel();
+
+        @Setup
+        public void setup() throws IOException
+        {
+            StringBuilder sb = new StringBuilder( stringLength );
+            for ( int i = 0; i < stringLength; i++ )
+            {
+                sb.append( (char) ('a' + i % 26) );
+            }
+            string = sb.toString();
+
+            PackStream.Packer packer = new PackStream.Packer( new BufferedChannelOutput( packed ) );
+            for ( int i = 0; i < VALUES; i++ )
+            {
+                packer.pack( string );
+            }
+            packer.flush();
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException
+    {
+        PackStream.Packer packer = new PackStream.Packer( new BufferedChannelOutput( packedIntegers ) );
+        for ( int i = 0; i < VALUES; i++ )
+        {
+            packer.pack( INTEGERS[i % INTEGERS.length] );
+        }
+        packer.flush();
+    }
+
+    @Benchmark
+    public int packStrings( Strings strings ) throws IOException
+    {
+        out.clear();
+        for ( int i = 0; i < VALUES; i++ )
+        {
+            packer.pack( strings.string );
+        }
+        packer.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public void unpackStrings( Strings strings, Blackhole bh ) throws IOException
+    {
+        input.reset( strings.packed.rewind() );
+        for ( int i = 0; i < VALUES; i++ )
+        {
+            bh.consume( unpacker.unpackString() );
+        }
+    }
+
+    @Benchmark
+    public int packIntegers() throws IOException
+    {
+        out.clear();
+        for ( int i = 0; i < VALUES; i++ )
+        {
+            packer.pack( INTEGERS[i % INTEGERS.length] );
+        }
+        packer.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public void unpackIntegers( Blackhole bh ) throws IOException
+    {
+        input.reset( packedIntegers.rewind() );
+        for ( int i = 0; i < VALUES; i++ )
+        {
+            bh.consume( unpacker.unpackLong() );
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.internal.util.Consumer;
+
+/**
+ * Acquire latency of {@link ThreadCachingPool} when more threads want a value than the pool holds. With 16 threads,
+ * the pool sizes measured give 2x, 4x and 16x oversubscription, and for reference no oversubscription, where every
+ * thread keeps getting the value cached with it. Sample mode reports the latency distribution, look
+ * at the p0.99 and p0.999 lines to compare how long the unluckiest threads wait.
+ * <p>
+ * Each operation holds its value for a short, fixed amount of work before releasing it, so the time measured is that
+ * fixed hold time plus the time spent waiting in {@link ThreadCachingPool#acquire(long, TimeUnit) acquire}.
+ */
+@BenchmarkMode( Mode.SampleTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Threads( 16 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 10, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ThreadCachingPoolBenchmark
+{
+    @Param( {"16", "8", "4", "1"} )
+    public int poolSize;
+
+    /** Amount of work done while holding a value, in JMH CPU tokens */
+    @Param( {"1000"} )
+    public long holdTokens;
+
+    private ThreadCachingPool<PooledValue> pool;
+
+    @Setup
+    public void setup()
+    {
+        pool = new ThreadCachingPool<>( poolSize, new Allocator<PooledValue>()
+        {
+            @Override
+            public PooledValue allocate( Consumer<PooledValue> release )
+            {
+                return new PooledValue( release );
+            }
+
+            @Override
+            public void onDispose( PooledValue value )
+            {
+            }
+
+            @Override
+            public void onAcquire( PooledValue value )
+            {
+            }
+        }, new ValidationStrategy<PooledValue>()
+        {
+            @Override
+            public boolean isValid( PooledValue value, long idleTime )
+            {
+                return true;
+            }
+        }, Clock.SYSTEM );
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        pool.close();
+    }
+
+    @Benchmark
+    public void acquireAndRelease() throws InterruptedException
+    {
+        PooledValue value = pool.acquire( 30, TimeUnit.SECONDS );
+        if ( value == null )
+        {
+            throw new IllegalStateException( "Timed out acquiring from the pool" );
+        }
+        Blackhole.consumeCPU( holdTokens );
+        value.release();
+    }
+
+    private static class PooledValue
+    {
+        private final Consumer<PooledValue> release;
+
+        PooledValue( Consumer<PooledValue> release )
+        {
+            this.release = release;
+        }
+
+        void release()
+        {
+            release.accept( this );
+        }
+    }
+}
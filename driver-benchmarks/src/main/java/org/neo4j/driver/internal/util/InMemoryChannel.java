@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.util;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+
+/**
+ * A byte channel kept in memory, so that benchmarks measure encoding and decoding rather than I/O. Bytes written to
+ * the channel are kept, and can be read back any number of times by {@link #rewind() rewinding} in between. Like
+ * socket channels, it takes gathering writes.
+ */
+public class InMemoryChannel implements ByteChannel, GatheringByteChannel
+{
+    private byte[] bytes = new byte[8192];
+    private int size = 0;
+    private int readPosition = 0;
+
+    @Override
+    public int write( ByteBuffer src )
+    {
+        int length = src.remaining();
+        if ( size + length > bytes.length )
+        {
+            bytes = Arrays.copyOf( bytes, Math.max( bytes.length * 2, size + length ) );
+        }
+        src.get( bytes, size, length );
+        size += length;
+        return length;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length )
+    {
+        long written = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            written += write( srcs[i] );
+        }
+        return written;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs )
+    {
+        return write( srcs, 0, srcs.length );
+    }
+
+    @Override
+    public int read( ByteBuffer dst )
+    {
+        if ( readPosition == size )
+        {
+            return -1;
+        }
+        int length = Math.min( dst.remaining(), size - readPosition );
+        dst.put( bytes, readPosition, length );
+        readPosition += length;
+        return length;
+    }
+
+    /** Read what has been written from the start again */
+    public InMemoryChannel rewind()
+    {
+        readPosition = 0;
+        return this;
+    }
+
+    /** Forget everything written so far */
+    public InMemoryChannel clear()
+    {
+        size = 0;
+        readPosition = 0;
+        return this;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return true;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -19,11 +19,17 @@
 package org.neo4j.driver;
 
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.neo4j.driver.internal.logging.JULogging;
+import org.neo4j.driver.internal.metrics.InProcessMetrics;
 import org.neo4j.driver.internal.spi.Logging;
+import org.neo4j.driver.internal.spi.Metrics;
+import org.neo4j.driver.internal.spi.QueryTimingListener;
 
+import static java.util.Collections.unmodifiableMap;
 import static org.neo4j.driver.Config.TlsAuthenticationConfig.*;
 
 /**
@@ -47,12 +53,39 @@ public class Config
     /** User defined logging */
     private final Logging logging;
 
+    /** Where measurements of the driver are reported */
+    private final Metrics metrics;
+
+    /** Told how long each statement took to run, null if statements aren't timed */
+    private final QueryTimingListener queryTimingListener;
+
     /** The size of connection pool for each database url */
     private final int connectionPoolSize;
 
     /** Connections that have been idle longer than this threshold will have a ping test performed on them. */
     private final long idleTimeBeforeConnectionTest;
 
+    /** Connections that have been idle longer than this are closed, 0 means no limit */
+    private final long maxConnectionIdleTime;
+
+    /** Connections that have been open longer than this are closed once idle, 0 means no limit */
+    private final long maxConnectionLifetime;
+
+    /** The number of idle connections to keep open per database url */
+    private final int minIdleConnections;
+
+    /** How often idle pooled connections are looked after in the background */
+    private final long poolMaintenanceInterval;
+
+    /** The number of connections to open when a driver is created */
+    private final int warmUpConnections;
+
+    /** Whether lists, maps and graph structures in records are decoded on first access rather than on arrival */
+    private final boolean lazyRecordDecoding;
+
+    /** Encoders for application types sent as direct parameters, by the type they encode */
+    private final Map<Class<?>,ParameterEncoder<?>> parameterEncoders;
+
     /* Whether TLS is enabled on all connections */
     private final boolean isTlsEnabled;
 
@@ -62,9 +95,18 @@ public class Config
     private Config( ConfigBuilder builder )
     {
         this.logging = builder.logging;
+        this.metrics = builder.metrics;
+        this.queryTimingListener = builder.queryTimingListener;
 
         this.connectionPoolSize = builder.connectionPoolSize;
         this.idleTimeBeforeConnectionTest = builder.idleTimeBeforeConnectionTest;
+        this.maxConnectionIdleTime = builder.maxConnectionIdleTime;
+        this.maxConnectionLifetime = builder.maxConnectionLifetime;
+        this.minIdleConnections = builder.minIdleConnections;
+        this.poolMaintenanceInterval = builder.poolMaintenanceInterval;
+        this.warmUpConnections = builder.warmUpConnections;
+        this.lazyRecordDecoding = builder.lazyRecordDecoding;
+        this.parameterEncoders = unmodifiableMap( new LinkedHashMap<>( builder.parameterEncoders ) );
 
         this.isTlsEnabled = builder.isTlsEnabled;
         this.tlsAuthConfig = builder.tlsAuthConfig;
@@ -79,6 +121,24 @@ public class Config
         return logging;
     }
 
+    /**
+     * Metrics provider
+     * @return the metrics provider to use
+     */
+    public Metrics metrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Query timing listener
+     * @return the listener to report statement timings to, or null if statements are not timed
+     */
+    public QueryTimingListener queryTimingListener()
+    {
+        return queryTimingListener;
+    }
+
     /**
      * Max number of connections per URL for this driver.
      * @return the max number of connections
@@ -89,8 +149,12 @@ public class Config
     }
 
     /**
-     * Pooled connections that have been unused for longer than this timeout will be tested before they are
-     * used again, to ensure they are still live.
+     * Pooled connections that have been unused for longer than this timeout will be tested in the background, to
+     * ensure they are still live.
+     * <p>
+     * Tests are done one connection at a time, and the housekeeper spends at most one
+     * {@link #poolMaintenanceInterval() maintenance interval} per round on them, finishing the test in progress when
+     * that time is up. Connections it did not get to are tested in the next round.
      * @return idle time in milliseconds
      */
     public long idleTimeBeforeConnectionTest()
@@ -98,6 +162,69 @@ public class Config
         return idleTimeBeforeConnectionTest;
     }
 
+    /**
+     * Pooled connections that have been unused for longer than this will be closed.
+     * @return idle time in milliseconds, 0 if idle connections are kept open indefinitely
+     */
+    public long maxConnectionIdleTime()
+    {
+        return maxConnectionIdleTime;
+    }
+
+    /**
+     * Pooled connections that have been open for longer than this will be closed once they are not in use.
+     * @return lifetime in milliseconds, 0 if connections are kept open indefinitely
+     */
+    public long maxConnectionLifetime()
+    {
+        return maxConnectionLifetime;
+    }
+
+    /**
+     * The number of idle connections to keep open per URL, ready for new sessions.
+     * @return the min number of idle connections
+     */
+    public int minIdleConnections()
+    {
+        return minIdleConnections;
+    }
+
+    /**
+     * How often idle pooled connections are tested, retired and topped up in the background.
+     * @return interval in milliseconds
+     */
+    public long poolMaintenanceInterval()
+    {
+        return poolMaintenanceInterval;
+    }
+
+    /**
+     * The number of connections a driver opens in parallel when it is created, see {@link Driver#warmUp()}.
+     * @return the number of connections to warm up
+     */
+    public int warmUpConnections()
+    {
+        return warmUpConnections;
+    }
+
+    /**
+     * Whether lists, maps, nodes, relationships and paths in records are decoded on first access.
+     * @return true if record fields are decoded lazily
+     */
+    public boolean lazyRecordDecoding()
+    {
+        return lazyRecordDecoding;
+    }
+
+    /**
+     * Encoders for application types sent as {@link Values#direct(Object) direct} parameters.
+     * @return the encoders by the type they encode, in the order they were registered
+     */
+    public Map<Class<?>,ParameterEncoder<?>> parameterEncoders()
+    {
+        return parameterEncoders;
+    }
+
     /**
      * If TLS is enabled in all socket connections
      * @return if TLS is enabled
@@ -139,8 +266,17 @@ public class Config
     public static class ConfigBuilder
     {
         private Logging logging = new JULogging( Level.INFO );
+        private Metrics metrics = new InProcessMetrics();
+        private QueryTimingListener queryTimingListener = null;
         private int connectionPoolSize = 10;
         private long idleTimeBeforeConnectionTest = 200;
+        private long maxConnectionIdleTime = 0;
+        private long maxConnectionLifetime = 0;
+        private int minIdleConnections = 0;
+        private long poolMaintenanceInterval = 1000;
+        private int warmUpConnections = 0;
+        private boolean lazyRecordDecoding = false;
+        private final Map<Class<?>,ParameterEncoder<?>> parameterEncoders = new LinkedHashMap<>();
         private boolean isTlsEnabled = false;
         private TlsAuthenticationConfig tlsAuthConfig =
                 usingKnownCerts( new File( System.getProperty( "user.home" ), "neo4j/neo4j_known_certs" ) );
@@ -159,6 +295,32 @@ public class Config
             return this;
         }
 
+        /**
+         * Provide an alternative metrics implementation for the driver to report to, for instance to export
+         * measurements of the connection pools to a monitoring system. By default measurements are kept in memory by
+         * an {@link InProcessMetrics}, which can be read through {@link Config#metrics()}.
+         * @param metrics the metrics instance to use
+         * @return this builder
+         */
+        public ConfigBuilder withMetrics( Metrics metrics )
+        {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Time each phase of running statements: waiting to be written, writing, waiting for the database, receiving
+         * records and building results. Timings are reported to the given listener, and are also available from
+         * {@link Result#timings()}. Statements are not timed by default.
+         * @param listener the listener to report statement timings to
+         * @return this builder
+         */
+        public ConfigBuilder withQueryTimingListener( QueryTimingListener listener )
+        {
+            this.queryTimingListener = listener;
+            return this;
+        }
+
         /**
          * The max number of connections to open at any given time per Neo4j instance.
          * @param size
@@ -171,8 +333,9 @@ public class Config
         }
 
         /**
-         * Pooled connections that have been unused for longer than this timeout will be tested before they are
-         * used again, to ensure they are still live.
+         * Pooled connections that have been unused for longer than this timeout will be tested in the background, to
+         * ensure they are still live. At most one {@link #withPoolMaintenanceInterval(long) maintenance interval} is spent
+         * testing connections per round, the rest are tested in the next round.
          * @param milliSecond minimum idle time in milliseconds
          * @return this builder
          */
@@ -182,6 +345,98 @@ public class Config
             return this;
         }
 
+        /**
+         * Pooled connections that have been unused for longer than this will be closed. By default, idle connections
+         * are kept open indefinitely.
+         * @param milliSecond max idle time in milliseconds, or 0 for no limit
+         * @return this builder
+         */
+        public ConfigBuilder withMaxConnectionIdleTime( long milliSecond )
+        {
+            this.maxConnectionIdleTime = milliSecond;
+            return this;
+        }
+
+        /**
+         * Pooled connections that have been open for longer than this will be closed once they are not in use. This
+         * is useful when connections go through infrastructure that drops long-lived connections. By default,
+         * connections are kept open indefinitely.
+         * @param milliSecond max lifetime in milliseconds, or 0 for no limit
+         * @return this builder
+         */
+        public ConfigBuilder withMaxConnectionLifetime( long milliSecond )
+        {
+            this.maxConnectionLifetime = milliSecond;
+            return this;
+        }
+
+        /**
+         * The number of idle connections to keep open per Neo4j instance, so that new sessions don't have to wait for
+         * a connection to be established. Capped by the {@link #withConnectionPoolSize(int) connection pool size}.
+         * @param size the min number of idle connections
+         * @return this builder
+         */
+        public ConfigBuilder withMinIdleConnections( int size )
+        {
+            this.minIdleConnections = size;
+            return this;
+        }
+
+        /**
+         * How often idle pooled connections are tested, retired and topped up in the background.
+         * @param milliSecond interval in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withPoolMaintenanceInterval( long milliSecond )
+        {
+            this.poolMaintenanceInterval = milliSecond;
+            return this;
+        }
+
+        /**
+         * The number of connections to open in parallel when a driver is created, so that the first sessions don't
+         * each have to wait for a connection to be established. Capped by the
+         * {@link #withConnectionPoolSize(int) connection pool size}. By default, connections are only opened as
+         * sessions need them.
+         * @param count the number of connections to warm up
+         * @return this builder
+         * @see Driver#warmUp()
+         */
+        public ConfigBuilder withWarmUpConnections( int count )
+        {
+            this.warmUpConnections = count;
+            return this;
+        }
+
+        /**
+         * Keep lists, maps, nodes, relationships and paths in records in their encoded form until they are accessed,
+         * and only decode the ones that are. This saves time and memory for results with wide records of which only a
+         * few fields are read, at the cost of holding on to the encoded bytes of the fields that are never read.
+         * Numbers, booleans and strings are always decoded straight away. Off by default.
+         * @param value true to decode record fields lazily
+         * @return this builder
+         */
+        public ConfigBuilder withLazyRecordDecoding( boolean value )
+        {
+            this.lazyRecordDecoding = value;
+            return this;
+        }
+
+        /**
+         * Register an encoder for objects of an application type, so that they can be sent as
+         * {@link Values#direct(Object) direct} parameters. The encoder is also used for subtypes of the type, unless
+         * an encoder registered before it applies to them too.
+         * @param type the type of objects to encode
+         * @param encoder turns objects of the type into something the driver knows how to send
+         * @param <T> the type of objects to encode
+         * @return this builder
+         */
+        public <T> ConfigBuilder withParameterEncoder( Class<T> type, ParameterEncoder<? super T> encoder )
+        {
+            this.parameterEncoders.put( type, encoder );
+            return this;
+        }
+
         /**
          * Enable TLS in all connections with the server.
          * When TLS is enabled, if a trusted certificate is provided by invoking {@code withTrustedCert}, then only the
@@ -19,8 +19,11 @@
 package org.neo4j.driver;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
+import org.neo4j.driver.internal.StandardPreparedStatement;
 import org.neo4j.driver.internal.StandardSession;
+import org.neo4j.driver.internal.connector.socket.SocketEventLoop;
 import org.neo4j.driver.internal.pool.StandardConnectionPool;
 import org.neo4j.driver.internal.spi.ConnectionPool;
 
@@ -73,12 +76,59 @@ import org.neo4j.driver.internal.spi.ConnectionPool;
 public class Driver implements AutoCloseable
 {
     private final ConnectionPool connections;
+
+    /** Runs statements asynchronously, its threads are only started once a statement is */
+    private final SocketEventLoop eventLoop;
     private final URI url;
+    private final Config config;
+
+    /** The last warm-up started, if any */
+    private CompletableFuture<Void> warmUp;
 
     public Driver( URI url, Config config )
+    {
+        this( url, config, new SocketEventLoop() );
+    }
+
+    private Driver( URI url, Config config, SocketEventLoop eventLoop )
+    {
+        this( url, config, new StandardConnectionPool( config, eventLoop ), eventLoop );
+    }
+
+    Driver( URI url, Config config, ConnectionPool connections, SocketEventLoop eventLoop )
     {
         this.url = url;
-        this.connections = new StandardConnectionPool( config );
+        this.config = config;
+        this.connections = connections;
+        this.eventLoop = eventLoop;
+        if ( config.warmUpConnections() > 0 )
+        {
+            warmUp();
+        }
+    }
+
+    /**
+     * Open connections to the database ahead of time, so that sessions created afterwards don't have to wait for
+     * connections to be established. As many connections as {@link Config#warmUpConnections() configured} are opened
+     * in parallel. This is done automatically when the driver is created, if configured, so this is mostly useful
+     * for readiness checks that want to wait until the driver is ready to serve requests at full speed:
+     * <pre>
+     * {@code
+     * driver.warmUp().get( 30, TimeUnit.SECONDS );
+     * }
+     * </pre>
+     * Calling this while a warm-up is in progress returns the future of that warm-up.
+     *
+     * @return a future completed once the connections are open, or completed exceptionally if the database could not
+     * be reached
+     */
+    public synchronized CompletableFuture<Void> warmUp()
+    {
+        if ( warmUp == null || warmUp.isDone() )
+        {
+            warmUp = connections.warmUp( url, config.warmUpConnections() );
+        }
+        return warmUp;
     }
 
     /**
@@ -88,19 +138,39 @@ public class Driver implements AutoCloseable
      */
     public Session session()
     {
-        return new StandardSession( connections.acquire( url ) );
+        return new StandardSession( connections.acquire( url ), eventLoop );
         // TODO a ConnectionPool per URL
         // ConnectionPool connections = new StandardConnectionPool( logging, url );
         // And to get a connection from the pool could be
         // connections.acquire();
     }
 
+    /**
+     * Prepare a statement for running many times, see {@link PreparedStatement}. The statement can be run by any
+     * session or transaction, through {@link StatementRunner#run(PreparedStatement, Value...)}.
+     *
+     * @param statement a Neo4j statement
+     * @param parameterNames the names of the statement parameters, in the order their values will be given in
+     * @return the prepared statement
+     */
+    public PreparedStatement prepare( String statement, String... parameterNames )
+    {
+        return new StandardPreparedStatement( statement, parameterNames );
+    }
+
     /**
      * Close all the resources assigned to this driver
      * @throws Exception any error that might happen when releasing all resources
      */
     public void close() throws Exception
     {
-        connections.close();
+        try
+        {
+            connections.close();
+        }
+        finally
+        {
+            eventLoop.shutdown();
+        }
     }
 }
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver;
+
+/**
+ * Turns objects of an application type into something the driver knows how to send as a parameter. Encoders are
+ * registered with {@link Config.ConfigBuilder#withParameterEncoder(Class, ParameterEncoder)}, and are used for
+ * parameters given through {@link Values#direct(Object)}, which are written straight to the network without being
+ * converted to {@link Value values} first.
+ * <p>
+ * <h2>Example</h2>
+ * <pre>
+ * {@code
+ * Config config = Config.build()
+ *         .withParameterEncoder( Point.class, new ParameterEncoder<Point>()
+ *         {
+ *             public Object encode( Point point )
+ *             {
+ *                 return new double[]{point.x, point.y};
+ *             }
+ *         } )
+ *         .toConfig();
+ * }
+ * </pre>
+ *
+ * @param <T> the type of objects encoded
+ */
+public interface ParameterEncoder<T>
+{
+    /**
+     * @param value the object to encode, never null
+     * @return null, a boolean, number, string, byte array, array of primitives or strings, collection, map with
+     * string keys, or another object there is an encoder for
+     */
+    Object encode( T value );
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver;
+
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.exceptions.PipelineException;
+
+/**
+ * A batch of statements sent to the database together. Statements added to a pipeline are held back until
+ * {@link #sync()} is called, at which point they are all written to the network in one go, and their results are
+ * read back in one go. A batch of N statements therefore costs a single network round trip, rather than N.
+ * <p>
+ * The statements run one after another in the order they were added, each in its own transaction, just like when
+ * run directly through the {@link Session}. If a statement fails, the statements after it in the same batch are not
+ * run, and {@link #sync()} throws a {@link PipelineException} saying which statement failed, along with the results
+ * of the statements that ran before it.
+ * <p>
+ * <h2>Example</h2>
+ * <pre>
+ * {@code
+ * List<Result> results = session.pipeline()
+ *         .run( "CREATE (n {name:{name}})", Values.parameters( "name", "Alice" ) )
+ *         .run( "CREATE (n {name:{name}})", Values.parameters( "name", "Bob" ) )
+ *         .sync();
+ * }
+ * </pre>
+ */
+public interface Pipeline
+{
+    /**
+     * Add a statement to this pipeline.
+     *
+     * @param statement a Neo4j statement
+     * @param parameters input data for the statement, see {@link Values#parameters(Object...)}
+     * @return this pipeline
+     */
+    Pipeline run( String statement, Map<String,Value> parameters );
+
+    /**
+     * Add a statement to this pipeline.
+     *
+     * @param statement a Neo4j statement
+     * @return this pipeline
+     */
+    Pipeline run( String statement );
+
+    /**
+     * Send all statements added to this pipeline, and wait for their results. The pipeline is empty afterwards, and
+     * can be used for another batch.
+     *
+     * @return one fully received result per statement, in the order the statements were added
+     * @throws PipelineException if a statement fails, it tells which one, and carries the results of the statements
+     * before it, which have run. The failed statement and the statements after it have not.
+     */
+    List<Result> sync();
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver;
+
+import java.util.List;
+
+/**
+ * A statement prepared for running many times with different parameter values. The statement text and parameter
+ * names are encoded for the network once, when the statement is prepared, so running it only has to encode the
+ * parameter values.
+ * <p>
+ * Prepared statements are not tied to a session or connection. They are immutable and safe to share between threads,
+ * so the usual thing to do is to prepare each statement once, up front, and keep it around.
+ * <p>
+ * <h2>Example</h2>
+ * <pre>
+ * {@code
+ * PreparedStatement createPerson = driver.prepare( "CREATE (n {name:{name}, age:{age}})", "name", "age" );
+ * ...
+ * session.run( createPerson, Values.value( "Alice" ), Values.value( 33 ) );
+ * }
+ * </pre>
+ */
+public interface PreparedStatement
+{
+    /**
+     * @return the text of the statement
+     */
+    String text();
+
+    /**
+     * @return the names of the statement parameters, in the order their values are given when it is run
+     */
+    List<String> parameterNames();
+}
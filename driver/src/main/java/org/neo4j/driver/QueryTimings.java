@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver;
+
+/**
+ * How long each phase of running a statement took, as seen from the driver. This tells apart statements that are
+ * slow in the database from statements that are slow on the network or in the driver itself.
+ * <p>
+ * All times are in nanoseconds. A phase that did not happen, such as receiving the records of a statement that
+ * failed, takes 0.
+ */
+public interface QueryTimings
+{
+    /** Time the statement spent queued in the driver before being written to the network */
+    long queueTime();
+
+    /** Time spent writing the statement, and anything sent along with it, to the network */
+    long writeTime();
+
+    /**
+     * Time from the statement being written until the first byte of the response arrived, which is the time spent
+     * on the network and in the database before it started replying
+     */
+    long serverTime();
+
+    /** Time from the first byte of the response until the database had confirmed the statement was running */
+    long runTime();
+
+    /** Time spent receiving and decoding the records of the result, until the end of the stream */
+    long streamTime();
+
+    /**
+     * Time from the end of the stream until the result was complete: building the result for buffered results, or
+     * the application consuming the remaining records for streamed results
+     */
+    long materializeTime();
+
+    /** Time from the statement being queued until the result was complete */
+    long totalTime();
+}
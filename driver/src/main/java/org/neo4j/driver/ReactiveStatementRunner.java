@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver;
+
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+
+/**
+ * Common interface for components that can execute Neo4j statements and hand back their records as a
+ * <a href="http://www.reactive-streams.org/">Reactive Streams</a> {@link Publisher}.
+ * <p>
+ * Records are only read off the network as subscribers request them. Records that have not been asked for stay in
+ * the network buffers, so a slow subscriber slows down the database sending them, rather than having them pile up in
+ * memory on the client.
+ *
+ * @see org.neo4j.driver.StatementRunner
+ * @see org.neo4j.driver.Session
+ */
+public interface ReactiveStatementRunner
+{
+    /**
+     * Run a statement and return a publisher of the records it yields.
+     * <p>
+     * The statement is sent right away, but no records are received until a subscriber requests them. The publisher
+     * allows a single subscriber, and signals {@link org.reactivestreams.Subscriber#onError(Throwable) onError} if
+     * the statement fails.
+     * <p>
+     * <h2>Example</h2>
+     * <pre>
+     * {@code
+     * Publisher<Record> records = session.runReactive( "MATCH (n) WHERE n.name = {myNameParam} RETURN (n)",
+     *                                                  Values.parameters( "myNameParam", "Bob" ) );
+     * }
+     * </pre>
+     *
+     * @param statement a Neo4j statement
+     * @param parameters input data for the statement, see {@link Values#parameters(Object...)}
+     * @return a publisher of the records the statement yields
+     */
+    Publisher<Record> runReactive( String statement, Map<String,Value> parameters );
+
+    /**
+     * Run a statement and return a publisher of the records it yields.
+     *
+     * @param statement a Neo4j statement
+     * @return a publisher of the records the statement yields
+     * @see #runReactive(String, Map)
+     */
+    Publisher<Record> runReactive( String statement );
+}
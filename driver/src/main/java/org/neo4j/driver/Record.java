@@ -41,6 +41,46 @@ public interface Record
      */
     Value get( String fieldName );
 
+    /**
+     * Retrieve the value in the specified field as a Java long. Integer fields are read without creating a
+     * {@link Value} for them, which makes this the cheapest way to read numbers out of large results.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a long
+     * @throws org.neo4j.driver.exceptions.value.Uncoercible if the field is null or can't be coerced to a long
+     */
+    long getLong( int fieldIndex );
+
+    /**
+     * Retrieve the value in the specified field as a Java double, without creating a {@link Value} for integer
+     * and float fields.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a double
+     * @throws org.neo4j.driver.exceptions.value.Uncoercible if the field is null or can't be coerced to a double
+     */
+    double getDouble( int fieldIndex );
+
+    /**
+     * Retrieve the value in the specified field as a Java boolean, without creating a {@link Value} for boolean
+     * fields.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a boolean
+     * @throws org.neo4j.driver.exceptions.value.Uncoercible if the field is null or can't be coerced to a boolean
+     */
+    boolean getBoolean( int fieldIndex );
+
+    /**
+     * Retrieve the value in the specified field as a Java String, without creating a {@link Value} for text
+     * fields.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a String
+     * @throws org.neo4j.driver.exceptions.value.Uncoercible if the field is null or can't be coerced to a String
+     */
+    String getString( int fieldIndex );
+
     /**
      * Get an ordered sequence of the field names in this result.
      *
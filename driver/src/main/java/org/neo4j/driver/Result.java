@@ -22,6 +22,9 @@ package org.neo4j.driver;
  * The result of running a statement, a stream of records. The result interface can be used to iterate over all the
  * records in the stream, and for each record to access the fields within it using the {@link #get(int) get} methods.
  * <p>
+ * Records are received from the database as you move through the result, so a result never needs to hold more than
+ * the record it currently points at, regardless of how many records the statement produces.
+ * <p>
  * Results are valid until the next statement is run or until the end of the current transaction, whichever comes
  * first.
  * <p>
@@ -34,7 +37,9 @@ public interface Result
      * Retrieve and store the entire result stream. This can be used if you want to
      * iterate over the stream multiple times or to store the whole result for later use.
      * <p>
-     * This cannot be used if you have already started iterating through the stream using {@link #next()}.
+     * Records are not kept once they have been moved past, so if you have already started iterating through the
+     * stream using {@link #next()}, the retained result starts at the record currently pointed at, and the records
+     * before it are not included.
      *
      * @return {@link org.neo4j.driver.ReusableResult}
      */
@@ -64,6 +69,45 @@ public interface Result
      */
     Value get( String fieldName );
 
+    /**
+     * From the current record the result is pointing to, retrieve the value in the specified field as a Java long.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a long
+     * @see Record#getLong(int)
+     */
+    long getLong( int fieldIndex );
+
+    /**
+     * From the current record the result is pointing to, retrieve the value in the specified field as a Java
+     * double.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a double
+     * @see Record#getDouble(int)
+     */
+    double getDouble( int fieldIndex );
+
+    /**
+     * From the current record the result is pointing to, retrieve the value in the specified field as a Java
+     * boolean.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a boolean
+     * @see Record#getBoolean(int)
+     */
+    boolean getBoolean( int fieldIndex );
+
+    /**
+     * From the current record the result is pointing to, retrieve the value in the specified field as a Java
+     * String.
+     *
+     * @param fieldIndex the field index into the current record
+     * @return the value in the specified field as a String
+     * @see Record#getString(int)
+     */
+    String getString( int fieldIndex );
+
     /**
      * Get an ordered sequence of the field names in this result.
      *
@@ -86,4 +130,14 @@ public interface Result
      * @throws org.neo4j.driver.exceptions.ClientException if the stream is empty
      */
     Record single();
+
+    /**
+     * How long each phase of running the statement took, to tell where the time went when a statement is slow.
+     * Timings are complete once the result has been fully received, which for a streamed result is when
+     * {@link #next()} has returned false, or {@link #retain()} has been called.
+     *
+     * @return the timings of this result, or null unless enabled with
+     * {@link Config.ConfigBuilder#withQueryTimingListener(org.neo4j.driver.internal.spi.QueryTimingListener)}
+     */
+    QueryTimings timings();
 }
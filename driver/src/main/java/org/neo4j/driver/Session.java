@@ -18,6 +18,9 @@
  */
 package org.neo4j.driver;
 
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
 /**
  * A live session with a Neo4j instance.
  * <p>
@@ -30,7 +33,7 @@ package org.neo4j.driver;
  * Session objects are not thread safe, if you want to run concurrent operations against the database,
  * simply create multiple sessions objects.
  */
-public interface Session extends AutoCloseable, StatementRunner
+public interface Session extends AutoCloseable, StatementRunner, ReactiveStatementRunner
 {
     /**
      * Begin a new transaction in this session. A session can have at most one transaction running at a time, if you
@@ -47,6 +50,50 @@ public interface Session extends AutoCloseable, StatementRunner
      */
     Transaction newTransaction();
 
+    /**
+     * Start a batch of statements that will be sent to the database in a single network round trip. This is useful
+     * when running many small statements over a high latency network, where waiting for the result of each statement
+     * before sending the next would dominate the time spent.
+     *
+     * @return a new, empty pipeline
+     */
+    Pipeline pipeline();
+
+    /**
+     * Run a statement without waiting for its result. The full result is received by a driver I/O thread, so a
+     * handful of threads can keep many sessions busy. The returned stage completes on a driver thread set aside for
+     * blocking work, never on the I/O thread, so whatever is chained onto it cannot hold up other sessions.
+     * <p>
+     * Should a result of a blocking run on this session not have been consumed yet, the rest of its records are
+     * received into it before the statement is sent.
+     * <p>
+     * Statements run asynchronously or reactively are carried out in the order they were submitted. Calling any of
+     * the blocking methods on this session waits for statements in flight to complete first.
+     * <p>
+     * <h2>Example</h2>
+     * <pre>
+     * {@code
+     * session.runAsync( "MATCH (n) WHERE n.name = {myNameParam} RETURN (n)",
+     *                   Values.parameters( "myNameParam", "Bob" ) )
+     *        .thenAccept( result -> ... );
+     * }
+     * </pre>
+     *
+     * @param statement a Neo4j statement
+     * @param parameters input data for the statement, see {@link Values#parameters(Object...)}
+     * @return a stage completed with the result, or completed exceptionally if the statement fails
+     */
+    CompletionStage<Result> runAsync( String statement, Map<String,Value> parameters );
+
+    /**
+     * Run a statement without waiting for its result.
+     *
+     * @param statement a Neo4j statement
+     * @return a stage completed with the result, or completed exceptionally if the statement fails
+     * @see #runAsync(String, Map)
+     */
+    CompletionStage<Result> runAsync( String statement );
+
     @Override
     void close();
 }
\ No newline at end of file
@@ -58,4 +58,23 @@ public interface StatementRunner
      */
     Result run( String statement );
 
+    /**
+     * Run a prepared statement and return a result stream. This is cheaper than running the same statement text
+     * with a map of parameters, see {@link PreparedStatement}.
+     * <p>
+     * <h2>Example</h2>
+     * <pre>
+     * {@code
+     * PreparedStatement findByName = driver.prepare( "MATCH (n) WHERE n.name = {myNameParam} RETURN (n)",
+     *                                                "myNameParam" );
+     * Result res = session.run( findByName, Values.value( "Bob" ) );
+     * }
+     * </pre>
+     *
+     * @param statement a statement prepared by {@link Driver#prepare(String, String...)}
+     * @param parameterValues the values of the statement parameters, in the order the parameters were named in
+     * @return a stream of result values and associated metadata
+     */
+    Result run( PreparedStatement statement, Value... parameterValues );
+
 }
@@ -18,6 +18,9 @@
  */
 package org.neo4j.driver;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.List;
 
 import org.neo4j.driver.internal.util.Function;
@@ -96,6 +99,16 @@ public interface Value extends Iterable<Value>
      */
     boolean javaBoolean();
 
+    /** @return the value as a copy of its bytes, if possible. */
+    byte[] javaBytes();
+
+    /**
+     * Look at the bytes of a {@link #isBytes() bytes} value without copying them. To copy the bytes into a buffer of
+     * your own, use {@link ByteBuffer#get(byte[], int, int)} or {@link ByteBuffer#put(ByteBuffer)} with it.
+     * @return a read-only buffer over the bytes, positioned at the first one, if possible.
+     */
+    ByteBuffer asByteBuffer();
+
     /**
      * @param map a function to map from Value to T. See {@link Values} for some predefined functions, such
      * as {@link Values#valueToBoolean()}, {@link Values#valueToList(Function)}.
@@ -104,6 +117,36 @@ public interface Value extends Iterable<Value>
      */
     <T> List<T> javaList( Function<Value, T> map );
 
+    /**
+     * Lists of integers are held as an array of longs, and this returns a copy of it without creating a value per
+     * element. Other lists of numbers are converted element by element. To read the integers without copying them,
+     * use {@link #asLongBuffer()}.
+     * @return the value as a new Java long array, if possible.
+     */
+    long[] asLongArray();
+
+    /**
+     * Lists of floats are held as an array of doubles, and this returns a copy of it without creating a value per
+     * element. Other lists of numbers are converted element by element. To read the floats without copying them,
+     * use {@link #asDoubleBuffer()}.
+     * @return the value as a new Java double array, if possible.
+     */
+    double[] asDoubleArray();
+
+    /**
+     * Look at the integers of a list of integers without copying them, nor creating a value per element, as
+     * {@link #get(long)} does. Other lists of numbers are converted into a new buffer.
+     * @return a read-only buffer over the integers, positioned at the first one, if possible.
+     */
+    LongBuffer asLongBuffer();
+
+    /**
+     * Look at the floats of a list of floats without copying them, nor creating a value per element, as
+     * {@link #get(long)} does. Other lists of numbers are converted into a new buffer.
+     * @return a read-only buffer over the floats, positioned at the first one, if possible.
+     */
+    DoubleBuffer asDoubleBuffer();
+
     /** @return the value as an {@link Identity}, if possible. */
     Identity asIdentity();
 
@@ -139,6 +182,8 @@ public interface Value extends Iterable<Value>
      * <p>
      * For {@link #isList() list} values, this will return the size of the list.
      * <p>
+     * For {@link #isBytes() byte array} values, this will return the number of bytes.
+     * <p>
      * For {@link #isMap() map} values, this will return the number of entries in the map.
      * <p>
      * For {@link #isNode() node} and {@link #isRelationship() relationship} values,
@@ -171,6 +216,13 @@ public interface Value extends Iterable<Value>
     /** @return if the underlying value is a Neo4j boolean */
     boolean isBoolean();
 
+    /**
+     * Byte arrays hold binary data. {@link #size()} will give you the number of bytes.
+     *
+     * @return if the underlying value is a Neo4j byte array
+     */
+    boolean isBytes();
+
     /** @return if the underlying value is a Neo4j identity */
     boolean isIdentity();
 
@@ -29,10 +29,14 @@ import java.util.Map;
 import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.util.Function;
 import org.neo4j.driver.internal.value.BooleanValue;
+import org.neo4j.driver.internal.value.BytesValue;
+import org.neo4j.driver.internal.value.DirectValue;
+import org.neo4j.driver.internal.value.DoubleListValue;
 import org.neo4j.driver.internal.value.FloatValue;
 import org.neo4j.driver.internal.value.IdentityValue;
 import org.neo4j.driver.internal.value.IntegerValue;
 import org.neo4j.driver.internal.value.ListValue;
+import org.neo4j.driver.internal.value.LongListValue;
 import org.neo4j.driver.internal.value.MapValue;
 import org.neo4j.driver.internal.value.NodeValue;
 import org.neo4j.driver.internal.value.PathValue;
@@ -71,6 +75,7 @@ public class Values
         if ( value instanceof Float ) { return value( (float) value ); }
         if ( value instanceof Double ) { return value( (double) value ); }
 
+        if ( value instanceof byte[] ) { return value( (byte[]) value ); }
         if ( value instanceof String[] ) { return value( (String[]) value ); }
         if ( value instanceof boolean[] ) { return value( (boolean[]) value ); }
         if ( value instanceof char[] ) { return value( (char[]) value ); }
@@ -83,34 +88,38 @@ public class Values
         throw new ClientException( "Unable to convert " + value.getClass().getName() + " to Neo4j Value." );
     }
 
+    /**
+     * @param val the bytes, which are copied
+     * @return a bytes value
+     */
+    public static Value value( byte[] val )
+    {
+        return new BytesValue( val.clone() );
+    }
+
     public static Value value( short[] val )
     {
-        Value[] values = new Value[val.length];
+        long[] values = new long[val.length];
         for ( int i = 0; i < val.length; i++ )
         {
-            values[i] = value( val[i] );
+            values[i] = val[i];
         }
-        return new ListValue( values );
+        return new LongListValue( values );
     }
 
     public static Value value( int[] val )
     {
-        Value[] values = new Value[val.length];
+        long[] values = new long[val.length];
         for ( int i = 0; i < val.length; i++ )
         {
-            values[i] = value( val[i] );
+            values[i] = val[i];
         }
-        return new ListValue( values );
+        return new LongListValue( values );
     }
 
     public static Value value( long[] val )
     {
-        Value[] values = new Value[val.length];
-        for ( int i = 0; i < val.length; i++ )
-        {
-            values[i] = value( val[i] );
-        }
-        return new ListValue( values );
+        return new LongListValue( val.clone() );
     }
 
     public static Value value( boolean[] val )
@@ -125,22 +134,17 @@ public class Values
 
     public static Value value( float[] val )
     {
-        Value[] values = new Value[val.length];
+        double[] values = new double[val.length];
         for ( int i = 0; i < val.length; i++ )
         {
-            values[i] = value( val[i] );
+            values[i] = val[i];
         }
-        return new ListValue( values );
+        return new DoubleListValue( values );
     }
 
     public static Value value( double[] val )
     {
-        Value[] values = new Value[val.length];
-        for ( int i = 0; i < val.length; i++ )
-        {
-            values[i] = value( val[i] );
-        }
-        return new ListValue( values );
+        return new DoubleListValue( val.clone() );
     }
 
     public static Value value( char[] val )
@@ -247,21 +251,63 @@ public class Values
      */
     public static Map<String,Value> parameters( Object... keysAndValues )
     {
-        if ( keysAndValues.length % 2 != 0 )
+        ensureKeysAndValues( keysAndValues );
+        HashMap<String,Value> map = new HashMap<>( keysAndValues.length / 2 );
+        for ( int i = 0; i < keysAndValues.length; i += 2 )
         {
-            throw new ClientException( "Parameters function requires an even number " +
-                                       "of arguments, " +
-                                       "alternating key and value. Arguments were: " +
-                                       Arrays.toString( keysAndValues ) + "." );
+            map.put( keysAndValues[i].toString(), value( keysAndValues[i + 1] ) );
         }
+        return map;
+    }
+
+    /**
+     * Wrap a Java object to be sent as a parameter as it is. Regular values are converted from Java objects up front,
+     * which for large collections means building a large tree of values just to send it. Wrapped objects are instead
+     * written straight to the network, collections and maps included, and only converted if they are used as values
+     * in some other way.
+     * <p>
+     * Besides the types {@link #value(Object)} accepts, objects of application types can be sent if an encoder is
+     * registered for them with {@link Config.ConfigBuilder#withParameterEncoder(Class, ParameterEncoder)}. The object
+     * should not be modified until the statement it is a parameter of has been sent.
+     *
+     * @param value the object to send
+     * @return a value standing in for the object, or null if it is null
+     * @see #directParameters(Object...)
+     */
+    public static Value direct( Object value )
+    {
+        if ( value == null || value instanceof Value ) { return (Value) value; }
+        return new DirectValue( value );
+    }
+
+    /**
+     * Like {@link #parameters(Object...)}, but with the values {@link #direct(Object) sent as they are}.
+     *
+     * @param keysAndValues alternating sequence of keys and values
+     * @return Map containing all parameters specified
+     */
+    public static Map<String,Value> directParameters( Object... keysAndValues )
+    {
+        ensureKeysAndValues( keysAndValues );
         HashMap<String,Value> map = new HashMap<>( keysAndValues.length / 2 );
         for ( int i = 0; i < keysAndValues.length; i += 2 )
         {
-            map.put( keysAndValues[i].toString(), value( keysAndValues[i + 1] ) );
+            map.put( keysAndValues[i].toString(), direct( keysAndValues[i + 1] ) );
         }
         return map;
     }
 
+    private static void ensureKeysAndValues( Object[] keysAndValues )
+    {
+        if ( keysAndValues.length % 2 != 0 )
+        {
+            throw new ClientException( "Parameters function requires an even number " +
+                                       "of arguments, " +
+                                       "alternating key and value. Arguments were: " +
+                                       Arrays.toString( keysAndValues ) + "." );
+        }
+    }
+
     public static Function<Value,String> valueToString()
     {
         return STRING;
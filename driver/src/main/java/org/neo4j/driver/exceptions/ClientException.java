@@ -38,4 +38,9 @@ public class ClientException extends Neo4jException
     {
         super( code, message );
     }
+
+    public ClientException( String code, String message, Throwable cause )
+    {
+        super( code, message, cause );
+    }
 }
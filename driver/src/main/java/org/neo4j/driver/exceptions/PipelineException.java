@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.exceptions;
+
+import java.util.List;
+
+import org.neo4j.driver.Result;
+
+/**
+ * A <em>PipelineException</em> indicates that a statement of a {@link org.neo4j.driver.Pipeline pipeline} failed.
+ * The statements before it ran, each in its own transaction, and their results are carried by this exception. The
+ * failed statement and the statements after it did not run.
+ * <p>
+ * The failure reported by the database is the cause of this exception, and its error code is the code of this
+ * exception.
+ */
+public class PipelineException extends Neo4jException
+{
+    private final int failedStatement;
+    private final List<Result> results;
+
+    public PipelineException( int failedStatement, List<Result> results, Neo4jException cause )
+    {
+        super( cause.neo4jErrorCode(),
+                "Statement " + failedStatement + " of the pipeline failed: " + cause.getMessage(), cause );
+        this.failedStatement = failedStatement;
+        this.results = results;
+    }
+
+    /**
+     * @return the position of the failed statement in the pipeline, starting at 0
+     */
+    public int failedStatement()
+    {
+        return failedStatement;
+    }
+
+    /**
+     * @return one fully received result per statement that ran before the failed one, in the order the statements
+     * were added
+     */
+    public List<Result> results()
+    {
+        return results;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.neo4j.driver.QueryTimings;
+import org.neo4j.driver.internal.spi.QueryTimingListener;
+
+/**
+ * Records when a statement passes through each phase of being run, as {@link System#nanoTime()} timestamps. Created
+ * by the connection when the statement is queued, and completed by the result once it has been built.
+ */
+public class QueryTimer implements QueryTimings
+{
+    private final String statement;
+    private final QueryTimingListener listener;
+
+    private final long queued;
+    private long writeStarted;
+    private long written;
+    private long responseStarted;
+    private long runCompleted;
+    private long streamCompleted;
+    private long built;
+
+    public QueryTimer( String statement, QueryTimingListener listener )
+    {
+        this.statement = statement;
+        this.listener = listener;
+        this.queued = System.nanoTime();
+    }
+
+    public void written( long started, long finished )
+    {
+        this.writeStarted = started;
+        this.written = finished;
+    }
+
+    /**
+     * The response to running the statement has been received.
+     * @param responseStarted when its first byte arrived, or 0 if that is not known
+     */
+    public void runCompleted( long responseStarted )
+    {
+        this.runCompleted = System.nanoTime();
+        // Fall back to when the response was decoded if we can't tell when it started to arrive
+        this.responseStarted = responseStarted > written ? responseStarted : runCompleted;
+    }
+
+    /** The last record of the result has been received */
+    public void streamCompleted()
+    {
+        this.streamCompleted = System.nanoTime();
+    }
+
+    /** The result is complete, report the timings unless that has already been done */
+    public void resultBuilt()
+    {
+        if ( built != 0 )
+        {
+            return;
+        }
+        built = System.nanoTime();
+        listener.completed( statement, this );
+    }
+
+    @Override
+    public long queueTime()
+    {
+        return between( queued, writeStarted );
+    }
+
+    @Override
+    public long writeTime()
+    {
+        return between( writeStarted, written );
+    }
+
+    @Override
+    public long serverTime()
+    {
+        return between( written, responseStarted );
+    }
+
+    @Override
+    public long runTime()
+    {
+        return between( responseStarted, runCompleted );
+    }
+
+    @Override
+    public long streamTime()
+    {
+        return between( runCompleted, streamCompleted );
+    }
+
+    @Override
+    public long materializeTime()
+    {
+        return between( streamCompleted, built );
+    }
+
+    @Override
+    public long totalTime()
+    {
+        return between( queued, built );
+    }
+
+    private static long between( long from, long to )
+    {
+        return from == 0 || to == 0 ? 0 : to - from;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "QueryTimings{queue=%d, write=%d, server=%d, run=%d, stream=%d, materialize=%d, " +
+                              "total=%d}", queueTime(), writeTime(), serverTime(), runTime(), streamTime(),
+                materializeTime(), totalTime() );
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.value.Uncoercible;
+
+import static org.neo4j.driver.Values.value;
+
+/**
+ * The fields of a single record, as they come off the wire.
+ * <p>
+ * Integers, floats and booleans are kept in a primitive array and strings are kept as they are, so that reading them
+ * through the typed getters of {@link org.neo4j.driver.Record} does not create a {@link Value} for every field.
+ * Those fields only get a value object when {@link #get(int)} first asks for one, which is kept aside for later
+ * accesses, the field itself is left as it is so that the typed getters keep reading it directly.
+ * <p>
+ * Once filled in, the fields are safe to read from several threads.
+ * <p>
+ * Fields may also be kept {@link #setDeferred(int, int) deferred}, as an offset into the encoded bytes of the record,
+ * so that lists, maps and graph structures are not decoded at all unless they are asked for.
+ */
+public class RecordFields
+{
+    private static final byte NULL = 0;
+    private static final byte VALUE = 1;
+    private static final byte INTEGER = 2;
+    private static final byte FLOAT = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte TEXT = 5;
+    private static final byte DEFERRED = 6;
+
+    /** Decodes deferred fields, given the encoded fields of a record and the offset of the one to decode */
+    public interface Decoder
+    {
+        Value decode( byte[] encoded, int offset ) throws IOException;
+    }
+
+    private final byte[] types;
+    /** Integers, floats as raw long bits and booleans as 0 or 1, allocated with the first such field */
+    private long[] primitives;
+    /** Strings and values, allocated with the first such field */
+    private Object[] references;
+    /** Values made for integer, float, boolean and text fields, guarded by this, allocated on the first {@link #get} */
+    private Value[] made;
+
+    /** The encoded deferred fields, released once they have all been decoded */
+    private byte[] encoded;
+    private Decoder decoder;
+    private int undecoded;
+
+    public static RecordFields of( Value... values )
+    {
+        RecordFields fields = new RecordFields( values.length );
+        for ( int i = 0; i < values.length; i++ )
+        {
+            fields.setValue( i, values[i] );
+        }
+        return fields;
+    }
+
+    public RecordFields( int size )
+    {
+        this.types = new byte[size];
+    }
+
+    public int size()
+    {
+        return types.length;
+    }
+
+    public void setNull( int index )
+    {
+        types[index] = NULL;
+    }
+
+    public void setInteger( int index, long value )
+    {
+        setPrimitive( index, INTEGER, value );
+    }
+
+    public void setFloat( int index, double value )
+    {
+        setPrimitive( index, FLOAT, Double.doubleToRawLongBits( value ) );
+    }
+
+    public void setBoolean( int index, boolean value )
+    {
+        setPrimitive( index, BOOLEAN, value ? 1 : 0 );
+    }
+
+    public void setText( int index, String value )
+    {
+        setReference( index, value == null ? NULL : TEXT, value );
+    }
+
+    public void setValue( int index, Value value )
+    {
+        setReference( index, value == null ? NULL : VALUE, value );
+    }
+
+    /**
+     * Mark a field as deferred, to be decoded on first access from the given offset into the encoded bytes set with
+     * {@link #setEncoded(byte[], Decoder)}.
+     */
+    public void setDeferred( int index, int offset )
+    {
+        setPrimitive( index, DEFERRED, offset );
+        undecoded++;
+    }
+
+    /**
+     * Provide the encoded bytes that deferred fields are decoded from, and the decoder to do it with.
+     */
+    public void setEncoded( byte[] encoded, Decoder decoder )
+    {
+        this.encoded = encoded;
+        this.decoder = decoder;
+    }
+
+    /**
+     * @return the field as a value, or null if the field is null
+     */
+    public Value get( int index )
+    {
+        switch ( types[index] )
+        {
+        case INTEGER:
+        case FLOAT:
+        case BOOLEAN:
+        case TEXT: return made( index );
+        case VALUE: return (Value) references[index];
+        case DEFERRED: return decode( index );
+        default: return null;
+        }
+    }
+
+    /** The value of a scalar field, made on first access and kept, so that later accesses return the same one */
+    private synchronized Value made( int index )
+    {
+        if ( made == null )
+        {
+            made = new Value[types.length];
+        }
+        Value field = made[index];
+        if ( field == null )
+        {
+            switch ( types[index] )
+            {
+            case INTEGER: field = value( primitives[index] ); break;
+            case FLOAT: field = value( Double.longBitsToDouble( primitives[index] ) ); break;
+            case BOOLEAN: field = value( primitives[index] != 0 ); break;
+            default: field = value( (String) references[index] ); break;
+            }
+            made[index] = field;
+        }
+        return field;
+    }
+
+    public long getLong( int index )
+    {
+        if ( types[index] == INTEGER )
+        {
+            return primitives[index];
+        }
+        return nonNull( index, "Java long" ).javaLong();
+    }
+
+    public double getDouble( int index )
+    {
+        if ( types[index] == FLOAT )
+        {
+            return Double.longBitsToDouble( primitives[index] );
+        }
+        if ( types[index] == INTEGER )
+        {
+            return (double) primitives[index];
+        }
+        return nonNull( index, "Java double" ).javaDouble();
+    }
+
+    public boolean getBoolean( int index )
+    {
+        if ( types[index] == BOOLEAN )
+        {
+            return primitives[index] != 0;
+        }
+        return nonNull( index, "Java boolean" ).javaBoolean();
+    }
+
+    public String getString( int index )
+    {
+        if ( types[index] == TEXT )
+        {
+            return (String) references[index];
+        }
+        return nonNull( index, "Java String" ).javaString();
+    }
+
+    public Value[] toArray()
+    {
+        Value[] values = new Value[types.length];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[i] = get( i );
+        }
+        return values;
+    }
+
+    private void setPrimitive( int index, byte type, long bits )
+    {
+        if ( primitives == null )
+        {
+            primitives = new long[types.length];
+        }
+        types[index] = type;
+        primitives[index] = bits;
+    }
+
+    private void setReference( int index, byte type, Object reference )
+    {
+        if ( references == null )
+        {
+            references = new Object[types.length];
+        }
+        types[index] = type;
+        references[index] = reference;
+    }
+
+    private synchronized Value decode( int index )
+    {
+        if ( references == null )
+        {
+            references = new Object[types.length];
+        }
+        if ( references[index] == null )
+        {
+            try
+            {
+                references[index] = decoder.decode( encoded, (int) primitives[index] );
+            }
+            catch ( IOException e )
+            {
+                throw new ClientException( "Unable to decode field " + index + " of record: " + e.getMessage(), e );
+            }
+            if ( --undecoded == 0 )
+            {
+                encoded = null;
+                decoder = null;
+            }
+        }
+        return (Value) references[index];
+    }
+
+    private Value nonNull( int index, String destinationTypeName )
+    {
+        Value value = get( index );
+        if ( value == null )
+        {
+            throw new Uncoercible( "null", destinationTypeName );
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        return Arrays.equals( toArray(), ((RecordFields) o).toArray() );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode( toArray() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString( toArray() );
+    }
+}
@@ -26,13 +26,15 @@ import java.util.Map;
 
 import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
-import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.Neo4jException;
 import org.neo4j.driver.internal.spi.StreamCollector;
 
 public class ResultBuilder implements StreamCollector
 {
     private List<Record> body = new ArrayList<>();
     private Map<String,Integer> fieldLookup = Collections.EMPTY_MAP;
+    private QueryTimer timer;
+    private boolean failed;
 
     @Override
     public void fieldNames( String[] names )
@@ -53,14 +55,50 @@ public class ResultBuilder implements StreamCollector
     }
 
     @Override
-    public void record( Value[] fields )
+    public void record( RecordFields fields )
     {
         body.add( new SimpleRecord( fieldLookup, fields ) );
     }
 
+    @Override
+    public boolean wantsRecords()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean failure( Neo4jException error )
+    {
+        // reported by the sync the result is built after
+        failed = true;
+        return false;
+    }
+
+    @Override
+    public void done()
+    {
+        // nothing to do, the result is built on demand
+    }
+
+    @Override
+    public void timed( QueryTimer timer )
+    {
+        this.timer = timer;
+    }
+
+    /** Whether the statement of this result failed, or was ignored because of an earlier failure */
+    public boolean failed()
+    {
+        return failed;
+    }
+
     public Result build()
     {
-        return new SimpleResult( fieldLookup.keySet(), body );
+        if ( timer != null )
+        {
+            timer.resultBuilt();
+        }
+        return new SimpleResult( fieldLookup.keySet(), body, timer );
     }
 
 }
@@ -18,7 +18,6 @@
  */
 package org.neo4j.driver.internal;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,7 +27,7 @@ import org.neo4j.driver.Value;
 public class SimpleRecord implements Record
 {
     private final Map<String,Integer> fieldLookup;
-    private final Value[] fields;
+    private final RecordFields fields;
 
     public static Record record( Object... alternatingFieldNameValue )
     {
@@ -43,6 +42,11 @@ public class SimpleRecord implements Record
     }
 
     public SimpleRecord( Map<String,Integer> fieldLookup, Value[] fields )
+    {
+        this( fieldLookup, RecordFields.of( fields ) );
+    }
+
+    public SimpleRecord( Map<String,Integer> fieldLookup, RecordFields fields )
     {
         this.fieldLookup = fieldLookup;
         this.fields = fields;
@@ -51,7 +55,31 @@ public class SimpleRecord implements Record
     @Override
     public Value get( int fieldIndex )
     {
-        return fields[fieldIndex];
+        return fields.get( fieldIndex );
+    }
+
+    @Override
+    public long getLong( int fieldIndex )
+    {
+        return fields.getLong( fieldIndex );
+    }
+
+    @Override
+    public double getDouble( int fieldIndex )
+    {
+        return fields.getDouble( fieldIndex );
+    }
+
+    @Override
+    public boolean getBoolean( int fieldIndex )
+    {
+        return fields.getBoolean( fieldIndex );
+    }
+
+    @Override
+    public String getString( int fieldIndex )
+    {
+        return fields.getString( fieldIndex );
     }
 
     @Override
@@ -65,7 +93,7 @@ public class SimpleRecord implements Record
         }
         else
         {
-            return fields[fieldIndex];
+            return fields.get( fieldIndex );
         }
     }
 
@@ -93,7 +121,7 @@ public class SimpleRecord implements Record
         {
             return false;
         }
-        if ( !Arrays.equals( fields, that.fields ) )
+        if ( !fields.equals( that.fields ) )
         {
             return false;
         }
@@ -105,7 +133,7 @@ public class SimpleRecord implements Record
     public int hashCode()
     {
         int result = fieldLookup.hashCode();
-        result = 31 * result + Arrays.hashCode( fields );
+        result = 31 * result + fields.hashCode();
         return result;
     }
 }
@@ -21,6 +21,7 @@ package org.neo4j.driver.internal;
 import java.util.Iterator;
 import java.util.List;
 
+import org.neo4j.driver.QueryTimings;
 import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.ReusableResult;
@@ -32,13 +33,26 @@ public class SimpleResult implements Result
     private final Iterable<String> fieldNames;
     private final List<Record> body;
     private final Iterator<Record> iter;
+    private final QueryTimings timings;
     private Record current;
 
     public SimpleResult( Iterable<String> fieldNames, List<Record> body )
+    {
+        this( fieldNames, body, null );
+    }
+
+    public SimpleResult( Iterable<String> fieldNames, List<Record> body, QueryTimings timings )
     {
         this.fieldNames = fieldNames;
         this.body = body;
         this.iter = body.iterator();
+        this.timings = timings;
+    }
+
+    @Override
+    public QueryTimings timings()
+    {
+        return timings;
     }
 
     @Override
@@ -73,6 +87,30 @@ public class SimpleResult implements Result
         return current.get( fieldIndex );
     }
 
+    @Override
+    public long getLong( int fieldIndex )
+    {
+        return current.getLong( fieldIndex );
+    }
+
+    @Override
+    public double getDouble( int fieldIndex )
+    {
+        return current.getDouble( fieldIndex );
+    }
+
+    @Override
+    public boolean getBoolean( int fieldIndex )
+    {
+        return current.getBoolean( fieldIndex );
+    }
+
+    @Override
+    public String getString( int fieldIndex )
+    {
+        return current.getString( fieldIndex );
+    }
+
     @Override
     public Value get( String fieldName )
     {
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.Pipeline;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.exceptions.PipelineException;
+import org.neo4j.driver.internal.spi.Connection;
+
+import static org.neo4j.driver.internal.StandardSession.NO_PARAMETERS;
+
+public class StandardPipeline implements Pipeline
+{
+    private final Connection connection;
+
+    /** Called before the batch is sent, to make sure the connection is ours to use */
+    private final Runnable beforeSync;
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<Map<String,Value>> parameters = new ArrayList<>();
+
+    public StandardPipeline( Connection connection, Runnable beforeSync )
+    {
+        this.connection = connection;
+        this.beforeSync = beforeSync;
+    }
+
+    @Override
+    public Pipeline run( String statement, Map<String,Value> parameters )
+    {
+        this.statements.add( statement );
+        this.parameters.add( parameters );
+        return this;
+    }
+
+    @Override
+    public Pipeline run( String statement )
+    {
+        return run( statement, NO_PARAMETERS );
+    }
+
+    @Override
+    public List<Result> sync()
+    {
+        beforeSync.run();
+
+        List<ResultBuilder> builders = new ArrayList<>( statements.size() );
+        try
+        {
+            for ( int i = 0; i < statements.size(); i++ )
+            {
+                ResultBuilder builder = new ResultBuilder();
+                connection.run( statements.get( i ), parameters.get( i ), builder );
+                connection.pullAll( builder );
+                builders.add( builder );
+            }
+        }
+        finally
+        {
+            statements.clear();
+            parameters.clear();
+        }
+
+        // All messages go out in a single flush, and responses are handed to the builders in the order they arrive
+        try
+        {
+            connection.sync();
+        }
+        catch ( Neo4jException e )
+        {
+            // The statements before the first one failed or ignored have run, and the caller needs to know which
+            int failed = 0;
+            while ( failed < builders.size() && !builders.get( failed ).failed() )
+            {
+                failed++;
+            }
+            if ( failed == builders.size() )
+            {
+                // Not failed by the database, so there is no telling which statements ran
+                throw e;
+            }
+            throw new PipelineException( failed, build( builders.subList( 0, failed ) ), e );
+        }
+        return build( builders );
+    }
+
+    private static List<Result> build( List<ResultBuilder> builders )
+    {
+        List<Result> results = new ArrayList<>( builders.size() );
+        for ( ResultBuilder builder : builders )
+        {
+            results.add( builder.build() );
+        }
+        return results;
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.neo4j.driver.PreparedStatement;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.packstream.ByteArrayOutput;
+import org.neo4j.driver.internal.packstream.PackStream;
+
+import static java.util.Collections.unmodifiableList;
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.MSG_RUN;
+
+/**
+ * A statement with its RUN message encoded up to, but not including, the parameter values. The encoding is made of
+ * a prefix, which holds the message header, the statement text and the parameter map header, and one encoded key
+ * per parameter. Writing the message is then a matter of copying these out with the values in between.
+ */
+public class StandardPreparedStatement implements PreparedStatement
+{
+    private final String text;
+    private final List<String> parameterNames;
+    private final byte[] encodedPrefix;
+    private final byte[][] encodedKeys;
+
+    public StandardPreparedStatement( String text, String... parameterNames )
+    {
+        Set<String> distinct = new HashSet<>( Arrays.asList( parameterNames ) );
+        if ( distinct.contains( null ) || distinct.size() != parameterNames.length )
+        {
+            throw new ClientException( "Parameter names of a prepared statement must be given, and be distinct, " +
+                                       "but got " + Arrays.toString( parameterNames ) + "." );
+        }
+
+        this.text = text;
+        this.parameterNames = unmodifiableList( Arrays.asList( parameterNames.clone() ) );
+        this.encodedKeys = new byte[parameterNames.length][];
+        try
+        {
+            ByteArrayOutput output = new ByteArrayOutput( 128 );
+            PackStream.Packer packer = new PackStream.Packer( output );
+            packer.packStructHeader( 2, MSG_RUN );
+            packer.pack( text );
+            packer.packMapHeader( parameterNames.length );
+            this.encodedPrefix = output.toByteArray();
+            for ( int i = 0; i < parameterNames.length; i++ )
+            {
+                output.reset();
+                packer.pack( parameterNames[i] );
+                encodedKeys[i] = output.toByteArray();
+            }
+        }
+        catch ( IOException e )
+        {
+            // Writing to memory doesn't fail
+            throw new ClientException( "Unable to encode statement: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * @throws ClientException if the statement wasn't prepared by this driver
+     */
+    public static StandardPreparedStatement of( PreparedStatement statement )
+    {
+        if ( !(statement instanceof StandardPreparedStatement) )
+        {
+            throw new ClientException( "Only statements prepared by the driver can be run as prepared statements, " +
+                                       "please use Driver#prepare to prepare them." );
+        }
+        return (StandardPreparedStatement) statement;
+    }
+
+    @Override
+    public String text()
+    {
+        return text;
+    }
+
+    @Override
+    public List<String> parameterNames()
+    {
+        return parameterNames;
+    }
+
+    /** The RUN message up to the first parameter key */
+    public byte[] encodedPrefix()
+    {
+        return encodedPrefix;
+    }
+
+    /** The key of the parameter at the given position */
+    public byte[] encodedKey( int index )
+    {
+        return encodedKeys[index];
+    }
+
+    /**
+     * @throws ClientException if the number of values doesn't match the number of parameters
+     */
+    public void ensureMatches( Value[] parameterValues )
+    {
+        if ( parameterValues.length != encodedKeys.length )
+        {
+            throw new ClientException( String.format(
+                    "Statement takes %d parameters %s, but %d values were given.",
+                    encodedKeys.length, parameterNames, parameterValues.length ) );
+        }
+    }
+
+    /** Pair the parameter names up with the given values, the way they'd be given to an unprepared statement */
+    public Map<String,Value> parameters( Value[] parameterValues )
+    {
+        Map<String,Value> parameters = new LinkedHashMap<>( parameterValues.length * 2 );
+        for ( int i = 0; i < parameterValues.length; i++ )
+        {
+            parameters.put( parameterNames.get( i ), parameterValues[i] );
+        }
+        return parameters;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PreparedStatement{text='" + text + "', parameterNames=" + parameterNames + '}';
+    }
+}
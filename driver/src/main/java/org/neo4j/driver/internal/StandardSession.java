@@ -20,20 +20,52 @@ package org.neo4j.driver.internal;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+import org.neo4j.driver.Pipeline;
+import org.neo4j.driver.PreparedStatement;
+import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.Transaction;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.connector.socket.SocketEventLoop;
 import org.neo4j.driver.internal.spi.Connection;
+import org.reactivestreams.Publisher;
 
 public class StandardSession implements Session
 {
     public static final Map<String,Value> NO_PARAMETERS = new HashMap<>();
 
+    /** Failures in auto-commit statements need no cleanup on the session side */
+    private static final Runnable NO_OP = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+        }
+    };
+
     private final Connection connection;
 
+    /** Provides the {@link #executor}, null if the session was given one to begin with */
+    private final SocketEventLoop eventLoop;
+
+    /**
+     * Where statements run asynchronously are sent, and their results completed or records delivered, off the I/O
+     * thread. Only asked of the event loop once a statement is run asynchronously, so that sessions running statements
+     * synchronously never start its threads.
+     */
+    private Executor executor;
+
     /** Called when a transaction object is closed */
     private final Runnable txCleanup = new Runnable()
     {
@@ -44,23 +76,119 @@ public class StandardSession implements Session
         }
     };
 
+    /** Called before a pipeline sends its statements */
+    private final Runnable beforePipelineSync = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            ensureNoOpenTransaction();
+            awaitInFlight();
+            receiveLastResult();
+        }
+    };
+
     private Transaction currentTransaction;
 
-    public StandardSession( Connection connection )
+    /** The last statement run outside a transaction, its records may not all have been read yet */
+    private StreamingResult lastResult;
+
+    /** The last statement run asynchronously, later statements are sent once it has completed */
+    private CompletableFuture<?> inFlight;
+
+    /** The last statement run reactively, it owns the connection until something else needs it */
+    private StreamingPublisher activePublisher;
+
+    public StandardSession( Connection connection, SocketEventLoop eventLoop )
     {
         this.connection = connection;
+        this.eventLoop = eventLoop;
+    }
+
+    public StandardSession( Connection connection, Executor executor )
+    {
+        this.connection = connection;
+        this.eventLoop = null;
+        this.executor = executor;
     }
 
     @Override
     public Result run( String statement, Map<String,Value> parameters )
     {
         ensureNoOpenTransaction();
-        ResultBuilder resultBuilder = new ResultBuilder();
-        CombinedResultBuilder combinedResultBuilder = new CombinedResultBuilder( resultBuilder );
-        connection.run( statement, parameters, resultBuilder );
-        connection.pullAll( combinedResultBuilder );
-        connection.sync();
-        return combinedResultBuilder.build();
+        awaitInFlight();
+        receiveLastResult();
+        return lastResult = StreamingResult.run( connection, statement, parameters, NO_OP );
+    }
+
+    @Override
+    public CompletionStage<Result> runAsync( final String statement, final Map<String,Value> parameters )
+    {
+        ensureNoOpenTransaction();
+        // Blocking results are only run once the connection is free, so nothing else is receiving meanwhile
+        receiveLastResult();
+        CompletableFuture<?> previous = releaseConnection();
+        CompletableFuture<Result> result;
+        if ( previous == null || previous.isDone() )
+        {
+            result = send( statement, parameters );
+        }
+        else
+        {
+            // The connection belongs to the I/O thread until the previous statement completes, so queue up
+            // behind it regardless of how it turned out. The previous statement completes on the I/O thread, which
+            // must not be held up sending this one.
+            result = previous.handle( new BiFunction<Object,Throwable,Void>()
+            {
+                @Override
+                public Void apply( Object ignore, Throwable error )
+                {
+                    return null;
+                }
+            } ).thenComposeAsync( new Function<Void,CompletionStage<Result>>()
+            {
+                @Override
+                public CompletionStage<Result> apply( Void ignore )
+                {
+                    return send( statement, parameters );
+                }
+            }, executor() );
+        }
+        inFlight = result;
+        return result;
+    }
+
+    @Override
+    public CompletionStage<Result> runAsync( String statement )
+    {
+        return runAsync( statement, NO_PARAMETERS );
+    }
+
+    private CompletableFuture<Result> send( String statement, Map<String,Value> parameters )
+    {
+        final ResultBuilder builder = new ResultBuilder();
+        try
+        {
+            // Nothing is sent if the driver is closed, and so can no longer complete the result
+            Executor executor = executor();
+            connection.run( statement, parameters, builder );
+            connection.pullAll( builder );
+            // Completed off the I/O thread, whatever the application chains onto the result runs there
+            return connection.syncAsync().thenApplyAsync( new Function<Void,Result>()
+            {
+                @Override
+                public Result apply( Void ignore )
+                {
+                    return builder.build();
+                }
+            }, executor ).toCompletableFuture();
+        }
+        catch ( RuntimeException e )
+        {
+            CompletableFuture<Result> failed = new CompletableFuture<>();
+            failed.completeExceptionally( e );
+            return failed;
+        }
     }
 
     @Override
@@ -69,9 +197,37 @@ public class StandardSession implements Session
         return run( statement, NO_PARAMETERS );
     }
 
+    @Override
+    public Result run( PreparedStatement statement, Value... parameterValues )
+    {
+        ensureNoOpenTransaction();
+        awaitInFlight();
+        receiveLastResult();
+        return lastResult =
+                StreamingResult.run( connection, StandardPreparedStatement.of( statement ), parameterValues, NO_OP );
+    }
+
+    @Override
+    public Publisher<Record> runReactive( String statement, Map<String,Value> parameters )
+    {
+        ensureNoOpenTransaction();
+        receiveLastResult();
+        CompletableFuture<?> previous = releaseConnection();
+        activePublisher = StreamingPublisher.run( connection, statement, parameters,
+                previous == null ? CompletableFuture.completedFuture( null ) : previous, executor() );
+        return activePublisher;
+    }
+
+    @Override
+    public Publisher<Record> runReactive( String statement )
+    {
+        return runReactive( statement, NO_PARAMETERS );
+    }
+
     @Override
     public void close()
     {
+        awaitInFlight();
         if ( currentTransaction != null )
         {
             try
@@ -83,16 +239,118 @@ public class StandardSession implements Session
                 // Best-effort
             }
         }
+        if ( lastResult != null )
+        {
+            lastResult.abandon();
+            lastResult = null;
+        }
+        discardOutstanding();
         connection.close();
     }
 
+    /**
+     * Receive the rest of the responses to what was sent on the connection, so that the next session to use it starts
+     * afresh. Records of abandoned results are skipped over, and their failures are of no interest to anyone anymore.
+     * The streams of detached publishers are received into them, for their subscribers to carry on with.
+     */
+    private void discardOutstanding()
+    {
+        try
+        {
+            connection.sync();
+        }
+        catch ( Neo4jException e )
+        {
+            try
+            {
+                // Have the failure acknowledged, so the server accepts statements from the next session
+                connection.sync();
+            }
+            catch ( Neo4jException again )
+            {
+                // The pool disposes of connections that are beyond repair
+            }
+        }
+    }
+
+    @Override
+    public Pipeline pipeline()
+    {
+        return new StandardPipeline( connection, beforePipelineSync );
+    }
+
     @Override
     public Transaction newTransaction()
     {
         ensureNoOpenTransaction();
+        awaitInFlight();
+        receiveLastResult();
         return currentTransaction = new StandardTransaction( connection, txCleanup );
     }
 
+    /**
+     * Take the connection back from statements run asynchronously or reactively, so that it can be used for something
+     * else. Publishers are detached, the rest of their records will be received by the next user of the connection.
+     *
+     * @return a future completed once the connection is free, or null if it already is
+     */
+    private CompletableFuture<?> releaseConnection()
+    {
+        CompletableFuture<?> free = inFlight;
+        if ( activePublisher != null )
+        {
+            // A publisher is always sent after the statements before it, so it is the last one to free the connection
+            free = activePublisher.detach();
+            activePublisher = null;
+        }
+        inFlight = null;
+        return free;
+    }
+
+    /**
+     * Wait for statements run asynchronously or reactively to let go of the connection, so that it can be used from
+     * this thread again. Their failures have already been reported to whoever ran them.
+     */
+    private void awaitInFlight()
+    {
+        CompletableFuture<?> free = releaseConnection();
+        if ( free != null )
+        {
+            try
+            {
+                free.join();
+            }
+            catch ( CompletionException | CancellationException e )
+            {
+                // Reported to whoever ran the statement
+            }
+        }
+    }
+
+    /**
+     * Receive the rest of the last result into memory before the connection is used for anything else. Should its
+     * statement fail, the failure is then acknowledged ahead of the next statement, rather than the server ignoring
+     * that one, and is reported by the result it belongs to.
+     */
+    private void receiveLastResult()
+    {
+        if ( lastResult != null )
+        {
+            StreamingResult result = lastResult;
+            lastResult = null;
+            result.receiveRemaining();
+        }
+    }
+
+    private Executor executor()
+    {
+        if ( executor == null )
+        {
+            executor = eventLoop.blockingExecutor();
+        }
+        return executor;
+    }
+
     private void ensureNoOpenTransaction()
     {
         if ( currentTransaction != null )
@@ -20,6 +20,7 @@ package org.neo4j.driver.internal;
 
 import java.util.Map;
 
+import org.neo4j.driver.PreparedStatement;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.Transaction;
 import org.neo4j.driver.Value;
@@ -54,6 +55,19 @@ public class StandardTransaction implements Transaction
 
     private State state = State.ACTIVE;
 
+    /** The last statement run, its records may not all have been read yet */
+    private StreamingResult lastResult;
+
+    /** Called when a statement fails while its result is being streamed */
+    private final Runnable markFailed = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            state = State.FAILED;
+        }
+    };
+
     public StandardTransaction( Connection conn, Runnable cleanup )
     {
         this.conn = conn;
@@ -87,6 +101,9 @@ public class StandardTransaction implements Transaction
     {
         try
         {
+            // A statement that fails while its records are still arriving fails the transaction, which must not be
+            // committed then
+            receiveLastResult();
             if ( state == State.MARKED_SUCCESS )
             {
                 conn.run( "COMMIT", EMPTY_MAP, null );
@@ -111,15 +128,12 @@ public class StandardTransaction implements Transaction
     @SuppressWarnings( "unchecked" )
     public Result run( String statement, Map<String,Value> parameters )
     {
+        receiveLastResult();
         ensureNotFailed();
 
         try
         {
-            ResultBuilder resultBuilder = new ResultBuilder();
-            conn.run( statement, parameters, resultBuilder );
-            conn.pullAll( resultBuilder );
-            conn.sync();
-            return resultBuilder.build();
+            return lastResult = StreamingResult.run( conn, statement, parameters, markFailed );
         }
         catch ( Neo4jException e )
         {
@@ -134,6 +148,43 @@ public class StandardTransaction implements Transaction
         return run( statement, EMPTY_MAP );
     }
 
+    @Override
+    public Result run( PreparedStatement statement, Value... parameterValues )
+    {
+        receiveLastResult();
+        ensureNotFailed();
+
+        try
+        {
+            return lastResult =
+                    StreamingResult.run( conn, StandardPreparedStatement.of( statement ), parameterValues, markFailed );
+        }
+        catch ( Neo4jException e )
+        {
+            state = State.FAILED;
+            throw e;
+        }
+    }
+
+    /** Receive the rest of the last result into memory, to know whether its statement failed before going on */
+    private void receiveLastResult()
+    {
+        if ( lastResult != null )
+        {
+            StreamingResult result = lastResult;
+            lastResult = null;
+            try
+            {
+                result.receiveRemaining();
+            }
+            catch ( Neo4jException e )
+            {
+                state = State.FAILED;
+                throw e;
+            }
+        }
+    }
+
     private void ensureNotFailed()
     {
         if ( state == State.FAILED )
@@ -0,0 +1,509 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * A publisher that receives records off the connection as its subscriber requests them. Each request is turned into
+ * a bounded receive on the connection, so records nobody has asked for yet stay in the network buffers.
+ * <p>
+ * Like {@link StreamingResult}, records only pile up in memory if something else needs the connection before the
+ * stream has been fully consumed. The publisher is then {@link #detach() detached}, and the remainder of the stream
+ * is received into it by whoever uses the connection next.
+ * <p>
+ * Signals are delivered to the subscriber on the executor the publisher is given, never on the I/O thread, which
+ * would otherwise be held up by whatever the subscriber does with them.
+ */
+public class StreamingPublisher implements Publisher<Record>
+{
+    /** Upper bound on messages received per hand-off to the I/O thread, to keep individual receives short */
+    private static final int MAX_BATCH = 1000;
+
+    private static final Subscription REJECTED = new Subscription()
+    {
+        @Override
+        public void request( long n )
+        {
+        }
+
+        @Override
+        public void cancel()
+        {
+        }
+    };
+
+    private final Connection connection;
+
+    /** Where signals are delivered to the subscriber, and the statement is sent if it has to wait for others */
+    private final Executor executor;
+
+    /** Completes once the statement has been handed to the connection */
+    private CompletableFuture<Void> sent;
+
+    // All fields below are guarded by this publisher, they are updated from the I/O thread as records arrive
+
+    private final Queue<Record> received = new LinkedList<>();
+    private Map<String,Integer> fieldLookup = Collections.emptyMap();
+    private boolean pullAllCompleted = false;
+    private Throwable failure;
+
+    /** The receive in progress, if any */
+    private CompletableFuture<Void> receiving;
+
+    /** Set once the connection is needed elsewhere, from then on this publisher does not receive by itself */
+    private boolean detached = false;
+
+    private StreamSubscription subscription;
+
+    /** Set while a thread is handing records to the subscriber, so signals are never delivered concurrently */
+    private boolean delivering = false;
+
+    /** Set while a delivery is waiting for the executor, so records arriving meanwhile need not schedule another */
+    private boolean deliveryScheduled = false;
+
+    private final Runnable scheduledDelivery = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            synchronized ( StreamingPublisher.this )
+            {
+                deliveryScheduled = false;
+            }
+            deliver();
+        }
+    };
+
+    private QueryTimer timer;
+
+    private final StreamCollector runCollector = new StreamCollector()
+    {
+        @Override
+        public void fieldNames( String[] names )
+        {
+            Map<String,Integer> fieldLookup = new HashMap<>();
+            for ( int i = 0; i < names.length; i++ )
+            {
+                fieldLookup.put( names[i], i );
+            }
+            synchronized ( StreamingPublisher.this )
+            {
+                StreamingPublisher.this.fieldLookup = fieldLookup;
+            }
+        }
+
+        @Override
+        public void record( RecordFields fields )
+        {
+            throw new IllegalStateException( "Records are not expected in response to RUN" );
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean failure( Neo4jException error )
+        {
+            return failed( error );
+        }
+
+        @Override
+        public void done()
+        {
+            // records are sent in response to PULL_ALL
+        }
+
+        @Override
+        public void timed( QueryTimer timer )
+        {
+            synchronized ( StreamingPublisher.this )
+            {
+                StreamingPublisher.this.timer = timer;
+            }
+        }
+    };
+
+    private final StreamCollector pullAllCollector = new StreamCollector()
+    {
+        @Override
+        public void fieldNames( String[] names )
+        {
+            // field names are given in response to RUN
+        }
+
+        @Override
+        public void record( RecordFields fields )
+        {
+            synchronized ( StreamingPublisher.this )
+            {
+                if ( subscription != null && subscription.cancelled )
+                {
+                    // Nobody is interested in the rest of the stream, it is only being received to free the connection
+                    return;
+                }
+                received.add( new SimpleRecord( fieldLookup, fields ) );
+            }
+            deliverIfDetached();
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            synchronized ( StreamingPublisher.this )
+            {
+                return subscription == null || !subscription.cancelled;
+            }
+        }
+
+        @Override
+        public boolean failure( Neo4jException error )
+        {
+            return failed( error );
+        }
+
+        @Override
+        public void done()
+        {
+            synchronized ( StreamingPublisher.this )
+            {
+                pullAllCompleted = true;
+            }
+            deliverIfDetached();
+        }
+
+        @Override
+        public void timed( QueryTimer timer )
+        {
+            // timed along with RUN
+        }
+    };
+
+    /**
+     * Queue a statement on the connection once it is free, and return a publisher for the records it yields.
+     *
+     * @param connectionFree completes once statements run before this one no longer use the connection, regardless of
+     * whether they succeeded
+     * @param executor where signals are delivered to the subscriber
+     */
+    public static StreamingPublisher run( Connection connection, final String statement,
+            final Map<String,Value> parameters, CompletionStage<?> connectionFree, Executor executor )
+    {
+        final StreamingPublisher publisher = new StreamingPublisher( connection, executor );
+        BiFunction<Object,Throwable,Void> send = new BiFunction<Object,Throwable,Void>()
+        {
+            @Override
+            public Void apply( Object ignore, Throwable previousFailure )
+            {
+                publisher.send( statement, parameters );
+                return null;
+            }
+        };
+        CompletableFuture<?> free = connectionFree.toCompletableFuture();
+        // Statements before this one complete on the I/O thread, which must not be held up sending this one
+        publisher.sent = free.isDone() ? free.handle( send ) : free.handleAsync( send, executor );
+        return publisher;
+    }
+
+    private StreamingPublisher( Connection connection, Executor executor )
+    {
+        this.connection = connection;
+        this.executor = executor;
+    }
+
+    private void send( String statement, Map<String,Value> parameters )
+    {
+        connection.run( statement, parameters, runCollector );
+        connection.pullAll( pullAllCollector );
+        connection.flush();
+    }
+
+    @Override
+    public void subscribe( Subscriber<? super Record> subscriber )
+    {
+        if ( subscriber == null )
+        {
+            throw new NullPointerException( "Subscriber must not be null" );
+        }
+        synchronized ( this )
+        {
+            if ( subscription == null )
+            {
+                subscription = new StreamSubscription( subscriber );
+            }
+            else
+            {
+                subscriber.onSubscribe( REJECTED );
+                subscriber.onError( new ClientException(
+                        "This result has already been subscribed to, and records can only be delivered once." ) );
+                return;
+            }
+        }
+        subscriber.onSubscribe( subscription );
+    }
+
+    /**
+     * Stop receiving records through this publisher, because the connection is needed for something else. Records
+     * still outstanding will be received into this publisher by whoever uses the connection next.
+     *
+     * @return a future completed once this publisher no longer uses the connection
+     */
+    public synchronized CompletableFuture<Void> detach()
+    {
+        detached = true;
+        CompletableFuture<Void> inUse = receiving == null ? sent : receiving;
+        return inUse.handle( new BiFunction<Void,Throwable,Void>()
+        {
+            @Override
+            public Void apply( Void ignore, Throwable error )
+            {
+                return null;
+            }
+        } );
+    }
+
+    /**
+     * Keep the first failure of the statement for the subscriber, the rest are the server ignoring what was sent after
+     * it. Whoever happened to receive it, be it this publisher or the next user of the connection, carries on.
+     */
+    private boolean failed( Neo4jException error )
+    {
+        synchronized ( this )
+        {
+            if ( failure == null )
+            {
+                failure = error;
+            }
+        }
+        deliverIfDetached();
+        return true;
+    }
+
+    private void deliverIfDetached()
+    {
+        boolean detached;
+        synchronized ( this )
+        {
+            detached = this.detached;
+        }
+        if ( detached )
+        {
+            deliverLater();
+        }
+    }
+
+    /** Have the executor deliver what has been received, called from whichever thread received it */
+    private void deliverLater()
+    {
+        synchronized ( this )
+        {
+            if ( deliveryScheduled )
+            {
+                return;
+            }
+            deliveryScheduled = true;
+        }
+        executor.execute( scheduledDelivery );
+    }
+
+    /**
+     * Hand records to the subscriber as far as its demand allows, and start a receive if it wants more than has
+     * arrived. Only one thread delivers at a time, others calling in meanwhile leave their updates for that thread to
+     * pick up.
+     */
+    private void deliver()
+    {
+        StreamSubscription subscription;
+        synchronized ( this )
+        {
+            subscription = this.subscription;
+            if ( subscription == null || delivering )
+            {
+                return;
+            }
+            delivering = true;
+        }
+
+        for (; ; )
+        {
+            Record next = null;
+            Throwable error = null;
+            boolean complete = false;
+            int receive = 0;
+            CompletableFuture<Void> receiveDone = null;
+            synchronized ( this )
+            {
+                if ( subscription.cancelled )
+                {
+                    delivering = false;
+                    return;
+                }
+                else if ( subscription.demand > 0 && !received.isEmpty() )
+                {
+                    next = received.poll();
+                    subscription.demand--;
+                }
+                else if ( received.isEmpty() && (failure != null || pullAllCompleted) )
+                {
+                    error = failure;
+                    complete = true;
+                    subscription.cancelled = true;
+                    delivering = false;
+                }
+                else
+                {
+                    if ( subscription.demand > 0 && receiving == null && !detached )
+                    {
+                        receive = (int) Math.min( subscription.demand, MAX_BATCH );
+                    }
+                    delivering = false;
+                }
+
+                if ( receive > 0 )
+                {
+                    receiving = receiveDone = new CompletableFuture<>();
+                }
+            }
+
+            if ( next != null )
+            {
+                subscription.subscriber.onNext( next );
+            }
+            else
+            {
+                if ( complete && error != null )
+                {
+                    subscription.subscriber.onError( error );
+                }
+                else if ( complete )
+                {
+                    if ( timer != null )
+                    {
+                        timer.resultBuilt();
+                    }
+                    subscription.subscriber.onComplete();
+                }
+                else if ( receiveDone != null )
+                {
+                    receive( receive, receiveDone );
+                }
+                return;
+            }
+        }
+    }
+
+    private void receive( final int maxMessages, final CompletableFuture<Void> done )
+    {
+        sent.thenCompose( new Function<Void,CompletionStage<Void>>()
+        {
+            @Override
+            public CompletionStage<Void> apply( Void ignore )
+            {
+                return connection.receiveAsync( maxMessages );
+            }
+        } ).whenComplete( new BiConsumer<Void,Throwable>()
+        {
+            @Override
+            public void accept( Void ignore, Throwable error )
+            {
+                synchronized ( StreamingPublisher.this )
+                {
+                    receiving = null;
+                    if ( error != null && failure == null )
+                    {
+                        failure = error instanceof CompletionException && error.getCause() != null
+                                  ? error.getCause() : error;
+                    }
+                }
+                done.complete( null );
+                deliverLater();
+            }
+        } );
+    }
+
+    private class StreamSubscription implements Subscription
+    {
+        private final Subscriber<? super Record> subscriber;
+        private long demand = 0;
+        private boolean cancelled = false;
+
+        StreamSubscription( Subscriber<? super Record> subscriber )
+        {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request( long n )
+        {
+            if ( n <= 0 )
+            {
+                synchronized ( StreamingPublisher.this )
+                {
+                    if ( cancelled )
+                    {
+                        return;
+                    }
+                    cancelled = true;
+                }
+                subscriber.onError( new IllegalArgumentException(
+                        "Subscribers must request a positive number of records, got " + n + "." ) );
+                return;
+            }
+            synchronized ( StreamingPublisher.this )
+            {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            deliver();
+        }
+
+        @Override
+        public void cancel()
+        {
+            synchronized ( StreamingPublisher.this )
+            {
+                cancelled = true;
+                received.clear();
+            }
+        }
+    }
+}
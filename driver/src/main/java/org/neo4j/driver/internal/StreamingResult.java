@@ -0,0 +1,370 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.neo4j.driver.QueryTimings;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.ReusableResult;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+
+/**
+ * A result that pulls records off the connection as they are asked for, rather than buffering the whole stream
+ * up front. Only records that have arrived but not yet been consumed are kept around, which normally is just the one
+ * currently being read.
+ * <p>
+ * Records only pile up in memory if something else needs the connection before this result has been fully consumed,
+ * in which case the remainder of the stream is received into this result so that it stays valid. Once
+ * {@link #abandon() abandoned}, the rest of the stream is skipped over instead.
+ * <p>
+ * Should the statement fail, the failure is kept here and reported once the records that arrived before it have been
+ * consumed, however the connection was used to receive it.
+ */
+public class StreamingResult implements Result
+{
+    private final Connection connection;
+    private final Runnable onFailure;
+
+    private final Queue<Record> received = new LinkedList<>();
+    private Map<String,Integer> fieldLookup = Collections.emptyMap();
+    private boolean runCompleted = false;
+    private boolean pullAllCompleted = false;
+    private boolean abandoned = false;
+    private Record current;
+    private QueryTimer timer;
+    private Neo4jException failure;
+
+    private final StreamCollector runCollector = new StreamCollector()
+    {
+        @Override
+        public void fieldNames( String[] names )
+        {
+            Map<String,Integer> fieldLookup = new HashMap<>();
+            for ( int i = 0; i < names.length; i++ )
+            {
+                fieldLookup.put( names[i], i );
+            }
+            StreamingResult.this.fieldLookup = fieldLookup;
+        }
+
+        @Override
+        public void record( RecordFields fields )
+        {
+            throw new IllegalStateException( "Records are not expected in response to RUN" );
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean failure( Neo4jException error )
+        {
+            return failed( error );
+        }
+
+        @Override
+        public void done()
+        {
+            runCompleted = true;
+        }
+
+        @Override
+        public void timed( QueryTimer timer )
+        {
+            StreamingResult.this.timer = timer;
+        }
+    };
+
+    private final StreamCollector pullAllCollector = new StreamCollector()
+    {
+        @Override
+        public void fieldNames( String[] names )
+        {
+            // field names are given in response to RUN
+        }
+
+        @Override
+        public void record( RecordFields fields )
+        {
+            if ( !abandoned )
+            {
+                received.add( new SimpleRecord( fieldLookup, fields ) );
+            }
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            return !abandoned;
+        }
+
+        @Override
+        public boolean failure( Neo4jException error )
+        {
+            return failed( error );
+        }
+
+        @Override
+        public void done()
+        {
+            pullAllCompleted = true;
+        }
+
+        @Override
+        public void timed( QueryTimer timer )
+        {
+            // timed along with RUN
+        }
+    };
+
+    /**
+     * Queue a statement on the connection and wait for the server to accept it. The records it yields are then
+     * received as the returned result is iterated.
+     */
+    public static StreamingResult run( Connection connection, String statement, Map<String,Value> parameters,
+            Runnable onFailure )
+    {
+        StreamingResult result = new StreamingResult( connection, onFailure );
+        connection.run( statement, parameters, result.runCollector );
+        return result.pullAll();
+    }
+
+    /**
+     * Run a prepared statement, see {@link #run(Connection, String, Map, Runnable)}.
+     */
+    public static StreamingResult run( Connection connection, StandardPreparedStatement statement,
+            Value[] parameterValues, Runnable onFailure )
+    {
+        statement.ensureMatches( parameterValues );
+        StreamingResult result = new StreamingResult( connection, onFailure );
+        connection.run( statement, parameterValues, result.runCollector );
+        return result.pullAll();
+    }
+
+    /** Pull the records of the statement just queued, and wait for it to start running */
+    private StreamingResult pullAll()
+    {
+        connection.pullAll( pullAllCollector );
+        connection.flush();
+        while ( !runCompleted )
+        {
+            receiveOne();
+        }
+        throwIfFailed();
+        return this;
+    }
+
+    /** Keep the first failure of the statement, the rest are the server ignoring what was sent after it */
+    private boolean failed( Neo4jException error )
+    {
+        if ( failure == null )
+        {
+            failure = error;
+            onFailure.run();
+        }
+        return true;
+    }
+
+    private void throwIfFailed()
+    {
+        if ( failure != null && !abandoned )
+        {
+            throw failure;
+        }
+    }
+
+    private StreamingResult( Connection connection, Runnable onFailure )
+    {
+        this.connection = connection;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Give up on the records not yet consumed, because the connection is about to be handed to someone else. Records
+     * received from then on are skipped over rather than decoded, and the result appears to have no more records.
+     */
+    void abandon()
+    {
+        abandoned = true;
+        received.clear();
+        current = null;
+    }
+
+    /**
+     * Receive the rest of the stream into this result, because the connection is about to be used for something else.
+     * Whether the statement fails is then known before anything else is sent, and is reported once the records are
+     * consumed.
+     */
+    void receiveRemaining()
+    {
+        while ( isOpen() )
+        {
+            receiveOne();
+        }
+    }
+
+    /** Whether the server may still send records for this result */
+    private boolean isOpen()
+    {
+        return !pullAllCompleted && !abandoned;
+    }
+
+    @Override
+    public ReusableResult retain()
+    {
+        // Records already moved past are gone, but the current one is still at hand
+        List<Record> body = new ArrayList<>();
+        if ( current != null )
+        {
+            body.add( current );
+        }
+        body.addAll( received );
+        received.clear();
+        while ( isOpen() )
+        {
+            receiveOne();
+            body.addAll( received );
+            received.clear();
+        }
+        streamConsumed();
+        throwIfFailed();
+        return new SimpleResult( fieldNames(), body, timer ).retain();
+    }
+
+    @Override
+    public boolean next()
+    {
+        while ( received.isEmpty() && isOpen() )
+        {
+            receiveOne();
+        }
+        current = received.poll();
+        if ( current == null )
+        {
+            streamConsumed();
+            throwIfFailed();
+        }
+        return current != null;
+    }
+
+    @Override
+    public QueryTimings timings()
+    {
+        return timer;
+    }
+
+    private void streamConsumed()
+    {
+        if ( timer != null )
+        {
+            timer.resultBuilt();
+        }
+    }
+
+    @Override
+    public Value get( int fieldIndex )
+    {
+        return currentRecord().get( fieldIndex );
+    }
+
+    @Override
+    public Value get( String fieldName )
+    {
+        return currentRecord().get( fieldName );
+    }
+
+    @Override
+    public long getLong( int fieldIndex )
+    {
+        return currentRecord().getLong( fieldIndex );
+    }
+
+    @Override
+    public double getDouble( int fieldIndex )
+    {
+        return currentRecord().getDouble( fieldIndex );
+    }
+
+    @Override
+    public boolean getBoolean( int fieldIndex )
+    {
+        return currentRecord().getBoolean( fieldIndex );
+    }
+
+    @Override
+    public String getString( int fieldIndex )
+    {
+        return currentRecord().getString( fieldIndex );
+    }
+
+    @Override
+    public Iterable<String> fieldNames()
+    {
+        return fieldLookup.keySet();
+    }
+
+    @Override
+    public Record single()
+    {
+        if ( !next() )
+        {
+            throw new ClientException( "Cannot retrieve a single record, because this result is empty." );
+        }
+        return current;
+    }
+
+    private Record currentRecord()
+    {
+        if ( current == null )
+        {
+            throw new ClientException(
+                    "In order to access fields of a record in a result, " +
+                    "you must first call next() to point the result to the next record in the result stream." );
+        }
+        return current;
+    }
+
+    private void receiveOne()
+    {
+        try
+        {
+            connection.receiveOne();
+        }
+        catch ( Neo4jException e )
+        {
+            onFailure.run();
+            throw e;
+        }
+    }
+}
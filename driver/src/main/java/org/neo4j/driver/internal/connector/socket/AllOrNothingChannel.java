@@ -21,6 +21,7 @@ package org.neo4j.driver.internal.connector.socket;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SocketChannel;
 
 import org.neo4j.driver.exceptions.ClientException;
@@ -30,7 +31,7 @@ import org.neo4j.driver.internal.util.BytePrinter;
  * Wraps a regular socket channel such that read and write will not return until the full buffers given have been sent
  * or received, respectively.
  */
-public class AllOrNothingChannel implements ByteChannel
+public class AllOrNothingChannel implements ByteChannel, GatheringByteChannel
 {
     private final SocketChannel channel;
 
@@ -49,15 +50,39 @@ public class AllOrNothingChannel implements ByteChannel
             int read = channel.read( buf );
             if ( read == -1 )
             {
-                throw new ClientException( String.format(
-                        "Connection terminated while receiving data. This can happen due to network " +
-                        "instabilities, or due to restarts of the database. Expected %s bytes, received %s.",
-                        buf.limit(), BytePrinter.hex( buf ) ) );
+                throw connectionTerminated( buf );
             }
         }
         return toRead;
     }
 
+    /**
+     * Read at least the given number of bytes, along with whatever else has arrived already, as far as the buffer
+     * has room for it. This is the one read that may return before the buffer is full.
+     * @return the number of bytes read
+     */
+    public int readAtLeast( ByteBuffer buf, int atLeast ) throws IOException
+    {
+        int start = buf.position();
+        while ( buf.position() - start < atLeast )
+        {
+            int read = channel.read( buf );
+            if ( read == -1 )
+            {
+                throw connectionTerminated( buf );
+            }
+        }
+        return buf.position() - start;
+    }
+
+    private static ClientException connectionTerminated( ByteBuffer buf )
+    {
+        return new ClientException( String.format(
+                "Connection terminated while receiving data. This can happen due to network " +
+                "instabilities, or due to restarts of the database. Expected %s bytes, received %s.",
+                buf.limit(), BytePrinter.hex( buf ) ) );
+    }
+
     @Override
     public int write( ByteBuffer buf ) throws IOException
     {
@@ -76,6 +101,36 @@ public class AllOrNothingChannel implements ByteChannel
         return toWrite;
     }
 
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length ) throws IOException
+    {
+        long toWrite = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            toWrite += srcs[i].remaining();
+        }
+        long written = 0;
+        while ( written < toWrite )
+        {
+            long write = channel.write( srcs, offset, length );
+            if( write == -1 )
+            {
+                throw new ClientException( String.format(
+                        "Connection terminated while sending data. This can happen due to network " +
+                        "instabilities, or due to restarts of the database. Expected %s bytes, wrote %s.",
+                        toWrite, written ) );
+            }
+            written += write;
+        }
+        return toWrite;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs ) throws IOException
+    {
+        return write( srcs, 0, srcs.length );
+    }
+
     @Override
     public boolean isOpen()
     {
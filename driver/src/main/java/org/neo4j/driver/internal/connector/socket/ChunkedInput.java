@@ -26,33 +26,81 @@ import java.nio.channels.ReadableByteChannel;
 
 import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.packstream.PackInput;
+import org.neo4j.driver.internal.util.BufferArena;
 import org.neo4j.driver.internal.util.BytePrinter;
 
 import static java.lang.Math.min;
+import static org.neo4j.driver.internal.connector.socket.ChunkedOutput.CHUNK_HEADER_SIZE;
 
+/**
+ * Reads the chunks messages are split into as one stream per message.
+ * <p>
+ * Chunk headers are parsed out of the same buffer the chunks are received into, rather than read off the channel on
+ * their own. When reading from an {@link AllOrNothingChannel}, whatever has arrived on the socket is taken in at once,
+ * so that a stream of small messages takes few reads. Other channels only return once they have filled the space
+ * given, so from them the rest of the current chunk is read along with the header that follows it, which is as much
+ * as is known to be there.
+ * <p>
+ * The buffer is taken when the first chunk is read. Inputs given a {@link BufferArena} lease it from there, and
+ * give it back when {@link #park() parked} in between messages, so that idle connections hold no buffer.
+ */
 public class ChunkedInput implements PackInput
 {
-    private final ByteBuffer buffer;
+    /** Stands in for the buffer while none is held, it has no room, so reading from it takes a buffer first */
+    private static final ByteBuffer PARKED = ByteBuffer.allocate( 0 );
+
+    /*
+     * The buffer holds the bytes received from the channel, up to {@link #received}. Of those, the bytes between its
+     * position and limit are the part of the current chunk that is ready to be read; the bytes after the limit are
+     * the rest of the chunk, if any, followed by the chunks after it.
+     * It is {@link #PARKED} while no buffer is held.
+     */
+    private ByteBuffer buffer = PARKED;
 
-    /* a special buffer for chunk header */
-    private final ByteBuffer chunkHeaderBuffer = ByteBuffer.allocateDirect( 2 );
+    private final int bufferCapacity;
+
+    /* where buffers are leased from, or null to allocate a buffer of our own */
+    private final BufferArena arena;
+
+    /* where the bytes received from the channel end in the buffer */
+    private int received = 0;
 
     /* the size of bytes that have not been read in current incoming chunk */
     private int unreadChunkSize = 0;
 
     private final ReadableByteChannel channel;
 
+    /* whether to take in everything that has arrived, rather than only what is known to be there */
+    private final boolean readAhead;
+
+    /* whether the next chunk to arrive is the first of a message */
+    private boolean atMessageStart = true;
+
+    /* when the first chunk of the current, or last, message arrived, in System.nanoTime() */
+    private long messageArrivedAt;
+
     public ChunkedInput( ReadableByteChannel ch )
     {
-        this( 8192, ch );
+        this( ch, BufferArena.shared() );
+    }
+
+    public ChunkedInput( ReadableByteChannel ch, BufferArena arena )
+    {
+        this( 8192, ch, arena );
     }
 
     public ChunkedInput( int bufferCapacity, ReadableByteChannel channel )
     {
-        assert bufferCapacity >= 1;
-        buffer = ByteBuffer.allocateDirect( bufferCapacity ).order( ByteOrder.BIG_ENDIAN );
-        buffer.limit( 0 );
+        this( bufferCapacity, channel, null );
+    }
+
+    public ChunkedInput( int bufferCapacity, ReadableByteChannel channel, BufferArena arena )
+    {
+        assert bufferCapacity >= CHUNK_HEADER_SIZE;
+        this.bufferCapacity = bufferCapacity;
+        this.arena = arena;
         this.channel = channel;
+        this.readAhead = channel instanceof AllOrNothingChannel;
     }
 
     @Override
@@ -67,7 +115,7 @@ public class ChunkedInput implements PackInput
     @Override
     public byte readByte()
     {
-        ensure( 1 );
+        attempt( 1 );
         return buffer.get();
     }
 
@@ -82,7 +130,7 @@ public class ChunkedInput implements PackInput
         else
         {
             // Short is crossing chunk boundaries, use slow route
-            return (short) (readByte() << 8 & readByte());
+            return (short) ((readByte() & 0xFF) << 8 | readByte() & 0xFF);
         }
     }
 
@@ -96,8 +144,8 @@ public class ChunkedInput implements PackInput
         }
         else
         {
-            // Short is crossing chunk boundaries, use slow route
-            return readShort() << 16 & readShort();
+            // Int is crossing chunk boundaries, use slow route
+            return readShort() << 16 | readShort() & 0xFFFF;
         }
     }
 
@@ -112,7 +160,7 @@ public class ChunkedInput implements PackInput
         else
         {
             // long is crossing chunk boundaries, use slow route
-            return ((long) readInt() << 32) & readInt();
+            return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
         }
     }
 
@@ -134,49 +182,26 @@ public class ChunkedInput implements PackInput
     @Override
     public PackInput readBytes( byte[] into, int offset, int toRead )
     {
-        int toReadFromChunk = min( toRead, freeSpace() );
-        ensure( toReadFromChunk );
-
-        // Do the read
-        buffer.get( into, offset, toReadFromChunk );
-
-        // Can we read another chunk into the destination buffer?
-        if ( toReadFromChunk < toRead )
+        while ( toRead > 0 )
         {
-            // More data can be read into the buffer, keep reading from the next chunk
-            readBytes( into, offset + toReadFromChunk, toRead - toReadFromChunk );
+            attempt( 1 );
+            int toReadFromChunk = min( toRead, remainingData() );
+            buffer.get( into, offset, toReadFromChunk );
+            offset += toReadFromChunk;
+            toRead -= toReadFromChunk;
         }
-
         return this;
     }
 
     @Override
     public byte peekByte()
     {
-        ensure( 1 );
-        int pos = buffer.position();
-        byte nextByte = buffer.get();
-        buffer.position( pos );
-        return nextByte;
-    }
-
-    /**
-     * Return the size of free space in a buffer.
-     * E.g. Given a buffer with pointers 0 <= position <= limit <= capacity,
-     * E.g.
-     * Buffer: | 0, 0, 1, 2, 3, 4, 0, 0, 0, 0, 0 |
-     *           |     |        |              |
-     *           0  position  limit         capacity
-     * This method returns capacity - limit + position
-     * @return
-     */
-    private int freeSpace()
-    {
-        return buffer.capacity() - buffer.limit() + buffer.position();
+        attempt( 1 );
+        return buffer.get( buffer.position() );
     }
 
     /**
-     * Return the size of bytes in a buffer.
+     * Return the size of bytes in the current chunk that are ready to be read.
      * E.g. Given a buffer with pointers 0 <= position <= limit <= capacity,
      * Buffer: | 0, 0, 1, 2, 3, 4, 0, 0, 0, 0, 0 |
      *           |     |        |              |
@@ -190,108 +215,249 @@ public class ChunkedInput implements PackInput
     }
 
     /**
-     * Attempts to read {@code toRead} bytes from the channel, however if {@code freeSpace}, the free space in
-     * current buffer is less than {@Code toRead}, then only {@code freeSpace} bytes will be read.
+     * Attempts to make {@code toRead} bytes of the current chunk ready to be read, moving on to the next chunk if the
+     * current one has been read completely. If the chunk ends before that, or {@code toRead} is more than the buffer
+     * can hold, fewer bytes will be ready, but always at least one.
      * @param toRead
      */
     private void attempt( int toRead )
     {
-        if( toRead == 0 || remainingData() >= toRead )
+        if ( remainingData() >= toRead )
         {
             return;
         }
-        int freeSpace = freeSpace();
-        ensure( Math.min( freeSpace, toRead ) );
+        unpark();
+        toRead = min( toRead, buffer.capacity() );
+        try
+        {
+            if ( remainingData() == 0 && unreadChunkSize == 0 )
+            {
+                int chunkSize = readChunkSize();
+                if ( atMessageStart )
+                {
+                    messageArrivedAt = System.nanoTime();
+                    atMessageStart = false;
+                }
+                if ( chunkSize <= 0 )
+                {
+                    throw new ClientException( "Invalid non-positive chunk size: " + chunkSize );
+                }
+                unreadChunkSize = chunkSize;
+            }
+            exposeReceivedChunk();
+            while ( remainingData() < toRead && unreadChunkSize > 0 )
+            {
+                // Everything received of the chunk is exposed, and is not enough
+                receive( min( toRead - remainingData(), unreadChunkSize ), unreadChunkSize + CHUNK_HEADER_SIZE );
+                exposeReceivedChunk();
+            }
+        }
+        catch( ClosedByInterruptException e )
+        {
+            throw new ClientException(
+                            "Connection to the database was lost because someone called `interrupt()` on the driver thread waiting for a reply. " +
+                            "This normally happens because the JVM is shutting down, but it can also happen because your application code or some " +
+                            "framework you are using is manually interrupting the thread." );
+        }
+        catch ( IOException e )
+        {
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            throw new ClientException( "Unable to process request: " + message + ", expected: " + toRead +
+                                       " bytes, buffer: \n" + BytePrinter.hex( buffer ), e );
+        }
     }
 
     /**
-     * Block until {@code toRead} bytes are read from channel
-     * @param toRead
+     * Read the header of the next chunk, which must follow the end of the current chunk, received or not.
+     * @return the size of the chunk
      */
-    private void ensure( int toRead )
+    protected int readChunkSize() throws IOException
     {
-        if( toRead == 0 || remainingData() >= toRead )
+        int available = received - buffer.limit();
+        if ( available < CHUNK_HEADER_SIZE )
         {
-            return;
+            // Only the header is known to be there
+            receive( CHUNK_HEADER_SIZE - available, CHUNK_HEADER_SIZE - available );
         }
-        assert toRead <= freeSpace();
-        while ( remainingData() < toRead )
+        int header = buffer.limit();
+        buffer.limit( header + CHUNK_HEADER_SIZE );
+        buffer.position( header + CHUNK_HEADER_SIZE );
+        return buffer.getShort( header ) & 0xffff;
+    }
+
+    /** Make as much of the rest of the current chunk ready to be read as has been received */
+    private void exposeReceivedChunk()
+    {
+        int exposed = min( unreadChunkSize, received - buffer.limit() );
+        buffer.limit( buffer.limit() + exposed );
+        unreadChunkSize -= exposed;
+    }
+
+    /**
+     * Receive at least {@code atLeast} more bytes, after moving the bytes not read yet to the start of the buffer.
+     * From channels that do not return early, exactly {@code knownToBeThere} bytes are received, as far as the
+     * buffer has room for them, because asking for more than the other side has sent would block forever.
+     */
+    private void receive( int atLeast, int knownToBeThere ) throws IOException
+    {
+        int ready = remainingData();
+        buffer.limit( received );
+        buffer.compact();
+        int start = buffer.position();
+        if ( readAhead )
         {
-            // first compact the data in the buffer
-            if ( remainingData() > 0 )
-            {
-                // If there is data remaining in the buffer, shift that remaining data to the beginning of the buffer.
-                buffer.compact();
-            }
-            else
+            ((AllOrNothingChannel) channel).readAtLeast( buffer, atLeast );
+        }
+        else
+        {
+            buffer.limit( min( buffer.capacity(), start + knownToBeThere ) );
+            while ( buffer.position() < start + atLeast )
             {
-                buffer.clear();
+                if ( channel.read( buffer ) == -1 )
+                {
+                    throw new ClientException( "Connection terminated while receiving data, expected " + atLeast +
+                                               " more bytes." );
+                }
             }
-            /* the buffer is ready for writing */
-            try
+        }
+        received = buffer.position();
+        buffer.limit( ready );
+        buffer.position( 0 );
+    }
+
+    /**
+     * Receive whatever has arrived on a channel in non-blocking mode, up to {@code atMost} bytes, without blocking.
+     * Messages that have fully arrived can then be read as usual, without touching the channel. The buffer is grown
+     * as needed to hold all of the next message.
+     * <p>
+     * This is for receiving in between messages, while none is being read.
+     *
+     * @param nonBlocking the channel this input reads from, or the socket channel beneath it, in non-blocking mode
+     * @param atMost the most bytes to receive, to leave the rest in the socket
+     * @return the number of bytes received, possibly 0, or -1 if the channel has reached end-of-stream
+     */
+    public int receiveArrived( ReadableByteChannel nonBlocking, int atMost ) throws IOException
+    {
+        unpark();
+        int missing = bytesMissing();
+        int ready = remainingData();
+        buffer.limit( received );
+        buffer.compact();
+        if ( buffer.remaining() < Math.max( 1, min( atMost, missing ) ) )
+        {
+            grow( buffer.position() + min( atMost, missing ) );
+        }
+        buffer.limit( buffer.position() + min( atMost, buffer.remaining() ) );
+        int read = nonBlocking.read( buffer );
+        received = buffer.position();
+        buffer.limit( ready );
+        buffer.position( 0 );
+        return read;
+    }
+
+    /**
+     * The number of bytes still to be received to get to the end of the next chunk header or chunk of the next
+     * message, or 0 if all of it has been received. Only valid in between messages.
+     */
+    public int bytesMissing()
+    {
+        int limit = buffer.limit();
+        int position = limit;
+        // Absolute reads are bound by the limit, let them see everything received
+        buffer.limit( received );
+        try
+        {
+            for (; ; )
             {
-                if( unreadChunkSize > 0 )
+                int available = received - position;
+                if ( available < CHUNK_HEADER_SIZE )
                 {
-                    int freeSpace = buffer.remaining();
-                    readChunk( min( freeSpace, unreadChunkSize ) );
-                    unreadChunkSize -= freeSpace;
+                    return CHUNK_HEADER_SIZE - available;
                 }
-                else
+                int chunkSize = buffer.getShort( position ) & 0xffff;
+                position += CHUNK_HEADER_SIZE;
+                available -= CHUNK_HEADER_SIZE;
+                if ( chunkSize == 0 )
                 {
-                    int chunkSize = readChunkSize();
-                    if( chunkSize <= 0 )
-                    {
-                        throw new ClientException( "Invalid non-positive chunk size: " + chunkSize );
-                    }
-                    readChunk( chunkSize );
+                    return 0;
                 }
+                if ( available < chunkSize )
+                {
+                    return chunkSize - available;
+                }
+                position += chunkSize;
             }
-            catch( ClosedByInterruptException e )
-            {
-                throw new ClientException(
-                                "Connection to the database was lost because someone called `interrupt()` on the driver thread waiting for a reply. " +
-                                "This normally happens because the JVM is shutting down, but it can also happen because your application code or some " +
-                                "framework you are using is manually interrupting the thread." );
-            }
-            catch ( IOException e )
-            {
-                String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
-                throw new ClientException( "Unable to process request: " + message + ", expected: " + toRead +
-                                           " bytes, buffer: \n" + BytePrinter.hex( buffer ), e );
-            }
-            /* buffer ready for reading again */
+        }
+        finally
+        {
+            buffer.limit( limit );
         }
     }
 
-    protected int readChunkSize() throws IOException
+    /** Move the bytes up to the position over to a larger buffer, a message larger than what we can hold arrived */
+    private void grow( int atLeast )
     {
-        chunkHeaderBuffer.clear();
-        channel.read( chunkHeaderBuffer );
-        chunkHeaderBuffer.flip();
-        return chunkHeaderBuffer.getShort() & 0xffff;
+        int capacity = Math.max( buffer.capacity() * 2, atLeast );
+        ByteBuffer larger = arena == null ? ByteBuffer.allocateDirect( capacity ) : arena.lease( capacity );
+        larger.order( ByteOrder.BIG_ENDIAN );
+        buffer.flip();
+        larger.put( buffer );
+        if ( arena != null )
+        {
+            arena.release( buffer );
+        }
+        buffer = larger;
     }
 
-    private void readChunk( int chunkSize ) throws IOException
+    /** Take a buffer to receive into, if none is held */
+    private void unpark()
     {
-        if ( chunkSize <= buffer.remaining() )
+        if ( buffer == PARKED )
         {
-            buffer.limit( buffer.position() + chunkSize );
-            channel.read( buffer );
-            buffer.flip();
+            buffer = arena == null ? ByteBuffer.allocateDirect( bufferCapacity ) : arena.lease( bufferCapacity );
+            buffer.order( ByteOrder.BIG_ENDIAN );
+            buffer.limit( 0 );
+            received = 0;
         }
-        else
+    }
+
+    /**
+     * Give the buffer back to the arena, unless bytes of a message or of the messages after it are still in it.
+     * A buffer is leased again once the next message is read.
+     */
+    public void park()
+    {
+        if ( arena != null && buffer != PARKED && !hasMoreDataUnreadInCurrentChunk() && !hasReadAhead() )
         {
-            unreadChunkSize = chunkSize - buffer.remaining();
-            channel.read( buffer ); //current is full after this
-            buffer.flip();
+            release();
         }
     }
 
+    /** Give the buffer back to the arena along with anything left in it, as the channel is done with */
+    public void release()
+    {
+        if ( arena != null && buffer != PARKED )
+        {
+            arena.release( buffer );
+        }
+        buffer = PARKED;
+        received = 0;
+        unreadChunkSize = 0;
+    }
+
     private boolean hasMoreDataUnreadInCurrentChunk()
     {
         return buffer.remaining() > 0 || unreadChunkSize > 0;
     }
 
+    /**
+     * Whether bytes past the end of the messages read so far have been received. Anyone else reading from the
+     * channel would miss them, so only this input can read the messages that follow.
+     */
+    public boolean hasReadAhead()
+    {
+        return received > buffer.limit();
+    }
 
     private Runnable onMessageComplete = new Runnable()
     {
@@ -309,12 +475,14 @@ public class ChunkedInput implements PackInput
             try
             {
                 // read message boundary
+                unpark();
                 int chunkSize = readChunkSize();
                 if ( chunkSize != 0 )
                 {
                     throw new ClientException( "Expecting message complete ending '00 00', but got " +
                                                BytePrinter.hex( ByteBuffer.allocate( 2 ).putShort( (short) chunkSize ) ) );
                 }
+                atMessageStart = true;
             }
             catch ( IOException e )
             {
@@ -324,6 +492,12 @@ public class ChunkedInput implements PackInput
         }
     };
 
+    /** When the first byte of the message currently or last read arrived, in {@link System#nanoTime()} */
+    public long messageArrivedAt()
+    {
+        return messageArrivedAt;
+    }
+
     public Runnable messageBoundaryHook()
     {
         return this.onMessageComplete;
@@ -20,52 +20,126 @@ package org.neo4j.driver.internal.connector.socket;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.WritableByteChannel;
 
 import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.packstream.PackOutput;
+import org.neo4j.driver.internal.util.BufferArena;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 
+/**
+ * Splits messages into chunks, which are staged in a buffer until it is full or flushed.
+ * <p>
+ * Byte arrays that would not fit in the buffer anyway are not copied into it when the channel is a
+ * {@link GatheringByteChannel}. Chunk headers are written along with slices of the array instead, together with what
+ * was staged before it, in a single gathering write.
+ * <p>
+ * The buffer is taken when the first bytes are written. Outputs given a {@link BufferArena} lease it from there, and
+ * give it back when {@link #park() parked} with nothing staged, so that idle connections hold no buffer.
+ */
 public class ChunkedOutput implements PackOutput
 {
     public static final short MESSAGE_BOUNDARY = 0;
     public static final int CHUNK_HEADER_SIZE = 2;
 
-    private final ByteBuffer buffer;
+    /** The largest chunk there can be, as its size has to fit in the two bytes of its header */
+    private static final int MAX_CHUNK_SIZE = 0xFFFF;
+
+    /** How many chunks of a large byte array go out with each gathering write */
+    private static final int CHUNKS_PER_WRITE = 16;
+
+    /** Stands in for the buffer while none is held, it has no room, so writing to it takes a buffer first */
+    private static final ByteBuffer PARKED = ByteBuffer.allocate( 0 );
+
+    private ByteBuffer buffer = PARKED;
+    private final int bufferSize;
+
+    /** Where buffers are leased from, or null to allocate a buffer of our own */
+    private final BufferArena arena;
 
     /** The chunk header */
     private int currentChunkHeaderOffset;
     /** Are currently in the middle of writing a chunk? */
     private boolean chunkOpen = false;
 
+    /** Where the last message written ends in the buffer, what is staged after it is part of the next message */
+    private int messageEnd = 0;
+
+    /** Have bytes of the message being written gone out to the channel already? */
+    private boolean messagePartlyWritten = false;
+
     private final WritableByteChannel channel;
 
+    /** The headers of the chunks large byte arrays are split into, and the buffers written with each write of them */
+    private final ByteBuffer[] largeChunkHeaders = new ByteBuffer[CHUNKS_PER_WRITE];
+    private final ByteBuffer[] gathered = new ByteBuffer[1 + CHUNKS_PER_WRITE * 2];
 
     public ChunkedOutput( WritableByteChannel ch )
     {
-        this( 8192, ch );
+        this( ch, BufferArena.shared() );
+    }
+
+    public ChunkedOutput( WritableByteChannel ch, BufferArena arena )
+    {
+        this( 8192, ch, arena );
     }
 
     public ChunkedOutput( int bufferSize, WritableByteChannel ch )
     {
-        buffer = ByteBuffer.allocateDirect(  max( 16, bufferSize ) );
+        this( bufferSize, ch, null );
+    }
+
+    public ChunkedOutput( int bufferSize, WritableByteChannel ch, BufferArena arena )
+    {
+        this.bufferSize = max( 16, bufferSize );
+        this.arena = arena;
         chunkOpen = false;
         channel = ch;
+        for ( int i = 0; i < CHUNKS_PER_WRITE; i++ )
+        {
+            largeChunkHeaders[i] = ByteBuffer.allocate( CHUNK_HEADER_SIZE );
+        }
     }
 
     @Override
     public PackOutput flush() throws IOException
     {
+        if ( buffer == PARKED )
+        {
+            return this;
+        }
         closeChunkIfOpen();
 
         buffer.flip();
         channel.write( buffer );
         buffer.clear();
+        messageEnd = 0;
 
         return this;
     }
 
+    /**
+     * Drop what has been staged of the message being written, after writing it failed halfway, so that the messages
+     * written after it are not taken as part of it.
+     *
+     * @return false if part of the message has been written out to the channel already, the other side has then seen
+     * the start of a message that will never be finished
+     */
+    public boolean discardUnfinishedMessage()
+    {
+        boolean partlyWritten = messagePartlyWritten;
+        if ( buffer != PARKED )
+        {
+            buffer.position( messageEnd );
+        }
+        chunkOpen = false;
+        messagePartlyWritten = false;
+        return !partlyWritten;
+    }
+
     @Override
     public PackOutput writeByte( byte value ) throws IOException
     {
@@ -109,6 +183,12 @@ public class ChunkedOutput implements PackOutput
     @Override
     public PackOutput writeBytes( byte[] data, int offset, int length ) throws IOException
     {
+        if ( length >= bufferSize && channel instanceof GatheringByteChannel )
+        {
+            writeLargeBytes( (GatheringByteChannel) channel, data, offset, length );
+            return this;
+        }
+
         int index = 0;
         while ( index < length )
         {
@@ -118,12 +198,55 @@ public class ChunkedOutput implements PackOutput
             // Write as much as we can into the current chunk
             int amountToWrite = Math.min( buffer.remaining(), length - index );
 
-            buffer.put( data, offset, amountToWrite );
+            buffer.put( data, offset + index, amountToWrite );
             index += amountToWrite;
         }
         return this;
     }
 
+    /**
+     * Write the bytes staged so far, followed by the given bytes in chunks of their own, without copying the bytes
+     * into the buffer first.
+     */
+    private void writeLargeBytes( GatheringByteChannel channel, byte[] data, int offset, int length )
+            throws IOException
+    {
+        unpark();
+        closeChunkIfOpen();
+        buffer.flip();
+        messagePartlyWritten = true;
+
+        int end = offset + length;
+        while ( offset < end )
+        {
+            long toWrite = buffer.remaining();
+            int count = 0;
+            gathered[count++] = buffer;
+            for ( int i = 0; i < CHUNKS_PER_WRITE && offset < end; i++ )
+            {
+                int chunkSize = min( MAX_CHUNK_SIZE, end - offset );
+                ByteBuffer header = largeChunkHeaders[i];
+                header.clear();
+                header.putShort( (short) chunkSize ).flip();
+                gathered[count++] = header;
+                gathered[count++] = ByteBuffer.wrap( data, offset, chunkSize );
+                toWrite += CHUNK_HEADER_SIZE + chunkSize;
+                offset += chunkSize;
+            }
+            while ( toWrite > 0 )
+            {
+                toWrite -= channel.write( gathered, 0, count );
+            }
+        }
+
+        buffer.clear();
+        messageEnd = 0;
+        for ( int i = 0; i < gathered.length; i++ )
+        {
+            gathered[i] = null;
+        }
+    }
+
     private void closeChunkIfOpen()
     {
         if( chunkOpen )
@@ -136,11 +259,7 @@ public class ChunkedOutput implements PackOutput
 
     private PackOutput ensure( int size ) throws IOException
     {
-        int toWriteSize = chunkOpen ? size : size + CHUNK_HEADER_SIZE;
-        if ( buffer.remaining() < toWriteSize )
-        {
-            flush();
-        }
+        makeRoom( chunkOpen ? size : size + CHUNK_HEADER_SIZE );
 
         if ( !chunkOpen )
         {
@@ -152,6 +271,56 @@ public class ChunkedOutput implements PackOutput
         return this;
     }
 
+    /** Make room for the given number of bytes, by taking a buffer if none is held, or else writing it out */
+    private void makeRoom( int size ) throws IOException
+    {
+        if ( buffer.remaining() < size )
+        {
+            if ( buffer == PARKED )
+            {
+                unpark();
+            }
+            else
+            {
+                messagePartlyWritten |= buffer.position() > messageEnd;
+                flush();
+            }
+        }
+    }
+
+    private void unpark()
+    {
+        if ( buffer == PARKED )
+        {
+            buffer = arena == null ? ByteBuffer.allocateDirect( bufferSize ) : arena.lease( bufferSize );
+        }
+    }
+
+    /**
+     * Give the buffer back to the arena, unless bytes are staged in it. A buffer is leased again once the next
+     * bytes are written.
+     */
+    public void park()
+    {
+        if ( arena != null && buffer != PARKED && buffer.position() == 0 && !chunkOpen )
+        {
+            release();
+        }
+    }
+
+    /** Give the buffer back to the arena, dropping whatever is staged in it, as the channel is done with */
+    public void release()
+    {
+        if ( arena != null && buffer != PARKED )
+        {
+            arena.release( buffer );
+        }
+        buffer = PARKED;
+        chunkOpen = false;
+        messageEnd = 0;
+        messagePartlyWritten = false;
+    }
+
     private Runnable onMessageComplete = new Runnable()
     {
         @Override
@@ -162,16 +331,15 @@ public class ChunkedOutput implements PackOutput
                 closeChunkIfOpen();
 
                 // Ensure there's space to write the message boundary
-                if ( buffer.remaining() < CHUNK_HEADER_SIZE )
-                {
-                    flush();
-                }
+                makeRoom( CHUNK_HEADER_SIZE );
 
                 // Write message boundary
                 buffer.putShort( MESSAGE_BOUNDARY );
 
                 // Mark us as not currently in a chunk
                 chunkOpen = false;
+                messageEnd = buffer.position();
+                messagePartlyWritten = false;
             }
             catch ( IOException e )
             {
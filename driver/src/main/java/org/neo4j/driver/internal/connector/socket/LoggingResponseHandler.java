@@ -18,10 +18,10 @@
  */
 package org.neo4j.driver.internal.connector.socket;
 
-import java.util.Arrays;
 import java.util.Map;
 
 import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.RecordFields;
 import org.neo4j.driver.internal.spi.Logger;
 
 import static org.neo4j.driver.internal.messaging.AckFailureMessage.ACK_FAILURE;
@@ -82,10 +82,10 @@ public class LoggingResponseHandler extends SocketResponseHandler
     }
 
     @Override
-    public void handleRecordMessage( Value[] fields )
+    public void handleRecordMessage( RecordFields fields )
     {
         super.handleRecordMessage( fields );
-        logger.debug( "S: RecordMessage{%s}", Arrays.asList( fields ) );
+        logger.debug( "S: RecordMessage{%s}", fields );
     }
 
     @Override
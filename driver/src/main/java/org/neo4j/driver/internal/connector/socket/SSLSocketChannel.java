@@ -33,6 +33,7 @@ import javax.net.ssl.SSLSession;
 import org.neo4j.driver.Config.TlsAuthenticationConfig;
 import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.spi.Logger;
+import org.neo4j.driver.internal.util.BufferArena;
 import org.neo4j.driver.internal.util.BytePrinter;
 
 import static javax.net.ssl.SSLEngineResult.HandshakeStatus.FINISHED;
@@ -48,6 +49,8 @@ import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
  * http://docs.oracle.com/javase/6/docs/technotes/guides/security/jsse/JSSERefGuide.html#SSLENG
  * http://docs.oracle.com/javase/1.5.0/docs/guide/security/jsse/JSSERefGuide.html#SSLENG
  * http://docs.oracle.com/javase/7/docs/api/javax/net/ssl/SSLEngine.html
+ *
+ * The buffers are leased from a {@link BufferArena}, and given back while the channel is {@link #park() parked}.
  */
 public class SSLSocketChannel implements ByteChannel
 {
@@ -64,13 +67,24 @@ public class SSLSocketChannel implements ByteChannel
     private ByteBuffer plainIn;
     private ByteBuffer plainOut;
 
+    /** Where the buffers are leased from, or null if they are our own */
+    private final BufferArena arena;
+
     public SSLSocketChannel( String host, int port, SocketChannel channel, Logger logger,
             TlsAuthenticationConfig authConfig )
             throws GeneralSecurityException, IOException
+    {
+        this( host, port, channel, logger, authConfig, BufferArena.shared() );
+    }
+
+    public SSLSocketChannel( String host, int port, SocketChannel channel, Logger logger,
+            TlsAuthenticationConfig authConfig, BufferArena arena )
+            throws GeneralSecurityException, IOException
     {
         logger.debug( "TLS connection enabled" );
         this.logger = logger;
         this.channel = channel;
+        this.arena = arena;
         this.channel.configureBlocking( true );
 
         sslContext =  new SSLContextFactory( host, port, authConfig ).create();
@@ -88,6 +102,7 @@ public class SSLSocketChannel implements ByteChannel
         logger.debug( "Testing TLS buffers" );
         this.logger = logger;
         this.channel = channel;
+        this.arena = null;
 
         this.sslContext = SSLContext.getInstance( "TLS" );
         this.sslEngine = sslEngine;
@@ -218,8 +233,9 @@ public class SSLSocketChannel implements ByteChannel
                                            "buffer size allowed is %s. The content in the buffer is: %s\n",
                                     curAppSize, newAppSize, appSize * 2, BytePrinter.hex( plainIn ) ) );
                 }
-                ByteBuffer newPlainIn = ByteBuffer.allocateDirect( newAppSize );
+                ByteBuffer newPlainIn = allocate( newAppSize );
                 newPlainIn.put( plainIn );
+                free( plainIn );
                 plainIn = newPlainIn;
                 logger.debug( "Enlarged application input buffer from %s to %s. " +
                               "This operation should be a rare operation.", curAppSize, newAppSize );
@@ -231,8 +247,9 @@ public class SSLSocketChannel implements ByteChannel
                 // Resize buffer if needed.
                 if ( netSize > curNetSize )
                 {
-                    ByteBuffer newCipherIn = ByteBuffer.allocateDirect( netSize );
+                    ByteBuffer newCipherIn = allocate( netSize );
                     newCipherIn.put( cipherIn );
+                    free( cipherIn );
                     cipherIn = newCipherIn;
                     logger.debug( "Enlarged network input buffer from %s to %s. " +
                                   "This operation should be a rare operation.", curNetSize, netSize );
@@ -300,7 +317,8 @@ public class SSLSocketChannel implements ByteChannel
                                        "new network buffer.", curNetSize, netSize, buffer.capacity() ) );
             }
 
-            cipherOut = ByteBuffer.allocateDirect( netSize );
+            free( cipherOut );
+            cipherOut = allocate( netSize );
             logger.debug( "Enlarged network output buffer from %s to %s. " +
                           "This operation should be a rare operation.", curNetSize, netSize );
             break;
@@ -353,10 +371,53 @@ public class SSLSocketChannel implements ByteChannel
         int appBufferSize = session.getApplicationBufferSize();
         int netBufferSize = session.getPacketBufferSize();
 
-        plainOut = ByteBuffer.allocateDirect( appBufferSize );
-        plainIn = ByteBuffer.allocateDirect( appBufferSize );
-        cipherOut = ByteBuffer.allocateDirect( netBufferSize );
-        cipherIn = ByteBuffer.allocateDirect( netBufferSize );
+        plainOut = allocate( appBufferSize );
+        plainIn = allocate( appBufferSize );
+        cipherOut = allocate( netBufferSize );
+        cipherIn = allocate( netBufferSize );
+    }
+
+    private ByteBuffer allocate( int capacity )
+    {
+        return arena == null ? ByteBuffer.allocateDirect( capacity ) : arena.lease( capacity );
+    }
+
+    private void free( ByteBuffer buffer )
+    {
+        if ( arena != null )
+        {
+            arena.release( buffer );
+        }
+    }
+
+    /**
+     * Give the buffers back to the arena, unless bytes received are still in them, waiting to be deciphered or read.
+     * Buffers are leased again once the channel is read from or written to.
+     */
+    public void park()
+    {
+        if ( arena != null && plainIn != null && plainIn.position() == 0 && cipherIn.position() == 0 )
+        {
+            releaseBuffers();
+        }
+    }
+
+    /** Take buffers to work with, if the channel is parked */
+    private void unpark() throws IOException
+    {
+        if ( plainIn == null )
+        {
+            createBuffers();
+        }
+    }
+
+    private void releaseBuffers()
+    {
+        free( plainOut );
+        free( plainIn );
+        free( cipherOut );
+        free( cipherIn );
+        plainOut = plainIn = cipherOut = cipherIn = null;
     }
 
     /** Should only be used in tests */
@@ -389,6 +450,7 @@ public class SSLSocketChannel implements ByteChannel
          * read encrypted data from underlying channel and put the deciphered data in the plain buffer.
          * Return how many deciphered data that have been put dst.
          */
+        unpark();
         int toRead = dst.remaining();
         plainIn.flip();
         if ( plainIn.remaining() >= toRead )
@@ -417,6 +479,7 @@ public class SSLSocketChannel implements ByteChannel
          * Encrypt the plain text data in src buffer and write them into underlying channel.
          * Return how many plain text data in src that have been written to the underlying channel.
          */
+        unpark();
         int toWrite = src.remaining();
         while ( src.remaining() > 0 )
         {
@@ -434,30 +497,43 @@ public class SSLSocketChannel implements ByteChannel
     @Override
     public void close() throws IOException
     {
-        plainOut.clear();
-        // Indicate that application is done with engine
-        sslEngine.closeOutbound();
-
-        while ( !sslEngine.isOutboundDone() )
+        unpark();
+        try
         {
-            // Get close message
-            SSLEngineResult res = sslEngine.wrap( plainOut, cipherOut );
-
-            // Check res statuses
+            plainOut.clear();
+            // Indicate that application is done with engine
+            sslEngine.closeOutbound();
 
-            // Send close message to peer
-            while ( cipherOut.hasRemaining() )
+            while ( !sslEngine.isOutboundDone() )
             {
-                int num = channel.write( cipherOut );
-                if ( num == -1 )
+                // Get close message
+                SSLEngineResult res = sslEngine.wrap( plainOut, cipherOut );
+
+                // Check res statuses
+
+                // Send close message to peer, only what was wrapped, as the rest of a leased buffer may hold anything
+                cipherOut.flip();
+                while ( cipherOut.hasRemaining() )
                 {
-                    // handle closed channel
-                    break;
+                    int num = channel.write( cipherOut );
+                    if ( num == -1 )
+                    {
+                        // handle closed channel
+                        break;
+                    }
                 }
+                cipherOut.clear();
+            }
+            // Close transport
+            channel.close();
+        }
+        finally
+        {
+            if ( arena != null )
+            {
+                releaseBuffers();
             }
         }
-        // Close transport
-        channel.close();
         logger.debug( "TLS connection closed" );
     }
 
@@ -26,14 +26,19 @@ import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
 import java.nio.channels.SocketChannel;
 import java.security.GeneralSecurityException;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.neo4j.driver.Config;
 import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.messaging.Message;
 import org.neo4j.driver.internal.messaging.MessageFormat.Reader;
 import org.neo4j.driver.internal.messaging.MessageFormat.Writer;
+import org.neo4j.driver.internal.messaging.ParameterEncoders;
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
 import org.neo4j.driver.internal.spi.Logger;
+import org.neo4j.driver.internal.util.BufferArena;
+
+import static org.neo4j.driver.internal.metrics.DevNullConnectionPoolMetrics.DEV_NULL_METRICS;
 
 public class SocketClient
 {
@@ -41,19 +46,35 @@ public class SocketClient
     private final int port;
     private final Logger logger;
     protected final Config config;
+    private final ConnectionPoolMetrics metrics;
+    private final BufferArena arena = BufferArena.shared();
+
+    /** Drives {@link #receiveAsync(SocketResponseHandler, int)}, null if the client only receives by blocking */
+    private final SocketEventLoop eventLoop;
 
     private SocketProtocol protocol;
     private Reader reader;
     private Writer writer;
+    private SocketEventLoop.Receiver receiver;
 
+    private SocketChannel socketChannel;
+    private SSLSocketChannel tlsChannel;
     private ByteChannel channel;
 
     public SocketClient( String host, int port, Config config, Logger logger )
+    {
+        this( host, port, config, logger, DEV_NULL_METRICS, null );
+    }
+
+    public SocketClient( String host, int port, Config config, Logger logger, ConnectionPoolMetrics metrics,
+            SocketEventLoop eventLoop )
     {
         this.host = host;
         this.port = port;
         this.config = config;
         this.logger = logger;
+        this.metrics = metrics;
+        this.eventLoop = eventLoop;
     }
 
     public void start()
@@ -61,11 +82,26 @@ public class SocketClient
         try
         {
             logger.debug( "~~ [CONNECT] %s:%d.", host, port );
-            channel = ChannelFactory.create( host, port, config, logger );
+            long start = System.nanoTime();
+            socketChannel = ChannelFactory.connect( host, port );
+            long connected = System.nanoTime();
+            metrics.connected( connected - start );
+            if ( config.isTlsEnabled() )
+            {
+                tlsChannel = new SSLSocketChannel( host, port, socketChannel, logger, config.tlsAuthConfig(), arena );
+                long secured = System.nanoTime();
+                metrics.tlsHandshake( secured - connected );
+                connected = secured;
+            }
+            channel = ChannelFactory.create( socketChannel, tlsChannel, logger );
 
             protocol = negotiateProtocol();
+            metrics.protocolNegotiated( System.nanoTime() - connected );
             reader = protocol.reader();
             writer = protocol.writer();
+
+            // Nothing is held in the buffers after the handshake, until messages are sent
+            park();
         }
         catch ( ConnectException e )
         {
@@ -83,21 +119,104 @@ public class SocketClient
         }
     }
 
-    public void send( List<Message> pendingMessages, SocketResponseHandler handler ) throws IOException
+    /** Write a message, it is sent once the output buffer fills up or is {@link #flush() flushed} */
+    public void write( Message message ) throws IOException
+    {
+        writer.write( message );
+    }
+
+    public void flush() throws IOException
     {
-        for ( Message message : pendingMessages )
-        {
-            writer.write( message );
-        }
         writer.flush();
+    }
+
+    /**
+     * Drop what has been written of a message that failed to be written halfway, such as on a parameter of a type
+     * that cannot be sent.
+     *
+     * @return false if part of it went out already, so the server will never make sense of what is sent after it
+     */
+    public boolean discardUnfinishedMessage()
+    {
+        return protocol.output().discardUnfinishedMessage();
+    }
+
+    /** Read a single message off the wire, blocking until it has fully arrived. */
+    public void receiveOne( SocketResponseHandler handler ) throws IOException
+    {
+        reader.read( handler );
+    }
 
-        // Wait until all pending requests have been replied to
-        while ( handler.receivedResponses() < pendingMessages.size() )
+    /** Read messages until every request registered with the handler has been replied to. */
+    public void receiveAll( SocketResponseHandler handler ) throws IOException
+    {
+        while ( handler.collectorsWaiting() > 0 )
         {
             reader.read( handler );
         }
     }
 
+    /**
+     * When the first byte of the message last read by {@link #receiveOne(SocketResponseHandler)} or
+     * {@link #receiveAll(SocketResponseHandler)} arrived, in {@link System#nanoTime()}.
+     */
+    public long lastMessageArrivedAt()
+    {
+        return protocol.messageArrivedAt();
+    }
+
+    /**
+     * Read up to a given number of messages, stopping early once every request registered with the handler has been
+     * replied to, without blocking the calling thread. The client must not be used for anything else until the
+     * returned future completes.
+     *
+     * @param maxMessages the most messages to read, or {@link SocketEventLoop#ALL_MESSAGES}
+     */
+    public CompletableFuture<Void> receiveAsync( final SocketResponseHandler handler, final int maxMessages )
+    {
+        if ( eventLoop == null )
+        {
+            throw new ClientException( "This connection does not support receiving asynchronously." );
+        }
+        if ( channel instanceof AllOrNothingChannel )
+        {
+            if ( receiver == null )
+            {
+                receiver = eventLoop.receiver( socketChannel, protocol.input(), reader );
+            }
+            return receiver.receive( handler, maxMessages );
+        }
+        else
+        {
+            // TLS and trace logging both need to see every byte read through their own channels, which only
+            // support blocking reads.
+            return eventLoop.runBlocking( new SocketEventLoop.BlockingAction()
+            {
+                @Override
+                public void run() throws IOException
+                {
+                    for ( int i = 0; i < maxMessages && handler.collectorsWaiting() > 0; i++ )
+                    {
+                        reader.read( handler );
+                    }
+                }
+            } );
+        }
+    }
+
+    /**
+     * Give the buffers messages are written and read through back to the arena while the client is idle, except
+     * those still holding bytes not yet sent or read. Buffers are leased again once the client is used.
+     */
+    public void park()
+    {
+        protocol.park();
+        if ( tlsChannel != null )
+        {
+            tlsChannel.park();
+        }
+    }
+
     public void stop()
     {
         try
@@ -109,6 +228,13 @@ public class SocketClient
         {
             throw new ClientException( "Unable to close socket connection properly." + e.getMessage(), e );
         }
+        finally
+        {
+            if ( protocol != null )
+            {
+                protocol.release();
+            }
+        }
     }
 
     private SocketProtocol negotiateProtocol() throws IOException
@@ -138,7 +264,8 @@ public class SocketClient
         {
         case 1:
             logger.debug( "~~ [HANDSHAKE] 1" );
-            return new SocketProtocolV1( channel );
+            return new SocketProtocolV1( channel, config.lazyRecordDecoding(),
+                    new ParameterEncoders( config.parameterEncoders() ), arena );
         case 0: throw new ClientException( "The server does not support any of the protocol versions supported by " +
                                            "this driver. Ensure that you are using driver and server versions that " +
                                            "are compatible with one another." );
@@ -156,19 +283,23 @@ public class SocketClient
 
     private static class ChannelFactory
     {
-        public static ByteChannel create( String host, int port, Config config, Logger logger )
-                throws IOException, GeneralSecurityException
+        public static SocketChannel connect( String host, int port ) throws IOException
         {
             SocketChannel soChannel = SocketChannel.open();
             soChannel.setOption( StandardSocketOptions.SO_REUSEADDR, true );
             soChannel.setOption( StandardSocketOptions.SO_KEEPALIVE, true );
             soChannel.connect( new InetSocketAddress( host, port ) );
+            return soChannel;
+        }
 
+        public static ByteChannel create( SocketChannel soChannel, SSLSocketChannel tlsChannel, Logger logger )
+                throws IOException
+        {
             ByteChannel channel = null;
 
-            if( config.isTlsEnabled() )
+            if( tlsChannel != null )
             {
-                channel = new SSLSocketChannel( host, port, soChannel, logger, config.tlsAuthConfig() );
+                channel = tlsChannel;
             }
             else
             {
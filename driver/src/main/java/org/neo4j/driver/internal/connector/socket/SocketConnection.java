@@ -20,36 +20,69 @@ package org.neo4j.driver.internal.connector.socket;
 
 import java.io.IOException;
 import java.net.SocketTimeoutException;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
 
 import org.neo4j.driver.Config;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.QueryTimer;
+import org.neo4j.driver.internal.RecordFields;
+import org.neo4j.driver.internal.StandardPreparedStatement;
 import org.neo4j.driver.internal.messaging.AckFailureMessage;
 import org.neo4j.driver.internal.messaging.InitMessage;
 import org.neo4j.driver.internal.messaging.Message;
+import org.neo4j.driver.internal.messaging.PreparedRunMessage;
 import org.neo4j.driver.internal.messaging.RunMessage;
 import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
 import org.neo4j.driver.internal.spi.Logger;
+import org.neo4j.driver.internal.spi.QueryTimingListener;
 import org.neo4j.driver.internal.spi.StreamCollector;
 
 import static org.neo4j.driver.internal.messaging.DiscardAllMessage.DISCARD_ALL;
+import static org.neo4j.driver.internal.metrics.DevNullConnectionPoolMetrics.DEV_NULL_METRICS;
 import static org.neo4j.driver.internal.messaging.PullAllMessage.PULL_ALL;
 
 public class SocketConnection implements Connection
 {
     private final Logger logger;
 
-    private int requestCounter = 0;
-    private final LinkedList<Message> pendingMessages = new LinkedList<>();
+    private final List<Message> pendingMessages = new ArrayList<>();
     private final SocketResponseHandler responseHandler;
 
     private final SocketClient socket;
 
+    /** Told how long statements took to run, null if statements are not timed */
+    private final QueryTimingListener timingListener;
+
+    /** Timers of statements queued but not yet written, only used if statements are timed */
+    private final List<QueryTimer> unwrittenTimers = new ArrayList<>();
+
+    /** Timer of the statement last run, until its records are pulled or discarded */
+    private QueryTimer lastTimer;
+
+    /** Set once a message could only partly be sent, nothing sent after it would make sense to the server */
+    private RuntimeException partlySent;
+
     public SocketConnection( String host, int port, Config config )
+    {
+        this( host, port, config, DEV_NULL_METRICS, null );
+    }
+
+    /**
+     * @param eventLoop receives responses asynchronously, null if responses are only ever received by blocking
+     */
+    public SocketConnection( String host, int port, Config config, ConnectionPoolMetrics metrics,
+            SocketEventLoop eventLoop )
     {
         this.logger = config.logging().getLog( getClass().getName() );
+        this.timingListener = config.queryTimingListener();
 
         if( logger.isDebugEnabled() )
         {
@@ -60,7 +93,7 @@ public class SocketConnection implements Connection
             this.responseHandler = new SocketResponseHandler();
         }
 
-        this.socket = new SocketClient( host, port, config, logger );
+        this.socket = new SocketClient( host, port, config, logger, metrics, eventLoop );
         socket.start();
     }
 
@@ -68,84 +101,285 @@ public class SocketConnection implements Connection
     public void init( String clientName )
     {
         // No need to sync, this'll get sent once regular communication starts
-        queueMessage( new InitMessage( clientName ) );
+        queueMessage( new InitMessage( clientName ), StreamCollector.NO_OP );
     }
 
     @Override
     public void run( String statement, Map<String,Value> parameters, StreamCollector collector )
     {
-        int messageId = queueMessage( new RunMessage( statement, parameters ) );
-        if ( collector != null )
+        queueMessage( new RunMessage( statement, parameters ), timeStatement( statement, collector ) );
+    }
+
+    @Override
+    public void run( StandardPreparedStatement statement, Value[] parameterValues, StreamCollector collector )
+    {
+        queueMessage( new PreparedRunMessage( statement, parameterValues ),
+                timeStatement( statement.text(), collector ) );
+    }
+
+    /** Start timing a statement being run, if statements are timed, and time its run response */
+    private StreamCollector timeStatement( String statement, StreamCollector collector )
+    {
+        if ( collector == null )
+        {
+            collector = StreamCollector.NO_OP;
+        }
+        if ( timingListener != null )
         {
-            responseHandler.registerResultCollector( messageId, collector );
+            QueryTimer timer = new QueryTimer( statement, timingListener );
+            collector.timed( timer );
+            unwrittenTimers.add( timer );
+            lastTimer = timer;
+            collector = new TimingCollector( collector, timer, true );
         }
+        return collector;
     }
 
     @Override
     public void discardAll()
     {
-        queueMessage( DISCARD_ALL );
+        queueMessage( DISCARD_ALL, timeStream( StreamCollector.NO_OP ) );
     }
 
     @Override
     public void pullAll( StreamCollector collector )
     {
-        int messageId = queueMessage( PULL_ALL );
-        responseHandler.registerResultCollector( messageId, collector );
+        queueMessage( PULL_ALL, timeStream( collector ) );
     }
 
     @Override
-    public void sync()
+    public void flush()
     {
+        if ( partlySent != null )
+        {
+            throw new ClientException( "This connection can no longer be used, because a message could only partly " +
+                                       "be sent: " + partlySent.getMessage(), partlySent );
+        }
         if ( pendingMessages.size() == 0 )
         {
             return;
         }
 
+        long started = unwrittenTimers.isEmpty() ? 0 : System.nanoTime();
+        RuntimeException unwritable = null;
         try
         {
-            socket.send( pendingMessages, responseHandler );
-            requestCounter = 0; // Reset once we've sent all pending request to avoid wrap-around handling
-            pendingMessages.clear();
-            if ( responseHandler.serverFailureOccurred() )
+            int written = 0;
+            try
+            {
+                for ( ; written < pendingMessages.size(); written++ )
+                {
+                    socket.write( pendingMessages.get( written ) );
+                }
+            }
+            catch ( RuntimeException e )
+            {
+                // Typically a parameter of a type that cannot be sent, found halfway through writing the message
+                unwritable = discardUnwritable( written, e );
+            }
+            catch ( StackOverflowError e )
             {
-                // Its enough to simply add the ack message to the outbound queue, it'll get sent
-                // off as the first message the next time we need to sync with the database.
-                queueMessage( new AckFailureMessage() );
-                throw responseHandler.serverFailure();
+                // Parameters containing themselves, or encoders handing each other back what they encode
+                unwritable = discardUnwritable( written, new ClientException(
+                        "Parameters are nested too deeply, or contain themselves.", e ) );
             }
+            socket.flush();
+            pendingMessages.clear();
         }
         catch ( IOException e )
         {
-            requestCounter = 0; // Reset once we've sent all pending request to avoid wrap-around handling
             pendingMessages.clear();
-            String message = e.getMessage();
-            if ( message == null )
+            unwrittenTimers.clear();
+            responseHandler.clear();
+            throw networkError( e );
+        }
+
+        if ( started != 0 )
+        {
+            long finished = System.nanoTime();
+            for ( QueryTimer timer : unwrittenTimers )
             {
-                throw new ClientException( "Unable to read response from server: " + e.getClass().getSimpleName(), e );
+                timer.written( started, finished );
             }
-            else if ( e instanceof SocketTimeoutException )
+            unwrittenTimers.clear();
+        }
+        if ( unwritable != null )
+        {
+            throw unwritable;
+        }
+    }
+
+    /**
+     * Drop a message that failed to be written, along with the messages queued after it, so that the connection can
+     * carry on with the next ones. The messages before it are still sent.
+     *
+     * @return the error to report, classified as a client error, so that the connection is not taken to be broken
+     */
+    private ClientException discardUnwritable( int failed, RuntimeException e )
+    {
+        if ( !socket.discardUnfinishedMessage() )
+        {
+            pendingMessages.clear();
+            unwrittenTimers.clear();
+            responseHandler.clear();
+            partlySent = e;
+            throw e;
+        }
+        responseHandler.removeLast( pendingMessages.size() - failed );
+        discardTimers( failed );
+        return new ClientException( "Neo.ClientError.Request.Invalid",
+                "Unable to send statement: " + e.getMessage(), e );
+    }
+
+    /** Forget the timers of statements among the messages dropped from the given one on, they will never run */
+    private void discardTimers( int firstDropped )
+    {
+        for ( int i = firstDropped; i < pendingMessages.size(); i++ )
+        {
+            Message msg = pendingMessages.get( i );
+            if ( (msg instanceof RunMessage || msg instanceof PreparedRunMessage) && !unwrittenTimers.isEmpty() )
             {
-                throw new ClientException( "Server did not reply within the network timeout limit.", e );
+                // Statements are timed in the order they are queued, so those dropped are the last ones timed
+                QueryTimer timer = unwrittenTimers.remove( unwrittenTimers.size() - 1 );
+                if ( timer == lastTimer )
+                {
+                    lastTimer = null;
+                }
             }
-            else
+        }
+    }
+
+    @Override
+    public void receiveOne()
+    {
+        try
+        {
+            socket.receiveOne( responseHandler );
+        }
+        catch ( IOException e )
+        {
+            responseHandler.clear();
+            throw networkError( e );
+        }
+        throwIfServerFailureOccurred();
+    }
+
+    @Override
+    public void sync()
+    {
+        flush();
+        try
+        {
+            socket.receiveAll( responseHandler );
+        }
+        catch ( IOException e )
+        {
+            responseHandler.clear();
+            throw networkError( e );
+        }
+        throwIfServerFailureOccurred();
+    }
+
+    @Override
+    public CompletionStage<Void> receiveAsync( int maxMessages )
+    {
+        return afterReceive( socket.receiveAsync( responseHandler, maxMessages ) );
+    }
+
+    @Override
+    public CompletionStage<Void> syncAsync()
+    {
+        flush();
+        return afterReceive( socket.receiveAsync( responseHandler, SocketEventLoop.ALL_MESSAGES ) );
+    }
+
+    private CompletionStage<Void> afterReceive( CompletableFuture<Void> received )
+    {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        received.whenComplete( new BiConsumer<Void,Throwable>()
+        {
+            @Override
+            public void accept( Void ignore, Throwable error )
             {
-                throw new ClientException( "Unable to read response from server: " + message, e );
+                try
+                {
+                    if ( error != null )
+                    {
+                        responseHandler.clear();
+                        throw error instanceof IOException ? networkError( (IOException) error ) : error;
+                    }
+                    throwIfServerFailureOccurred();
+                    done.complete( null );
+                }
+                catch ( Throwable e )
+                {
+                    done.completeExceptionally( e );
+                }
+            }
+        } );
+        return done;
+    }
+
+    private void throwIfServerFailureOccurred()
+    {
+        if ( responseHandler.serverFailureOccurred() )
+        {
+            Neo4jException failure = responseHandler.serverFailure();
+            responseHandler.clearError();
+
+            // Its enough to simply add the ack message to the outbound queue, it'll get sent
+            // off as the first message the next time we need to sync with the database.
+            queueMessage( new AckFailureMessage(), StreamCollector.NO_OP );
+            if ( failure != null )
+            {
+                throw failure;
             }
         }
-        finally
+    }
+
+    private ClientException networkError( IOException e )
+    {
+        String message = e.getMessage();
+        if ( message == null )
         {
-            responseHandler.clear();
+            return new ClientException( "Unable to read response from server: " + e.getClass().getSimpleName(), e );
         }
+        else if ( e instanceof SocketTimeoutException )
+        {
+            return new ClientException( "Server did not reply within the network timeout limit.", e );
+        }
+        else
+        {
+            return new ClientException( "Unable to read response from server: " + message, e );
+        }
+    }
 
+    /** Time the records of the statement last run being received by the given collector, if it is timed */
+    private StreamCollector timeStream( StreamCollector collector )
+    {
+        if ( lastTimer == null )
+        {
+            return collector;
+        }
+        QueryTimer timer = lastTimer;
+        lastTimer = null;
+        return new TimingCollector( collector, timer, false );
     }
 
-    private int queueMessage( Message msg )
+    private void queueMessage( Message msg, StreamCollector collector )
     {
-        int messageId = nextRequestId();
         pendingMessages.add( msg );
-        logger.debug( "C: %s", msg );
-        return messageId;
+        responseHandler.appendResultCollector( collector );
+        if ( logger.isDebugEnabled() )
+        {
+            logger.debug( "C: %s", msg );
+        }
+    }
+
+    @Override
+    public void park()
+    {
+        socket.park();
     }
 
     @Override
@@ -154,8 +388,62 @@ public class SocketConnection implements Connection
         socket.stop();
     }
 
-    private int nextRequestId()
+    /** Stamps the timer of a statement as the responses to it come in, on their way to the actual collector */
+    private class TimingCollector implements StreamCollector
     {
-        return (requestCounter++);
+        private final StreamCollector delegate;
+        private final QueryTimer timer;
+        private final boolean run;
+
+        private TimingCollector( StreamCollector delegate, QueryTimer timer, boolean run )
+        {
+            this.delegate = delegate;
+            this.timer = timer;
+            this.run = run;
+        }
+
+        @Override
+        public void fieldNames( String[] names )
+        {
+            delegate.fieldNames( names );
+        }
+
+        @Override
+        public void record( RecordFields fields )
+        {
+            delegate.record( fields );
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            return delegate.wantsRecords();
+        }
+
+        @Override
+        public boolean failure( Neo4jException error )
+        {
+            return delegate.failure( error );
+        }
+
+        @Override
+        public void done()
+        {
+            if ( run )
+            {
+                timer.runCompleted( socket.lastMessageArrivedAt() );
+            }
+            else
+            {
+                timer.streamCompleted();
+            }
+            delegate.done();
+        }
+
+        @Override
+        public void timed( QueryTimer timer )
+        {
+            delegate.timed( timer );
+        }
     }
 }
@@ -31,6 +31,20 @@ import static java.util.Arrays.asList;
 
 public class SocketConnector implements Connector
 {
+    /** Receives responses for connections asynchronously, null if they only ever receive by blocking */
+    private final SocketEventLoop eventLoop;
+
+    /** Used when loaded as a service, the connections it opens can only receive responses by blocking */
+    public SocketConnector()
+    {
+        this( null );
+    }
+
+    public SocketConnector( SocketEventLoop eventLoop )
+    {
+        this.eventLoop = eventLoop;
+    }
+
     @Override
     public boolean supports( String scheme )
     {
@@ -41,7 +55,8 @@ public class SocketConnector implements Connector
     public Connection connect( URI sessionURI, Config config ) throws ClientException
     {
         int port = sessionURI.getPort() == -1 ? Config.DEFAULT_PORT : sessionURI.getPort();
-        SocketConnection conn = new SocketConnection( sessionURI.getHost(), port, config );
+        SocketConnection conn = new SocketConnection( sessionURI.getHost(), port, config,
+                config.metrics().connectionPool( sessionURI ), eventLoop );
         conn.init( "bolt-java-driver/" + Version.driverVersion() );
         return conn;
     }
@@ -0,0 +1,499 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.messaging.MessageFormat;
+
+/**
+ * A single I/O thread that receives responses for any number of connections, using a {@link Selector} over their
+ * socket channels. Rather than a thread blocking in a read per connection, bytes are read as they become available
+ * and messages are decoded once they have fully arrived.
+ * <p>
+ * Channels are only owned by the loop while a receive is in progress, they are put back into blocking mode once all
+ * the responses asked for have arrived, so regular blocking I/O can carry on using them afterwards.
+ * <p>
+ * Each driver has a loop of its own, which lives no longer than the driver does.
+ */
+public class SocketEventLoop
+{
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /** Receives that completed during the current round of selection, finished off once their keys are cancelled */
+    private final List<Receiver> completed = new ArrayList<>();
+
+    /* opened on first use, so that a driver only ever running statements synchronously starts no threads for them */
+    private Selector selector;
+
+    /**
+     * Used for channels the loop cannot drive, such as TLS channels, which only support blocking reads, and for
+     * anything else that may block, and so must not run on the loop thread
+     */
+    private ExecutorService blockingFallback;
+
+    private volatile boolean shutdown;
+
+    /**
+     * Create a loop for one driver. Its threads are started on first use, and stopped by {@link #shutdown()}, which
+     * the driver does once it is closed.
+     */
+    public SocketEventLoop()
+    {
+    }
+
+    private synchronized void start()
+    {
+        if ( shutdown )
+        {
+            throw new ClientException( "The driver has been closed, statements can no longer be run asynchronously." );
+        }
+        if ( selector != null )
+        {
+            return;
+        }
+        try
+        {
+            this.selector = Selector.open();
+        }
+        catch ( IOException e )
+        {
+            throw new ClientException( "Unable to start driver I/O thread: " + e.getMessage(), e );
+        }
+        this.blockingFallback = Executors.newCachedThreadPool( daemon( "neo4j-driver-blocking-io-" ) );
+
+        Thread thread = daemon( "neo4j-driver-io-" ).newThread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                loop();
+            }
+        } );
+        thread.start();
+    }
+
+    /**
+     * Stop the threads of the loop, if they were ever started. Receives still in progress fail, and so does anything
+     * asked of the loop afterwards.
+     */
+    public synchronized void shutdown()
+    {
+        if ( shutdown )
+        {
+            return;
+        }
+        shutdown = true;
+        if ( selector != null )
+        {
+            blockingFallback.shutdownNow();
+            selector.wakeup();
+        }
+    }
+
+    /** Passed as the message budget to receive everything outstanding */
+    public static final int ALL_MESSAGES = Integer.MAX_VALUE;
+
+    /**
+     * Create what receives responses for one connection, to be kept for as long as the connection is open. Responses
+     * are received into the same input, and decoded with the same reader, that blocking reads on the connection use,
+     * so that their buffers and decoding caches are shared, and either can carry on where the other stopped.
+     *
+     * @param channel the socket channel beneath the input, it is switched to non-blocking mode while receiving
+     * @param input the input of the connection
+     * @param reader the reader of the connection, reading from the input
+     */
+    public Receiver receiver( SocketChannel channel, ChunkedInput input, MessageFormat.Reader reader )
+    {
+        return new Receiver( channel, input, reader );
+    }
+
+    /** Run a blocking action on a thread set aside for it, for channels the loop cannot drive. */
+    public CompletableFuture<Void> runBlocking( final BlockingAction action )
+    {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        try
+        {
+            blockingExecutor().execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        action.run();
+                        future.complete( null );
+                    }
+                    catch ( Throwable e )
+                    {
+                        future.completeExceptionally( e );
+                    }
+                }
+            } );
+        }
+        catch ( ClientException | RejectedExecutionException e )
+        {
+            future.completeExceptionally( e );
+        }
+        return future;
+    }
+
+    /**
+     * Runs work that may block, or that is not known not to, off the loop thread. Applications are handed futures
+     * completed here, rather than on the loop thread, so that whatever they chain onto them cannot stall every other
+     * connection, and so can sending, which blocks until the socket takes the messages.
+     */
+    public synchronized Executor blockingExecutor()
+    {
+        start();
+        return blockingFallback;
+    }
+
+    public interface BlockingAction
+    {
+        void run() throws IOException;
+    }
+
+    private synchronized void submit( Runnable task )
+    {
+        start();
+        tasks.add( task );
+        selector.wakeup();
+    }
+
+    private void loop()
+    {
+        while ( !shutdown )
+        {
+            try
+            {
+                selector.select();
+
+                Runnable task;
+                while ( (task = tasks.poll()) != null )
+                {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while ( keys.hasNext() )
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    ((Receiver) key.attachment()).onReadable();
+                }
+
+                finishCompleted();
+            }
+            catch ( Throwable e )
+            {
+                // Failures of individual receives are handed to their futures, anything ending up here is a bug in
+                // the loop itself - keep going, or every connection relying on the loop would hang. Receives that
+                // were about to be finished would hang, too, fail them instead.
+                for ( Receiver receiver : completed )
+                {
+                    receiver.future.completeExceptionally( e );
+                }
+                completed.clear();
+            }
+        }
+        stop();
+    }
+
+    /** Fail the receives left waiting on the loop, and let go of the selector */
+    private void stop()
+    {
+        for ( SelectionKey key : selector.keys() )
+        {
+            ((Receiver) key.attachment()).future.completeExceptionally( driverClosed() );
+        }
+        try
+        {
+            selector.close();
+        }
+        catch ( IOException e )
+        {
+            // The loop is gone either way
+        }
+        synchronized ( this )
+        {
+            // Nothing is submitted once shut down, so these are the last receives to fail
+            Runnable task;
+            while ( (task = tasks.poll()) != null )
+            {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * Channels can only go back to blocking mode once the selector has dropped their cancelled keys, which happens
+     * on the next selection operation, so receives are completed in bulk after each round.
+     */
+    private void finishCompleted()
+    {
+        if ( completed.isEmpty() )
+        {
+            return;
+        }
+        try
+        {
+            selector.selectNow();
+        }
+        catch ( IOException e )
+        {
+            // The keys have not been dropped, so the channels cannot be put back, which fails the receives below
+        }
+        for ( Receiver receiver : completed )
+        {
+            try
+            {
+                receiver.finish();
+            }
+            catch ( Throwable e )
+            {
+                receiver.future.completeExceptionally( e );
+            }
+        }
+        completed.clear();
+    }
+
+    /**
+     * Receives responses for one connection, one receive at a time. The connection must not be used by anyone else
+     * while a receive is in progress.
+     */
+    public class Receiver
+    {
+        private final SocketChannel channel;
+        private final ChunkedInput input;
+        private final MessageFormat.Reader reader;
+
+        /* the receive in progress */
+        private SocketResponseHandler handler;
+        private CompletableFuture<Void> future;
+        private int messagesLeft;
+        private SelectionKey key;
+        private Throwable failure;
+
+        private Receiver( SocketChannel channel, ChunkedInput input, MessageFormat.Reader reader )
+        {
+            this.channel = channel;
+            this.input = input;
+            this.reader = reader;
+        }
+
+        /**
+         * Receive at most a given number of messages, stopping early if the handler has no more requests waiting for
+         * a reply.
+         * <p>
+         * With a limited budget, the loop never reads past the last message it is allowed to decode, leaving
+         * everything after it in the socket receive buffer. That is slower than reading everything available, but is
+         * what lets a slow consumer hold back a fast server through TCP flow control.
+         *
+         * @param handler receives the messages decoded
+         * @param maxMessages the most messages to decode, or {@link #ALL_MESSAGES}
+         * @return a future completed once the messages have arrived, or completed exceptionally if the channel fails
+         */
+        public CompletableFuture<Void> receive( SocketResponseHandler handler, int maxMessages )
+        {
+            this.handler = handler;
+            this.messagesLeft = maxMessages;
+            this.failure = null;
+            final CompletableFuture<Void> future = this.future = new CompletableFuture<>();
+            if ( isDone() )
+            {
+                future.complete( null );
+                return future;
+            }
+            try
+            {
+                submit( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        register();
+                    }
+                } );
+            }
+            catch ( ClientException e )
+            {
+                future.completeExceptionally( e );
+            }
+            return future;
+        }
+
+        private boolean isDone()
+        {
+            return handler.collectorsWaiting() == 0 || messagesLeft == 0;
+        }
+
+        private void register()
+        {
+            if ( shutdown )
+            {
+                future.completeExceptionally( driverClosed() );
+                return;
+            }
+            try
+            {
+                // Messages received ahead by earlier reads need no waiting for
+                decode();
+                if ( isDone() )
+                {
+                    future.complete( null );
+                    return;
+                }
+                channel.configureBlocking( false );
+                key = channel.register( selector, SelectionKey.OP_READ, this );
+            }
+            catch ( IOException e )
+            {
+                future.completeExceptionally(
+                        new ClientException( "Unable to process request: " + e.getMessage(), e ) );
+            }
+            catch ( Throwable e )
+            {
+                future.completeExceptionally( e );
+            }
+        }
+
+        private void onReadable()
+        {
+            try
+            {
+                for (; ; )
+                {
+                    int atMost = messagesLeft == ALL_MESSAGES ? ALL_MESSAGES : input.bytesMissing();
+                    int read = input.receiveArrived( channel, atMost );
+                    if ( read == -1 )
+                    {
+                        throw new ClientException(
+                                "Connection terminated while receiving data. This can happen due to network " +
+                                "instabilities, or due to restarts of the database." );
+                    }
+
+                    decode();
+
+                    if ( isDone() )
+                    {
+                        complete( null );
+                        return;
+                    }
+                    if ( read == 0 )
+                    {
+                        // Drained the socket, wait to be told there is more
+                        return;
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                complete( new ClientException( "Unable to read response from server: " + e.getMessage(), e ) );
+            }
+            catch ( Throwable e )
+            {
+                complete( e );
+            }
+        }
+
+        /** Read the messages that have fully arrived, which the reader can do without touching the channel */
+        private void decode() throws IOException
+        {
+            while ( !isDone() && input.bytesMissing() == 0 )
+            {
+                reader.read( handler );
+                if ( messagesLeft != ALL_MESSAGES )
+                {
+                    messagesLeft--;
+                }
+            }
+        }
+
+        private void complete( Throwable failure )
+        {
+            this.failure = failure;
+            key.cancel();
+            completed.add( this );
+        }
+
+        private void finish()
+        {
+            // Completing the future may start the next receive, which starts out afresh
+            CompletableFuture<Void> future = this.future;
+            Throwable failure = this.failure;
+            try
+            {
+                channel.configureBlocking( true );
+            }
+            catch ( IOException e )
+            {
+                if ( failure == null )
+                {
+                    failure = new ClientException( "Unable to process request: " + e.getMessage(), e );
+                }
+            }
+
+            if ( failure == null )
+            {
+                future.complete( null );
+            }
+            else
+            {
+                future.completeExceptionally( failure );
+            }
+        }
+    }
+
+    private static ClientException driverClosed()
+    {
+        return new ClientException( "The driver was closed while receiving data." );
+    }
+
+    private static ThreadFactory daemon( final String prefix )
+    {
+        final AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, prefix + threadCount.incrementAndGet() );
+                thread.setDaemon( true );
+                return thread;
+            }
+        };
+    }
+}
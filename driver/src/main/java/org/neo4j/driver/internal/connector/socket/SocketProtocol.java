@@ -18,6 +18,7 @@
  */
 package org.neo4j.driver.internal.connector.socket;
 
+import org.neo4j.driver.internal.messaging.MessageFormat;
 import org.neo4j.driver.internal.messaging.MessageFormat.Reader;
 import org.neo4j.driver.internal.messaging.MessageFormat.Writer;
 
@@ -28,4 +29,30 @@ public interface SocketProtocol
     Writer writer();
 
     int version();
+
+    MessageFormat messageFormat();
+
+    /**
+     * When the first byte of the message last read with the {@link #reader()} arrived, in {@link System#nanoTime()},
+     * or 0 if that is not known.
+     */
+    long messageArrivedAt();
+
+    /**
+     * The input the {@link #reader()} reads from. It may have received bytes past the messages read so far, so anyone
+     * else receiving messages must do so through it.
+     */
+    ChunkedInput input();
+
+    /** The output the {@link #writer()} writes to */
+    ChunkedOutput output();
+
+    /**
+     * Give buffers back while the connection is idle, keeping those that hold bytes not yet sent or read. They are
+     * taken again once messages are written or read.
+     */
+    void park();
+
+    /** Give all buffers back, as the connection is being closed */
+    void release();
 }
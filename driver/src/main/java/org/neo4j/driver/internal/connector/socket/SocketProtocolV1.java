@@ -25,22 +25,32 @@ import org.neo4j.driver.internal.messaging.MessageFormat;
 import org.neo4j.driver.internal.messaging.MessageFormat.Reader;
 import org.neo4j.driver.internal.messaging.MessageFormat.Writer;
 import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.messaging.ParameterEncoders;
+import org.neo4j.driver.internal.util.BufferArena;
 
 public class SocketProtocolV1 implements SocketProtocol
 {
     private final MessageFormat messageFormat;
     private final Reader reader;
     private final Writer writer;
+    private final ChunkedInput input;
+    private final ChunkedOutput output;
 
-    public SocketProtocolV1( ByteChannel channel ) throws IOException
+    /**
+     * @param lazyRecords whether to decode lists, maps and graph structures in records on first access
+     * @param encoders used for application types in parameters sent as they are
+     * @param arena where the buffers messages are written and read through are leased from
+     */
+    public SocketProtocolV1( ByteChannel channel, boolean lazyRecords, ParameterEncoders encoders,
+            BufferArena arena ) throws IOException
     {
-        messageFormat = new PackStreamMessageFormatV1();
+        messageFormat = new PackStreamMessageFormatV1( lazyRecords );
 
-        ChunkedOutput output = new ChunkedOutput( channel );
-        ChunkedInput input = new ChunkedInput( channel );
+        this.output = new ChunkedOutput( channel, arena );
+        this.input = new ChunkedInput( channel, arena );
 
-        this.writer = new PackStreamMessageFormatV1.Writer( output, output.messageBoundaryHook() );
-        this.reader = new PackStreamMessageFormatV1.Reader( input, input.messageBoundaryHook() );
+        this.writer = new PackStreamMessageFormatV1.Writer( output, output.messageBoundaryHook(), encoders );
+        this.reader = new PackStreamMessageFormatV1.Reader( input, input.messageBoundaryHook(), lazyRecords );
     }
 
     @Override
@@ -60,4 +70,42 @@ public class SocketProtocolV1 implements SocketProtocol
     {
         return messageFormat.version();
     }
+
+    @Override
+    public MessageFormat messageFormat()
+    {
+        return messageFormat;
+    }
+
+    @Override
+    public long messageArrivedAt()
+    {
+        return input.messageArrivedAt();
+    }
+
+    @Override
+    public ChunkedInput input()
+    {
+        return input;
+    }
+
+    @Override
+    public ChunkedOutput output()
+    {
+        return output;
+    }
+
+    @Override
+    public void park()
+    {
+        input.park();
+        output.park();
+    }
+
+    @Override
+    public void release()
+    {
+        input.release();
+        output.release();
+    }
 }
@@ -18,7 +18,8 @@
  */
 package org.neo4j.driver.internal.connector.socket;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 
 import org.neo4j.driver.Value;
@@ -26,79 +27,104 @@ import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.exceptions.DatabaseException;
 import org.neo4j.driver.exceptions.Neo4jException;
 import org.neo4j.driver.exceptions.TransientException;
+import org.neo4j.driver.internal.RecordFields;
+import org.neo4j.driver.internal.StandardPreparedStatement;
 import org.neo4j.driver.internal.messaging.MessageHandler;
 import org.neo4j.driver.internal.spi.StreamCollector;
 
 public class SocketResponseHandler implements MessageHandler
 {
     public static final String[] NO_FIELDS = new String[0];
-    private final Map<Integer,StreamCollector> collectors = new HashMap<>();
 
-    /** If a failure occurs, the error gets stored here */
+    /**
+     * One collector per request awaiting a response, in the order the requests were queued. Responses arrive in the
+     * same order, so the head of this queue is always the collector for the response currently being received.
+     */
+    private final Deque<StreamCollector> collectors = new ArrayDeque<>();
+
+    /** If a failure occurs that no collector keeps to report itself, the error gets stored here */
     private Neo4jException error;
 
-    /** Counts number of responses, used to correlate response data with stream collectors */
-    private int responseId = 0;
+    /** Set once the server fails a request, it ignores everything from then on until the failure is acknowledged */
+    private boolean failed;
 
-    public int receivedResponses()
+    /** Number of requests that have not yet received a full response */
+    public int collectorsWaiting()
     {
-        return responseId;
+        return collectors.size();
     }
 
     @Override
-    public void handleRecordMessage( Value[] fields )
+    public void handleRecordMessage( RecordFields fields )
     {
-        // This is not very efficient, using something like a singly-linked queue with a current collector as head
-        // would take advantage of the ordered nature of exchanges and avoid all these objects allocated from boxing
-        // below.
-        StreamCollector collector = collectors.get( responseId - 1 );
+        StreamCollector collector = collectors.peek();
         if ( collector != null )
         {
             collector.record( fields );
         }
     }
 
+    @Override
+    public boolean wantsRecords()
+    {
+        StreamCollector collector = collectors.peek();
+        return collector != null && collector.wantsRecords();
+    }
+
     @Override
     public void handleFailureMessage( String code, String message )
     {
         try
         {
+            Neo4jException failure;
             String[] parts = code.split( "\\." );
             String classification = parts[1];
             if ( classification.equals( "ClientError" ) )
             {
-                error = new ClientException( code, message );
+                failure = new ClientException( code, message );
             }
             else if ( classification.equals( "TransientError" ) )
             {
-                error = new TransientException( code, message );
+                failure = new TransientException( code, message );
             }
             else
             {
-                error = new DatabaseException( code, message );
+                failure = new DatabaseException( code, message );
+            }
+            failed = true;
+            StreamCollector collector = collectors.peek();
+            if ( collector == null || !collector.failure( failure ) )
+            {
+                error = failure;
             }
         }
         finally
         {
-            responseId++;
+            responseComplete();
         }
     }
 
     @Override
     public void handleSuccessMessage( Map<String,Value> meta )
     {
-        StreamCollector collector = collectors.get( responseId );
-        if ( collector != null )
+        StreamCollector collector = collectors.peek();
+        if ( collector != null && meta.containsKey( "fields" ) )
         {
             collector.fieldNames( fieldNamesFromMeta( meta ) );
         }
-        responseId++;
+        responseComplete();
     }
 
     @Override
     public void handleIgnoredMessage()
     {
-        responseId++;
+        StreamCollector collector = collectors.peek();
+        if ( collector != null )
+        {
+            collector.failure( new ClientException(
+                    "The statement was not run, because a statement sent before it failed." ) );
+        }
+        responseComplete();
     }
 
     @Override
@@ -131,28 +157,65 @@ public class SocketResponseHandler implements MessageHandler
 
     }
 
-    public void registerResultCollector( int correlationId, StreamCollector collector )
+    @Override
+    public void handlePreparedRunMessage( StandardPreparedStatement statement, Value[] parameterValues )
+    {
+
+    }
+
+    /**
+     * Register the collector for the next request sent, use {@link StreamCollector#NO_OP} if the response is of no
+     * interest.
+     */
+    public void appendResultCollector( StreamCollector collector )
     {
-        collectors.put( correlationId, collector );
+        collectors.add( collector == null ? StreamCollector.NO_OP : collector );
     }
 
+    /** Whether the server failed a request, the failure has to be acknowledged before it accepts any more */
     public boolean serverFailureOccurred()
     {
-        return error != null;
+        return failed;
     }
 
+    /** The failure to report, or null if the collector of the failed request keeps it to report itself */
     public Neo4jException serverFailure()
     {
         return error;
     }
 
+    /** Forget about a failure that has been reported, responses to later requests can still be received. */
+    public void clearError()
+    {
+        error = null;
+        failed = false;
+    }
+
     public void clear()
     {
-        responseId = 0;
         error = null;
+        failed = false;
         collectors.clear();
     }
 
+    /** Forget about the requests registered last, which will not be sent after all */
+    public void removeLast( int requests )
+    {
+        for ( int i = 0; i < requests; i++ )
+        {
+            collectors.removeLast();
+        }
+    }
+
+    private void responseComplete()
+    {
+        StreamCollector collector = collectors.poll();
+        if ( collector != null )
+        {
+            collector.done();
+        }
+    }
+
     private String[] fieldNamesFromMeta( Map<String,Value> meta )
     {
         String[] fields;
@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.util.Map;
 
 import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.RecordFields;
+import org.neo4j.driver.internal.StandardPreparedStatement;
 
 public interface MessageHandler
 {
@@ -30,6 +32,12 @@ public interface MessageHandler
 
     void handleRunMessage( String statement, Map<String,Value> parameters ) throws IOException;
 
+    /**
+     * A RUN request for a prepared statement, equivalent to a regular one with the statement text and the parameter
+     * names paired up with the given values.
+     */
+    void handlePreparedRunMessage( StandardPreparedStatement statement, Value[] parameterValues ) throws IOException;
+
     void handlePullAllMessage() throws IOException;
 
     void handleDiscardAllMessage() throws IOException;
@@ -39,7 +47,13 @@ public interface MessageHandler
     // Responses
     void handleSuccessMessage( Map<String,Value> meta ) throws IOException;
 
-    void handleRecordMessage( Value[] fields ) throws IOException;
+    void handleRecordMessage( RecordFields fields ) throws IOException;
+
+    /**
+     * Whether the next record would be of any use to this handler. If not, the record is skipped over rather than
+     * decoded, and {@link #handleRecordMessage(RecordFields)} is not called for it.
+     */
+    boolean wantsRecords();
 
     void handleFailureMessage( String code, String message ) throws IOException;
 
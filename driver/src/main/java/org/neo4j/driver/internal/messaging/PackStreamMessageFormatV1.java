@@ -23,6 +23,7 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,27 +32,38 @@ import java.util.Map;
 import org.neo4j.driver.Entity;
 import org.neo4j.driver.Identity;
 import org.neo4j.driver.Node;
+import org.neo4j.driver.ParameterEncoder;
 import org.neo4j.driver.Path;
 import org.neo4j.driver.Relationship;
 import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.Identities;
+import org.neo4j.driver.internal.RecordFields;
 import org.neo4j.driver.internal.SimpleNode;
 import org.neo4j.driver.internal.SimplePath;
 import org.neo4j.driver.internal.SimpleRelationship;
+import org.neo4j.driver.internal.StandardPreparedStatement;
 import org.neo4j.driver.internal.connector.socket.ChunkedInput;
 import org.neo4j.driver.internal.connector.socket.ChunkedOutput;
 import org.neo4j.driver.internal.packstream.BufferedChannelOutput;
+import org.neo4j.driver.internal.packstream.ByteArrayInput;
+import org.neo4j.driver.internal.packstream.ByteArrayOutput;
 import org.neo4j.driver.internal.packstream.PackInput;
 import org.neo4j.driver.internal.packstream.PackOutput;
 import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.internal.packstream.PackType;
 import org.neo4j.driver.internal.util.Iterables;
+import org.neo4j.driver.internal.value.BytesValue;
+import org.neo4j.driver.internal.value.DirectValue;
+import org.neo4j.driver.internal.value.DoubleListValue;
 import org.neo4j.driver.internal.value.ListValue;
+import org.neo4j.driver.internal.value.LongListValue;
 import org.neo4j.driver.internal.value.MapValue;
 import org.neo4j.driver.internal.value.NodeValue;
 import org.neo4j.driver.internal.value.PathValue;
+import org.neo4j.driver.internal.value.PropertyMap;
 import org.neo4j.driver.internal.value.RelationshipValue;
+import org.neo4j.driver.internal.value.ValueType;
 
 import static org.neo4j.driver.Values.value;
 
@@ -79,6 +91,22 @@ public class PackStreamMessageFormatV1 implements MessageFormat
 
     private static final Map<String,Value> EMPTY_STRING_VALUE_MAP = new HashMap<>( 0 );
 
+    private final boolean lazyRecords;
+
+    public PackStreamMessageFormatV1()
+    {
+        this( false );
+    }
+
+    /**
+     * @param lazyRecords if true, readers keep the lists, maps and graph structures in records encoded until
+     * they are accessed, see {@link Reader#Reader(PackInput, Runnable, boolean)}
+     */
+    public PackStreamMessageFormatV1( boolean lazyRecords )
+    {
+        this.lazyRecords = lazyRecords;
+    }
+
     @Override
     public MessageFormat.Writer newWriter( WritableByteChannel ch )
     {
@@ -90,7 +118,7 @@ public class PackStreamMessageFormatV1 implements MessageFormat
     public MessageFormat.Reader newReader( ReadableByteChannel ch )
     {
         ChunkedInput input = new ChunkedInput( ch );
-        return new Reader( input, input.messageBoundaryHook() );
+        return new Reader( input, input.messageBoundaryHook(), lazyRecords );
     }
 
     @Override
@@ -103,6 +131,7 @@ public class PackStreamMessageFormatV1 implements MessageFormat
     {
         private final PackStream.Packer packer;
         private final Runnable onMessageComplete;
+        private final ParameterEncoders encoders;
 
         public Writer()
         {
@@ -114,8 +143,19 @@ public class PackStreamMessageFormatV1 implements MessageFormat
          * @param onMessageComplete invoked for each message, after it's done writing to the output
          */
         public Writer( PackOutput output, Runnable onMessageComplete )
+        {
+            this( output, onMessageComplete, ParameterEncoders.NONE );
+        }
+
+        /**
+         * @param output interface to write messages to
+         * @param onMessageComplete invoked for each message, after it's done writing to the output
+         * @param encoders used for objects of application types in {@link DirectValue direct values}
+         */
+        public Writer( PackOutput output, Runnable onMessageComplete, ParameterEncoders encoders )
         {
             this.onMessageComplete = onMessageComplete;
+            this.encoders = encoders;
             packer = new PackStream.Packer( output );
         }
 
@@ -136,6 +176,19 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             onMessageComplete.run();
         }
 
+        @Override
+        public void handlePreparedRunMessage( StandardPreparedStatement statement, Value[] parameterValues )
+                throws IOException
+        {
+            packer.packRaw( statement.encodedPrefix() );
+            for ( int i = 0; i < parameterValues.length; i++ )
+            {
+                packer.packRaw( statement.encodedKey( i ) );
+                packValue( parameterValues[i] );
+            }
+            onMessageComplete.run();
+        }
+
         @Override
         public void handlePullAllMessage() throws IOException
         {
@@ -166,17 +219,23 @@ public class PackStreamMessageFormatV1 implements MessageFormat
         }
 
         @Override
-        public void handleRecordMessage( Value[] fields ) throws IOException
+        public void handleRecordMessage( RecordFields fields ) throws IOException
         {
             packer.packStructHeader( 1, MSG_RECORD );
-            packer.packListHeader( fields.length );
-            for ( Value field : fields )
+            packer.packListHeader( fields.size() );
+            for ( int i = 0; i < fields.size(); i++ )
             {
-                packValue( field );
+                packValue( fields.get( i ) );
             }
             onMessageComplete.run();
         }
 
+        @Override
+        public boolean wantsRecords()
+        {
+            return true;
+        }
+
         @Override
         public void handleFailureMessage( String code, String message ) throws IOException
         {
@@ -218,107 +277,250 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             if ( value == null )
             {
                 packer.packNull();
+                return;
             }
-            else if ( value.isBoolean() )
+            switch ( ValueType.of( value ) )
             {
+            case DIRECT:
+                packObject( ((DirectValue) value).object() );
+                break;
+            case BOOLEAN:
                 packer.pack( value.javaBoolean() );
-            }
-            else if ( value.isInteger() )
-            {
+                break;
+            case INTEGER:
                 packer.pack( value.javaLong() );
-            }
-            else if ( value.isFloat() )
-            {
+                break;
+            case FLOAT:
                 packer.pack( value.javaDouble() );
-            }
-            else if ( value.isText() )
-            {
+                break;
+            case TEXT:
                 packer.pack( value.javaString() );
-            }
-            else if ( value.isMap() )
-            {
+                break;
+            case BYTES:
+                packer.pack( value instanceof BytesValue ? ((BytesValue) value).bytes() : value.javaBytes() );
+                break;
+            case MAP:
                 packer.packMapHeader( (int) value.size() );
                 for ( String s : value.keys() )
                 {
                     packer.pack( s );
                     packValue( value.get( s ) );
                 }
+                break;
+            case LONG_LIST:
+                packArray( ((LongListValue) value).longs() );
+                break;
+            case DOUBLE_LIST:
+                packArray( ((DoubleListValue) value).doubles() );
+                break;
+            case LIST:
+            {
+                int size = (int) value.size();
+                packer.packListHeader( size );
+                for ( int i = 0; i < size; i++ )
+                {
+                    packValue( value.get( i ) );
+                }
+                break;
             }
-            else if ( value.isList() )
+            case NODE:
+                packNode( value.asNode() );
+                break;
+            case RELATIONSHIP:
+                packRelationship( value.asRelationship() );
+                break;
+            case PATH:
+                packPath( value.asPath() );
+                break;
+            default:
+                throw new UnsupportedOperationException( "Unknown type: " + value );
+            }
+        }
+
+        private void packRelationship( Relationship rel ) throws IOException
+        {
+            packer.packStructHeader( 5, RELATIONSHIP );
+            packer.pack( rel.identity().asLong() );
+            packer.pack( rel.start().asLong() );
+            packer.pack( rel.end().asLong() );
+
+            packer.pack( rel.type() );
+
+            packProperties( rel );
+        }
+
+        private void packPath( Path path ) throws IOException
+        {
+            packer.packStructHeader( 3, PATH );
+
+            // Uniq nodes
+            Map<Node, Integer> nodeIdx = new LinkedHashMap<>();
+            for ( Node node : path.nodes() )
             {
-                packer.packListHeader( (int) value.size() );
-                for ( Value item : value )
+                if( !nodeIdx.containsKey( node ) )
                 {
-                    packValue( item );
+                    nodeIdx.put( node, nodeIdx.size() );
                 }
             }
-            else if ( value.isNode() )
+            packer.packListHeader( nodeIdx.size() );
+            for ( Node node : nodeIdx.keySet() )
             {
-                Node node = value.asNode();
                 packNode( node );
             }
-            else if ( value.isRelationship() )
+
+            // Uniq rels
+            Map<Relationship, Integer> relIdx = new LinkedHashMap<>();
+            for ( Relationship rel : path.relationships() )
             {
-                Relationship rel = value.asRelationship();
-                packer.packStructHeader( 5, RELATIONSHIP );
+                if( !relIdx.containsKey( rel ) )
+                {
+                    relIdx.put( rel, relIdx.size() + 1 );
+                }
+            }
+            packer.packListHeader( relIdx.size() );
+            for ( Relationship rel : relIdx.keySet() )
+            {
+                packer.packStructHeader( 3, UNBOUND_RELATIONSHIP );
                 packer.pack( rel.identity().asLong() );
-                packer.pack( rel.start().asLong() );
-                packer.pack( rel.end().asLong() );
-
                 packer.pack( rel.type() );
-
                 packProperties( rel );
             }
-            else if ( value.isPath() )
+
+            // Sequence
+            packer.packListHeader( (int) path.length() * 2 );
+            for ( Path.Segment seg : path )
             {
-                Path path = value.asPath();
-                packer.packStructHeader( 3, PATH );
+                Relationship rel = seg.relationship();
+                packer.pack( (long) (rel.end().equals( seg.end() ) ? relIdx.get( rel ) : -relIdx.get( rel )) );
+                packer.pack( nodeIdx.get( seg.end() ) );
+            }
+        }
 
-                // Uniq nodes
-                Map<Node, Integer> nodeIdx = new LinkedHashMap<>();
-                for ( Node node : path.nodes() )
-                {
-                    if( !nodeIdx.containsKey( node ) )
-                    {
-                        nodeIdx.put( node, nodeIdx.size() );
-                    }
-                }
-                packer.packListHeader( nodeIdx.size() );
-                for ( Node node : nodeIdx.keySet() )
-                {
-                    packNode( node );
-                }
+        /** Pack a Java object the way {@link org.neo4j.driver.Values#value(Object)} would convert it, but directly */
+        private void packObject( Object object ) throws IOException
+        {
+            if ( object == null ) { packer.packNull(); }
+            else if ( object instanceof Value ) { packValue( (Value) object ); }
+
+            else if ( object instanceof String ) { packer.pack( (String) object ); }
+            else if ( object instanceof Boolean ) { packer.pack( (boolean) object ); }
+            else if ( object instanceof Long ) { packer.pack( (long) object ); }
+            else if ( object instanceof Integer ) { packer.pack( (int) object ); }
+            else if ( object instanceof Short ) { packer.pack( (short) object ); }
+            else if ( object instanceof Byte ) { packer.pack( (byte) object ); }
+            else if ( object instanceof Double ) { packer.pack( (double) object ); }
+            else if ( object instanceof Float ) { packer.pack( (float) object ); }
+            else if ( object instanceof Character ) { packer.pack( String.valueOf( (char) object ) ); }
+
+            else if ( object instanceof Map ) { packMap( (Map<?,?>) object ); }
+            else if ( object instanceof Collection ) { packCollection( (Collection<?>) object ); }
+            else if ( object instanceof Object[] ) { packCollection( Arrays.asList( (Object[]) object ) ); }
+            else if ( object instanceof long[] ) { packArray( (long[]) object ); }
+            else if ( object instanceof int[] ) { packArray( (int[]) object ); }
+            else if ( object instanceof short[] ) { packArray( (short[]) object ); }
+            else if ( object instanceof double[] ) { packArray( (double[]) object ); }
+            else if ( object instanceof float[] ) { packArray( (float[]) object ); }
+            else if ( object instanceof boolean[] ) { packArray( (boolean[]) object ); }
+            else if ( object instanceof char[] ) { packer.pack( new String( (char[]) object ) ); }
+            else if ( object instanceof byte[] ) { packer.pack( (byte[]) object ); }
 
-                // Uniq rels
-                Map<Relationship, Integer> relIdx = new LinkedHashMap<>();
-                for ( Relationship rel : path.relationships() )
+            else
+            {
+                ParameterEncoder<Object> encoder = encoders.find( object.getClass() );
+                if ( encoder != null )
                 {
-                    if( !relIdx.containsKey( rel ) )
+                    Object encoded = encoder.encode( object );
+                    if ( encoded != null && encoders.find( encoded.getClass() ) == encoder )
                     {
-                        relIdx.put( rel, relIdx.size() + 1 );
+                        // It would only be handed back to the same encoder, over and over
+                        throw new ClientException( "The parameter encoder for " + object.getClass().getName() +
+                                                   " returned a " + encoded.getClass().getName() +
+                                                   ", which it encodes itself." );
                     }
+                    packObject( encoded );
                 }
-                packer.packListHeader( relIdx.size() );
-                for ( Relationship rel : relIdx.keySet() )
+                else
                 {
-                    packer.packStructHeader( 3, UNBOUND_RELATIONSHIP );
-                    packer.pack( rel.identity().asLong() );
-                    packer.pack( rel.type() );
-                    packProperties( rel );
+                    // Graph entities and iterables, or a failure for unknown types
+                    packValue( value( object ) );
                 }
+            }
+        }
 
-                // Sequence
-                packer.packListHeader( (int) path.length() * 2 );
-                for ( Path.Segment seg : path )
+        private void packMap( Map<?,?> map ) throws IOException
+        {
+            packer.packMapHeader( map.size() );
+            for ( Map.Entry<?,?> entry : map.entrySet() )
+            {
+                if ( !(entry.getKey() instanceof String) )
                 {
-                    Relationship rel = seg.relationship();
-                    packer.pack( rel.end().equals( seg.end() ) ? relIdx.get( rel ) : -relIdx.get( rel ) );
-                    packer.pack( nodeIdx.get( seg.end() ) );
+                    throw new ClientException( "Map keys must be strings, but got " + entry.getKey() + "." );
                 }
+                packer.pack( (String) entry.getKey() );
+                packObject( entry.getValue() );
             }
-            else
+        }
+
+        private void packCollection( Collection<?> collection ) throws IOException
+        {
+            packer.packListHeader( collection.size() );
+            for ( Object item : collection )
             {
-                throw new UnsupportedOperationException( "Unknown type: " + value );
+                packObject( item );
+            }
+        }
+
+        private void packArray( long[] array ) throws IOException
+        {
+            packer.packListHeader( array.length );
+            for ( long item : array )
+            {
+                packer.pack( item );
+            }
+        }
+
+        private void packArray( int[] array ) throws IOException
+        {
+            packer.packListHeader( array.length );
+            for ( int item : array )
+            {
+                packer.pack( item );
+            }
+        }
+
+        private void packArray( short[] array ) throws IOException
+        {
+            packer.packListHeader( array.length );
+            for ( short item : array )
+            {
+                packer.pack( item );
+            }
+        }
+
+        private void packArray( double[] array ) throws IOException
+        {
+            packer.packListHeader( array.length );
+            for ( double item : array )
+            {
+                packer.pack( item );
+            }
+        }
+
+        private void packArray( float[] array ) throws IOException
+        {
+            packer.packListHeader( array.length );
+            for ( float item : array )
+            {
+                packer.pack( item );
+            }
+        }
+
+        private void packArray( boolean[] array ) throws IOException
+        {
+            packer.packListHeader( array.length );
+            for ( boolean item : array )
+            {
+                packer.pack( item );
             }
         }
 
@@ -374,11 +576,28 @@ public class PackStreamMessageFormatV1 implements MessageFormat
     {
         private final PackStream.Unpacker unpacker;
         private final Runnable onMessageComplete;
+        private final PropertyMap.Shapes shapes = new PropertyMap.Shapes();
+
+        /** Where the encoded fields of the current record are collected when records are lazy, null otherwise */
+        private final ByteArrayOutput encoded;
+        private final DeferredFieldDecoder decoder;
 
         public Reader( PackInput input, Runnable onMessageComplete )
+        {
+            this( input, onMessageComplete, false );
+        }
+
+        /**
+         * @param lazyRecords if true, lists, maps and graph structures in records are not decoded as they are
+         * read. Their encoded bytes are kept with the record instead, and each of them is decoded the first time it
+         * is accessed. Results where only a few of many fields are read then never pay for decoding the others.
+         */
+        public Reader( PackInput input, Runnable onMessageComplete, boolean lazyRecords )
         {
             unpacker = new PackStream.Unpacker( input );
             this.onMessageComplete = onMessageComplete;
+            this.encoded = lazyRecords ? new ByteArrayOutput( 1024 ) : null;
+            this.decoder = lazyRecords ? new DeferredFieldDecoder() : null;
         }
 
         @Override
@@ -476,11 +695,57 @@ public class PackStreamMessageFormatV1 implements MessageFormat
 
         private void unpackRecordMessage(MessageHandler output) throws IOException
         {
+            if ( !output.wantsRecords() )
+            {
+                unpacker.skip();
+                onMessageComplete.run();
+                return;
+            }
+
             int fieldCount = (int) unpacker.unpackListHeader();
-            Value[] fields = new Value[fieldCount];
+            RecordFields fields = new RecordFields( fieldCount );
             for ( int i = 0; i < fieldCount; i++ )
             {
-                fields[i] = unpackValue();
+                // Scalars go straight into the record, without a value object each
+                byte marker = unpacker.unpackMarker();
+                switch ( PackStream.Unpacker.typeOf( marker ) )
+                {
+                case NULL:
+                    unpacker.unpackNull( marker );
+                    fields.setNull( i );
+                    break;
+                case BOOLEAN:
+                    fields.setBoolean( i, unpacker.unpackBoolean( marker ) );
+                    break;
+                case INTEGER:
+                    fields.setInteger( i, unpacker.unpackLong( marker ) );
+                    break;
+                case FLOAT:
+                    fields.setFloat( i, unpacker.unpackDouble( marker ) );
+                    break;
+                case TEXT:
+                    fields.setText( i, unpacker.unpackString( marker ) );
+                    break;
+                case BYTES:
+                    // Already as compact as it gets, deferring would only copy it once more
+                    fields.setValue( i, new BytesValue( unpacker.unpackBytes( marker ) ) );
+                    break;
+                default:
+                    if ( encoded != null )
+                    {
+                        fields.setDeferred( i, encoded.size() );
+                        unpacker.copyValue( encoded, marker );
+                    }
+                    else
+                    {
+                        fields.setValue( i, unpackValue( marker ) );
+                    }
+                }
+            }
+            if ( encoded != null && encoded.size() > 0 )
+            {
+                fields.setEncoded( encoded.toByteArray(), decoder );
+                encoded.reset();
             }
             output.handleRecordMessage( fields );
             onMessageComplete.run();
@@ -488,38 +753,35 @@ public class PackStreamMessageFormatV1 implements MessageFormat
 
         private Value unpackValue() throws IOException
         {
-            PackType type = unpacker.peekNextType();
+            return unpackValue( unpacker.unpackMarker() );
+        }
+
+        private Value unpackValue( byte marker ) throws IOException
+        {
+            PackType type = PackStream.Unpacker.typeOf( marker );
             switch ( type )
             {
             case BYTES:
-                break;
+                return new BytesValue( unpacker.unpackBytes( marker ) );
             case NULL:
-                return value( unpacker.unpackNull() );
+                return value( unpacker.unpackNull( marker ) );
             case BOOLEAN:
-                return value( unpacker.unpackBoolean() );
+                return value( unpacker.unpackBoolean( marker ) );
             case INTEGER:
-                return value( unpacker.unpackLong() );
+                return value( unpacker.unpackLong( marker ) );
             case FLOAT:
-                return value( unpacker.unpackDouble() );
+                return value( unpacker.unpackDouble( marker ) );
             case TEXT:
-                return value( unpacker.unpackString() );
+                return value( unpacker.unpackString( marker ) );
             case MAP:
             {
-                return new MapValue( unpackMap() );
+                return new MapValue( unpackMap( marker ) );
             }
             case LIST:
-            {
-                int size = (int) unpacker.unpackListHeader();
-                Value[] vals = new Value[size];
-                for ( int j = 0; j < size; j++ )
-                {
-                    vals[j] = unpackValue();
-                }
-                return new ListValue( vals );
-            }
+                return unpackList( marker );
             case STRUCT:
             {
-                long size = unpacker.unpackStructHeader();
+                long size = unpacker.unpackStructHeader( marker );
                 switch ( unpacker.unpackStructSignature() )
                 {
                 case NODE:
@@ -537,12 +799,78 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             throw new IOException( "Unknown value type: " + type );
         }
 
+        /**
+         * Lists of only integers or only floats are decoded into primitive arrays. Lists are assumed to be of the
+         * type of their first element, until proven otherwise.
+         */
+        private Value unpackList( byte listMarker ) throws IOException
+        {
+            int size = (int) unpacker.unpackListHeader( listMarker );
+            if ( size == 0 )
+            {
+                return new ListValue();
+            }
+            Value[] vals = new Value[size];
+            int i = 0;
+            byte marker = unpacker.unpackMarker();
+            PackType type = PackStream.Unpacker.typeOf( marker );
+            if ( type == PackType.INTEGER )
+            {
+                long[] longs = new long[size];
+                while ( true )
+                {
+                    longs[i++] = unpacker.unpackLong( marker );
+                    if ( i == size )
+                    {
+                        return new LongListValue( longs );
+                    }
+                    marker = unpacker.unpackMarker();
+                    if ( PackStream.Unpacker.typeOf( marker ) != PackType.INTEGER )
+                    {
+                        break;
+                    }
+                }
+                for ( int j = 0; j < i; j++ )
+                {
+                    vals[j] = value( longs[j] );
+                }
+            }
+            else if ( type == PackType.FLOAT )
+            {
+                double[] doubles = new double[size];
+                while ( true )
+                {
+                    doubles[i++] = unpacker.unpackDouble( marker );
+                    if ( i == size )
+                    {
+                        return new DoubleListValue( doubles );
+                    }
+                    marker = unpacker.unpackMarker();
+                    if ( PackStream.Unpacker.typeOf( marker ) != PackType.FLOAT )
+                    {
+                        break;
+                    }
+                }
+                for ( int j = 0; j < i; j++ )
+                {
+                    vals[j] = value( doubles[j] );
+                }
+            }
+            // The marker of element i has been read already
+            vals[i++] = unpackValue( marker );
+            for ( ; i < size; i++ )
+            {
+                vals[i] = unpackValue();
+            }
+            return new ListValue( vals );
+        }
+
         private Value unpackRelationship() throws IOException
         {
             long urn = unpacker.unpackLong();
             long startUrn = unpacker.unpackLong();
             long endUrn = unpacker.unpackLong();
-            String relType = unpacker.unpackString();
+            String relType = unpacker.unpackRepeatedString();
             Map<String,Value> props = unpackMap();
 
             return new RelationshipValue( new SimpleRelationship( urn, startUrn, endUrn, relType, props ) );
@@ -556,15 +884,9 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             List<String> labels = new ArrayList<>( numLabels );
             for ( int i = 0; i < numLabels; i++ )
             {
-                labels.add( unpacker.unpackString() );
-            }
-            int numProps = (int) unpacker.unpackMapHeader();
-            Map<String,Value> props = new HashMap<>();
-            for ( int j = 0; j < numProps; j++ )
-            {
-                String key = unpacker.unpackString();
-                props.put( key, unpackValue() );
+                labels.add( unpacker.unpackRepeatedString() );
             }
+            Map<String,Value> props = unpackMap();
 
             return new SimpleNode( urn, labels, props );
         }
@@ -587,7 +909,7 @@ public class PackStreamMessageFormatV1 implements MessageFormat
                 ensureCorrectStructSize( "RELATIONSHIP", 3, unpacker.unpackStructHeader() );
                 ensureCorrectStructSignature( "UNBOUND_RELATIONSHIP", UNBOUND_RELATIONSHIP, unpacker.unpackStructSignature() );
                 Identity urn = Identities.identity( unpacker.unpackLong() );
-                String relType = unpacker.unpackString();
+                String relType = unpacker.unpackRepeatedString();
                 Map<String,Value> props = unpackMap();
                 uniqRels[i] = new SimpleRelationship( urn, null, null, relType, props );
             }
@@ -649,21 +971,56 @@ public class PackStreamMessageFormatV1 implements MessageFormat
 
         private Map<String,Value> unpackMap() throws IOException
         {
-            int size = (int) unpacker.unpackMapHeader();
+            return unpackMap( unpacker.unpackMarker() );
+        }
+
+        private Map<String,Value> unpackMap( byte marker ) throws IOException
+        {
+            int size = (int) unpacker.unpackMapHeader( marker );
             if ( size == 0 )
             {
                 return EMPTY_STRING_VALUE_MAP;
             }
+            String[] keys = new String[size];
+            Value[] values = new Value[size];
+            for ( int i = 0; i < size; i++ )
+            {
+                keys[i] = unpacker.unpackRepeatedString();
+                values[i] = unpackValue();
+            }
+            PropertyMap.Shape shape = shapes.shapeOf( keys );
+            if ( shape != null )
+            {
+                return new PropertyMap( shape, values );
+            }
+
+            // Duplicate keys; the last one wins, just like it always has
             Map<String,Value> map = new HashMap<>( size );
             for ( int i = 0; i < size; i++ )
             {
-                String key = unpacker.unpackString();
-                map.put( key, unpackValue() );
+                map.put( keys[i], values[i] );
             }
             return map;
         }
     }
 
+    /**
+     * Decodes the fields that lazy readers leave encoded in records. Records are usually read by another thread than
+     * the one that received them, so this has its own reader, which is shared by all records of a connection.
+     */
+    private static class DeferredFieldDecoder implements RecordFields.Decoder
+    {
+        private final ByteArrayInput input = new ByteArrayInput();
+        private final Reader reader = new Reader( input, new NoOpRunnable() );
+
+        @Override
+        public synchronized Value decode( byte[] encoded, int offset ) throws IOException
+        {
+            input.reset( encoded, offset, encoded.length - offset );
+            return reader.unpackValue();
+        }
+    }
+
     public static class NoOpRunnable implements Runnable
     {
         @Override
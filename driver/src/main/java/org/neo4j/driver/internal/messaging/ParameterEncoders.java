@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.driver.ParameterEncoder;
+
+/**
+ * The {@link ParameterEncoder encoders} registered for application types. An encoder registered for a type is also
+ * used for its subtypes, the first one registered wins if several apply.
+ */
+public class ParameterEncoders
+{
+    public static final ParameterEncoders NONE =
+            new ParameterEncoders( Collections.<Class<?>,ParameterEncoder<?>>emptyMap() );
+
+    /** Marks types there is no encoder for in the lookup cache */
+    private static final ParameterEncoder<Object> MISSING = new ParameterEncoder<Object>()
+    {
+        @Override
+        public Object encode( Object value )
+        {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private final Map<Class<?>,ParameterEncoder<?>> registered;
+    private final ConcurrentHashMap<Class<?>,ParameterEncoder<?>> byType = new ConcurrentHashMap<>();
+
+    public ParameterEncoders( Map<Class<?>,ParameterEncoder<?>> registered )
+    {
+        this.registered = new LinkedHashMap<>( registered );
+    }
+
+    /**
+     * @return the encoder for the given type, or null if there is none
+     */
+    @SuppressWarnings( "unchecked" )
+    public ParameterEncoder<Object> find( Class<?> type )
+    {
+        if ( registered.isEmpty() )
+        {
+            return null;
+        }
+        ParameterEncoder<?> encoder = byType.get( type );
+        if ( encoder == null )
+        {
+            encoder = MISSING;
+            for ( Map.Entry<Class<?>,ParameterEncoder<?>> entry : registered.entrySet() )
+            {
+                if ( entry.getKey().isAssignableFrom( type ) )
+                {
+                    encoder = entry.getValue();
+                    break;
+                }
+            }
+            byType.put( type, encoder );
+        }
+        return encoder == MISSING ? null : (ParameterEncoder<Object>) encoder;
+    }
+}
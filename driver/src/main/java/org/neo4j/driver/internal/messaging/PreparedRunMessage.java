@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.StandardPreparedStatement;
+
+import static java.lang.String.format;
+
+/**
+ * RUN request for a prepared statement. It goes over the wire exactly like a {@link RunMessage}, but only the
+ * parameter values are encoded when it is written.
+ */
+public class PreparedRunMessage implements Message
+{
+    private final StandardPreparedStatement statement;
+    private final Value[] parameterValues;
+
+    public PreparedRunMessage( StandardPreparedStatement statement, Value[] parameterValues )
+    {
+        this.statement = statement;
+        this.parameterValues = parameterValues;
+    }
+
+    @Override
+    public void dispatch( MessageHandler handler ) throws IOException
+    {
+        handler.handlePreparedRunMessage( statement, parameterValues );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "[RUN \"%s\" %s]", statement.text(), statement.parameters( parameterValues ) );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        PreparedRunMessage that = (PreparedRunMessage) o;
+        return statement.equals( that.statement ) && Arrays.equals( parameterValues, that.parameterValues );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * statement.hashCode() + Arrays.hashCode( parameterValues );
+    }
+}
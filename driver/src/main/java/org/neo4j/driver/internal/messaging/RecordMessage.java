@@ -19,15 +19,20 @@
 package org.neo4j.driver.internal.messaging;
 
 import java.io.IOException;
-import java.util.Arrays;
 
 import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.RecordFields;
 
 public class RecordMessage implements Message
 {
-    private final Value[] fields;
+    private final RecordFields fields;
 
     public RecordMessage( Value[] fields )
+    {
+        this( RecordFields.of( fields ) );
+    }
+
+    public RecordMessage( RecordFields fields )
     {
         this.fields = fields;
     }
@@ -41,7 +46,7 @@ public class RecordMessage implements Message
     @Override
     public String toString()
     {
-        return "RecordMessage{" + Arrays.toString( fields ) + '}';
+        return "RecordMessage{" + fields + '}';
     }
 
     @Override
@@ -58,7 +63,7 @@ public class RecordMessage implements Message
 
         RecordMessage that = (RecordMessage) o;
 
-        if ( !Arrays.equals( fields, that.fields ) )
+        if ( !fields.equals( that.fields ) )
         {
             return false;
         }
@@ -69,6 +74,6 @@ public class RecordMessage implements Message
     @Override
     public int hashCode()
     {
-        return Arrays.hashCode( fields );
+        return fields.hashCode();
     }
 }
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.net.URI;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
+
+/**
+ * Keeps count of what the connection pool for a single URI is doing, and how long it takes doing it.
+ */
+public class ConnectionPoolStatistics implements ConnectionPoolMetrics
+{
+    private final URI uri;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder threadCacheHits = new LongAdder();
+    private final LongAdder acquisitionTimeouts = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    private final LongAdder creations = new LongAdder();
+    private final LongAdder creationFailures = new LongAdder();
+    private final LongAdder pingFailures = new LongAdder();
+    private final LongAdder disposals = new LongAdder();
+
+    private final LatencyHistogram acquisitionTimes = new LatencyHistogram();
+    private final LatencyHistogram creationTimes = new LatencyHistogram();
+    private final LatencyHistogram connectTimes = new LatencyHistogram();
+    private final LatencyHistogram tlsHandshakeTimes = new LatencyHistogram();
+    private final LatencyHistogram negotiationTimes = new LatencyHistogram();
+    private final LatencyHistogram pingTimes = new LatencyHistogram();
+
+    public ConnectionPoolStatistics( URI uri )
+    {
+        this.uri = uri;
+    }
+
+    @Override
+    public void acquired( long nanos, boolean fromThreadCache )
+    {
+        acquisitions.increment();
+        if ( fromThreadCache )
+        {
+            threadCacheHits.increment();
+        }
+        acquisitionTimes.record( nanos );
+    }
+
+    @Override
+    public void acquisitionTimedOut( long nanos )
+    {
+        acquisitionTimeouts.increment();
+    }
+
+    @Override
+    public void released()
+    {
+        releases.increment();
+    }
+
+    @Override
+    public void created( long nanos )
+    {
+        creations.increment();
+        creationTimes.record( nanos );
+    }
+
+    @Override
+    public void creationFailed()
+    {
+        creationFailures.increment();
+    }
+
+    @Override
+    public void connected( long nanos )
+    {
+        connectTimes.record( nanos );
+    }
+
+    @Override
+    public void tlsHandshake( long nanos )
+    {
+        tlsHandshakeTimes.record( nanos );
+    }
+
+    @Override
+    public void protocolNegotiated( long nanos )
+    {
+        negotiationTimes.record( nanos );
+    }
+
+    @Override
+    public void pinged( long nanos, boolean succeeded )
+    {
+        if ( !succeeded )
+        {
+            pingFailures.increment();
+        }
+        pingTimes.record( nanos );
+    }
+
+    @Override
+    public void disposed()
+    {
+        disposals.increment();
+    }
+
+    public URI uri()
+    {
+        return uri;
+    }
+
+    /** The number of connections currently open, in use or not */
+    public long open()
+    {
+        return Math.max( creations.sum() - disposals.sum(), 0 );
+    }
+
+    /** The number of connections currently acquired by sessions */
+    public long inUse()
+    {
+        return Math.max( acquisitions.sum() - releases.sum(), 0 );
+    }
+
+    /** The number of open connections currently waiting in the pool to be acquired */
+    public long idle()
+    {
+        return Math.max( open() - inUse(), 0 );
+    }
+
+    public long acquisitions()
+    {
+        return acquisitions.sum();
+    }
+
+    /** The number of acquisitions served by the connection cached with the acquiring thread */
+    public long threadCacheHits()
+    {
+        return threadCacheHits.sum();
+    }
+
+    public long acquisitionTimeouts()
+    {
+        return acquisitionTimeouts.sum();
+    }
+
+    public long creations()
+    {
+        return creations.sum();
+    }
+
+    public long creationFailures()
+    {
+        return creationFailures.sum();
+    }
+
+    public long disposals()
+    {
+        return disposals.sum();
+    }
+
+    public long pingFailures()
+    {
+        return pingFailures.sum();
+    }
+
+    /** Time to acquire a connection from the pool, including waiting for and creating one */
+    public LatencyHistogram acquisitionTimes()
+    {
+        return acquisitionTimes;
+    }
+
+    /** Time to establish a new connection, from connecting the socket to the protocol version being negotiated */
+    public LatencyHistogram creationTimes()
+    {
+        return creationTimes;
+    }
+
+    /** Time to connect a socket, not including setting up TLS */
+    public LatencyHistogram connectTimes()
+    {
+        return connectTimes;
+    }
+
+    /** Time to do the TLS handshake on a newly connected socket, empty unless TLS is enabled */
+    public LatencyHistogram tlsHandshakeTimes()
+    {
+        return tlsHandshakeTimes;
+    }
+
+    /** Time to negotiate the Bolt protocol version with the server */
+    public LatencyHistogram negotiationTimes()
+    {
+        return negotiationTimes;
+    }
+
+    /** Time to test idle connections */
+    public LatencyHistogram pingTimes()
+    {
+        return pingTimes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%s: open=%d, inUse=%d, idle=%d, acquisitions=%d, threadCacheHits=%d, " +
+                              "acquisitionTimeouts=%d, creations=%d, creationFailures=%d, disposals=%d, " +
+                              "pingFailures=%d%n" +
+                              "  acquisition ns: %s%n" +
+                              "  creation ns:    %s%n" +
+                              "  connect ns:     %s%n" +
+                              "  tls ns:         %s%n" +
+                              "  negotiation ns: %s%n" +
+                              "  ping ns:        %s",
+                uri, open(), inUse(), idle(), acquisitions(), threadCacheHits(), acquisitionTimeouts(), creations(),
+                creationFailures(), disposals(), pingFailures(), acquisitionTimes, creationTimes, connectTimes,
+                tlsHandshakeTimes, negotiationTimes, pingTimes );
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
+
+public class DevNullConnectionPoolMetrics implements ConnectionPoolMetrics
+{
+    public static final ConnectionPoolMetrics DEV_NULL_METRICS = new DevNullConnectionPoolMetrics();
+
+    @Override
+    public void acquired( long nanos, boolean fromThreadCache )
+    {
+
+    }
+
+    @Override
+    public void acquisitionTimedOut( long nanos )
+    {
+
+    }
+
+    @Override
+    public void released()
+    {
+
+    }
+
+    @Override
+    public void created( long nanos )
+    {
+
+    }
+
+    @Override
+    public void creationFailed()
+    {
+
+    }
+
+    @Override
+    public void connected( long nanos )
+    {
+
+    }
+
+    @Override
+    public void tlsHandshake( long nanos )
+    {
+
+    }
+
+    @Override
+    public void protocolNegotiated( long nanos )
+    {
+
+    }
+
+    @Override
+    public void pinged( long nanos, boolean succeeded )
+    {
+
+    }
+
+    @Override
+    public void disposed()
+    {
+
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.driver.internal.spi.Metrics;
+import org.neo4j.driver.internal.util.BufferArena;
+
+/**
+ * Keeps {@link ConnectionPoolStatistics statistics} in memory, to be read from within the application, for instance
+ * to be exported to a monitoring system.
+ */
+public class InProcessMetrics implements Metrics
+{
+    private final ConcurrentHashMap<URI,ConnectionPoolStatistics> pools = new ConcurrentHashMap<>();
+    private final BufferArena arena;
+
+    public InProcessMetrics()
+    {
+        this( BufferArena.shared() );
+    }
+
+    /**
+     * @param arena where connections lease their network buffers from
+     */
+    public InProcessMetrics( BufferArena arena )
+    {
+        this.arena = arena;
+    }
+
+    @Override
+    public ConnectionPoolStatistics connectionPool( URI uri )
+    {
+        ConnectionPoolStatistics statistics = pools.get( uri );
+        if ( statistics == null )
+        {
+            statistics = new ConnectionPoolStatistics( uri );
+            ConnectionPoolStatistics existing = pools.putIfAbsent( uri, statistics );
+            if ( existing != null )
+            {
+                return existing;
+            }
+        }
+        return statistics;
+    }
+
+    /** Statistics for each URI connected to so far */
+    public Collection<ConnectionPoolStatistics> connectionPools()
+    {
+        return pools.values();
+    }
+
+    /**
+     * Bytes of direct memory in the network buffers of connections in use. Connections idle in a pool hold none,
+     * unless they were parked half way through reading or writing.
+     */
+    public long directMemoryInUse()
+    {
+        return arena.leasedBytes();
+    }
+
+    /** Bytes of direct memory in the network buffers kept for connections to use next */
+    public long directMemoryIdle()
+    {
+        return arena.idleBytes();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        for ( ConnectionPoolStatistics pool : pools.values() )
+        {
+            sb.append( pool ).append( String.format( "%n" ) );
+        }
+        sb.append( String.format( "direct memory: inUse=%d, idle=%d%n", directMemoryInUse(), directMemoryIdle() ) );
+        return sb.toString();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, lock-free histogram of latencies, in the spirit of HdrHistogram. Values are counted in buckets whose
+ * width grows with the magnitude of the values they hold: every power of two is split into 16 sub-buckets, so any
+ * recorded value is reported within 1/16th (about 6%) of its actual value, from nanoseconds up to hours, using a
+ * fixed amount of memory.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Enough buckets to hold {@link Long#MAX_VALUE} */
+    private static final int BUCKETS = 64 - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKETS * SUB_BUCKETS );
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record( long value )
+    {
+        if ( value < 0 )
+        {
+            value = 0;
+        }
+        counts.incrementAndGet( indexOf( value ) );
+        sum.add( value );
+
+        long currentMax = max.get();
+        while ( value > currentMax && !max.compareAndSet( currentMax, value ) )
+        {
+            currentMax = max.get();
+        }
+    }
+
+    /** The number of values recorded */
+    public long count()
+    {
+        long count = 0;
+        for ( int i = 0; i < counts.length(); i++ )
+        {
+            count += counts.get( i );
+        }
+        return count;
+    }
+
+    public long max()
+    {
+        return max.get();
+    }
+
+    public double mean()
+    {
+        long count = count();
+        return count == 0 ? 0 : sum.doubleValue() / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the value below or at which the given percentage of recorded values are, or 0 if nothing was recorded
+     */
+    public long valueAtPercentile( double percentile )
+    {
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for ( int i = 0; i < snapshot.length; i++ )
+        {
+            snapshot[i] = counts.get( i );
+            count += snapshot[i];
+        }
+        if ( count == 0 )
+        {
+            return 0;
+        }
+
+        long rank = Math.max( 1, (long) Math.ceil( Math.min( percentile, 100.0 ) / 100.0 * count ) );
+        long seen = 0;
+        for ( int i = 0; i < snapshot.length; i++ )
+        {
+            seen += snapshot[i];
+            if ( seen >= rank )
+            {
+                return Math.min( highestValueAt( i ), max() );
+            }
+        }
+        return max();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "count=%d, mean=%.0f, p50=%d, p99=%d, p999=%d, max=%d",
+                count(), mean(), valueAtPercentile( 50 ), valueAtPercentile( 99 ), valueAtPercentile( 99.9 ),
+                max() );
+    }
+
+    static int indexOf( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros( value ) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** The highest value counted in the bucket at the given index */
+    static long highestValueAt( int index )
+    {
+        if ( index + 1 >= BUCKETS * SUB_BUCKETS )
+        {
+            return Long.MAX_VALUE;
+        }
+        return lowestValueAt( index + 1 ) - 1;
+    }
+
+    private static long lowestValueAt( int index )
+    {
+        int bucket = index >>> SUB_BUCKET_BITS;
+        int subBucket = index & (SUB_BUCKETS - 1);
+        if ( bucket == 0 )
+        {
+            return subBucket;
+        }
+        return (long) (SUB_BUCKETS + subBucket) << (bucket - 1);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link PackInput} over a region of a byte array, for data that has already been received in full. The input can be
+ * pointed at another region with {@link #reset(byte[], int, int)}, so one instance can be reused for many of them.
+ */
+public class ByteArrayInput implements PackInput
+{
+    private ByteBuffer buffer = ByteBuffer.allocate( 0 );
+
+    public ByteArrayInput reset( byte[] bytes, int offset, int length )
+    {
+        this.buffer = ByteBuffer.wrap( bytes, offset, length );
+        return this;
+    }
+
+    @Override
+    public boolean hasMoreData() throws IOException
+    {
+        return buffer.hasRemaining();
+    }
+
+    @Override
+    public byte readByte() throws IOException
+    {
+        ensure( 1 );
+        return buffer.get();
+    }
+
+    @Override
+    public short readShort() throws IOException
+    {
+        ensure( 2 );
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readInt() throws IOException
+    {
+        ensure( 4 );
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException
+    {
+        ensure( 8 );
+        return buffer.getLong();
+    }
+
+    @Override
+    public double readDouble() throws IOException
+    {
+        ensure( 8 );
+        return buffer.getDouble();
+    }
+
+    @Override
+    public PackInput readBytes( byte[] into, int offset, int toRead ) throws IOException
+    {
+        ensure( toRead );
+        buffer.get( into, offset, toRead );
+        return this;
+    }
+
+    @Override
+    public byte peekByte() throws IOException
+    {
+        ensure( 1 );
+        return buffer.get( buffer.position() );
+    }
+
+    private void ensure( int size ) throws IOException
+    {
+        if ( buffer.remaining() < size )
+        {
+            throw new PackStream.EndOfStream( "Expected " + size + " more bytes, but only " + buffer.remaining() +
+                                              " are left." );
+        }
+    }
+}
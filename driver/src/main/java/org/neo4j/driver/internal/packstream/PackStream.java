@@ -151,12 +151,74 @@ public class PackStream
 
     private static final int DEFAULT_BUFFER_CAPACITY = 8192;
 
+    /** The type of value each marker byte starts, indexed by the marker as an unsigned byte */
+    private static final PackType[] TYPES = new PackType[256];
+
+    static
+    {
+        for ( int i = 0; i < TYPES.length; i++ )
+        {
+            TYPES[i] = typeOfMarker( (byte) i );
+        }
+    }
+
     private PackStream() {}
 
+    private static PackType typeOfMarker( byte markerByte )
+    {
+        final byte markerHighNibble = (byte) (markerByte & 0xF0);
+
+        switch(markerHighNibble)
+        {
+        case TINY_TEXT:   return PackType.TEXT;
+        case TINY_LIST:   return PackType.LIST;
+        case TINY_MAP:    return PackType.MAP;
+        case TINY_STRUCT: return PackType.STRUCT;
+        }
+
+        switch(markerByte)
+        {
+        case NULL:
+            return PackType.NULL;
+        case TRUE:
+        case FALSE:
+            return PackType.BOOLEAN;
+        case FLOAT_64:
+            return PackType.FLOAT;
+        case BYTES_8:
+        case BYTES_16:
+        case BYTES_32:
+            return PackType.BYTES;
+        case TEXT_8:
+        case TEXT_16:
+        case TEXT_32:
+            return PackType.TEXT;
+        case LIST_8:
+        case LIST_16:
+        case LIST_32:
+            return PackType.LIST;
+        case MAP_8:
+        case MAP_16:
+        case MAP_32:
+            return PackType.MAP;
+        case STRUCT_8:
+        case STRUCT_16:
+            return PackType.STRUCT;
+        default:
+            return PackType.INTEGER;
+        }
+    }
+
     public static class Packer
     {
+        /** Longest string, in chars, that is encoded into {@link #utf8} rather than into an array of its own */
+        private static final int MAX_SCRATCH_CHARS = 4096;
+
         private PackOutput out;
 
+        /** Strings are encoded into this, to not make an encoder and two arrays of garbage for each of them */
+        private byte[] utf8 = new byte[256];
+
         public Packer( PackOutput out )
         {
             this.out = out;
@@ -241,12 +303,64 @@ public class PackStream
             if ( value == null ) { packNull(); }
             else
             {
-                byte[] utf8 = value.getBytes( UTF_8 );
-                packTextHeader( utf8.length );
-                packRaw( utf8 );
+                int chars = value.length();
+                if ( chars > MAX_SCRATCH_CHARS )
+                {
+                    packText( value.getBytes( UTF_8 ) );
+                    return;
+                }
+                int size = encodeUtf8( value, chars );
+                packTextHeader( size );
+                out.writeBytes( utf8, 0, size );
             }
         }
 
+        /** Encode a string into the scratch array, like {@link String#getBytes} would, returning its encoded size */
+        private int encodeUtf8( String value, int chars )
+        {
+            // No char takes more than three bytes, surrogate pairs take four for the two of them
+            if ( utf8.length < chars * 3 )
+            {
+                utf8 = new byte[chars * 3];
+            }
+            byte[] bytes = utf8;
+            int size = 0;
+            for ( int i = 0; i < chars; i++ )
+            {
+                char c = value.charAt( i );
+                if ( c < 0x80 )
+                {
+                    bytes[size++] = (byte) c;
+                }
+                else if ( c < 0x800 )
+                {
+                    bytes[size++] = (byte) (0xC0 | c >> 6);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                }
+                else if ( !Character.isSurrogate( c ) )
+                {
+                    bytes[size++] = (byte) (0xE0 | c >> 12);
+                    bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | c & 0x3F);
+                }
+                else if ( Character.isHighSurrogate( c ) && i + 1 < chars &&
+                          Character.isLowSurrogate( value.charAt( i + 1 ) ) )
+                {
+                    int codePoint = Character.toCodePoint( c, value.charAt( ++i ) );
+                    bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+                }
+                else
+                {
+                    // A lone surrogate, which String#getBytes replaces the same way
+                    bytes[size++] = '?';
+                }
+            }
+            return size;
+        }
+
         public void packText( byte[] utf8 ) throws IOException
         {
             if ( utf8 == null ) { packNull(); }
@@ -428,8 +542,63 @@ public class PackStream
 
     public static class Unpacker
     {
+        /** Strings up to this many bytes are decoded through {@link #scratch}, longer ones are left to the JDK decoder */
+        private static final int MAX_SCRATCH_SIZE = 16 * 1024;
+
         private PackInput in;
 
+        /** Output that drops everything, for {@link #skip()} to copy values to */
+        private static final PackOutput DISCARD = new PackOutput()
+        {
+            @Override
+            public PackOutput flush()
+            {
+                return this;
+            }
+
+            @Override
+            public PackOutput writeByte( byte value )
+            {
+                return this;
+            }
+
+            @Override
+            public PackOutput writeBytes( byte[] data, int offset, int amountToWrite )
+            {
+                return this;
+            }
+
+            @Override
+            public PackOutput writeShort( short value )
+            {
+                return this;
+            }
+
+            @Override
+            public PackOutput writeInt( int value )
+            {
+                return this;
+            }
+
+            @Override
+            public PackOutput writeLong( long value )
+            {
+                return this;
+            }
+
+            @Override
+            public PackOutput writeDouble( double value )
+            {
+                return this;
+            }
+        };
+
+        /** Reused to hold the UTF-8 bytes of strings while they're decoded, grows up to {@link #MAX_SCRATCH_SIZE} */
+        private byte[] scratch = new byte[64];
+
+        /** Canonical instances of the strings unpacked through {@link #unpackRepeatedString()} */
+        private final StringDictionary dictionary = new StringDictionary();
+
         public Unpacker( ReadableByteChannel channel )
         {
             this( DEFAULT_BUFFER_CAPACITY );
@@ -460,7 +629,11 @@ public class PackStream
 
         public long unpackStructHeader() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackStructHeader( in.readByte() );
+        }
+
+        public long unpackStructHeader( byte markerByte ) throws IOException
+        {
             final byte markerHighNibble = (byte) (markerByte & 0xF0);
             final byte markerLowNibble = (byte) (markerByte & 0x0F);
 
@@ -480,7 +653,11 @@ public class PackStream
 
         public long unpackListHeader() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackListHeader( in.readByte() );
+        }
+
+        public long unpackListHeader( byte markerByte ) throws IOException
+        {
             final byte markerHighNibble = (byte) (markerByte & 0xF0);
             final byte markerLowNibble  = (byte) (markerByte & 0x0F);
 
@@ -496,7 +673,11 @@ public class PackStream
 
         public long unpackMapHeader() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackMapHeader( in.readByte() );
+        }
+
+        public long unpackMapHeader( byte markerByte ) throws IOException
+        {
             final byte markerHighNibble = (byte) (markerByte & 0xF0);
             final byte markerLowNibble = (byte) (markerByte & 0x0F);
 
@@ -512,7 +693,11 @@ public class PackStream
 
         public long unpackLong() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackLong( in.readByte() );
+        }
+
+        public long unpackLong( byte markerByte ) throws IOException
+        {
             if ( markerByte >= MINUS_2_TO_THE_4) { return markerByte; }
             switch(markerByte)
             {
@@ -526,7 +711,11 @@ public class PackStream
 
         public double unpackDouble() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackDouble( in.readByte() );
+        }
+
+        public double unpackDouble( byte markerByte ) throws IOException
+        {
             if(markerByte == FLOAT_64)
             {
                 return in.readDouble();
@@ -536,19 +725,90 @@ public class PackStream
 
         public String unpackString() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackString( in.readByte() );
+        }
+
+        public String unpackString( byte markerByte ) throws IOException
+        {
             if( markerByte == TINY_TEXT ) // Note no mask, so we compare to 0x80.
             {
                 return EMPTY_STRING;
             }
 
-            return new String(unpackUtf8(markerByte), UTF_8);
+            return unpackUtf8( unpackUtf8Size( markerByte ) );
+        }
+
+        /**
+         * Unpack a string that is likely to be seen many times over, such as a property key, label or relationship
+         * type. Short strings come back as the same instance every time they're repeated, and repeats are not
+         * decoded again.
+         */
+        public String unpackRepeatedString() throws IOException
+        {
+            return unpackRepeatedString( in.readByte() );
+        }
+
+        public String unpackRepeatedString( byte markerByte ) throws IOException
+        {
+            if( markerByte == TINY_TEXT )
+            {
+                return EMPTY_STRING;
+            }
+
+            int size = unpackUtf8Size( markerByte );
+            if ( size > StringDictionary.MAX_KEY_SIZE )
+            {
+                return unpackUtf8( size );
+            }
+            byte[] utf8 = scratch( size );
+            in.readBytes( utf8, 0, size );
+            return dictionary.intern( utf8, size );
+        }
+
+        private String unpackUtf8( int size ) throws IOException
+        {
+            if ( size > MAX_SCRATCH_SIZE )
+            {
+                return new String( unpackBytes( size ), UTF_8 );
+            }
+            byte[] utf8 = scratch( size );
+            in.readBytes( utf8, 0, size );
+            return decode( utf8, size );
+        }
+
+        /**
+         * Build a string from the first {@code size} bytes of UTF-8 in the given array. Text is mostly ASCII, which
+         * is decoded by widening each byte to a character rather than going through a charset decoder.
+         */
+        @SuppressWarnings( "deprecation" )
+        static String decode( byte[] utf8, int size )
+        {
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( utf8[i] < 0 )
+                {
+                    return new String( utf8, 0, size, UTF_8 );
+                }
+            }
+            return new String( utf8, 0, 0, size );
+        }
+
+        private byte[] scratch( int size )
+        {
+            if ( scratch.length < size )
+            {
+                scratch = new byte[Math.min( Math.max( size, scratch.length * 2 ), MAX_SCRATCH_SIZE )];
+            }
+            return scratch;
         }
 
         public byte[] unpackBytes() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackBytes( in.readByte() );
+        }
 
+        public byte[] unpackBytes( byte markerByte ) throws IOException
+        {
             switch(markerByte)
             {
             case BYTES_8: return unpackBytes( unpackUINT8() );
@@ -578,7 +838,11 @@ public class PackStream
          */
         public Object unpackNull() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackNull( in.readByte() );
+        }
+
+        public Object unpackNull( byte markerByte ) throws IOException
+        {
             if ( markerByte != NULL )
             {
                 throw new Unexpected( "Expected a null, but got: 0x" + toHexString( markerByte & 0xFF ) );
@@ -586,22 +850,22 @@ public class PackStream
             return null;
         }
 
-        private byte[] unpackUtf8(byte markerByte) throws IOException
+        private int unpackUtf8Size( byte markerByte ) throws IOException
         {
             final byte markerHighNibble = (byte) (markerByte & 0xF0);
             final byte markerLowNibble = (byte) (markerByte & 0x0F);
 
-            if ( markerHighNibble == TINY_TEXT ) { return unpackBytes( markerLowNibble ); }
+            if ( markerHighNibble == TINY_TEXT ) { return markerLowNibble; }
             switch(markerByte)
             {
-            case TEXT_8: return unpackBytes( unpackUINT8() );
-            case TEXT_16: return unpackBytes( unpackUINT16() );
+            case TEXT_8: return unpackUINT8();
+            case TEXT_16: return unpackUINT16();
             case TEXT_32:
             {
                 long size = unpackUINT32();
                 if ( size <= Integer.MAX_VALUE )
                 {
-                    return unpackBytes( (int) size );
+                    return (int) size;
                 }
                 else
                 {
@@ -614,7 +878,11 @@ public class PackStream
 
         public boolean unpackBoolean() throws IOException
         {
-            final byte markerByte = in.readByte();
+            return unpackBoolean( in.readByte() );
+        }
+
+        public boolean unpackBoolean( byte markerByte ) throws IOException
+        {
             switch ( markerByte )
             {
             case TRUE:
@@ -626,6 +894,124 @@ public class PackStream
             }
         }
 
+        /**
+         * Move past the next value, whatever its type, without decoding it. Strings and byte arrays are skipped over
+         * in bulk, and lists, maps and structures are skipped along with everything in them.
+         */
+        public void skip() throws IOException
+        {
+            copyValue( DISCARD );
+        }
+
+        /**
+         * Copy the next value to the given output exactly as it is encoded, without decoding it. Lists, maps and
+         * structures are copied along with everything in them.
+         */
+        public void copyValue( PackOutput out ) throws IOException
+        {
+            copyValue( out, in.readByte() );
+        }
+
+        public void copyValue( PackOutput out, byte markerByte ) throws IOException
+        {
+            final byte markerHighNibble = (byte) (markerByte & 0xF0);
+            final int markerLowNibble = markerByte & 0x0F;
+            out.writeByte( markerByte );
+
+            switch ( markerHighNibble )
+            {
+            case TINY_TEXT: copyBytes( out, markerLowNibble ); return;
+            case TINY_LIST: copyValues( out, markerLowNibble ); return;
+            case TINY_MAP: copyValues( out, markerLowNibble * 2L ); return;
+            case TINY_STRUCT: copyBytes( out, 1 ); copyValues( out, markerLowNibble ); return;
+            }
+
+            switch ( markerByte )
+            {
+            case NULL:
+            case TRUE:
+            case FALSE: return;
+            case INT_8: copyBytes( out, 1 ); return;
+            case INT_16: copyBytes( out, 2 ); return;
+            case INT_32: copyBytes( out, 4 ); return;
+            case INT_64:
+            case FLOAT_64: copyBytes( out, 8 ); return;
+            case BYTES_8:
+            case TEXT_8: copyBytes( out, copyUINT8( out ) ); return;
+            case BYTES_16:
+            case TEXT_16: copyBytes( out, copyUINT16( out ) ); return;
+            case BYTES_32:
+            case TEXT_32: copyBytes( out, copyUINT32( out ) ); return;
+            case LIST_8: copyValues( out, copyUINT8( out ) ); return;
+            case LIST_16: copyValues( out, copyUINT16( out ) ); return;
+            case LIST_32: copyValues( out, copyUINT32( out ) ); return;
+            case MAP_8: copyValues( out, copyUINT8( out ) * 2L ); return;
+            case MAP_16: copyValues( out, copyUINT16( out ) * 2L ); return;
+            case MAP_32: copyValues( out, copyUINT32( out ) * 2L ); return;
+            case STRUCT_8:
+            {
+                int size = copyUINT8( out );
+                copyBytes( out, 1 );
+                copyValues( out, size );
+                return;
+            }
+            case STRUCT_16:
+            {
+                int size = copyUINT16( out );
+                copyBytes( out, 1 );
+                copyValues( out, size );
+                return;
+            }
+            }
+
+            // Everything from 0xF0 up to 0x7F is a tiny integer, which is all in the marker
+            if ( markerByte < MINUS_2_TO_THE_4 )
+            {
+                throw new Unexpected( "Unable to copy value, unknown marker byte: " + toHexString( markerByte ) );
+            }
+        }
+
+        private void copyValues( PackOutput out, long count ) throws IOException
+        {
+            for ( long i = 0; i < count; i++ )
+            {
+                copyValue( out );
+            }
+        }
+
+        private void copyBytes( PackOutput out, long size ) throws IOException
+        {
+            while ( size > 0 )
+            {
+                int chunk = (int) Math.min( size, MAX_SCRATCH_SIZE );
+                byte[] buffer = scratch( chunk );
+                in.readBytes( buffer, 0, chunk );
+                out.writeBytes( buffer, 0, chunk );
+                size -= chunk;
+            }
+        }
+
+        private int copyUINT8( PackOutput out ) throws IOException
+        {
+            byte value = in.readByte();
+            out.writeByte( value );
+            return value & 0xFF;
+        }
+
+        private int copyUINT16( PackOutput out ) throws IOException
+        {
+            short value = in.readShort();
+            out.writeShort( value );
+            return value & 0xFFFF;
+        }
+
+        private long copyUINT32( PackOutput out ) throws IOException
+        {
+            int value = in.readInt();
+            out.writeInt( value );
+            return value & 0xFFFFFFFFL;
+        }
+
         private int unpackUINT8() throws IOException
         {
             return in.readByte() & 0xFF;
@@ -650,48 +1036,24 @@ public class PackStream
 
         public PackType peekNextType() throws IOException
         {
-            final byte markerByte = in.peekByte();
-            final byte markerHighNibble = (byte) (markerByte & 0xF0);
+            return TYPES[in.peekByte() & 0xFF];
+        }
 
-            switch(markerHighNibble)
-            {
-            case TINY_TEXT:   return PackType.TEXT;
-            case TINY_LIST:   return PackType.LIST;
-            case TINY_MAP:    return PackType.MAP;
-            case TINY_STRUCT: return PackType.STRUCT;
-            }
+        /**
+         * Read the marker byte of the next value. Decoders that look at the marker to decide what to do with a value
+         * read it with this, and hand it to the {@code unpack} method that takes a marker, rather than peeking at
+         * it first and having it read a second time.
+         * @see #typeOf(byte)
+         */
+        public byte unpackMarker() throws IOException
+        {
+            return in.readByte();
+        }
 
-            switch(markerByte)
-            {
-            case NULL:
-                return PackType.NULL;
-            case TRUE:
-            case FALSE:
-                return PackType.BOOLEAN;
-            case FLOAT_64:
-                return PackType.FLOAT;
-            case BYTES_8:
-            case BYTES_16:
-            case BYTES_32:
-                return PackType.BYTES;
-            case TEXT_8:
-            case TEXT_16:
-            case TEXT_32:
-                return PackType.TEXT;
-            case LIST_8:
-            case LIST_16:
-            case LIST_32:
-                return PackType.LIST;
-            case MAP_8:
-            case MAP_16:
-            case MAP_32:
-                return PackType.MAP;
-            case STRUCT_8:
-            case STRUCT_16:
-                return PackType.STRUCT;
-            default:
-                return PackType.INTEGER;
-            }
+        /** The type of value the given marker byte starts */
+        public static PackType typeOf( byte markerByte )
+        {
+            return TYPES[markerByte & 0xFF];
         }
     }
 
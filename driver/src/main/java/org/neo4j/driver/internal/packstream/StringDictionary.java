@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import java.util.Arrays;
+
+/**
+ * A small, fixed-size table of canonical strings, keyed by their UTF-8 bytes. It is meant for strings that keep
+ * coming back over a connection, like property keys, labels and relationship types, so that a large result holds
+ * one instance of each rather than one per entity, and so that a hit skips decoding altogether.
+ * <p>
+ * The table is direct-mapped: every key hashes to exactly one slot and a colliding key simply takes that slot over.
+ * That keeps lookups to a single comparison and puts a hard bound on memory, at the cost of the odd extra decode.
+ * Instances are not thread safe and are meant to be owned by a single {@link PackStream.Unpacker}.
+ */
+class StringDictionary
+{
+    /** Strings longer than this many bytes are rarely repeated and are never put in the dictionary */
+    static final int MAX_KEY_SIZE = 64;
+
+    private static final int DEFAULT_SLOTS = 256;
+
+    private final byte[][] keys;
+    private final String[] values;
+    private final int mask;
+
+    StringDictionary()
+    {
+        this( DEFAULT_SLOTS );
+    }
+
+    StringDictionary( int slots )
+    {
+        if ( Integer.bitCount( slots ) != 1 )
+        {
+            throw new IllegalArgumentException( "Number of slots must be a power of two, got: " + slots );
+        }
+        this.keys = new byte[slots][];
+        this.values = new String[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Get the canonical string for the first {@code size} bytes of {@code utf8}, decoding and remembering it if
+     * it's not already known. The array is only read, and may be reused by the caller afterwards.
+     */
+    String intern( byte[] utf8, int size )
+    {
+        int slot = hash( utf8, size ) & mask;
+        byte[] key = keys[slot];
+        if ( key != null && key.length == size && equal( key, utf8, size ) )
+        {
+            return values[slot];
+        }
+
+        String value = PackStream.Unpacker.decode( utf8, size );
+        keys[slot] = Arrays.copyOf( utf8, size );
+        values[slot] = value;
+        return value;
+    }
+
+    private static int hash( byte[] utf8, int size )
+    {
+        int hash = size;
+        for ( int i = 0; i < size; i++ )
+        {
+            hash = 31 * hash + utf8[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equal( byte[] key, byte[] utf8, int size )
+    {
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( key[i] != utf8[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
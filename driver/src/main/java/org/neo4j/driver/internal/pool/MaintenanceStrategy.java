@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+/**
+ * Decides how idle values in a pool are looked after in the background.
+ *
+ * @see ThreadCachingPool#maintain(MaintenanceStrategy)
+ */
+public interface MaintenanceStrategy<T>
+{
+    /**
+     * Decide if an idle value should stay in the pool.
+     *
+     * @param value the idle value
+     * @param idleTime time since the value was last used
+     * @param uncheckedTime time since the value was last used or last kept by this method, whichever is later
+     * @param age time since the value was allocated
+     * @return false to have the value disposed of
+     */
+    boolean keep( T value, long idleTime, long uncheckedTime, long age );
+
+    /** The number of idle values to keep allocated in the pool, as far as its max size allows */
+    int minIdle();
+}
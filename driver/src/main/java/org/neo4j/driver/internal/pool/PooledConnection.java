@@ -19,9 +19,13 @@
 package org.neo4j.driver.internal.pool;
 
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
 
 import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.StandardPreparedStatement;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.internal.util.Consumer;
@@ -67,6 +71,19 @@ public class PooledConnection implements Connection
         }
     }
 
+    @Override
+    public void run( StandardPreparedStatement statement, Value[] parameterValues, StreamCollector collector )
+    {
+        try
+        {
+            delegate.run( statement, parameterValues, collector );
+        }
+        catch(RuntimeException e)
+        {
+            onDelegateException( e );
+        }
+    }
+
     @Override
     public void discardAll()
     {
@@ -93,6 +110,32 @@ public class PooledConnection implements Connection
         }
     }
 
+    @Override
+    public void flush()
+    {
+        try
+        {
+            delegate.flush();
+        }
+        catch(RuntimeException e)
+        {
+            onDelegateException( e );
+        }
+    }
+
+    @Override
+    public void receiveOne()
+    {
+        try
+        {
+            delegate.receiveOne();
+        }
+        catch(RuntimeException e)
+        {
+            onDelegateException( e );
+        }
+    }
+
     @Override
     public void sync()
     {
@@ -106,9 +149,45 @@ public class PooledConnection implements Connection
         }
     }
 
+    @Override
+    public CompletionStage<Void> receiveAsync( int maxMessages )
+    {
+        try
+        {
+            return watchForUnrecoverableErrors( delegate.receiveAsync( maxMessages ) );
+        }
+        catch(RuntimeException e)
+        {
+            onDelegateException( e );
+            return null;
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> syncAsync()
+    {
+        try
+        {
+            return watchForUnrecoverableErrors( delegate.syncAsync() );
+        }
+        catch(RuntimeException e)
+        {
+            onDelegateException( e );
+            return null;
+        }
+    }
+
+    @Override
+    public void park()
+    {
+        delegate.park();
+    }
+
+    /** Park the connection and return it to the pool */
     @Override
     public void close()
     {
+        delegate.park();
         release.accept( this );
     }
 
@@ -137,7 +216,27 @@ public class PooledConnection implements Connection
         throw e;
     }
 
-    private boolean isClientOrTransientError( RuntimeException e )
+    private CompletionStage<Void> watchForUnrecoverableErrors( CompletionStage<Void> stage )
+    {
+        return stage.whenComplete( new BiConsumer<Void,Throwable>()
+        {
+            @Override
+            public void accept( Void ignore, Throwable error )
+            {
+                if ( error != null && !isClientOrTransientError( unwrap( error ) ) )
+                {
+                    unrecoverableErrorsOccurred = true;
+                }
+            }
+        } );
+    }
+
+    private static Throwable unwrap( Throwable error )
+    {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private boolean isClientOrTransientError( Throwable e )
     {
         // Eg: DatabaseErrors and unknown (no status code or not neo4j exception) cause session to be discarded
         return e instanceof Neo4jException
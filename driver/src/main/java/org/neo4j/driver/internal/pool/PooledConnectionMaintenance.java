@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.driver.Config;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
+import org.neo4j.driver.internal.spi.StreamCollector;
+
+import static org.neo4j.driver.internal.metrics.DevNullConnectionPoolMetrics.DEV_NULL_METRICS;
+
+/**
+ * Looks after idle connections in the background: retires connections that have been idle or alive for too long,
+ * and pings connections that have not been used for a while, so that sessions acquiring them don't have to.
+ */
+public class PooledConnectionMaintenance implements MaintenanceStrategy<PooledConnection>
+{
+    private static final Map<String,Value> NO_PARAMETERS = new HashMap<>();
+
+    /**
+     * Connections that have been idle longer than this threshold will have a ping test performed on them.
+     */
+    private final long minIdleBeforeConnectionTest;
+
+    /** Connections idle longer than this are closed, 0 means no limit */
+    private final long maxIdleTime;
+
+    /** Connections older than this are closed once idle, 0 means no limit */
+    private final long maxLifetime;
+
+    private final int minIdle;
+
+    private final ConnectionPoolMetrics metrics;
+
+    public PooledConnectionMaintenance( Config config, ConnectionPoolMetrics metrics )
+    {
+        this( config.idleTimeBeforeConnectionTest(), config.maxConnectionIdleTime(), config.maxConnectionLifetime(),
+                config.minIdleConnections(), metrics );
+    }
+
+    public PooledConnectionMaintenance( long minIdleBeforeConnectionTest, long maxIdleTime, long maxLifetime,
+            int minIdle )
+    {
+        this( minIdleBeforeConnectionTest, maxIdleTime, maxLifetime, minIdle, DEV_NULL_METRICS );
+    }
+
+    public PooledConnectionMaintenance( long minIdleBeforeConnectionTest, long maxIdleTime, long maxLifetime,
+            int minIdle, ConnectionPoolMetrics metrics )
+    {
+        this.minIdleBeforeConnectionTest = minIdleBeforeConnectionTest;
+        this.maxIdleTime = maxIdleTime;
+        this.maxLifetime = maxLifetime;
+        this.minIdle = minIdle;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean keep( PooledConnection conn, long idleTime, long uncheckedTime, long age )
+    {
+        if ( conn.hasUnrecoverableErrors() )
+        {
+            return false;
+        }
+        if ( maxIdleTime > 0 && idleTime > maxIdleTime )
+        {
+            return false;
+        }
+        if ( maxLifetime > 0 && age > maxLifetime )
+        {
+            return false;
+        }
+        return uncheckedTime <= minIdleBeforeConnectionTest || ping( conn );
+    }
+
+    @Override
+    public int minIdle()
+    {
+        return minIdle;
+    }
+
+    private boolean ping( PooledConnection conn )
+    {
+        long start = System.nanoTime();
+        try
+        {
+            conn.run( "RETURN 1 // JavaDriver poll to test connection", NO_PARAMETERS, StreamCollector.NO_OP );
+            conn.pullAll( StreamCollector.NO_OP );
+            conn.sync();
+            conn.park();
+            metrics.pinged( System.nanoTime() - start, true );
+            return true;
+        } catch( Throwable e )
+        {
+            metrics.pinged( System.nanoTime() - start, false );
+            return false;
+        }
+    }
+}
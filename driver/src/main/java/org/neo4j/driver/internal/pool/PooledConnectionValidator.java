@@ -18,51 +18,18 @@
  */
 package org.neo4j.driver.internal.pool;
 
-import java.util.HashMap;
-import java.util.Map;
-
-import org.neo4j.driver.Value;
-import org.neo4j.driver.internal.spi.StreamCollector;
-
 /**
  * Validates connections - determining if they are ok to keep in the pool, or if they should be disposed of.
+ * <p>
+ * This runs every time a connection is acquired or released, so it only looks at what is already known about the
+ * connection. Checking that idle connections are still live is left to {@link PooledConnectionMaintenance}, which
+ * runs in the background.
  */
 public class PooledConnectionValidator implements ValidationStrategy<PooledConnection>
 {
-    private static final Map<String,Value> NO_PARAMETERS = new HashMap<>();
-
-    /**
-     * Connections that have been idle longer than this threshold will have a ping test performed on them.
-     */
-    private final long minIdleBeforeConnectionTest;
-
-    public PooledConnectionValidator( long minIdleBeforeConnectionTest )
-    {
-        this.minIdleBeforeConnectionTest = minIdleBeforeConnectionTest;
-    }
-
     @Override
     public boolean isValid( PooledConnection conn, long idleTime )
     {
-        if ( conn.hasUnrecoverableErrors() )
-        {
-            return false;
-        }
-
-        return idleTime <= minIdleBeforeConnectionTest || ping( conn );
-    }
-
-    private boolean ping( PooledConnection conn )
-    {
-        try
-        {
-            conn.run( "RETURN 1 // JavaDriver poll to test connection", NO_PARAMETERS, StreamCollector.NO_OP );
-            conn.pullAll( StreamCollector.NO_OP );
-            conn.sync();
-            return true;
-        } catch( Throwable e )
-        {
-            return false;
-        }
+        return !conn.hasUnrecoverableErrors();
     }
 }
@@ -19,20 +19,31 @@
 package org.neo4j.driver.internal.pool;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.driver.Config;
 import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.connector.socket.SocketConnector;
+import org.neo4j.driver.internal.connector.socket.SocketEventLoop;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
 import org.neo4j.driver.internal.spi.Connector;
+import org.neo4j.driver.internal.spi.Logger;
+import org.neo4j.driver.internal.spi.Metrics;
 import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.Consumer;
 
@@ -47,6 +58,9 @@ import org.neo4j.driver.internal.util.Consumer;
  * hash-map lookup per acquire.
  * <p>
  * If threads are short-lived, this pool is not ideal.
+ * <p>
+ * Idle connections are looked after by a background housekeeper, which tests, retires and tops them up, so that
+ * sessions acquiring a connection never wait for any of that.
  */
 public class StandardConnectionPool implements ConnectionPool
 {
@@ -65,19 +79,43 @@ public class StandardConnectionPool implements ConnectionPool
      */
     private final ValidationStrategy<PooledConnection> connectionValidation;
 
+    /**
+     * Decides which idle connections to keep, applied periodically by the {@link #housekeeper}. Organized by URL,
+     * like {@link #pools}, so that pings are reported to the metrics of the right pool.
+     */
+    private final ConcurrentHashMap<URI,MaintenanceStrategy<PooledConnection>> connectionMaintenance =
+            new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService housekeeper;
+
+    /** Rounds of maintenance done so far, used to vary which pool the housekeeper looks after first */
+    private int maintenanceRounds;
+
+    /** Opens connections for {@link #warmUp(URI, int)}, one thread per connection so they are opened in parallel */
+    private final ExecutorService warmUpExecutor;
+
+    private final Logger logger;
+    private final Metrics metrics;
+
     private final Clock clock;
     private final Config config;
 
-    public StandardConnectionPool( Config config )
+    /**
+     * @param eventLoop receives responses asynchronously for the connections of the pool, it is left to the caller to
+     * shut down
+     */
+    public StandardConnectionPool( Config config, SocketEventLoop eventLoop )
     {
-        this( loadConnectors(), Clock.SYSTEM, config );
+        this( loadConnectors( eventLoop ), Clock.SYSTEM, config );
     }
 
     public StandardConnectionPool( Collection<Connector> conns, Clock clock, Config config )
     {
         this.config = config;
         this.clock = clock;
-        this.connectionValidation = new PooledConnectionValidator( config.idleTimeBeforeConnectionTest() );
+        this.connectionValidation = new PooledConnectionValidator();
+        this.logger = config.logging().getLog( getClass().getName() );
+        this.metrics = config.metrics();
         for ( Connector connector : conns )
         {
             for ( String s : connector.supportedSchemes() )
@@ -85,6 +123,42 @@ public class StandardConnectionPool implements ConnectionPool
                 this.connectors.put( s, connector );
             }
         }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor( daemon( "neo4j-driver-pool-housekeeper" ) );
+        this.warmUpExecutor = Executors.newCachedThreadPool( daemon( "neo4j-driver-pool-warm-up" ) );
+        long interval = config.poolMaintenanceInterval();
+        housekeeper.scheduleWithFixedDelay( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                maintain();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Test, retire and top up the idle connections of all pools. A round may take at most one maintenance interval,
+     * whatever it did not get to is picked up by the next round, which starts with a different pool.
+     */
+    void maintain()
+    {
+        long deadline = clock.millis() + config.poolMaintenanceInterval();
+        List<Map.Entry<URI,ThreadCachingPool<PooledConnection>>> all = new ArrayList<>( pools.entrySet() );
+        int first = all.isEmpty() ? 0 : maintenanceRounds++ % all.size();
+        for ( int i = 0; i < all.size(); i++ )
+        {
+            Map.Entry<URI,ThreadCachingPool<PooledConnection>> pool = all.get( (first + i) % all.size() );
+            try
+            {
+                pool.getValue().maintain( connectionMaintenance.get( pool.getKey() ), deadline );
+            }
+            catch ( Throwable e )
+            {
+                // Keep the housekeeper going, it'll try again next round
+                logger.error( "Failed to maintain connection pool: " + e.getMessage(), e );
+            }
+        }
     }
 
     @Override
@@ -111,6 +185,26 @@ public class StandardConnectionPool implements ConnectionPool
         }
     }
 
+    @Override
+    public CompletableFuture<Void> warmUp( URI sessionURI, int connections )
+    {
+        final ThreadCachingPool<PooledConnection> pool = pool( sessionURI );
+        int missing = Math.min( connections, config.connectionPoolSize() ) - pool.size();
+        CompletableFuture<?>[] opened = new CompletableFuture<?>[Math.max( missing, 0 )];
+        for ( int i = 0; i < opened.length; i++ )
+        {
+            opened[i] = CompletableFuture.runAsync( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    pool.addIdle();
+                }
+            }, warmUpExecutor );
+        }
+        return CompletableFuture.allOf( opened );
+    }
+
     private ThreadCachingPool<PooledConnection> pool( URI sessionURI )
     {
         ThreadCachingPool<PooledConnection> pool = pools.get( sessionURI );
@@ -127,19 +221,23 @@ public class StandardConnectionPool implements ConnectionPool
         return pool;
     }
 
-    private static Collection<Connector> loadConnectors()
+    private static Collection<Connector> loadConnectors( SocketEventLoop eventLoop )
     {
         List<Connector> connectors = new LinkedList<>();
 
         // Hard code socket connector
-        Connector conn = new SocketConnector();
+        Connector conn = new SocketConnector( eventLoop );
         connectors.add( conn );
 
         // Load custom loadConnectors via JSL
         ServiceLoader<Connector> load = ServiceLoader.load( Connector.class );
         for ( Connector connector : load )
         {
-            connectors.add( connector );
+            // The socket connector is listed as a service, too, but only the one above runs on the event loop
+            if ( !(connector instanceof SocketConnector) )
+            {
+                connectors.add( connector );
+            }
         }
         return connectors;
     }
@@ -147,6 +245,8 @@ public class StandardConnectionPool implements ConnectionPool
     @Override
     public void close() throws Exception
     {
+        housekeeper.shutdownNow();
+        warmUpExecutor.shutdownNow();
         for ( ThreadCachingPool<PooledConnection> pool : pools.values() )
         {
             pool.close();
@@ -154,6 +254,20 @@ public class StandardConnectionPool implements ConnectionPool
         pools.clear();
     }
 
+    private static ThreadFactory daemon( final String name )
+    {
+        return new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, name );
+                thread.setDaemon( true );
+                return thread;
+            }
+        };
+    }
+
     private String connectorSchemes()
     {
         return Arrays.toString( connectors.keySet().toArray( new String[connectors.keySet().size()] ) );
@@ -161,6 +275,8 @@ public class StandardConnectionPool implements ConnectionPool
 
     private ThreadCachingPool<PooledConnection> newPool( final URI uri )
     {
+        ConnectionPoolMetrics poolMetrics = metrics.connectionPool( uri );
+        connectionMaintenance.putIfAbsent( uri, new PooledConnectionMaintenance( config, poolMetrics ) );
 
         return new ThreadCachingPool<>( config.connectionPoolSize(), new Allocator<PooledConnection>()
         {
@@ -189,6 +305,6 @@ public class StandardConnectionPool implements ConnectionPool
             {
 
             }
-        }, connectionValidation, clock );
+        }, connectionValidation, clock, poolMetrics );
     }
 }
@@ -18,18 +18,24 @@
  */
 package org.neo4j.driver.internal.pool;
 
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
 import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.Consumer;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.driver.internal.metrics.DevNullConnectionPoolMetrics.DEV_NULL_METRICS;
 
 /**
  * A general pool implementation, heavily inspired by Chris Vests "stormpot" pool, but without a background thread
@@ -46,6 +52,10 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
  * The pool will fail all incoming resource requests once all the resources in the pool has been consumed. But the
  * resource requesting thread could choose to wait for a while for a possible available resource.
  * </li>
+ * <li>
+ * Threads waiting for a resource queue up, and are served in the order they arrived. A released resource is handed
+ * straight to the thread that has waited the longest, rather than put back in the pool for anyone to grab.
+ * </li>
  *
  * @param <T> A pool of T
  */
@@ -57,7 +67,10 @@ public class ThreadCachingPool<T> implements AutoCloseable
      */
     private final ThreadLocal<Slot<T>> local = new ThreadLocal<>();
 
-    /** Keeps references to slots that are likely (but not necessarily) live */
+    /**
+     * Keeps references to slots that are likely (but not necessarily) live. A slot is in here at most once, see
+     * {@link Slot#queued}, so slots released over and over without anyone taking them from here don't pile up.
+     */
     private final BlockingQueue<Slot<T>> live = new LinkedBlockingQueue<>();
 
     /** Keeps references to slots that have been disposed of. Used when re-allocating. */
@@ -75,25 +88,44 @@ public class ThreadCachingPool<T> implements AutoCloseable
     /** While the pool is initially populating, this tracks indexes into the {@link #all} array */
     private final AtomicInteger nextSlotIndex = new AtomicInteger( 0 );
 
+    /**
+     * Threads waiting for a slot, longest waiting first. Slots are released and disposed of under {@link #waitLock},
+     * so a thread that finds nothing available while holding it is guaranteed to be handed the next slot freed up.
+     */
+    private final Queue<Waiter<T>> waiters = new ArrayDeque<>();
+    private final ReentrantLock waitLock = new ReentrantLock();
+
     /** Shutdown flag */
     private final AtomicBoolean stopped = new AtomicBoolean( false );
 
+    /** Where the last call to {@link #maintain(MaintenanceStrategy, long)} stopped, only used by its caller thread */
+    private int maintenanceCursor;
+
     private final Allocator<T> allocator;
     private final ValidationStrategy<T> validationStrategy;
     private final Clock clock;
+    private final ConnectionPoolMetrics metrics;
 
     public ThreadCachingPool( int targetSize, Allocator<T> allocator, ValidationStrategy<T> validationStrategy,
             Clock clock )
+    {
+        this( targetSize, allocator, validationStrategy, clock, DEV_NULL_METRICS );
+    }
+
+    public ThreadCachingPool( int targetSize, Allocator<T> allocator, ValidationStrategy<T> validationStrategy,
+            Clock clock, ConnectionPoolMetrics metrics )
     {
         this.maxSize = targetSize;
         this.allocator = allocator;
         this.validationStrategy = validationStrategy;
         this.clock = clock;
+        this.metrics = metrics;
         this.all = new Slot[targetSize];
     }
 
     public T acquire( long timeout, TimeUnit unit ) throws InterruptedException
     {
+        long start = System.nanoTime();
         long deadline = clock.millis() + unit.toMillis( timeout );
 
         // 1. Try and get an object from our local slot
@@ -104,6 +136,7 @@ public class ThreadCachingPool<T> implements AutoCloseable
             if ( slot.isValid( validationStrategy ) )
             {
                 allocator.onAcquire( slot.value );
+                metrics.acquired( System.nanoTime() - start, true );
                 return slot.value;
             }
             else
@@ -115,12 +148,12 @@ public class ThreadCachingPool<T> implements AutoCloseable
         }
 
         // 2. If that fails, acquire from big pool
-        return acquireFromGlobal( deadline );
+        return acquireFromGlobal( start, deadline );
     }
 
-    private T acquireFromGlobal( long deadline ) throws InterruptedException
+    private T acquireFromGlobal( long start, long deadline ) throws InterruptedException
     {
-        Slot<T> slot = live.poll();
+        Slot<T> slot = pollLive();
 
         for (; ; )
         {
@@ -145,45 +178,172 @@ public class ThreadCachingPool<T> implements AutoCloseable
                         dispose( slot );
                     }
                 }
+                slot = pollLive();
+                continue;
             }
-            else
+
+            // 2. Exhausted the likely-to-be-live list, are there any disposed-of slots we can recycle?
+            slot = disposed.poll();
+            if ( slot != null )
             {
-                // 2. Exhausted the likely-to-be-live list, are there any disposed-of slots we can recycle?
-                slot = disposed.poll();
-                if ( slot != null )
-                {
-                    // Got a hold of a previously disposed slot!
-                    slot = allocate( slot.index );
-                    break;
-                }
+                // Got a hold of a previously disposed slot!
+                slot = allocate( slot.index );
+                break;
+            }
 
-                // 3. Can we expand the pool?
-                int index = nextSlotIndex.get();
-                if ( maxSize > index && nextSlotIndex.compareAndSet( index, index + 1 ) )
+            // 3. Can we expand the pool?
+            int index = nextSlotIndex.get();
+            if ( maxSize > index )
+            {
+                if ( nextSlotIndex.compareAndSet( index, index + 1 ) )
                 {
                     slot = allocate( index );
                     break;
                 }
+                continue;
             }
 
-            // Enforce max wait time
-            long timeLeft = deadline - clock.millis();
-            if ( timeLeft <= 0 )
+            // 4. Nothing to be had, wait in line for someone to release or dispose of a slot
+            Waiter<T> waiter = enqueueWaiter();
+            if ( waiter == null )
             {
-                return null;
+                // Something became available while we were looking elsewhere
+                slot = pollLive();
+                continue;
             }
 
-            // Wait for a bit to see if someone releases something to the live queue
-            slot = live.poll( Math.min( timeLeft, 10 ), MILLISECONDS );
+            slot = awaitHandOver( waiter, deadline );
+            if ( slot == null )
+            {
+                metrics.acquisitionTimedOut( System.nanoTime() - start );
+                return null;
+            }
+            if ( slot.state.get() == Slot.State.DISPOSED )
+            {
+                slot = allocate( slot.index );
+                break;
+            }
+            if ( slot.isValid( validationStrategy ) )
+            {
+                break;
+            }
+            dispose( slot );
+            slot = null;
         }
 
         // Keep this slot cached with our thread, so that we can grab this value quickly next time,
         // assuming threads generally availableToClaimed one instance at a time
         local.set( slot );
         allocator.onAcquire( slot.value );
+        metrics.acquired( System.nanoTime() - start, false );
         return slot.value;
     }
 
+    /**
+     * Join the queue of waiting threads, unless a slot was released or disposed of since we last looked.
+     * @return the queued waiter, or null if there is something available to claim
+     */
+    private Waiter<T> enqueueWaiter()
+    {
+        waitLock.lock();
+        try
+        {
+            if ( !live.isEmpty() || !disposed.isEmpty() )
+            {
+                return null;
+            }
+            Waiter<T> waiter = new Waiter<>( Thread.currentThread() );
+            waiters.add( waiter );
+            return waiter;
+        }
+        finally
+        {
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * Park until a slot is handed to us, or until the deadline passes.
+     * @return a claimed or disposed slot handed over by another thread, or null if none arrived in time
+     */
+    private Slot<T> awaitHandOver( Waiter<T> waiter, long deadline ) throws InterruptedException
+    {
+        for (; ; )
+        {
+            Slot<T> slot = waiter.slot;
+            if ( slot != null )
+            {
+                return slot;
+            }
+
+            long timeLeft = deadline - clock.millis();
+            boolean interrupted = Thread.interrupted();
+            if ( timeLeft <= 0 || interrupted || stopped.get() )
+            {
+                waitLock.lock();
+                try
+                {
+                    if ( waiter.slot == null )
+                    {
+                        waiters.remove( waiter );
+                        if ( interrupted )
+                        {
+                            throw new InterruptedException();
+                        }
+                        if ( stopped.get() )
+                        {
+                            throw new IllegalStateException( "Pool has been closed, cannot acquire new values." );
+                        }
+                        return null;
+                    }
+                }
+                finally
+                {
+                    waitLock.unlock();
+                }
+
+                // A slot was handed to us just as we were giving up, it's ours to use now
+                if ( interrupted )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return waiter.slot;
+            }
+
+            LockSupport.parkNanos( this, MILLISECONDS.toNanos( timeLeft ) );
+        }
+    }
+
+    /** Hand a slot to the longest waiting thread, if any. Must be called holding {@link #waitLock}. */
+    private boolean handOverToWaiter( Slot<T> slot )
+    {
+        Waiter<T> waiter = waiters.poll();
+        if ( waiter == null )
+        {
+            return false;
+        }
+        waiter.slot = slot;
+        LockSupport.unpark( waiter.thread );
+        return true;
+    }
+
+    /** Make a disposed slot available for re-allocation, preferably by a thread waiting for one */
+    private void recycle( Slot<T> slot )
+    {
+        waitLock.lock();
+        try
+        {
+            if ( stopped.get() || !handOverToWaiter( slot ) )
+            {
+                disposed.add( slot );
+            }
+        }
+        finally
+        {
+            waitLock.unlock();
+        }
+    }
+
     private void dispose( Slot<T> slot )
     {
         if ( !slot.claimedToDisposed() )
@@ -193,7 +353,8 @@ public class ThreadCachingPool<T> implements AutoCloseable
 
         // Done before below, in case dispose call fails. This is safe since objects on the
         // pool are used for read-only operations
-        disposed.add( slot );
+        recycle( slot );
+        metrics.disposed();
         allocator.onDispose( slot.value );
     }
 
@@ -209,7 +370,9 @@ public class ThreadCachingPool<T> implements AutoCloseable
         try
         {
             // Allocate the new item - this may fail with an exception
+            long start = System.nanoTime();
             slot.set( allocator.allocate( createDisposeCallback( slot ) ) );
+            metrics.created( System.nanoTime() - start );
 
             // Store the slot in the global list of slots
             all[slotIndex] = slot;
@@ -221,7 +384,8 @@ public class ThreadCachingPool<T> implements AutoCloseable
         {
             // Failed to allocate slot, return it to the list of disposed slots, rethrow exception.
             slot.claimedToDisposed();
-            disposed.add( slot );
+            recycle( slot );
+            metrics.creationFailed();
             throw e;
         }
     }
@@ -233,6 +397,7 @@ public class ThreadCachingPool<T> implements AutoCloseable
             @Override
             public void accept( T t )
             {
+                metrics.released();
                 slot.updateUsageTimestamp();
                 if ( !slot.isValid( validationStrategy ) )
                 {
@@ -241,32 +406,213 @@ public class ThreadCachingPool<T> implements AutoCloseable
                     return;
                 }
 
-                if ( !slot.claimedToAvailable() )
-                {
-                    throw new IllegalStateException( "Failed to release pooled object: " + slot );
-                }
-
-                // Make sure the pool isn't being stopped in the middle of all these shenanigans
-                if ( !stopped.get() )
-                {
-                    // All good, as you were.
-                    live.add( slot );
-                }
-                else
-                {
-                    // Another thread concurrently closing the pool may have started closing before we
-                    // set our slot to "available". In that case, the slot will not be disposed of by the closing thread
-                    // We mitigate this by trying to claim the slot back - if we are able to, we dispose the slot.
-                    // If we can't claim the slot back, that means another thread is dealing with it.
-                    if ( slot.availableToClaimed() )
-                    {
-                        dispose( slot );
-                    }
-                }
+                makeAvailable( slot );
             }
         };
     }
 
+    /**
+     * Give a claimed slot up, handing it to the longest waiting thread if there is one, or otherwise putting it back
+     * in the pool for anyone to claim.
+     */
+    private void makeAvailable( Slot<T> slot )
+    {
+        waitLock.lock();
+        try
+        {
+            // Make sure the pool isn't being stopped in the middle of all these shenanigans
+            if ( !stopped.get() && handOverToWaiter( slot ) )
+            {
+                // Someone was waiting for this, the slot stays claimed and is theirs now
+                return;
+            }
+
+            if ( !slot.claimedToAvailable() )
+            {
+                throw new IllegalStateException( "Failed to release pooled object: " + slot );
+            }
+
+            if ( !stopped.get() )
+            {
+                // All good, as you were.
+                enqueueLive( slot );
+                return;
+            }
+        }
+        finally
+        {
+            waitLock.unlock();
+        }
+
+        // Another thread concurrently closing the pool may have started closing before we
+        // set our slot to "available". In that case, the slot will not be disposed of by the closing thread
+        // We mitigate this by trying to claim the slot back - if we are able to, we dispose the slot.
+        // If we can't claim the slot back, that means another thread is dealing with it.
+        if ( slot.availableToClaimed() )
+        {
+            dispose( slot );
+        }
+    }
+
+    /** Put a slot in the {@link #live} queue, unless it is in there already */
+    private void enqueueLive( Slot<T> slot )
+    {
+        if ( slot.queued.compareAndSet( false, true ) )
+        {
+            live.add( slot );
+        }
+    }
+
+    /**
+     * Take the next slot out of the {@link #live} queue, or null if it is empty. The slot may be queued again from
+     * here on, even if it turns out to be claimed by someone else.
+     */
+    private Slot<T> pollLive()
+    {
+        Slot<T> slot = live.poll();
+        if ( slot != null )
+        {
+            slot.queued.set( false );
+        }
+        return slot;
+    }
+
+    /** The number of slots in the queue of likely live slots, used in tests */
+    int queuedSlots()
+    {
+        return live.size();
+    }
+
+    /**
+     * Check the health of values not currently in use, disposing of the ones the strategy no longer wants, and
+     * allocate new values until the pool holds the minimum number of idle values the strategy asks for. Meant to be
+     * called periodically from a background thread, so that threads acquiring values don't have to do this work.
+     * <p>
+     * Values are claimed while they are being checked, so a slow check never hands out a value in an unknown state.
+     *
+     * @param strategy decides which idle values to keep, and how many to keep around
+     */
+    public void maintain( MaintenanceStrategy<T> strategy )
+    {
+        maintain( strategy, Long.MAX_VALUE );
+    }
+
+    /**
+     * Like {@link #maintain(MaintenanceStrategy)}, but stop once the given time has passed, so that slow checks can't
+     * hold up the next round of maintenance. The next call carries on with the values this one did not get to, and
+     * only once all values have been checked are new ones allocated.
+     *
+     * @param strategy decides which idle values to keep, and how many to keep around
+     * @param deadline when to stop, in {@link Clock#millis()}, a check in progress is finished first
+     */
+    public void maintain( MaintenanceStrategy<T> strategy, long deadline )
+    {
+        int idle = 0;
+        int start = maintenanceCursor;
+        for ( int i = 0; i < all.length; i++ )
+        {
+            if ( stopped.get() )
+            {
+                return;
+            }
+            int index = (start + i) % all.length;
+            if ( clock.millis() >= deadline )
+            {
+                maintenanceCursor = index;
+                return;
+            }
+            Slot<T> slot = all[index];
+            if ( slot == null || !slot.availableToClaimed() )
+            {
+                continue;
+            }
+
+            long now = clock.millis();
+            boolean keep;
+            try
+            {
+                keep = strategy.keep( slot.value, now - slot.lastUsed,
+                        now - Math.max( slot.lastUsed, slot.lastChecked ), now - slot.created );
+            }
+            catch ( RuntimeException e )
+            {
+                keep = false;
+            }
+
+            if ( keep )
+            {
+                slot.lastChecked = clock.millis();
+                makeAvailable( slot );
+                idle++;
+            }
+            else
+            {
+                dispose( slot );
+            }
+        }
+        maintenanceCursor = start;
+
+        for ( ; idle < strategy.minIdle() && !stopped.get() && clock.millis() < deadline; idle++ )
+        {
+            Slot<T> slot = allocateIdle();
+            if ( slot == null )
+            {
+                // The pool is at its max size
+                return;
+            }
+            makeAvailable( slot );
+        }
+    }
+
+    /**
+     * Allocate a new value straight into the pool, ready to be acquired, so that whoever acquires it won't have to
+     * wait for it to be created.
+     *
+     * @return false if the pool is already at its max size
+     */
+    public boolean addIdle()
+    {
+        if ( stopped.get() )
+        {
+            throw new IllegalStateException( "Pool has been closed, cannot allocate new values." );
+        }
+        Slot<T> slot = allocateIdle();
+        if ( slot == null )
+        {
+            return false;
+        }
+        makeAvailable( slot );
+        return true;
+    }
+
+    /** The number of values currently allocated, in use or not */
+    public int size()
+    {
+        return Math.min( nextSlotIndex.get(), maxSize ) - disposed.size();
+    }
+
+    /** Allocate a value into a disposed or never used slot, returning null if there is no room for a new value. */
+    private Slot<T> allocateIdle()
+    {
+        Slot<T> slot = disposed.poll();
+        if ( slot != null )
+        {
+            return allocate( slot.index );
+        }
+        for (; ; )
+        {
+            int index = nextSlotIndex.get();
+            if ( index >= maxSize )
+            {
+                return null;
+            }
+            if ( nextSlotIndex.compareAndSet( index, index + 1 ) )
+            {
+                return allocate( index );
+            }
+        }
+    }
+
     @Override
     public void close()
     {
@@ -281,6 +627,34 @@ public class ThreadCachingPool<T> implements AutoCloseable
                 dispose( slot );
             }
         }
+
+        // Wake up anyone waiting, they will notice the pool is closed
+        waitLock.lock();
+        try
+        {
+            for ( Waiter<T> waiter : waiters )
+            {
+                LockSupport.unpark( waiter.thread );
+            }
+        }
+        finally
+        {
+            waitLock.unlock();
+        }
+    }
+}
+
+/** A thread waiting for a slot to be handed to it */
+class Waiter<T>
+{
+    final Thread thread;
+
+    /** Set, under the pool's wait lock, to a claimed or disposed slot handed to the waiting thread */
+    volatile Slot<T> slot;
+
+    Waiter( Thread thread )
+    {
+        this.thread = thread;
     }
 }
 
@@ -298,10 +672,17 @@ class Slot<T>
     }
 
     final AtomicReference<State> state = new AtomicReference<>( State.CLAIMED );
+
+    /** Whether the slot is in the pool's queue of likely live slots */
+    final AtomicBoolean queued = new AtomicBoolean( false );
     final int index;
     final Clock clock;
 
+    final long created;
     long lastUsed;
+
+    /** Last time the value was found to be live in {@link ThreadCachingPool#maintain(MaintenanceStrategy)} */
+    long lastChecked;
     T value;
 
     public static <T> Slot<T> disposed( int index, Clock clock )
@@ -319,7 +700,9 @@ class Slot<T>
     {
         this.index = index;
         this.clock = clock;
-        this.lastUsed = 0;
+        this.created = clock.millis();
+        this.lastUsed = created;
+        this.lastChecked = created;
     }
 
     public void set( T value )
@@ -334,7 +717,6 @@ class Slot<T>
 
     public boolean claimedToAvailable()
     {
-        updateUsageTimestamp();
         return state.compareAndSet( State.CLAIMED, State.AVAILABLE );
     }
 
@@ -19,8 +19,10 @@
 package org.neo4j.driver.internal.spi;
 
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.StandardPreparedStatement;
 
 /**
  * A connection is an abstraction provided by an underlying transport implementation,
@@ -40,6 +42,11 @@ public interface Connection extends AutoCloseable
      */
     void run( String statement, Map<String,Value> parameters, StreamCollector collector );
 
+    /**
+     * Queue up a run action for a prepared statement, see {@link #run(String, Map, StreamCollector)}.
+     */
+    void run( StandardPreparedStatement statement, Value[] parameterValues, StreamCollector collector );
+
     /**
      * Queue a discard all action, consuming any items left in the current stream.This will
      * close the stream once its completed, allowing another {@link #run(String, java.util.Map, StreamCollector) run}
@@ -52,11 +59,47 @@ public interface Connection extends AutoCloseable
      */
     void pullAll( StreamCollector collector );
 
+    /**
+     * Send all queued actions to the server, without waiting for any responses.
+     */
+    void flush();
+
+    /**
+     * Receive the next message available from the server, handing it to the collector of the action it is a
+     * response to. Actions must have been {@link #flush() flushed} before their responses can be received.
+     */
+    void receiveOne();
+
+    /**
+     * Receive up to a given number of messages from the server without blocking the calling thread, stopping early
+     * once all outstanding actions have been replied to. Messages beyond those asked for are left unread in the
+     * network buffers. Like {@link #syncAsync()}, the connection must not be used for anything else until the
+     * returned stage completes.
+     * @param maxMessages the most messages to receive, or {@link Integer#MAX_VALUE} for all outstanding
+     * @return a stage completed once the messages have been received, or completed exceptionally on failure
+     */
+    CompletionStage<Void> receiveAsync( int maxMessages );
+
     /**
      * Ensure all outstanding actions are carried out on the server.
      */
     void sync();
 
+    /**
+     * Ensure all outstanding actions are carried out on the server, without blocking the calling thread. Responses
+     * are handed to collectors on a driver I/O thread, and the connection must not be used for anything else until
+     * the returned stage completes.
+     * @return a stage completed once all responses have arrived, or completed exceptionally on failure
+     */
+    CompletionStage<Void> syncAsync();
+
+    /**
+     * Give back the resources the connection only needs while in use, such as its network buffers, as it is about to
+     * sit idle. Anything still needed to carry on where it left off is kept. What was given back is taken again once
+     * the connection is used.
+     */
+    void park();
+
     @Override
     void close();
 }
@@ -20,6 +20,7 @@ package org.neo4j.driver.internal.spi;
 
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 public interface ConnectionPool extends AutoCloseable
 {
@@ -28,4 +29,11 @@ public interface ConnectionPool extends AutoCloseable
      * is created with an applicable {@link Connector}.
      */
     Connection acquire( URI sessionURI );
+
+    /**
+     * Open connections in the background until the pool for the given URI holds at least the given number of
+     * connections, or is full.
+     * @return a future completed once the connections are open, or completed exceptionally if any failed to open
+     */
+    CompletableFuture<Void> warmUp( URI sessionURI, int connections );
 }
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.spi;
+
+/**
+ * Events in the life of pooled connections to a single URI. Times are in nanoseconds.
+ * <p>
+ * Implementations are called from whatever thread the event happens in, including the threads acquiring
+ * connections, so they should be thread-safe and cheap.
+ */
+public interface ConnectionPoolMetrics
+{
+    /**
+     * A connection was acquired from the pool.
+     * @param nanos how long acquiring took, including waiting for and creating a connection
+     * @param fromThreadCache true if the connection was the one cached with the acquiring thread
+     */
+    void acquired( long nanos, boolean fromThreadCache );
+
+    /** Nothing could be acquired from the pool in time */
+    void acquisitionTimedOut( long nanos );
+
+    /** An acquired connection was released back to the pool */
+    void released();
+
+    /** A new connection was established and added to the pool */
+    void created( long nanos );
+
+    /** Establishing a new connection failed */
+    void creationFailed();
+
+    /** A socket was connected, this does not include setting up TLS, see {@link #tlsHandshake(long)} */
+    void connected( long nanos );
+
+    /** The TLS handshake was completed on a newly connected socket, only reported if TLS is enabled */
+    void tlsHandshake( long nanos );
+
+    /** The Bolt protocol version was negotiated with the server, after TLS was set up if enabled */
+    void protocolNegotiated( long nanos );
+
+    /** An idle connection was tested by running a trivial statement on it */
+    void pinged( long nanos, boolean succeeded );
+
+    /** A connection was closed and removed from the pool */
+    void disposed();
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.spi;
+
+import java.net.URI;
+
+/**
+ * Receives measurements of what the driver is doing, so it can be monitored.
+ */
+public interface Metrics
+{
+    /**
+     * Called once for every URI the driver connects to.
+     * @param uri the URI connections are made to
+     * @return where to report on connections to the given URI
+     */
+    ConnectionPoolMetrics connectionPool( URI uri );
+}
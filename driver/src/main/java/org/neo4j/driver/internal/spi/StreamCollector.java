@@ -18,7 +18,9 @@
  */
 package org.neo4j.driver.internal.spi;
 
-import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.QueryTimer;
+import org.neo4j.driver.internal.RecordFields;
 
 public interface StreamCollector
 {
@@ -31,7 +33,31 @@ public interface StreamCollector
         }
 
         @Override
-        public void record( Value[] fields )
+        public void record( RecordFields fields )
+        {
+
+        }
+
+        @Override
+        public boolean wantsRecords()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean failure( Neo4jException error )
+        {
+            return false;
+        }
+
+        @Override
+        public void done()
+        {
+
+        }
+
+        @Override
+        public void timed( QueryTimer timer )
         {
 
         }
@@ -39,5 +65,32 @@ public interface StreamCollector
 
     void fieldNames( String[] names );
 
-    void record( Value[] fields );
+    void record( RecordFields fields );
+
+    /**
+     * Whether records are of any use to this collector. If not, they are skipped over as they are received rather
+     * than decoded and then thrown away, and {@link #record(RecordFields)} is not called for them.
+     */
+    boolean wantsRecords();
+
+    /**
+     * Called when the server fails the message this collector was registered for, or ignores it because of an
+     * earlier failure, ahead of {@link #done()}.
+     *
+     * @return true if the collector keeps the failure, to report it to whoever the statement belongs to. It is then not
+     * reported by the connection call that happened to receive it, which may have been made for some other statement.
+     */
+    boolean failure( Neo4jException error );
+
+    /**
+     * Called once the response to the message this collector was registered for has been fully received, whether
+     * that response was a success, a failure or the message was ignored by the server.
+     */
+    void done();
+
+    /**
+     * Called when a statement is queued with this collector, if query timings are enabled. The collector completes
+     * the timer once it has built the result of the statement.
+     */
+    void timed( QueryTimer timer );
 }
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the direct buffers connections read and write through, so that connections only hold on to them while they
+ * are in use. A connection leases its buffers when it starts sending or receiving, and releases them once it is parked
+ * in a pool, where they can be leased by the next connection to become busy. Direct memory is then only needed for
+ * the connections that are busy at the same time, rather than for every connection that is open.
+ * <p>
+ * Buffers are kept in size classes, four to each doubling in size from {@value #MIN_SIZE} bytes, so that a buffer
+ * leased is at most a quarter larger than asked for. Buffers larger than {@value #MAX_POOLED_SIZE} bytes are not kept.
+ * Released buffers are let go of, rather than kept, once the idle buffers add up to the most idle bytes the arena was
+ * created with.
+ */
+public class BufferArena
+{
+    /** The smallest buffer leased, smaller ones are rounded up to this */
+    public static final int MIN_SIZE = 1024;
+
+    /** The largest buffer kept for reuse */
+    public static final int MAX_POOLED_SIZE = 1 << 20;
+
+    private static final int STEPS_PER_DOUBLING = 4;
+
+    private static final BufferArena SHARED = new BufferArena( 32 * 1024 * 1024 );
+
+    private final FreeList[] free = new FreeList[classOf( MAX_POOLED_SIZE ) + 1];
+    private final long maxIdleBytes;
+
+    private final AtomicLong leasedBytes = new AtomicLong();
+    private final AtomicLong idleBytes = new AtomicLong();
+
+    /** The arena shared by all drivers in this JVM. */
+    public static BufferArena shared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * @param maxIdleBytes the most bytes of idle buffers to keep for reuse
+     */
+    public BufferArena( long maxIdleBytes )
+    {
+        this.maxIdleBytes = maxIdleBytes;
+        for ( int i = 0; i < free.length; i++ )
+        {
+            free[i] = new FreeList();
+        }
+    }
+
+    /**
+     * Lease a cleared, big-endian direct buffer, reusing an idle one if there is one of the right size.
+     * @param capacity the least capacity the buffer should have
+     * @return a buffer to be {@link #release(ByteBuffer) released} when no longer needed
+     */
+    public ByteBuffer lease( int capacity )
+    {
+        ByteBuffer buffer = null;
+        if ( capacity <= MAX_POOLED_SIZE )
+        {
+            int sizeClass = classOf( capacity );
+            capacity = sizeOf( sizeClass );
+            buffer = free[sizeClass].pop();
+        }
+
+        if ( buffer == null )
+        {
+            buffer = ByteBuffer.allocateDirect( capacity );
+        }
+        else
+        {
+            idleBytes.addAndGet( -capacity );
+            buffer.clear();
+            buffer.order( ByteOrder.BIG_ENDIAN );
+        }
+        leasedBytes.addAndGet( capacity );
+        return buffer;
+    }
+
+    /**
+     * Give back a buffer {@link #lease(int) leased} from this arena. It must not be used after this.
+     */
+    public void release( ByteBuffer buffer )
+    {
+        int capacity = buffer.capacity();
+        leasedBytes.addAndGet( -capacity );
+        int sizeClass = classOf( capacity );
+        if ( capacity > MAX_POOLED_SIZE || sizeOf( sizeClass ) != capacity )
+        {
+            return;
+        }
+        if ( idleBytes.addAndGet( capacity ) > maxIdleBytes )
+        {
+            // Enough is kept already, leave this one to the garbage collector
+            idleBytes.addAndGet( -capacity );
+            return;
+        }
+        free[sizeClass].push( buffer );
+    }
+
+    /** Bytes of direct memory in the buffers currently leased */
+    public long leasedBytes()
+    {
+        return leasedBytes.get();
+    }
+
+    /** Bytes of direct memory in the buffers kept for the next leases */
+    public long idleBytes()
+    {
+        return idleBytes.get();
+    }
+
+    /** The size class buffers of at least the given capacity are leased from */
+    static int classOf( int capacity )
+    {
+        if ( capacity <= MIN_SIZE )
+        {
+            return 0;
+        }
+        int doubling = Integer.highestOneBit( capacity - 1 );
+        int step = doubling / STEPS_PER_DOUBLING;
+        int steps = (capacity - doubling + step - 1) / step;
+        return Integer.numberOfTrailingZeros( doubling / MIN_SIZE ) * STEPS_PER_DOUBLING + steps;
+    }
+
+    /** The capacity of the buffers in a size class */
+    static int sizeOf( int sizeClass )
+    {
+        if ( sizeClass == 0 )
+        {
+            return MIN_SIZE;
+        }
+        int doubling = MIN_SIZE << ((sizeClass - 1) / STEPS_PER_DOUBLING);
+        int steps = (sizeClass - 1) % STEPS_PER_DOUBLING + 1;
+        return doubling + steps * (doubling / STEPS_PER_DOUBLING);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BufferArena{leasedBytes=" + leasedBytes() + ", idleBytes=" + idleBytes() + "}";
+    }
+
+    /** The idle buffers of one size class, most recently released on top */
+    private static class FreeList
+    {
+        private ByteBuffer[] buffers = new ByteBuffer[8];
+        private int size = 0;
+
+        synchronized void push( ByteBuffer buffer )
+        {
+            if ( size == buffers.length )
+            {
+                buffers = Arrays.copyOf( buffers, size * 2 );
+            }
+            buffers[size++] = buffer;
+        }
+
+        synchronized ByteBuffer pop()
+        {
+            if ( size == 0 )
+            {
+                return null;
+            }
+            ByteBuffer buffer = buffers[--size];
+            buffers[size] = null;
+            return buffer;
+        }
+    }
+}
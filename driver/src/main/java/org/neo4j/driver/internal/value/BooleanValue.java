@@ -63,6 +63,12 @@ public class BooleanValue extends ValueAdapter
         return val ? 1 : 0;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.BOOLEAN;
+    }
+
     @Override
     public boolean isBoolean()
     {
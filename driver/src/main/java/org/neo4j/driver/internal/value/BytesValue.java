@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.value;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class BytesValue extends ValueAdapter
+{
+    private final byte[] val;
+
+    /**
+     * @param val the bytes, owned by the value from now on
+     */
+    public BytesValue( byte[] val )
+    {
+        assert val != null;
+        this.val = val;
+    }
+
+    /** The bytes themselves, not a copy, for the driver to write out */
+    public byte[] bytes()
+    {
+        return val;
+    }
+
+    @Override
+    public byte[] javaBytes()
+    {
+        return val.clone();
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer()
+    {
+        return ByteBuffer.wrap( val ).asReadOnlyBuffer();
+    }
+
+    @Override
+    public boolean javaBoolean()
+    {
+        return val.length > 0;
+    }
+
+    @Override
+    public ValueType type()
+    {
+        return ValueType.BYTES;
+    }
+
+    @Override
+    public boolean isBytes()
+    {
+        return true;
+    }
+
+    @Override
+    public long size()
+    {
+        return val.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "bytes<%d>", val.length );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        BytesValue values = (BytesValue) o;
+
+        return Arrays.equals( val, values.val );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode( val );
+    }
+}
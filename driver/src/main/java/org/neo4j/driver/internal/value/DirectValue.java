@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.value;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+import org.neo4j.driver.Identity;
+import org.neo4j.driver.Node;
+import org.neo4j.driver.Path;
+import org.neo4j.driver.Relationship;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.util.Function;
+
+/**
+ * A plain Java object standing in for the value it converts to. Writers send the object as it is, see
+ * {@link Values#direct(Object)}, and it is only converted if it is used as a value in some other way.
+ * <p>
+ * Objects of application types, which only a {@link org.neo4j.driver.ParameterEncoder} registered with the driver
+ * knows how to send, cannot be converted. They can still be sent, printed and compared, by the objects themselves,
+ * but using them as values in any other way fails.
+ * <p>
+ * Direct values only equal other direct values, like other values only equal values of their own class.
+ */
+public class DirectValue implements Value
+{
+    private final Object object;
+    private Value converted;
+    private boolean unconvertible;
+
+    public DirectValue( Object object )
+    {
+        this.object = object;
+    }
+
+    /** The object to send */
+    public Object object()
+    {
+        return object;
+    }
+
+    private Value converted()
+    {
+        if ( converted == null )
+        {
+            converted = Values.value( object );
+        }
+        return converted;
+    }
+
+    private boolean isConvertible()
+    {
+        if ( converted == null && !unconvertible )
+        {
+            try
+            {
+                converted();
+            }
+            catch ( ClientException e )
+            {
+                unconvertible = true;
+            }
+        }
+        return !unconvertible;
+    }
+
+    @Override
+    public String javaString()
+    {
+        return converted().javaString();
+    }
+
+    @Override
+    public int javaInteger()
+    {
+        return converted().javaInteger();
+    }
+
+    @Override
+    public long javaLong()
+    {
+        return converted().javaLong();
+    }
+
+    @Override
+    public float javaFloat()
+    {
+        return converted().javaFloat();
+    }
+
+    @Override
+    public double javaDouble()
+    {
+        return converted().javaDouble();
+    }
+
+    @Override
+    public boolean javaBoolean()
+    {
+        return converted().javaBoolean();
+    }
+
+    @Override
+    public byte[] javaBytes()
+    {
+        return converted().javaBytes();
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer()
+    {
+        return converted().asByteBuffer();
+    }
+
+    @Override
+    public <T> List<T> javaList( Function<Value,T> map )
+    {
+        return converted().javaList( map );
+    }
+
+    @Override
+    public long[] asLongArray()
+    {
+        return converted().asLongArray();
+    }
+
+    @Override
+    public double[] asDoubleArray()
+    {
+        return converted().asDoubleArray();
+    }
+
+    @Override
+    public LongBuffer asLongBuffer()
+    {
+        return converted().asLongBuffer();
+    }
+
+    @Override
+    public DoubleBuffer asDoubleBuffer()
+    {
+        return converted().asDoubleBuffer();
+    }
+
+    @Override
+    public Identity asIdentity()
+    {
+        return converted().asIdentity();
+    }
+
+    @Override
+    public Node asNode()
+    {
+        return converted().asNode();
+    }
+
+    @Override
+    public Relationship asRelationship()
+    {
+        return converted().asRelationship();
+    }
+
+    @Override
+    public Path asPath()
+    {
+        return converted().asPath();
+    }
+
+    @Override
+    public Value get( long index )
+    {
+        return converted().get( index );
+    }
+
+    @Override
+    public Value get( String key )
+    {
+        return converted().get( key );
+    }
+
+    @Override
+    public long size()
+    {
+        return converted().size();
+    }
+
+    @Override
+    public Iterable<String> keys()
+    {
+        return converted().keys();
+    }
+
+    @Override
+    public boolean isText()
+    {
+        return converted().isText();
+    }
+
+    @Override
+    public boolean isInteger()
+    {
+        return converted().isInteger();
+    }
+
+    @Override
+    public boolean isFloat()
+    {
+        return converted().isFloat();
+    }
+
+    @Override
+    public boolean isBoolean()
+    {
+        return converted().isBoolean();
+    }
+
+    @Override
+    public boolean isBytes()
+    {
+        return converted().isBytes();
+    }
+
+    @Override
+    public boolean isIdentity()
+    {
+        return converted().isIdentity();
+    }
+
+    @Override
+    public boolean isNode()
+    {
+        return converted().isNode();
+    }
+
+    @Override
+    public boolean isPath()
+    {
+        return converted().isPath();
+    }
+
+    @Override
+    public boolean isRelationship()
+    {
+        return converted().isRelationship();
+    }
+
+    @Override
+    public boolean isList()
+    {
+        return converted().isList();
+    }
+
+    @Override
+    public boolean isMap()
+    {
+        return converted().isMap();
+    }
+
+    @Override
+    public Iterator<Value> iterator()
+    {
+        return converted().iterator();
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( !(o instanceof DirectValue) )
+        {
+            // Other values only ever equal values of their own class, so neither can this
+            return false;
+        }
+        DirectValue other = (DirectValue) o;
+        if ( !isConvertible() || !other.isConvertible() )
+        {
+            return object.equals( other.object );
+        }
+        return converted().equals( other.converted() );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return isConvertible() ? converted().hashCode() : object.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.valueOf( object );
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.value;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+import org.neo4j.driver.Value;
+
+/**
+ * A list of floats, held as a primitive array rather than as a value per element. Elements only get a value when
+ * {@link #get(long)} asks for one, {@link #asDoubleBuffer()} reads them without.
+ */
+public class DoubleListValue extends ListValue
+{
+    private final double[] val;
+
+    /**
+     * @param val the floats, owned by the value from now on
+     */
+    public DoubleListValue( double[] val )
+    {
+        super( NO_VALUES );
+        this.val = val;
+    }
+
+    @Override
+    public long[] asLongArray()
+    {
+        long[] array = new long[val.length];
+        for ( int i = 0; i < val.length; i++ )
+        {
+            array[i] = (long) val[i];
+        }
+        return array;
+    }
+
+    @Override
+    public double[] asDoubleArray()
+    {
+        return val.clone();
+    }
+
+    @Override
+    public DoubleBuffer asDoubleBuffer()
+    {
+        return DoubleBuffer.wrap( val ).asReadOnlyBuffer();
+    }
+
+    /** The floats themselves, not a copy, for the driver to write out */
+    public double[] doubles()
+    {
+        return val;
+    }
+
+    @Override
+    public ValueType type()
+    {
+        return ValueType.DOUBLE_LIST;
+    }
+
+    @Override
+    public long size()
+    {
+        return val.length;
+    }
+
+    @Override
+    public Value get( long index )
+    {
+        return new FloatValue( val[(int) index] );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( o instanceof DoubleListValue )
+        {
+            return Arrays.equals( val, ((DoubleListValue) o).val );
+        }
+        return super.equals( o );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        // Same as the list of float values, without creating them
+        int result = 1;
+        for ( double item : val )
+        {
+            long bits = Double.doubleToLongBits( item );
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+        }
+        return result;
+    }
+}
@@ -63,6 +63,12 @@ public class FloatValue extends ValueAdapter
         return val;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.FLOAT;
+    }
+
     @Override
     public boolean isFloat()
     {
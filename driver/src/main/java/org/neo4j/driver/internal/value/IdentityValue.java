@@ -48,6 +48,12 @@ public class IdentityValue extends ValueAdapter
         return val;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.IDENTITY;
+    }
+
     @Override
     public boolean isIdentity()
     {
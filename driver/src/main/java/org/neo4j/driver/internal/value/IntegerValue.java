@@ -57,6 +57,12 @@ public class IntegerValue extends ValueAdapter
         return val;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.INTEGER;
+    }
+
     @Override
     public boolean isInteger()
     {
@@ -18,16 +18,24 @@
  */
 package org.neo4j.driver.internal.value;
 
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
 import org.neo4j.driver.Value;
 import org.neo4j.driver.internal.util.Function;
 
+/**
+ * A list of values. Lists of only integers or only floats are usually held as {@link LongListValue} and
+ * {@link DoubleListValue} instead, which are equal to the list of values they hold the same numbers as.
+ */
 public class ListValue extends ValueAdapter
 {
+    /** For subclasses that hold their elements in some other way */
+    protected static final Value[] NO_VALUES = new Value[0];
+
     private final Value[] values;
 
     public ListValue( Value... values )
@@ -38,20 +46,61 @@ public class ListValue extends ValueAdapter
     @Override
     public boolean javaBoolean()
     {
-        return values.length > 0;
+        return size() > 0;
     }
 
     @Override
     public <T> List<T> javaList( Function<Value,T> map )
     {
-        List<T> list = new ArrayList<>( values.length );
-        for ( Value value : values )
+        int size = (int) size();
+        List<T> list = new ArrayList<>( size );
+        for ( int i = 0; i < size; i++ )
         {
-            list.add( map.apply( value ) );
+            list.add( map.apply( get( i ) ) );
         }
         return list;
     }
 
+    @Override
+    public long[] asLongArray()
+    {
+        long[] array = new long[(int) size()];
+        for ( int i = 0; i < array.length; i++ )
+        {
+            array[i] = get( i ).javaLong();
+        }
+        return array;
+    }
+
+    @Override
+    public double[] asDoubleArray()
+    {
+        double[] array = new double[(int) size()];
+        for ( int i = 0; i < array.length; i++ )
+        {
+            array[i] = get( i ).javaDouble();
+        }
+        return array;
+    }
+
+    @Override
+    public LongBuffer asLongBuffer()
+    {
+        return LongBuffer.wrap( asLongArray() ).asReadOnlyBuffer();
+    }
+
+    @Override
+    public DoubleBuffer asDoubleBuffer()
+    {
+        return DoubleBuffer.wrap( asDoubleArray() ).asReadOnlyBuffer();
+    }
+
+    @Override
+    public ValueType type()
+    {
+        return ValueType.LIST;
+    }
+
     @Override
     public boolean isList()
     {
@@ -80,13 +129,13 @@ public class ListValue extends ValueAdapter
             @Override
             public boolean hasNext()
             {
-                return cursor < values.length;
+                return cursor < size();
             }
 
             @Override
             public Value next()
             {
-                return values[cursor++];
+                return get( cursor++ );
             }
 
             @Override
@@ -103,26 +152,47 @@ public class ListValue extends ValueAdapter
         {
             return true;
         }
-        if ( o == null || getClass() != o.getClass() )
+        if ( !(o instanceof ListValue) )
         {
             return false;
         }
 
-        ListValue values1 = (ListValue) o;
-
-        return Arrays.equals( values, values1.values );
-
+        ListValue that = (ListValue) o;
+        if ( size() != that.size() )
+        {
+            return false;
+        }
+        for ( int i = 0; i < size(); i++ )
+        {
+            Value value = get( i );
+            if ( value == null ? that.get( i ) != null : !value.equals( that.get( i ) ) )
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode()
     {
-        return Arrays.hashCode( values );
+        int result = 1;
+        for ( int i = 0; i < size(); i++ )
+        {
+            Value value = get( i );
+            result = 31 * result + (value == null ? 0 : value.hashCode());
+        }
+        return result;
     }
 
     @Override
     public String toString()
     {
-        return "ListValue" + Arrays.toString( values ) + "";
+        StringBuilder builder = new StringBuilder( "ListValue[" );
+        for ( int i = 0; i < size(); i++ )
+        {
+            builder.append( i == 0 ? "" : ", " ).append( get( i ) );
+        }
+        return builder.append( ']' ).toString();
     }
 }
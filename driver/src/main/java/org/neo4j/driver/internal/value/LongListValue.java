@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.value;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import org.neo4j.driver.Value;
+
+/**
+ * A list of integers, held as a primitive array rather than as a value per element. Elements only get a value when
+ * {@link #get(long)} asks for one, {@link #asLongBuffer()} reads them without.
+ */
+public class LongListValue extends ListValue
+{
+    private final long[] val;
+
+    /**
+     * @param val the integers, owned by the value from now on
+     */
+    public LongListValue( long[] val )
+    {
+        super( NO_VALUES );
+        this.val = val;
+    }
+
+    @Override
+    public long[] asLongArray()
+    {
+        return val.clone();
+    }
+
+    @Override
+    public double[] asDoubleArray()
+    {
+        double[] array = new double[val.length];
+        for ( int i = 0; i < val.length; i++ )
+        {
+            array[i] = val[i];
+        }
+        return array;
+    }
+
+    @Override
+    public LongBuffer asLongBuffer()
+    {
+        return LongBuffer.wrap( val ).asReadOnlyBuffer();
+    }
+
+    /** The integers themselves, not a copy, for the driver to write out */
+    public long[] longs()
+    {
+        return val;
+    }
+
+    @Override
+    public ValueType type()
+    {
+        return ValueType.LONG_LIST;
+    }
+
+    @Override
+    public long size()
+    {
+        return val.length;
+    }
+
+    @Override
+    public Value get( long index )
+    {
+        return new IntegerValue( val[(int) index] );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( o instanceof LongListValue )
+        {
+            return Arrays.equals( val, ((LongListValue) o).val );
+        }
+        return super.equals( o );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        // Same as the list of integer values, without creating them
+        int result = 1;
+        for ( long item : val )
+        {
+            result = 31 * result + (int) (item ^ (item >>> 32));
+        }
+        return result;
+    }
+}
@@ -64,6 +64,12 @@ public class MapValue extends ValueAdapter
         return val.keySet();
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.MAP;
+    }
+
     @Override
     public boolean isMap()
     {
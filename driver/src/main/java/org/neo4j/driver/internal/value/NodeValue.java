@@ -35,6 +35,12 @@ public class NodeValue extends ValueAdapter
         return adapted;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.NODE;
+    }
+
     @Override
     public boolean isNode()
     {
@@ -33,6 +33,12 @@ public class PathValue extends ValueAdapter
         return adapted;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.PATH;
+    }
+
     @Override
     public boolean isPath()
     {
@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.value;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.neo4j.driver.Value;
+
+/**
+ * An immutable map of properties, stored as an array of values against a {@link Shape} that holds the keys.
+ * <p>
+ * Entities in a result tend to have the same few sets of property keys, so rather than each of them carrying
+ * a hash map with its own table and entries, they share one shape per key set and only keep a values array of
+ * their own. Keys iterate in the order they were given in.
+ */
+public class PropertyMap extends AbstractMap<String,Value>
+{
+    private final Shape shape;
+    private final Value[] values;
+
+    /**
+     * @param shape the keys of this map
+     * @param values the values, in the same order as the keys of the shape; the array is owned by the map afterwards
+     */
+    public PropertyMap( Shape shape, Value[] values )
+    {
+        if ( shape.keys.length != values.length )
+        {
+            throw new IllegalArgumentException( String.format(
+                    "Expected %d values for shape %s, got %d", shape.keys.length, shape, values.length ) );
+        }
+        this.shape = shape;
+        this.values = values;
+    }
+
+    @Override
+    public int size()
+    {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey( Object key )
+    {
+        return shape.indexOf( key ) >= 0;
+    }
+
+    @Override
+    public Value get( Object key )
+    {
+        int index = shape.indexOf( key );
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return shape.keySet;
+    }
+
+    @Override
+    public Collection<Value> values()
+    {
+        return Arrays.asList( values );
+    }
+
+    @Override
+    public Set<Entry<String,Value>> entrySet()
+    {
+        return new AbstractSet<Entry<String,Value>>()
+        {
+            @Override
+            public Iterator<Entry<String,Value>> iterator()
+            {
+                return new Iterator<Entry<String,Value>>()
+                {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String,Value> next()
+                    {
+                        if ( !hasNext() )
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String,Value> entry = new SimpleImmutableEntry<>( shape.keys[next], values[next] );
+                        next++;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * An ordered set of distinct property keys, shared by all {@link PropertyMap property maps} with those keys.
+     */
+    public static class Shape
+    {
+        /** Shapes with more keys than this get a hash index, smaller ones are scanned */
+        private static final int MAX_SCANNED_KEYS = 8;
+
+        private final String[] keys;
+        private final Map<String,Integer> index;
+        private final Set<String> keySet;
+
+        /**
+         * @param keys distinct property keys, the array is owned by the shape afterwards
+         * @throws IllegalArgumentException if a key occurs more than once
+         */
+        public Shape( String... keys )
+        {
+            this.keys = keys;
+            this.index = keys.length > MAX_SCANNED_KEYS ? new HashMap<String,Integer>( keys.length * 2 ) : null;
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( index != null ? index.put( keys[i], i ) != null : scan( keys[i], i ) >= 0 )
+                {
+                    throw new IllegalArgumentException( "Duplicate property key: " + keys[i] );
+                }
+            }
+            this.keySet = new AbstractSet<String>()
+            {
+                @Override
+                public Iterator<String> iterator()
+                {
+                    return Arrays.asList( Shape.this.keys ).iterator();
+                }
+
+                @Override
+                public int size()
+                {
+                    return Shape.this.keys.length;
+                }
+
+                @Override
+                public boolean contains( Object key )
+                {
+                    return indexOf( key ) >= 0;
+                }
+            };
+        }
+
+        int indexOf( Object key )
+        {
+            if ( index != null )
+            {
+                Integer position = index.get( key );
+                return position != null ? position : -1;
+            }
+            return scan( key, keys.length );
+        }
+
+        private int scan( Object key, int limit )
+        {
+            // Keys usually come from the same string dictionary as the ones being looked up, so try identity first
+            for ( int i = 0; i < limit; i++ )
+            {
+                if ( keys[i] == key )
+                {
+                    return i;
+                }
+            }
+            for ( int i = 0; i < limit; i++ )
+            {
+                if ( keys[i].equals( key ) )
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String toString()
+        {
+            return Arrays.toString( keys );
+        }
+    }
+
+    /**
+     * A bounded cache of shapes, so that maps decoded with the same keys in the same order share a {@link Shape}.
+     * Like the string dictionary it sits next to, it is direct-mapped and not thread safe.
+     */
+    public static class Shapes
+    {
+        private static final int DEFAULT_SLOTS = 64;
+
+        private final Shape[] shapes;
+        private final int mask;
+
+        public Shapes()
+        {
+            this( DEFAULT_SLOTS );
+        }
+
+        public Shapes( int slots )
+        {
+            if ( Integer.bitCount( slots ) != 1 )
+            {
+                throw new IllegalArgumentException( "Number of slots must be a power of two, got: " + slots );
+            }
+            this.shapes = new Shape[slots];
+            this.mask = slots - 1;
+        }
+
+        /**
+         * Get the shape for the given keys. If there's no such shape yet, one is created that takes ownership of
+         * the array, so callers should not modify it afterwards.
+         *
+         * @return the shape, or null if a key occurs more than once, as there is no shape for such keys
+         */
+        public Shape shapeOf( String[] keys )
+        {
+            int hash = keys.length;
+            for ( String key : keys )
+            {
+                hash = 31 * hash + key.hashCode();
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+
+            Shape shape = shapes[slot];
+            if ( shape == null || !matches( shape, keys ) )
+            {
+                // Only checked on a miss, shapes in the cache are known to have distinct keys
+                if ( hasDuplicates( keys ) )
+                {
+                    return null;
+                }
+                shape = new Shape( keys );
+                shapes[slot] = shape;
+            }
+            return shape;
+        }
+
+        private static boolean hasDuplicates( String[] keys )
+        {
+            if ( keys.length > Shape.MAX_SCANNED_KEYS )
+            {
+                return new HashSet<>( Arrays.asList( keys ) ).size() != keys.length;
+            }
+            for ( int i = 1; i < keys.length; i++ )
+            {
+                for ( int j = 0; j < i; j++ )
+                {
+                    if ( keys[i].equals( keys[j] ) )
+                    {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean matches( Shape shape, String[] keys )
+        {
+            if ( shape.keys.length != keys.length )
+            {
+                return false;
+            }
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( shape.keys[i] != keys[i] && !shape.keys[i].equals( keys[i] ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -35,6 +35,12 @@ public class RelationshipValue extends ValueAdapter
         return adapted;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.RELATIONSHIP;
+    }
+
     @Override
     public boolean isRelationship()
     {
@@ -40,6 +40,12 @@ public class TextValue extends ValueAdapter
         return val;
     }
 
+    @Override
+    public ValueType type()
+    {
+        return ValueType.TEXT;
+    }
+
     @Override
     public boolean isText()
     {
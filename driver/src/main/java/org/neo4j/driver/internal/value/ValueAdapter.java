@@ -18,6 +18,9 @@
  */
 package org.neo4j.driver.internal.value;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -72,12 +75,48 @@ public abstract class ValueAdapter implements Value
         throw new Uncoercible( typeName(), "Java boolean" );
     }
 
+    @Override
+    public byte[] javaBytes()
+    {
+        throw new Uncoercible( typeName(), "Java byte[]" );
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer()
+    {
+        throw new Uncoercible( typeName(), "ByteBuffer" );
+    }
+
     @Override
     public <T> List<T> javaList( Function<Value,T> map )
     {
         return Arrays.asList( map.apply( this ) );
     }
 
+    @Override
+    public long[] asLongArray()
+    {
+        throw new Uncoercible( typeName(), "Java long[]" );
+    }
+
+    @Override
+    public double[] asDoubleArray()
+    {
+        throw new Uncoercible( typeName(), "Java double[]" );
+    }
+
+    @Override
+    public LongBuffer asLongBuffer()
+    {
+        throw new Uncoercible( typeName(), "LongBuffer" );
+    }
+
+    @Override
+    public DoubleBuffer asDoubleBuffer()
+    {
+        throw new Uncoercible( typeName(), "DoubleBuffer" );
+    }
+
     @Override
     public Identity asIdentity()
     {
@@ -150,6 +189,12 @@ public abstract class ValueAdapter implements Value
         return false;
     }
 
+    @Override
+    public boolean isBytes()
+    {
+        return false;
+    }
+
     @Override
     public boolean isIdentity()
     {
@@ -198,12 +243,19 @@ public abstract class ValueAdapter implements Value
         return String.format( "%s<>", typeName() );
     }
 
+    /** The kind of this value, subclasses that know it up front should say so */
+    public ValueType type()
+    {
+        return ValueType.probe( this );
+    }
+
     protected String typeName()
     {
         if ( isFloat() ) { return "float"; }
         if ( isInteger() ) { return "integer"; }
         if ( isBoolean() ) { return "boolean"; }
         if ( isText() ) { return "text"; }
+        if ( isBytes() ) { return "bytes"; }
         if ( isList() ) { return "list"; }
         if ( isMap() ) { return "map"; }
         if ( isIdentity() ) { return "identity"; }
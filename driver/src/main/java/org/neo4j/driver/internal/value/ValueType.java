@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.value;
+
+import org.neo4j.driver.Value;
+
+/**
+ * The kinds of values there are, as a tag to switch on for code that handles every kind of value differently, rather
+ * than asking a value whether it is of one kind after another.
+ */
+public enum ValueType
+{
+    BOOLEAN,
+    INTEGER,
+    FLOAT,
+    TEXT,
+    BYTES,
+    MAP,
+    /** A list held as {@link LongListValue} */
+    LONG_LIST,
+    /** A list held as {@link DoubleListValue} */
+    DOUBLE_LIST,
+    LIST,
+    IDENTITY,
+    NODE,
+    RELATIONSHIP,
+    PATH,
+    /** A {@link DirectValue}, whose kind is that of the object it holds */
+    DIRECT,
+    UNKNOWN;
+
+    public static ValueType of( Value value )
+    {
+        if ( value instanceof ValueAdapter ) { return ((ValueAdapter) value).type(); }
+        if ( value instanceof DirectValue ) { return DIRECT; }
+        return probe( value );
+    }
+
+    /** Find the kind of a value that does not know its own, by asking it */
+    static ValueType probe( Value value )
+    {
+        if ( value.isBoolean() ) { return BOOLEAN; }
+        if ( value.isInteger() ) { return INTEGER; }
+        if ( value.isFloat() ) { return FLOAT; }
+        if ( value.isText() ) { return TEXT; }
+        if ( value.isBytes() ) { return BYTES; }
+        if ( value.isMap() ) { return MAP; }
+        if ( value.isList() ) { return LIST; }
+        if ( value.isIdentity() ) { return IDENTITY; }
+        if ( value.isNode() ) { return NODE; }
+        if ( value.isRelationship() ) { return RELATIONSHIP; }
+        if ( value.isPath() ) { return PATH; }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.value.Uncoercible;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.neo4j.driver.Values.value;
+
+public class RecordFieldsTest
+{
+    @Test
+    public void shouldReadScalarFieldsWithTypedGetters() throws Throwable
+    {
+        // Given
+        RecordFields fields = new RecordFields( 4 );
+        fields.setInteger( 0, 42L );
+        fields.setFloat( 1, 1.5 );
+        fields.setBoolean( 2, true );
+        fields.setText( 3, "Alice" );
+
+        // Then
+        assertThat( fields.getLong( 0 ), equalTo( 42L ) );
+        assertThat( fields.getDouble( 1 ), equalTo( 1.5 ) );
+        assertThat( fields.getBoolean( 2 ), equalTo( true ) );
+        assertThat( fields.getString( 3 ), equalTo( "Alice" ) );
+    }
+
+    @Test
+    public void shouldCreateValuesForScalarFieldsOnDemand() throws Throwable
+    {
+        // Given
+        RecordFields fields = new RecordFields( 5 );
+        fields.setInteger( 0, 42L );
+        fields.setFloat( 1, 1.5 );
+        fields.setBoolean( 2, false );
+        fields.setText( 3, "Alice" );
+        fields.setNull( 4 );
+
+        // Then
+        assertThat( fields.get( 0 ), equalTo( value( 42L ) ) );
+        assertThat( fields.get( 1 ), equalTo( value( 1.5 ) ) );
+        assertThat( fields.get( 2 ), equalTo( value( false ) ) );
+        assertThat( fields.get( 3 ), equalTo( value( "Alice" ) ) );
+        assertThat( fields.get( 4 ), nullValue() );
+    }
+
+    @Test
+    public void shouldReturnTheSameValueOnEveryAccess() throws Throwable
+    {
+        // Given
+        RecordFields fields = new RecordFields( 4 );
+        fields.setInteger( 0, 42L );
+        fields.setFloat( 1, 1.5 );
+        fields.setBoolean( 2, true );
+        fields.setText( 3, "Alice" );
+
+        // When
+        Value[] first = fields.toArray();
+
+        // Then
+        for ( int i = 0; i < first.length; i++ )
+        {
+            assertThat( fields.get( i ), sameInstance( first[i] ) );
+        }
+        assertThat( fields.getLong( 0 ), equalTo( 42L ) );
+        assertThat( fields.getDouble( 1 ), equalTo( 1.5 ) );
+        assertThat( fields.getBoolean( 2 ), equalTo( true ) );
+        assertThat( fields.getString( 3 ), equalTo( "Alice" ) );
+    }
+
+    @Test
+    public void shouldKeepReadingScalarFieldsDirectlyAfterMakingValuesForThem() throws Throwable
+    {
+        // Given
+        RecordFields fields = new RecordFields( 4 );
+        fields.setInteger( 0, 42L );
+        fields.setFloat( 1, 1.5 );
+        fields.setBoolean( 2, true );
+        fields.setText( 3, "Alice" );
+
+        // When
+        for ( int i = 0; i < 3; i++ )
+        {
+            Value integer = fields.get( 0 );
+            Value text = fields.get( 3 );
+
+            // Then
+            assertThat( fields.getLong( 0 ), equalTo( 42L ) );
+            assertThat( fields.getDouble( 0 ), equalTo( 42.0 ) );
+            assertThat( fields.getDouble( 1 ), equalTo( 1.5 ) );
+            assertThat( fields.getBoolean( 2 ), equalTo( true ) );
+            assertThat( fields.getString( 3 ), equalTo( "Alice" ) );
+            assertThat( fields.get( 0 ), sameInstance( integer ) );
+            assertThat( fields.get( 3 ), sameInstance( text ) );
+        }
+        assertThat( fields, equalTo( RecordFields.of( value( 42L ), value( 1.5 ), value( true ), value( "Alice" ) ) ) );
+    }
+
+    @Test
+    public void shouldBeSafeToReadFromSeveralThreads() throws Throwable
+    {
+        for ( int round = 0; round < 200; round++ )
+        {
+            // Given
+            final RecordFields fields = new RecordFields( 4 );
+            fields.setInteger( 0, 42L );
+            fields.setText( 1, "Alice" );
+            fields.setDeferred( 2, 0 );
+            fields.setDeferred( 3, 1 );
+            fields.setEncoded( new byte[2], new RecordFields.Decoder()
+            {
+                @Override
+                public Value decode( byte[] encoded, int offset )
+                {
+                    return value( asList( offset ) );
+                }
+            } );
+            final CountDownLatch start = new CountDownLatch( 1 );
+            final List<Throwable> failures = new CopyOnWriteArrayList<>();
+
+            // When
+            List<Thread> readers = new ArrayList<>();
+            for ( int t = 0; t < 4; t++ )
+            {
+                final int first = t;
+                Thread reader = new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            start.await();
+                            for ( int i = 0; i < 4; i++ )
+                            {
+                                int index = (first + i) % 4;
+                                assertThat( fields.get( index ), notNullValue() );
+                                assertThat( fields.getLong( 0 ), equalTo( 42L ) );
+                                assertThat( fields.getString( 1 ), equalTo( "Alice" ) );
+                            }
+                        }
+                        catch ( Throwable e )
+                        {
+                            failures.add( e );
+                        }
+                    }
+                };
+                reader.start();
+                readers.add( reader );
+            }
+            start.countDown();
+            for ( Thread reader : readers )
+            {
+                reader.join( 10_000 );
+            }
+
+            // Then
+            assertThat( failures, empty() );
+            assertThat( fields.get( 2 ), equalTo( value( asList( 0 ) ) ) );
+            assertThat( fields.get( 3 ), equalTo( value( asList( 1 ) ) ) );
+        }
+    }
+
+    @Test
+    public void shouldCoerceLikeValuesDo() throws Throwable
+    {
+        // Given
+        RecordFields fields = new RecordFields( 3 );
+        fields.setInteger( 0, 7L );
+        fields.setFloat( 1, 2.75 );
+        fields.setValue( 2, value( 12L ) );
+
+        // Then
+        assertThat( fields.getDouble( 0 ), equalTo( 7.0 ) );
+        assertThat( fields.getString( 0 ), equalTo( "7" ) );
+        assertThat( fields.getLong( 1 ), equalTo( 2L ) );
+        assertThat( fields.getLong( 2 ), equalTo( 12L ) );
+        assertThat( fields.getBoolean( 2 ), equalTo( true ) );
+    }
+
+    @Test( expected = Uncoercible.class )
+    public void shouldNotCoerceNullToPrimitive() throws Throwable
+    {
+        // Given
+        RecordFields fields = new RecordFields( 1 );
+        fields.setNull( 0 );
+
+        // When
+        fields.getLong( 0 );
+    }
+
+    @Test
+    public void shouldDecodeDeferredFieldsOnceOnFirstAccess() throws Throwable
+    {
+        // Given
+        final List<Integer> decoded = new ArrayList<>();
+        RecordFields fields = new RecordFields( 3 );
+        fields.setInteger( 0, 1L );
+        fields.setDeferred( 1, 0 );
+        fields.setDeferred( 2, 5 );
+        fields.setEncoded( new byte[10], new RecordFields.Decoder()
+        {
+            @Override
+            public Value decode( byte[] encoded, int offset )
+            {
+                decoded.add( offset );
+                return value( asList( "decoded", offset ) );
+            }
+        } );
+
+        // When
+        Value first = fields.get( 2 );
+        Value again = fields.get( 2 );
+
+        // Then
+        assertThat( first, equalTo( value( asList( "decoded", 5 ) ) ) );
+        assertThat( again, sameInstance( first ) );
+        assertThat( decoded, equalTo( asList( 5 ) ) );
+        assertThat( fields.getLong( 0 ), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldEqualFieldsHoldingTheSameValues() throws Throwable
+    {
+        // Given
+        RecordFields primitive = new RecordFields( 3 );
+        primitive.setInteger( 0, 1L );
+        primitive.setText( 1, "a" );
+        primitive.setNull( 2 );
+        RecordFields boxed = RecordFields.of( value( 1L ), value( "a" ), null );
+
+        // Then
+        assertThat( primitive, equalTo( boxed ) );
+        assertThat( primitive.hashCode(), equalTo( boxed.hashCode() ) );
+        assertThat( primitive.toString(), equalTo( boxed.toString() ) );
+    }
+}
@@ -22,12 +22,21 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.driver.QueryTimings;
 import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
 import org.neo4j.driver.ReusableResult;
-import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.spi.QueryTimingListener;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.neo4j.driver.Values.value;
 
@@ -42,7 +51,7 @@ public class ResultBuilderTest
         // Given
         ResultBuilder builder = new ResultBuilder();
         builder.fieldNames( new String[]{"a"} );
-        builder.record( new Value[]{value( "Admin" )} );
+        builder.record( RecordFields.of( value( "Admin" ) ) );
 
         // When
         ReusableResult result = builder.build().retain();
@@ -73,7 +82,7 @@ public class ResultBuilderTest
         // Given
         ResultBuilder builder = new ResultBuilder();
         builder.fieldNames( new String[]{"a"} );
-        builder.record( new Value[]{value( "Admin" )} );
+        builder.record( RecordFields.of( value( "Admin" ) ) );
 
         ReusableResult result = builder.build().retain();
 
@@ -83,4 +92,49 @@ public class ResultBuilderTest
         // When
         result.get( 2 );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldCompleteTimingsWhenBuilt()
+    {
+        // Given
+        final List<QueryTimings> reported = new ArrayList<>();
+        QueryTimer timer = new QueryTimer( "RETURN 1", new QueryTimingListener()
+        {
+            @Override
+            public void completed( String statement, QueryTimings timings )
+            {
+                reported.add( timings );
+            }
+        } );
+        ResultBuilder builder = new ResultBuilder();
+        builder.timed( timer );
+        timer.written( System.nanoTime(), System.nanoTime() );
+        timer.runCompleted( 0 );
+        builder.fieldNames( new String[]{"a"} );
+        builder.record( RecordFields.of( value( 1 ) ) );
+        timer.streamCompleted();
+
+        // When
+        Result result = builder.build();
+
+        // Then
+        assertThat( reported, equalTo( Collections.<QueryTimings>singletonList( timer ) ) );
+        assertThat( result.timings(), sameInstance( (QueryTimings) timer ) );
+        assertThat( timer.totalTime(), greaterThan( 0L ) );
+        assertThat( timer.totalTime(), equalTo( timer.queueTime() + timer.writeTime() + timer.serverTime() +
+                                                timer.runTime() + timer.streamTime() + timer.materializeTime() ) );
+    }
+
+    @Test
+    public void shouldHaveNoTimingsUnlessTimed()
+    {
+        // Given
+        ResultBuilder builder = new ResultBuilder();
+
+        // When
+        Result result = builder.build();
+
+        // Then
+        assertThat( result.timings(), nullValue() );
+    }
+}
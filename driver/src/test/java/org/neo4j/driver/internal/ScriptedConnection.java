@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+
+import static org.neo4j.driver.Values.value;
+
+/** A connection that hands out a scripted sequence of responses, one message at a time */
+class ScriptedConnection implements Connection
+{
+    private final Queue<StreamCollector> collectors = new LinkedList<>();
+    private final Queue<Response> responses = new LinkedList<>();
+    final List<String> statements = new ArrayList<>();
+    int messagesReceived = 0;
+
+    public void respondWith( Response... responses )
+    {
+        for ( Response response : responses )
+        {
+            this.responses.add( response );
+        }
+    }
+
+    @Override
+    public void init( String clientName )
+    {
+    }
+
+    @Override
+    public void run( String statement, Map<String,Value> parameters, StreamCollector collector )
+    {
+        statements.add( statement );
+        collectors.add( collector == null ? StreamCollector.NO_OP : collector );
+    }
+
+    @Override
+    public void run( StandardPreparedStatement statement, Value[] parameterValues, StreamCollector collector )
+    {
+        statements.add( statement.text() );
+        collectors.add( collector == null ? StreamCollector.NO_OP : collector );
+    }
+
+    @Override
+    public void discardAll()
+    {
+        collectors.add( StreamCollector.NO_OP );
+    }
+
+    @Override
+    public void pullAll( StreamCollector collector )
+    {
+        collectors.add( collector );
+    }
+
+    @Override
+    public void flush()
+    {
+    }
+
+    @Override
+    public void receiveOne()
+    {
+        messagesReceived++;
+        responses.poll().deliverTo( collectors );
+    }
+
+    @Override
+    public void sync()
+    {
+        while ( !collectors.isEmpty() )
+        {
+            receiveOne();
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> receiveAsync( int maxMessages )
+    {
+        for ( int i = 0; i < maxMessages && !collectors.isEmpty(); i++ )
+        {
+            receiveOne();
+        }
+        return CompletableFuture.completedFuture( null );
+    }
+
+    @Override
+    public CompletionStage<Void> syncAsync()
+    {
+        sync();
+        return CompletableFuture.completedFuture( null );
+    }
+
+    @Override
+    public void park()
+    {
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    static Response fields( final String... names )
+    {
+        return new Response()
+        {
+            @Override
+            public void deliverTo( Queue<StreamCollector> collectors )
+            {
+                collectors.peek().fieldNames( names );
+                collectors.poll().done();
+            }
+        };
+    }
+
+    static Response record( final long value )
+    {
+        return new Response()
+        {
+            @Override
+            public void deliverTo( Queue<StreamCollector> collectors )
+            {
+                if ( collectors.peek().wantsRecords() )
+                {
+                    collectors.peek().record( RecordFields.of( value( value ) ) );
+                }
+            }
+        };
+    }
+
+    static Response success()
+    {
+        return new Response()
+        {
+            @Override
+            public void deliverTo( Queue<StreamCollector> collectors )
+            {
+                collectors.poll().done();
+            }
+        };
+    }
+
+    static Response failure()
+    {
+        return new Response()
+        {
+            @Override
+            public void deliverTo( Queue<StreamCollector> collectors )
+            {
+                ClientException error = new ClientException( "Neo.ClientError.Statement.ArithmeticError", "/ by zero" );
+                StreamCollector collector = collectors.poll();
+                boolean kept = collector.failure( error );
+                collector.done();
+                if ( !kept )
+                {
+                    throw error;
+                }
+            }
+        };
+    }
+
+    interface Response
+    {
+        void deliverTo( Queue<StreamCollector> collectors );
+    }
+}
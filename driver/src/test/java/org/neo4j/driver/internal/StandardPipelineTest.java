@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+
+import org.neo4j.driver.Result;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.exceptions.PipelineException;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.driver.internal.ScriptedConnection.failure;
+import static org.neo4j.driver.internal.ScriptedConnection.fields;
+import static org.neo4j.driver.internal.ScriptedConnection.record;
+import static org.neo4j.driver.internal.ScriptedConnection.success;
+
+public class StandardPipelineTest
+{
+    @Test
+    public void shouldSendAllStatementsInOneSync() throws Throwable
+    {
+        // Given
+        Connection conn = mock( Connection.class );
+        Runnable beforeSync = mock( Runnable.class );
+        StandardPipeline pipeline = new StandardPipeline( conn, beforeSync );
+
+        // When
+        pipeline.run( "CREATE (a)" ).run( "CREATE (b)" ).run( "CREATE (c)" );
+
+        // Then nothing is sent before sync
+        verify( conn, never() ).run( anyString(), anyMap(), any( StreamCollector.class ) );
+
+        // And when
+        pipeline.sync();
+
+        // Then
+        InOrder inOrder = inOrder( beforeSync, conn );
+        inOrder.verify( beforeSync ).run();
+        inOrder.verify( conn, times( 3 ) ).run( anyString(), anyMap(), any( StreamCollector.class ) );
+        inOrder.verify( conn ).sync();
+        verify( conn, never() ).flush();
+    }
+
+    @Test
+    public void shouldHandEachStatementItsOwnResult() throws Throwable
+    {
+        // Given
+        ScriptedConnection conn = new ScriptedConnection();
+        conn.respondWith(
+                fields( "a" ), record( 1 ), record( 2 ), success(),
+                fields( "a" ), record( 3 ), success() );
+        StandardPipeline pipeline = new StandardPipeline( conn, mock( Runnable.class ) );
+
+        // When
+        List<Result> results = pipeline.run( "UNWIND [1,2] AS a RETURN a" ).run( "RETURN 3 AS a" ).sync();
+
+        // Then
+        assertThat( results.size(), equalTo( 2 ) );
+
+        Result first = results.get( 0 );
+        assertTrue( first.next() );
+        assertThat( first.get( "a" ).javaLong(), equalTo( 1L ) );
+        assertTrue( first.next() );
+        assertThat( first.get( "a" ).javaLong(), equalTo( 2L ) );
+        assertFalse( first.next() );
+
+        Result second = results.get( 1 );
+        assertTrue( second.next() );
+        assertThat( second.get( "a" ).javaLong(), equalTo( 3L ) );
+        assertFalse( second.next() );
+    }
+
+    @Test
+    public void shouldTellWhichStatementFailedAndHandBackTheResultsBeforeIt() throws Throwable
+    {
+        // Given
+        ScriptedConnection conn = new ScriptedConnection();
+        conn.respondWith(
+                fields( "a" ), record( 1 ), success(),
+                failure() );
+        StandardPipeline pipeline = new StandardPipeline( conn, mock( Runnable.class ) );
+        pipeline.run( "RETURN 1 AS a" ).run( "RETURN 1 / 0 AS a" ).run( "RETURN 3 AS a" );
+
+        // When
+        try
+        {
+            pipeline.sync();
+            fail( "Should have failed" );
+        }
+        catch ( PipelineException e )
+        {
+            // Then
+            assertThat( e.failedStatement(), equalTo( 1 ) );
+            assertThat( e.neo4jErrorCode(), equalTo( "Neo.ClientError.Statement.ArithmeticError" ) );
+            assertThat( e.getCause(), instanceOf( ClientException.class ) );
+            assertThat( e.results().size(), equalTo( 1 ) );
+            Result first = e.results().get( 0 );
+            assertTrue( first.next() );
+            assertThat( first.get( "a" ).javaLong(), equalTo( 1L ) );
+            assertFalse( first.next() );
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.messaging.Message;
+import org.neo4j.driver.internal.messaging.MessageFormat;
+import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.messaging.PreparedRunMessage;
+import org.neo4j.driver.internal.messaging.RunMessage;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.driver.Values.value;
+
+public class StandardPreparedStatementTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Test
+    public void shouldWriteTheSameBytesAsAnUnpreparedStatement() throws Throwable
+    {
+        // Given
+        StandardPreparedStatement statement =
+                new StandardPreparedStatement( "MATCH (n {name:{name}}) SET n.äge = {age}", "name", "age", "tags" );
+        Value[] values = {value( "Bob" ), null, value( asList( "a", "b" ) )};
+
+        Map<String,Value> parameters = new LinkedHashMap<>();
+        parameters.put( "name", value( "Bob" ) );
+        parameters.put( "age", null );
+        parameters.put( "tags", value( asList( "a", "b" ) ) );
+
+        // When
+        byte[] prepared = write( new PreparedRunMessage( statement, values ) );
+        byte[] unprepared = write( new RunMessage( statement.text(), parameters ) );
+
+        // Then
+        assertArrayEquals( unprepared, prepared );
+        assertEquals( parameters, statement.parameters( values ) );
+    }
+
+    @Test
+    public void shouldNotAllowDuplicateParameterNames() throws Throwable
+    {
+        // Expect
+        exception.expect( ClientException.class );
+
+        // When
+        new StandardPreparedStatement( "RETURN {a}", "a", "a" );
+    }
+
+    @Test
+    public void shouldNotRunWithTheWrongNumberOfValues() throws Throwable
+    {
+        // Given
+        StandardPreparedStatement statement = new StandardPreparedStatement( "RETURN {a}, {b}", "a", "b" );
+
+        // Expect
+        exception.expect( ClientException.class );
+        exception.expectMessage( "Statement takes 2 parameters [a, b], but 1 values were given." );
+
+        // When
+        statement.ensureMatches( new Value[]{value( 1 )} );
+    }
+
+    private static byte[] write( Message message ) throws Throwable
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MessageFormat.Writer writer = new PackStreamMessageFormatV1().newWriter( Channels.newChannel( out ) );
+        writer.write( message ).flush();
+        return out.toByteArray();
+    }
+}
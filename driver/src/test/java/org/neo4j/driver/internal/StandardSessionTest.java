@@ -18,35 +18,129 @@
  */
 package org.neo4j.driver.internal;
 
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
 import org.neo4j.driver.Transaction;
+import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.connector.socket.SocketEventLoop;
+import org.neo4j.driver.internal.pool.PooledConnection;
 import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.util.Consumer;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import static junit.framework.TestCase.assertNotNull;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.neo4j.driver.internal.ScriptedConnection.failure;
+import static org.neo4j.driver.internal.ScriptedConnection.fields;
+import static org.neo4j.driver.internal.ScriptedConnection.record;
+import static org.neo4j.driver.internal.ScriptedConnection.success;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class StandardSessionTest
 {
     @Rule
     public ExpectedException exception = ExpectedException.none();
 
+    private final SocketEventLoop eventLoop = new SocketEventLoop();
+
+    @After
+    public void teardown()
+    {
+        eventLoop.shutdown();
+    }
+
     @Test
-    public void shouldSyncOnRun() throws Throwable
+    public void shouldFlushOnRun() throws Throwable
     {
         // Given
         Connection mock = mock( Connection.class );
-        StandardSession sess = new StandardSession( mock );
+        acceptStatementsImmediately( mock );
+        StandardSession sess = new StandardSession( mock, eventLoop );
 
         // When
         sess.run( "whatever" );
 
         // Then
-        verify( mock ).sync();
+        verify( mock ).flush();
+        verify( mock, never() ).sync();
+    }
+
+    @Test
+    public void shouldOnlyNeedTheEventLoopForStatementsRunAsynchronously() throws Throwable
+    {
+        // Given
+        ScriptedConnection connection = new ScriptedConnection();
+        StandardSession sess = new StandardSession( connection, eventLoop );
+        eventLoop.shutdown();
+
+        // When
+        connection.respondWith( fields( "n" ), record( 1 ), success() );
+        Result result = sess.run( "RETURN 1 AS n" );
+        assertTrue( result.next() );
+        assertFalse( result.next() );
+        CompletionStage<Result> async = sess.runAsync( "RETURN 1 AS n" );
+
+        // Then
+        try
+        {
+            async.toCompletableFuture().get( 10, TimeUnit.SECONDS );
+            fail( "Should have failed" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertThat( e.getCause(), instanceOf( ClientException.class ) );
+        }
+    }
+
+    @Test
+    public void shouldNotReceiveRecordsBeforeTheyAreAskedFor() throws Throwable
+    {
+        // Given
+        Connection mock = mock( Connection.class );
+        acceptStatementsImmediately( mock );
+        StandardSession sess = new StandardSession( mock, eventLoop );
+
+        // When
+        sess.run( "whatever" );
+
+        // Then
+        verify( mock, never() ).receiveOne();
     }
 
     @Test
@@ -54,7 +148,7 @@ public class StandardSessionTest
     {
         // Given
         Connection mock = mock( Connection.class );
-        StandardSession sess = new StandardSession( mock );
+        StandardSession sess = new StandardSession( mock, eventLoop );
         sess.newTransaction();
 
         // Expect
@@ -69,7 +163,7 @@ public class StandardSessionTest
     {
         // Given
         Connection mock = mock( Connection.class );
-        StandardSession sess = new StandardSession( mock );
+        StandardSession sess = new StandardSession( mock, eventLoop );
         sess.newTransaction().close();
 
         // When
@@ -78,4 +172,281 @@ public class StandardSessionTest
         // Then we should've gotten a transaction object back
         assertNotNull( tx );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldNotSendAsyncStatementUntilPreviousOneCompletes() throws Throwable
+    {
+        // Given
+        Connection mock = mock( Connection.class );
+        CompletableFuture<Void> firstSync = new CompletableFuture<>();
+        when( mock.syncAsync() ).thenReturn( firstSync, CompletableFuture.<Void>completedFuture( null ) );
+        StandardSession sess = new StandardSession( mock, eventLoop );
+
+        // When
+        sess.runAsync( "first" );
+        CompletionStage<Result> second = sess.runAsync( "second" );
+
+        // Then
+        verify( mock ).run( eq( "first" ), anyMap(), any( StreamCollector.class ) );
+        verify( mock, never() ).run( eq( "second" ), anyMap(), any( StreamCollector.class ) );
+
+        // And when
+        firstSync.complete( null );
+        second.toCompletableFuture().get( 10, TimeUnit.SECONDS );
+
+        // Then
+        verify( mock ).run( eq( "second" ), anyMap(), any( StreamCollector.class ) );
+    }
+
+    @Test
+    public void shouldSendQueuedStatementsAndCompleteResultsOffTheIOThread() throws Throwable
+    {
+        // Given
+        Connection mock = mock( Connection.class );
+        CompletableFuture<Void> firstSync = new CompletableFuture<>();
+        when( mock.syncAsync() ).thenReturn( firstSync, CompletableFuture.<Void>completedFuture( null ) );
+        final Queue<Runnable> tasks = new LinkedList<>();
+        StandardSession sess = new StandardSession( mock, new Executor()
+        {
+            @Override
+            public void execute( Runnable task )
+            {
+                tasks.add( task );
+            }
+        } );
+        CompletionStage<Result> first = sess.runAsync( "first" );
+        CompletionStage<Result> second = sess.runAsync( "second" );
+
+        // When the first statement completes on what would be the I/O thread
+        firstSync.complete( null );
+
+        // Then nothing is done on that thread
+        verify( mock, never() ).run( eq( "second" ), anyMap(), any( StreamCollector.class ) );
+        assertFalse( first.toCompletableFuture().isDone() );
+
+        // And when the executor gets to it
+        runAll( tasks );
+
+        // Then
+        assertTrue( first.toCompletableFuture().isDone() );
+        verify( mock ).run( eq( "second" ), anyMap(), any( StreamCollector.class ) );
+        assertTrue( second.toCompletableFuture().isDone() );
+    }
+
+    @Test
+    public void shouldReceiveTheRestOfBlockingResultsBeforeRunningAsynchronously() throws Throwable
+    {
+        // Given
+        final List<Integer> receivedBeforeRun = new ArrayList<>();
+        ScriptedConnection connection = new ScriptedConnection()
+        {
+            @Override
+            public void run( String statement, Map<String,Value> parameters, StreamCollector collector )
+            {
+                receivedBeforeRun.add( messagesReceived );
+                super.run( statement, parameters, collector );
+            }
+        };
+        connection.respondWith( fields( "n" ), record( 1 ), record( 2 ), success() );
+        final Queue<Runnable> tasks = new LinkedList<>();
+        StandardSession session = new StandardSession( connection, new Executor()
+        {
+            @Override
+            public void execute( Runnable task )
+            {
+                tasks.add( task );
+            }
+        } );
+        Result blocking = session.run( "UNWIND [1, 2] AS n RETURN n" );
+        assertTrue( blocking.next() );
+
+        // When
+        connection.respondWith( fields( "n" ), record( 4 ), success() );
+        CompletableFuture<Result> async = session.runAsync( "RETURN 4 AS n" ).toCompletableFuture();
+        runAll( tasks );
+
+        // Then the blocking result was received in full before the asynchronous statement was sent
+        assertThat( receivedBeforeRun, contains( 0, 4 ) );
+        assertTrue( blocking.next() );
+        assertThat( blocking.get( "n" ).javaLong(), equalTo( 2L ) );
+        assertFalse( blocking.next() );
+
+        // And the asynchronous statement ran after it
+        Result result = async.get( 10, TimeUnit.SECONDS );
+        assertTrue( result.next() );
+        assertThat( result.get( "n" ).javaLong(), equalTo( 4L ) );
+    }
+
+    @Test
+    public void shouldWaitForAsyncStatementsBeforeBlockingRun() throws Throwable
+    {
+        // Given
+        Connection mock = mock( Connection.class );
+        acceptStatementsImmediately( mock );
+        final CompletableFuture<Void> sync = new CompletableFuture<>();
+        when( mock.syncAsync() ).thenReturn( sync );
+        StandardSession sess = new StandardSession( mock, eventLoop );
+        sess.runAsync( "first" );
+
+        // When
+        new Thread()
+        {
+            @Override
+            public void run()
+            {
+                sync.completeExceptionally( new ClientException( "boom" ) );
+            }
+        }.start();
+        sess.run( "second" );
+
+        // Then
+        assertTrue( sync.isDone() );
+        verify( mock ).flush();
+    }
+
+    private static void acceptStatementsImmediately( Connection mock )
+    {
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                ((StreamCollector) invocation.getArguments()[2]).done();
+                return null;
+            }
+        } ).when( mock ).run( anyString(), anyMap(), any( StreamCollector.class ) );
+    }
+
+    @Test
+    public void shouldNotLeaveRecordsOrFailuresOfAbandonedResultsToTheNextSession() throws Throwable
+    {
+        // Given
+        ScriptedConnection scripted = new ScriptedConnection();
+        PooledConnection connection = new PooledConnection( scripted, new Consumer<PooledConnection>()
+        {
+            @Override
+            public void accept( PooledConnection connection )
+            {
+            }
+        } );
+        scripted.respondWith( fields( "n" ), record( 1 ), record( 2 ), record( 3 ), failure() );
+
+        StandardSession first = new StandardSession( connection, eventLoop );
+        Result abandoned = first.run( "UNWIND [1, 2, 3, 0] AS n RETURN 1 / n" );
+        assertTrue( abandoned.next() );
+
+        // When
+        first.close();
+
+        // Then
+        assertFalse( abandoned.next() );
+        scripted.respondWith( fields( "n" ), record( 4 ), success() );
+        Result result = new StandardSession( connection, eventLoop ).run( "RETURN 4 AS n" );
+        assertTrue( result.next() );
+        assertThat( result.get( "n" ).javaLong(), equalTo( 4L ) );
+        assertFalse( result.next() );
+    }
+
+    @Test
+    public void shouldReportFailuresOfUnconsumedResultsThroughTheResultsThemselves() throws Throwable
+    {
+        // Given
+        ScriptedConnection connection = new ScriptedConnection();
+        connection.respondWith( fields( "n" ), record( 1 ), failure() );
+        StandardSession session = new StandardSession( connection, eventLoop );
+        Result unconsumed = session.run( "UNWIND [1, 0] AS n RETURN 1 / n AS n" );
+
+        // When
+        connection.respondWith( fields( "n" ), record( 4 ), success() );
+        Result next = session.run( "RETURN 4 AS n" );
+
+        // Then the next statement is unaffected
+        assertTrue( next.next() );
+        assertThat( next.get( "n" ).javaLong(), equalTo( 4L ) );
+        assertFalse( next.next() );
+
+        // And the failure surfaces once the records before it have been consumed
+        assertTrue( unconsumed.next() );
+        assertThat( unconsumed.get( "n" ).javaLong(), equalTo( 1L ) );
+        exception.expect( ClientException.class );
+        exception.expectMessage( "/ by zero" );
+        unconsumed.next();
+    }
+
+    @Test
+    public void shouldReceiveTheRestOfDetachedPublishersBeforeLettingGoOfTheConnection() throws Throwable
+    {
+        // Given
+        ScriptedConnection scripted = new ScriptedConnection();
+        PooledConnection connection = new PooledConnection( scripted, new Consumer<PooledConnection>()
+        {
+            @Override
+            public void accept( PooledConnection connection )
+            {
+            }
+        } );
+        scripted.respondWith( fields( "n" ), record( 1 ), record( 2 ), record( 3 ), success() );
+        final Queue<Runnable> tasks = new LinkedList<>();
+        StandardSession first = new StandardSession( connection, new Executor()
+        {
+            @Override
+            public void execute( Runnable task )
+            {
+                tasks.add( task );
+            }
+        } );
+        final List<Long> values = new ArrayList<>();
+        final AtomicReference<Subscription> subscription = new AtomicReference<>();
+        first.runReactive( "UNWIND [1, 2, 3] AS n RETURN n" ).subscribe( new Subscriber<Record>()
+        {
+            @Override
+            public void onSubscribe( Subscription s )
+            {
+                subscription.set( s );
+            }
+
+            @Override
+            public void onNext( Record record )
+            {
+                values.add( record.get( "n" ).javaLong() );
+            }
+
+            @Override
+            public void onError( Throwable error )
+            {
+            }
+
+            @Override
+            public void onComplete()
+            {
+                values.add( -1L );
+            }
+        } );
+        subscription.get().request( 1 );
+        runAll( tasks );
+
+        // When
+        first.close();
+
+        // Then the next session finds the connection free of the stream
+        scripted.respondWith( fields( "n" ), record( 4 ), success() );
+        Result result = new StandardSession( connection, eventLoop ).run( "RETURN 4 AS n" );
+        assertTrue( result.next() );
+        assertThat( result.get( "n" ).javaLong(), equalTo( 4L ) );
+        assertFalse( result.next() );
+
+        // And the stream was received into the publisher
+        subscription.get().request( Long.MAX_VALUE );
+        runAll( tasks );
+        assertThat( values, contains( 1L, 2L, 3L, -1L ) );
+    }
+
+    private static void runAll( Queue<Runnable> tasks )
+    {
+        Runnable task;
+        while ( (task = tasks.poll()) != null )
+        {
+            task.run();
+        }
+    }
+}
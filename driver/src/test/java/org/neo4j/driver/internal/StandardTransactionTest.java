@@ -21,9 +21,19 @@ package org.neo4j.driver.internal;
 import org.junit.Test;
 import org.mockito.InOrder;
 
+import org.neo4j.driver.Result;
+import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.spi.Connection;
 
 import static java.util.Collections.EMPTY_MAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.driver.internal.ScriptedConnection.failure;
+import static org.neo4j.driver.internal.ScriptedConnection.fields;
+import static org.neo4j.driver.internal.ScriptedConnection.record;
+import static org.neo4j.driver.internal.ScriptedConnection.success;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -99,4 +109,33 @@ public class StandardTransactionTest
         verify( cleanup ).run();
         verifyNoMoreInteractions( conn, cleanup );
     }
+
+    @Test
+    public void shouldNotCommitWhenAnUnconsumedResultFails() throws Throwable
+    {
+        // Given
+        ScriptedConnection conn = new ScriptedConnection();
+        conn.respondWith( success(), success(), fields( "n" ), record( 1 ), failure() );
+        Runnable cleanup = mock( Runnable.class );
+        StandardTransaction tx = new StandardTransaction( conn, cleanup );
+        Result unconsumed = tx.run( "UNWIND [1, 0] AS n RETURN 1 / n AS n" );
+        tx.success();
+
+        // When
+        tx.close();
+
+        // Then
+        assertThat( conn.statements, contains( "BEGIN", "UNWIND [1, 0] AS n RETURN 1 / n AS n" ) );
+        verify( cleanup ).run();
+        assertTrue( unconsumed.next() );
+        try
+        {
+            unconsumed.next();
+            fail( "The failure of the statement should have been reported" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+    }
 }
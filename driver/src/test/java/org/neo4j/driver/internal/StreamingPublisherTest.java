@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.exceptions.ClientException;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import static java.util.Collections.EMPTY_MAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.driver.internal.ScriptedConnection.failure;
+import static org.neo4j.driver.internal.ScriptedConnection.fields;
+import static org.neo4j.driver.internal.ScriptedConnection.record;
+import static org.neo4j.driver.internal.ScriptedConnection.success;
+
+public class StreamingPublisherTest
+{
+    private final ScriptedConnection conn = new ScriptedConnection();
+    private final Queue<Runnable> tasks = new LinkedList<>();
+    private final Executor executor = new Executor()
+    {
+        @Override
+        public void execute( Runnable task )
+        {
+            tasks.add( task );
+        }
+    };
+
+    @Test
+    public void shouldNotReceiveAnythingUntilRecordsAreRequested()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), success() );
+        StreamingPublisher publisher = run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        // When
+        publisher.subscribe( subscriber );
+
+        // Then
+        assertThat( conn.messagesReceived, equalTo( 0 ) );
+        assertThat( subscriber.values, empty() );
+    }
+
+    @Test
+    public void shouldOnlyReceiveAsManyRecordsAsRequested()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), success() );
+        StreamingPublisher publisher = run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe( subscriber );
+
+        // When
+        subscriber.subscription.request( 1 );
+        runTasks();
+
+        // Then
+        assertThat( subscriber.values, contains( 1L ) );
+        assertThat( conn.messagesReceived, equalTo( 2 ) );
+        assertFalse( subscriber.completed );
+    }
+
+    @Test
+    public void shouldCompleteOnceAllRecordsAreDelivered()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), success() );
+        StreamingPublisher publisher = run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe( subscriber );
+
+        // When
+        subscriber.subscription.request( Long.MAX_VALUE );
+        runTasks();
+
+        // Then
+        assertThat( subscriber.values, contains( 1L, 2L ) );
+        assertTrue( subscriber.completed );
+    }
+
+    @Test
+    public void shouldSignalStatementFailure()
+    {
+        // Given
+        conn.respondWith( failure() );
+        StreamingPublisher publisher = run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe( subscriber );
+
+        // When
+        subscriber.subscription.request( 10 );
+        runTasks();
+
+        // Then
+        assertThat( subscriber.error, instanceOf( ClientException.class ) );
+        assertFalse( subscriber.completed );
+    }
+
+    @Test
+    public void shouldOnlyAllowOneSubscriber()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), success() );
+        StreamingPublisher publisher = run();
+        publisher.subscribe( new RecordingSubscriber() );
+        RecordingSubscriber second = new RecordingSubscriber();
+
+        // When
+        publisher.subscribe( second );
+
+        // Then
+        assertThat( second.error, instanceOf( ClientException.class ) );
+    }
+
+    @Test
+    public void shouldDeliverRecordsReceivedByOthersAfterDetaching()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), success() );
+        StreamingPublisher publisher = run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe( subscriber );
+        subscriber.subscription.request( 1 );
+        runTasks();
+
+        // When
+        publisher.detach();
+        conn.sync();
+        subscriber.subscription.request( 1 );
+        runTasks();
+
+        // Then
+        assertThat( subscriber.values, contains( 1L, 2L ) );
+        assertTrue( subscriber.completed );
+    }
+
+    @Test
+    public void shouldSignalFailuresReceivedByOthersAfterDetaching()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), failure() );
+        StreamingPublisher publisher = run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe( subscriber );
+
+        // When
+        publisher.detach();
+        conn.sync();
+        subscriber.subscription.request( 10 );
+        runTasks();
+
+        // Then
+        assertThat( subscriber.values, contains( 1L ) );
+        assertThat( subscriber.error, instanceOf( ClientException.class ) );
+        assertFalse( subscriber.completed );
+    }
+
+    @Test
+    public void shouldNotDeliverOnTheThreadThatReceivedTheRecords()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), success() );
+        StreamingPublisher publisher = run();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe( subscriber );
+
+        // When
+        subscriber.subscription.request( Long.MAX_VALUE );
+
+        // Then the records have been received, but are left for the executor to deliver
+        assertThat( conn.messagesReceived, equalTo( 4 ) );
+        assertThat( subscriber.values, empty() );
+        runTasks();
+        assertThat( subscriber.values, contains( 1L, 2L ) );
+        assertTrue( subscriber.completed );
+    }
+
+    private StreamingPublisher run()
+    {
+        return StreamingPublisher.run( conn, "RETURN 1", EMPTY_MAP, CompletableFuture.completedFuture( null ),
+                executor );
+    }
+
+    private void runTasks()
+    {
+        Runnable task;
+        while ( (task = tasks.poll()) != null )
+        {
+            task.run();
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Record>
+    {
+        private final List<Long> values = new ArrayList<>();
+        private Subscription subscription;
+        private boolean completed = false;
+        private Throwable error;
+
+        @Override
+        public void onSubscribe( Subscription subscription )
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext( Record record )
+        {
+            values.add( record.get( "a" ).javaLong() );
+        }
+
+        @Override
+        public void onError( Throwable error )
+        {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete()
+        {
+            completed = true;
+        }
+    }
+}
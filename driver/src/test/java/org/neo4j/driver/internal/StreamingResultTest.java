@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.neo4j.driver.Result;
+import org.neo4j.driver.ReusableResult;
+import org.neo4j.driver.exceptions.ClientException;
+
+import static java.util.Collections.EMPTY_MAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.driver.internal.ScriptedConnection.failure;
+import static org.neo4j.driver.internal.ScriptedConnection.fields;
+import static org.neo4j.driver.internal.ScriptedConnection.record;
+import static org.neo4j.driver.internal.ScriptedConnection.success;
+
+public class StreamingResultTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private final ScriptedConnection conn = new ScriptedConnection();
+    private final Runnable onFailure = mock( Runnable.class );
+
+    @Test
+    public void shouldOnlyReceiveStatementHeaderOnRun()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), success() );
+
+        // When
+        Result result = StreamingResult.run( conn, "RETURN 1", EMPTY_MAP, onFailure );
+
+        // Then
+        assertThat( conn.messagesReceived, equalTo( 1 ) );
+        assertThat( result.fieldNames(), contains( "a" ) );
+    }
+
+    @Test
+    public void shouldReceiveOneRecordAtATime()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), success() );
+        Result result = StreamingResult.run( conn, "RETURN 1", EMPTY_MAP, onFailure );
+
+        // When
+        result.next();
+
+        // Then
+        assertThat( conn.messagesReceived, equalTo( 2 ) );
+        assertThat( result.get( "a" ).javaLong(), equalTo( 1l ) );
+
+        // When
+        result.next();
+
+        // Then
+        assertThat( conn.messagesReceived, equalTo( 3 ) );
+        assertThat( result.get( 0 ).javaLong(), equalTo( 2l ) );
+        assertThat( result.next(), equalTo( false ) );
+    }
+
+    @Test
+    public void shouldRetainRemainderOfStreamFromTheCurrentRecord()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), record( 2 ), record( 3 ), success() );
+        Result result = StreamingResult.run( conn, "RETURN 1", EMPTY_MAP, onFailure );
+        result.next();
+        result.next();
+
+        // When
+        ReusableResult retained = result.retain();
+
+        // Then
+        assertThat( retained.size(), equalTo( 2l ) );
+        assertThat( retained.get( 0 ).get( "a" ).javaLong(), equalTo( 2l ) );
+        assertThat( retained.get( 1 ).get( "a" ).javaLong(), equalTo( 3l ) );
+    }
+
+    @Test
+    public void shouldNotifyFailureWhileStreaming()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), failure() );
+        Result result = StreamingResult.run( conn, "RETURN 1", EMPTY_MAP, onFailure );
+        result.next();
+        verify( onFailure, never() ).run();
+
+        // Expect
+        exception.expect( ClientException.class );
+
+        // When
+        try
+        {
+            result.next();
+        }
+        finally
+        {
+            verify( onFailure ).run();
+        }
+    }
+
+    @Test
+    public void shouldRequireNextBeforeAccessingFields()
+    {
+        // Given
+        conn.respondWith( fields( "a" ), record( 1 ), success() );
+        Result result = StreamingResult.run( conn, "RETURN 1", EMPTY_MAP, onFailure );
+
+        // Expect
+        exception.expect( ClientException.class );
+
+        // When
+        result.get( "a" );
+    }
+}
@@ -22,24 +22,38 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.messaging.RunMessage;
 import org.neo4j.driver.internal.value.BooleanValue;
+import org.neo4j.driver.internal.value.DoubleListValue;
 import org.neo4j.driver.internal.value.FloatValue;
 import org.neo4j.driver.internal.value.IntegerValue;
 import org.neo4j.driver.internal.value.ListValue;
+import org.neo4j.driver.internal.value.LongListValue;
 import org.neo4j.driver.internal.value.MapValue;
 import org.neo4j.driver.internal.value.TextValue;
+import org.neo4j.driver.internal.value.ValueAdapter;
+import org.neo4j.driver.internal.value.ValueType;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.driver.Values.direct;
+import static org.neo4j.driver.Values.directParameters;
 import static org.neo4j.driver.Values.value;
 import static org.neo4j.driver.Values.valueToBoolean;
 import static org.neo4j.driver.Values.valueToDouble;
@@ -83,6 +97,143 @@ public class ValuesTest
                 equalTo( (Value) new ListValue( values( "a", "b", "c" ) ) ) );
     }
 
+    @Test
+    public void shouldUseDirectValuesLikeTheValuesTheyConvertTo() throws Throwable
+    {
+        // Given
+        List<Object> list = asList( (Object) 1, "two", new int[]{3} );
+
+        // When
+        Value direct = direct( list );
+
+        // Then
+        assertEquals( direct( list ), direct );
+        assertEquals( value( list ).hashCode(), direct.hashCode() );
+        assertEquals( value( list ).get( 2 ), direct.get( 2 ) );
+        assertThat( direct.size(), equalTo( 3L ) );
+        assertThat( direct.get( 1 ).javaString(), equalTo( "two" ) );
+        assertThat( direct( null ), equalTo( null ) );
+        assertThat( direct( direct ), equalTo( direct ) );
+    }
+
+    @Test
+    public void shouldPrintAndCompareDirectValuesOfApplicationTypes() throws Throwable
+    {
+        // Given an object only a parameter encoder would know how to send
+        Object point = new Object()
+        {
+            @Override
+            public String toString()
+            {
+                return "point";
+            }
+        };
+
+        // When
+        Value direct = direct( asList( point ) );
+
+        // Then
+        assertThat( direct.toString(), equalTo( "[point]" ) );
+        assertThat( new RunMessage( "RETURN {p}", directParameters( "p", point ) ).toString(),
+                equalTo( "[RUN \"RETURN {p}\" {p=point}]" ) );
+        assertEquals( direct( asList( point ) ), direct );
+        assertEquals( direct( asList( point ) ).hashCode(), direct.hashCode() );
+        assertNotEquals( direct( asList( new Object() ) ), direct );
+        assertNotEquals( value( asList( 1 ) ), direct );
+    }
+
+    @Test
+    public void shouldCompareDirectValuesTheSameWayRoundEitherWay() throws Throwable
+    {
+        // Given
+        Value direct = direct( 1L );
+        Value converted = value( 1L );
+
+        // Then
+        assertNotEquals( converted, direct );
+        assertNotEquals( direct, converted );
+        assertEquals( direct( 1L ), direct );
+        assertEquals( direct, direct( 1L ) );
+        assertEquals( direct( asList( 1L, "two" ) ), direct( asList( 1L, "two" ) ) );
+        assertNotEquals( direct( 2L ), direct );
+        assertNotEquals( direct, direct( 2L ) );
+    }
+
+    @Test
+    public void shouldExposeBytesWithoutCopyingThem() throws Throwable
+    {
+        // Given
+        byte[] bytes = {1, 2, 3};
+        Value value = value( bytes );
+        bytes[0] = 42;
+
+        // When
+        ByteBuffer view = value.asByteBuffer();
+        byte[] target = new byte[5];
+        view.get( target, 1, view.remaining() );
+
+        // Then
+        assertTrue( value.isBytes() );
+        assertTrue( view.isReadOnly() );
+        assertThat( value.size(), equalTo( 3L ) );
+        assertArrayEquals( new byte[]{0, 1, 2, 3, 0}, target );
+        assertArrayEquals( new byte[]{1, 2, 3}, value.javaBytes() );
+        assertEquals( value( new byte[]{1, 2, 3} ), value );
+        assertNotEquals( value( new byte[]{1, 2} ), value );
+    }
+
+    @Test
+    public void shouldExposeNumberArraysWithoutCopyingThem() throws Throwable
+    {
+        // Given
+        long[] longs = {1, 2, 3};
+        double[] doubles = {1.5, 2.5};
+        Value longList = new LongListValue( longs );
+        Value doubleList = new DoubleListValue( doubles );
+
+        // When
+        LongBuffer longView = longList.asLongBuffer();
+        DoubleBuffer doubleView = doubleList.asDoubleBuffer();
+        longs[0] = 42;
+        doubles[0] = 0.5;
+
+        // Then
+        assertTrue( longView.isReadOnly() );
+        assertTrue( doubleView.isReadOnly() );
+        assertThat( longView.remaining(), equalTo( 3 ) );
+        assertThat( longView.get( 0 ), equalTo( 42L ) );
+        assertThat( doubleView.get( 0 ), equalTo( 0.5 ) );
+        assertThat( new ListValue( values( 1, 2 ) ).asLongBuffer().get( 1 ), equalTo( 2L ) );
+        assertThat( longList.asDoubleBuffer().get( 2 ), equalTo( 3.0 ) );
+    }
+
+    @Test
+    public void shouldHoldNumberArraysAsPrimitiveArrays() throws Throwable
+    {
+        // Given
+        Value longs = value( new long[]{1, 2, 3} );
+        Value doubles = value( new double[]{1.5, 2.5} );
+        Value boxedLongs = new ListValue( values( 1, 2, 3 ) );
+        Value boxedDoubles = new ListValue( values( 1.5, 2.5 ) );
+
+        // Then
+        assertThat( longs, instanceOf( LongListValue.class ) );
+        assertArrayEquals( new long[]{1, 2, 3}, longs.asLongArray() );
+        assertArrayEquals( new double[]{1, 2, 3}, longs.asDoubleArray(), 0 );
+        assertArrayEquals( new double[]{1.5, 2.5}, doubles.asDoubleArray(), 0 );
+        assertArrayEquals( new long[]{1, 2, 3}, boxedLongs.asLongArray() );
+
+        assertEquals( boxedLongs, longs );
+        assertEquals( longs, boxedLongs );
+        assertEquals( boxedLongs.hashCode(), longs.hashCode() );
+        assertEquals( boxedDoubles, doubles );
+        assertEquals( doubles, boxedDoubles );
+        assertEquals( boxedDoubles.hashCode(), doubles.hashCode() );
+        assertNotEquals( longs, value( new double[]{1, 2, 3} ) );
+        assertThat( longs.get( 1 ), equalTo( value( 2 ) ) );
+        assertThat( longs.toString(), equalTo( boxedLongs.toString() ) );
+    }
+
     @Test
     public void shouldComplainAboutStrangeTypes() throws Throwable
     {
@@ -155,4 +306,29 @@ public class ValuesTest
         assertThat( -1.1F, equalTo( (float) (new FloatValue( -1.1 ).javaList( valueToFloat() ).get( 0 )) ) );
         assertThat( -1.1, equalTo( (double) (new FloatValue( -1.1 ).javaList( valueToDouble() ).get( 0 )) ) );
     }
+
+    @Test
+    public void shouldTagValuesWithTheTypeTheySayTheyAre() throws Throwable
+    {
+        assertEquals( ValueType.BOOLEAN, ValueType.of( value( true ) ) );
+        assertEquals( ValueType.INTEGER, ValueType.of( value( 1 ) ) );
+        assertEquals( ValueType.FLOAT, ValueType.of( value( 1.0 ) ) );
+        assertEquals( ValueType.TEXT, ValueType.of( value( "text" ) ) );
+        assertEquals( ValueType.BYTES, ValueType.of( value( new byte[]{1} ) ) );
+        assertEquals( ValueType.LONG_LIST, ValueType.of( value( new long[]{1} ) ) );
+        assertEquals( ValueType.DOUBLE_LIST, ValueType.of( value( new double[]{1.0} ) ) );
+        assertEquals( ValueType.LIST, ValueType.of( value( asList( "a", 1 ) ) ) );
+        assertEquals( ValueType.MAP, ValueType.of( new MapValue( new HashMap<String,Value>() ) ) );
+        assertEquals( ValueType.DIRECT, ValueType.of( direct( "text" ) ) );
+
+        // A value that does not say what type it is gets asked
+        assertEquals( ValueType.TEXT, ValueType.of( new ValueAdapter()
+        {
+            @Override
+            public boolean isText()
+            {
+                return true;
+            }
+        } ) );
+    }
 }
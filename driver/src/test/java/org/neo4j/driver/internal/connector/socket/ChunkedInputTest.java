@@ -24,14 +24,20 @@ import org.junit.rules.ExpectedException;
 import org.mockito.Matchers;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.util.BufferArena;
 import org.neo4j.driver.util.RecordingByteChannel;
 
 import static junit.framework.Assert.fail;
@@ -163,6 +169,44 @@ public class ChunkedInputTest
         assertEquals( Integer.MIN_VALUE, in.readInt() );
     }
 
+    @Test
+    public void shouldGiveBuffersBackWhenParkedBetweenMessages() throws Exception
+    {
+        // Given
+        BufferArena arena = new BufferArena( 1 << 20 );
+        RecordingByteChannel ch = new RecordingByteChannel();
+        ChunkedOutput out = new ChunkedOutput( ch, arena );
+        out.writeInt( 1 ).writeInt( 2 );
+        out.messageBoundaryHook().run();
+        out.writeInt( 3 );
+        out.messageBoundaryHook().run();
+        out.flush();
+        out.park();
+
+        ChunkedInput in = new ChunkedInput( ch, arena );
+        assertThat( arena.leasedBytes(), equalTo( 0L ) );
+        assertThat( arena.idleBytes(), equalTo( 8192L ) );
+
+        // When parked half way through a message
+        assertEquals( 1, in.readInt() );
+        in.park();
+
+        // Then the buffer is kept
+        assertThat( arena.leasedBytes(), equalTo( 8192L ) );
+        assertEquals( 2, in.readInt() );
+        in.messageBoundaryHook().run();
+
+        // When parked in between messages
+        in.park();
+
+        // Then the buffer is given back, and leased again for the next message
+        assertThat( arena.leasedBytes(), equalTo( 0L ) );
+        assertEquals( 3, in.readInt() );
+        in.messageBoundaryHook().run();
+        assertThat( arena.leasedBytes(), equalTo( 8192L ) );
+        assertThat( arena.idleBytes(), equalTo( 0L ) );
+    }
+
     @Test
     public void shouldNotReadMessageEndingWhenByteLeftInBuffer()
     {
@@ -206,4 +250,173 @@ public class ChunkedInputTest
         // When
         ch.readByte();
     }
+
+    @Test
+    public void shouldTellWhenEachMessageStartedToArrive() throws Throwable
+    {
+        // Given two messages, of one and two bytes
+        ReadableByteChannel channel = Channels.newChannel(
+                new ByteArrayInputStream( new byte[]{0, 1, 1, 0, 0, 0, 2, 2, 3, 0, 0} ) );
+        ChunkedInput ch = new ChunkedInput( 8, channel );
+        Runnable messageBoundary = ch.messageBoundaryHook();
+        long start = System.nanoTime();
+
+        // When
+        ch.readByte();
+        long firstArrived = ch.messageArrivedAt();
+        messageBoundary.run();
+        ch.readShort();
+        long secondArrived = ch.messageArrivedAt();
+        messageBoundary.run();
+
+        // Then
+        assertThat( firstArrived >= start, equalTo( true ) );
+        assertThat( secondArrived >= firstArrived, equalTo( true ) );
+        assertThat( ch.messageArrivedAt(), equalTo( secondArrived ) );
+    }
+
+    @Test
+    public void shouldReceiveWholeMessagesAheadOfReadingThem() throws Throwable
+    {
+        // Given a message of three bytes in two chunks, and the start of the next message
+        ReadableByteChannel channel = Channels.newChannel(
+                new ByteArrayInputStream( new byte[]{0, 2, 1, 2, 0, 1, 3, 0, 0, 0, 1} ) );
+        ChunkedInput ch = new ChunkedInput( 4, channel );
+        assertThat( ch.bytesMissing(), equalTo( 2 ) );
+
+        // When receiving until the first message is all there, which takes more room than the buffer has
+        while ( ch.bytesMissing() > 0 )
+        {
+            ch.receiveArrived( channel, SocketEventLoop.ALL_MESSAGES );
+        }
+        byte[] bytes = new byte[3];
+        ch.readBytes( bytes, 0, 3 );
+        ch.messageBoundaryHook().run();
+
+        // Then
+        assertThat( bytes, equalTo( new byte[]{1, 2, 3} ) );
+        assertThat( ch.hasReadAhead(), equalTo( true ) );
+        assertThat( ch.bytesMissing(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldReadNumbersSplitAcrossChunks() throws Throwable
+    {
+        // Given a short, an int and a long, each split over two chunks, with bytes that have the sign bit set
+        ReadableByteChannel channel = Channels.newChannel( new ByteArrayInputStream( new byte[]{
+                0, 1, (byte) 0x80,
+                0, 3, (byte) 0xFF, (byte) 0x80, (byte) 0xFF,
+                0, 5, (byte) 0xFE, (byte) 0xDC, (byte) 0x81, (byte) 0x82, (byte) 0x83,
+                0, 5, (byte) 0x84, (byte) 0x85, (byte) 0x86, (byte) 0x87, (byte) 0x88,
+                0, 0,
+                0, 1, 1,
+                0, 0} ) );
+        ChunkedInput ch = new ChunkedInput( 8, channel );
+
+        // When
+        short s = ch.readShort();
+        int i = ch.readInt();
+        long l = ch.readLong();
+        ch.messageBoundaryHook().run();
+
+        // Then
+        assertEquals( (short) 0x80FF, s );
+        assertEquals( 0x80FFFEDC, i );
+        assertEquals( 0x8182838485868788L, l );
+        assertEquals( 1, ch.readByte() );
+    }
+
+    @Test
+    public void shouldReadChunkHeadersAlongWithTheChunksBeforeThem() throws Throwable
+    {
+        // Given a hundred messages of two chunks each
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        for ( int i = 0; i < 100; i++ )
+        {
+            messages.write( new byte[]{0, 2, 1, 2, 0, 1, 3, 0, 0} );
+        }
+        final AtomicInteger reads = new AtomicInteger();
+        final ReadableByteChannel source = Channels.newChannel( new ByteArrayInputStream( messages.toByteArray() ) );
+        ReadableByteChannel channel = new ReadableByteChannel()
+        {
+            @Override
+            public int read( ByteBuffer dst ) throws IOException
+            {
+                reads.incrementAndGet();
+                return source.read( dst );
+            }
+
+            @Override
+            public boolean isOpen()
+            {
+                return true;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        ChunkedInput ch = new ChunkedInput( channel );
+
+        // When
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertEquals( 1, ch.readByte() );
+            assertEquals( 2, ch.readByte() );
+            assertEquals( 3, ch.readByte() );
+            ch.messageBoundaryHook().run();
+        }
+
+        // Then the first header of each message is read on its own, and every other header along with the chunk
+        // before it, which makes three reads per message rather than five
+        assertEquals( 300, reads.get() );
+    }
+
+    @Test( timeout = 10000 )
+    public void shouldTakeInEverythingThatHasArrivedOnASocket() throws Throwable
+    {
+        try ( ServerSocketChannel server = ServerSocketChannel.open() )
+        {
+            // Given a server that has sent a thousand messages
+            server.bind( new InetSocketAddress( "localhost", 0 ) );
+            SocketChannel client = SocketChannel.open( server.getLocalAddress() );
+            try ( SocketChannel serverSide = server.accept() )
+            {
+                ByteBuffer messages = ByteBuffer.allocate( 1000 * 7 );
+                for ( int i = 0; i < 1000; i++ )
+                {
+                    messages.put( new byte[]{0, 3, 1, 2, (byte) i, 0, 0} );
+                }
+                messages.flip();
+                while ( messages.hasRemaining() )
+                {
+                    serverSide.write( messages );
+                }
+
+                ChunkedInput ch = new ChunkedInput( new AllOrNothingChannel( client ) );
+
+                // When
+                for ( int i = 0; i < 999; i++ )
+                {
+                    assertEquals( 1, ch.readByte() );
+                    assertEquals( 2, ch.readByte() );
+                    assertEquals( (byte) i, ch.readByte() );
+                    ch.messageBoundaryHook().run();
+                }
+
+                // Then the last message, and no more than that, has been received, without waiting for anything else
+                assertThat( ch.hasReadAhead(), equalTo( true ) );
+                assertEquals( 1, ch.readByte() );
+                assertEquals( 2, ch.readByte() );
+                assertEquals( (byte) 999, ch.readByte() );
+                ch.messageBoundaryHook().run();
+                assertThat( ch.hasReadAhead(), equalTo( false ) );
+            }
+            finally
+            {
+                client.close();
+            }
+        }
+    }
 }
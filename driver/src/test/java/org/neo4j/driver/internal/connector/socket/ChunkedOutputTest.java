@@ -20,6 +20,13 @@ package org.neo4j.driver.internal.connector.socket;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+
 import org.neo4j.driver.internal.util.BytePrinter;
 import org.neo4j.driver.util.RecordingByteChannel;
 
@@ -44,6 +51,41 @@ public class ChunkedOutputTest
                 equalTo( "00 03 01 00 02 00 00 " ) );
     }
 
+    @Test
+    public void shouldDropWhatIsStagedOfAMessageThatCouldNotBeFinished() throws Throwable
+    {
+        // Given
+        out.writeByte( (byte) 1 );
+        out.messageBoundaryHook().run();
+        out.writeShort( (short) 2 );
+
+        // When
+        boolean discarded = out.discardUnfinishedMessage();
+        out.writeByte( (byte) 3 );
+        out.messageBoundaryHook().run();
+        out.flush();
+
+        // Then
+        assertThat( discarded, equalTo( true ) );
+        assertThat( BytePrinter.hex( channel.getBytes() ),
+                equalTo( "00 01 01 00 00 00 01 03    00 00 " ) );
+    }
+
+    @Test
+    public void shouldTellWhenPartOfAnUnfinishedMessageHasBeenWrittenOut() throws Throwable
+    {
+        // Given a message larger than the buffer
+        out.writeByte( (byte) 1 );
+        out.messageBoundaryHook().run();
+        out.writeLong( 2 ).writeLong( 3 );
+
+        // When
+        boolean discarded = out.discardUnfinishedMessage();
+
+        // Then
+        assertThat( discarded, equalTo( false ) );
+    }
+
     @Test
     public void shouldChunkMessageSpanningMultipleChunks() throws Throwable
     {
@@ -85,4 +127,109 @@ public class ChunkedOutputTest
         assertThat( BytePrinter.hex( channel.getBytes() ),
                 equalTo( "00 0e 00 00 00 00 00 00    00 00 00 00 00 00 00 00    00 02 00 00 00 00 " ) );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldWriteEachPartOfByteArraySpanningMultipleChunks() throws Throwable
+    {
+        // Given
+        byte[] data = new byte[20];
+        for ( int i = 0; i < data.length; i++ )
+        {
+            data[i] = (byte) i;
+        }
+
+        // When
+        out.writeBytes( data, 2, 17 );
+        out.messageBoundaryHook().run();
+        out.flush();
+
+        // Then
+        assertThat( BytePrinter.hex( channel.getBytes() ),
+                equalTo( "00 0e 02 03 04 05 06 07    08 09 0a 0b 0c 0d 0e 0f    00 03 10 11 12 00 00 " ) );
+    }
+
+    @Test
+    public void shouldWriteLargeByteArraysStraightToGatheringChannels() throws Throwable
+    {
+        // Given a channel that takes a few bytes at a time
+        GatheringChannel gathering = new GatheringChannel();
+        ChunkedOutput output = new ChunkedOutput( 16, gathering );
+        byte[] data = new byte[200000];
+        for ( int i = 0; i < data.length; i++ )
+        {
+            data[i] = (byte) i;
+        }
+
+        // When
+        output.writeShort( (short) 7 );
+        output.writeBytes( data, 1, data.length - 1 );
+        output.writeByte( (byte) 9 );
+        output.messageBoundaryHook().run();
+        output.flush();
+
+        // Then the bytes go out in chunks as large as they can be, without going through the buffer, and only what
+        // follows them is written from the buffer
+        assertThat( gathering.bufferWrites, equalTo( 1 ) );
+        byte[] written = gathering.bytes.toByteArray();
+        assertThat( BytePrinter.hex( Arrays.copyOfRange( written, 0, 6 ) ), equalTo( "00 02 00 07 ff ff " ) );
+
+        ChunkedInput input = new ChunkedInput( Channels.newChannel( new ByteArrayInputStream( written ) ) );
+        assertThat( input.readShort(), equalTo( (short) 7 ) );
+        byte[] read = new byte[data.length - 1];
+        input.readBytes( read, 0, read.length );
+        assertThat( read, equalTo( Arrays.copyOfRange( data, 1, data.length ) ) );
+        assertThat( input.readByte(), equalTo( (byte) 9 ) );
+        input.messageBoundaryHook().run();
+    }
+
+    private static class GatheringChannel implements GatheringByteChannel
+    {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int bufferWrites;
+
+        @Override
+        public long write( ByteBuffer[] srcs, int offset, int length )
+        {
+            long written = 0;
+            for ( int i = offset; i < offset + length && written < 1000; i++ )
+            {
+                written += take( srcs[i] );
+            }
+            return written;
+        }
+
+        @Override
+        public long write( ByteBuffer[] srcs )
+        {
+            return write( srcs, 0, srcs.length );
+        }
+
+        @Override
+        public int write( ByteBuffer src )
+        {
+            bufferWrites++;
+            return take( src );
+        }
+
+        private int take( ByteBuffer src )
+        {
+            int written = Math.min( src.remaining(), 1000 );
+            for ( int i = 0; i < written; i++ )
+            {
+                bytes.write( src.get() );
+            }
+            return written;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
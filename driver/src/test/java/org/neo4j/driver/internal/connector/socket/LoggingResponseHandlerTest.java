@@ -23,6 +23,7 @@ import org.junit.Test;
 import java.util.HashMap;
 
 import org.neo4j.driver.Value;
+import org.neo4j.driver.internal.RecordFields;
 import org.neo4j.driver.internal.logging.DevNullLogger;
 import org.neo4j.driver.internal.messaging.AckFailureMessage;
 import org.neo4j.driver.internal.messaging.DiscardAllMessage;
@@ -124,7 +125,7 @@ public class LoggingResponseHandlerTest
     public void shouldLogRecordMessage() throws Throwable
     {
         // When
-        handler.handleRecordMessage( new Value[]{} );
+        handler.handleRecordMessage( new RecordFields( 0 ) );
 
         // Then
         assertEquals( "S: RecordMessage{[]}", log );
@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.Config;
+import org.neo4j.driver.QueryTimings;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.ResultBuilder;
+import org.neo4j.driver.internal.messaging.Message;
+import org.neo4j.driver.internal.messaging.MessageFormat;
+import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.messaging.RecordMessage;
+import org.neo4j.driver.internal.messaging.RunMessage;
+import org.neo4j.driver.internal.messaging.SuccessMessage;
+import org.neo4j.driver.internal.pool.StandardConnectionPool;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.ConnectionPoolMetrics;
+import org.neo4j.driver.internal.spi.Connector;
+import org.neo4j.driver.internal.spi.QueryTimingListener;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.util.Clock;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.driver.Values.value;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.driver.internal.messaging.PullAllMessage.PULL_ALL;
+import static org.neo4j.driver.internal.metrics.DevNullConnectionPoolMetrics.DEV_NULL_METRICS;
+import static org.neo4j.driver.util.DumpMessage.unpack;
+
+public class SocketConnectionTest
+{
+    private ServerSocketChannel server;
+    private SocketChannel serverSide;
+    private SocketConnection connection;
+
+    @Before
+    public void setup() throws Throwable
+    {
+        server = ServerSocketChannel.open();
+        server.bind( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ) );
+        connect( Config.defaultConfig() );
+    }
+
+    /** Connect to the fake server, which only does the handshake, the rest is up to each test */
+    private void connect( Config config ) throws Throwable
+    {
+        connect( config, DEV_NULL_METRICS );
+    }
+
+    private void connect( Config config, ConnectionPoolMetrics metrics ) throws Throwable
+    {
+        FutureTask<SocketChannel> handshake = new FutureTask<>( new Callable<SocketChannel>()
+        {
+            @Override
+            public SocketChannel call() throws Exception
+            {
+                SocketChannel channel = server.accept();
+                ByteBuffer proposal = ByteBuffer.allocate( 16 );
+                while ( proposal.hasRemaining() )
+                {
+                    channel.read( proposal );
+                }
+                channel.write( ByteBuffer.wrap( new byte[]{0, 0, 0, 1} ) );
+                return channel;
+            }
+        } );
+        new Thread( handshake ).start();
+        int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        connection = new SocketConnection( "localhost", port, config, metrics, null );
+        serverSide = handshake.get( 10, TimeUnit.SECONDS );
+    }
+
+    @After
+    public void teardown() throws Throwable
+    {
+        connection.close();
+        serverSide.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldReportConnectingAndNegotiatingTheProtocolSeparately() throws Throwable
+    {
+        // Given
+        connection.close();
+        serverSide.close();
+        ConnectionPoolMetrics metrics = mock( ConnectionPoolMetrics.class );
+
+        // When
+        connect( Config.defaultConfig(), metrics );
+
+        // Then
+        verify( metrics ).connected( anyLong() );
+        verify( metrics ).protocolNegotiated( anyLong() );
+        verify( metrics, never() ).tlsHandshake( anyLong() );
+    }
+
+    @Test
+    public void shouldCarryOnAfterStatementWithParametersThatCannotBeSent() throws Throwable
+    {
+        // Given a statement with a parameter the driver cannot send, found only halfway through writing it
+        connection.run( "RETURN {x}", Values.directParameters( "x", asList( 1, new Object() ) ),
+                StreamCollector.NO_OP );
+        connection.pullAll( StreamCollector.NO_OP );
+        try
+        {
+            connection.sync();
+            fail( "Should have failed" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+
+        // When
+        ResultBuilder builder = new ResultBuilder();
+        connection.run( "RETURN 1 AS n", new HashMap<String,Value>(), builder );
+        connection.pullAll( builder );
+        connection.flush();
+
+        // Then the server receives the next statement, and nothing of the one before
+        List<Message> received = new ArrayList<>();
+        ChunkedInput input = new ChunkedInput( 8192, serverSide );
+        MessageFormat.Reader reader = new PackStreamMessageFormatV1.Reader( input, input.messageBoundaryHook() );
+        unpack( received, reader );
+        unpack( received, reader );
+        assertThat( received, equalTo( asList(
+                new RunMessage( "RETURN 1 AS n", new HashMap<String,Value>() ), (Message) PULL_ALL ) ) );
+
+        // And its responses make it to the right result
+        HashMap<String,Value> fields = new HashMap<>();
+        fields.put( "fields", value( new String[]{"n"} ) );
+        ChunkedOutput output = new ChunkedOutput( 8192, serverSide );
+        MessageFormat.Writer writer = new PackStreamMessageFormatV1.Writer( output, output.messageBoundaryHook() );
+        writer.write( new SuccessMessage( fields ) );
+        writer.write( new RecordMessage( new Value[]{value( 1 )} ) );
+        writer.write( new SuccessMessage( new HashMap<String,Value>() ) );
+        writer.flush();
+        connection.sync();
+
+        Result result = builder.build();
+        assertTrue( result.next() );
+        assertThat( result.get( "n" ).javaLong(), equalTo( 1L ) );
+        assertFalse( result.next() );
+    }
+
+    @Test
+    public void shouldFailStatementWithParametersContainingThemselvesAsAClientError() throws Throwable
+    {
+        // Given
+        List<Object> list = new ArrayList<>();
+        list.add( list );
+        connection.run( "RETURN {x}", Values.directParameters( "x", list ), StreamCollector.NO_OP );
+        connection.pullAll( StreamCollector.NO_OP );
+
+        // When
+        try
+        {
+            connection.sync();
+            fail( "Should have failed" );
+        }
+        catch ( ClientException e )
+        {
+            // Then
+            assertThat( e.getMessage(), containsString( "contain themselves" ) );
+        }
+
+        // And the connection either carries on with the next statement, or refuses to send what would not make sense
+        ResultBuilder builder = new ResultBuilder();
+        connection.run( "RETURN 1 AS n", new HashMap<String,Value>(), builder );
+        connection.pullAll( builder );
+        try
+        {
+            connection.flush();
+        }
+        catch ( ClientException e )
+        {
+            assertThat( e.getMessage(), containsString( "can no longer be used" ) );
+        }
+    }
+
+    @Test
+    public void shouldKeepConnectionPooledAfterStatementWithParametersThatCannotBeSent() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connector connector = mock( Connector.class );
+        when( connector.supportedSchemes() ).thenReturn( asList( "bolt" ) );
+        when( connector.connect( any( URI.class ), any( Config.class ) ) ).thenReturn( connection );
+        StandardConnectionPool pool = new StandardConnectionPool( asList( connector ), Clock.SYSTEM,
+                Config.defaultConfig() );
+        Connection pooled = pool.acquire( uri );
+        pooled.run( "RETURN {x}", Values.directParameters( "x", asList( 1, new Object() ) ), StreamCollector.NO_OP );
+        pooled.pullAll( StreamCollector.NO_OP );
+        try
+        {
+            pooled.sync();
+            fail( "Should have failed" );
+        }
+        catch ( ClientException e )
+        {
+            assertThat( e.neo4jErrorCode(), containsString( "ClientError" ) );
+        }
+
+        // When
+        pooled.close();
+        pool.acquire( uri );
+
+        // Then the connection was handed out again, rather than disposed of
+        verify( connector, times( 1 ) ).connect( any( URI.class ), any( Config.class ) );
+    }
+
+    @Test
+    public void shouldTimeStatementsSentAheadOfOnesThatCannotBeSent() throws Throwable
+    {
+        // Given
+        connection.close();
+        serverSide.close();
+        final List<String> timed = new ArrayList<>();
+        final List<Long> queueTimes = new ArrayList<>();
+        connect( Config.build().withQueryTimingListener( new QueryTimingListener()
+        {
+            @Override
+            public void completed( String statement, QueryTimings timings )
+            {
+                timed.add( statement );
+                queueTimes.add( timings.queueTime() );
+            }
+        } ).toConfig() );
+        ResultBuilder builder = new ResultBuilder();
+        connection.run( "RETURN 1 AS n", new HashMap<String,Value>(), builder );
+        connection.pullAll( builder );
+        connection.run( "RETURN {x}", Values.directParameters( "x", asList( 1, new Object() ) ),
+                StreamCollector.NO_OP );
+        connection.pullAll( StreamCollector.NO_OP );
+
+        // When
+        try
+        {
+            connection.flush();
+            fail( "Should have failed" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+        ChunkedOutput output = new ChunkedOutput( 8192, serverSide );
+        MessageFormat.Writer writer = new PackStreamMessageFormatV1.Writer( output, output.messageBoundaryHook() );
+        writer.write( new SuccessMessage( new HashMap<String,Value>() ) );
+        writer.write( new SuccessMessage( new HashMap<String,Value>() ) );
+        writer.flush();
+        connection.sync();
+        builder.build();
+
+        // Then the statement that was sent has been timed as written
+        assertThat( timed, equalTo( asList( "RETURN 1 AS n" ) ) );
+        assertTrue( queueTimes.get( 0 ) > 0 );
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.ResultBuilder;
+import org.neo4j.driver.internal.messaging.Message;
+import org.neo4j.driver.internal.messaging.MessageFormat;
+import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.messaging.RecordMessage;
+import org.neo4j.driver.internal.messaging.SuccessMessage;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.driver.Values.value;
+
+public class SocketEventLoopTest
+{
+    private final MessageFormat format = new PackStreamMessageFormatV1();
+
+    private ServerSocketChannel server;
+    private SocketChannel client;
+    private SocketChannel serverSide;
+    private MessageFormat.Reader reader;
+    private final SocketEventLoop eventLoop = new SocketEventLoop();
+    private SocketEventLoop.Receiver receiver;
+
+    @Before
+    public void setup() throws Throwable
+    {
+        server = ServerSocketChannel.open();
+        server.bind( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ) );
+        client = SocketChannel.open( server.getLocalAddress() );
+        serverSide = server.accept();
+
+        ChunkedInput input = new ChunkedInput( new AllOrNothingChannel( client ) );
+        reader = new PackStreamMessageFormatV1.Reader( input, input.messageBoundaryHook() );
+        receiver = eventLoop.receiver( client, input, reader );
+    }
+
+    @After
+    public void teardown() throws Throwable
+    {
+        eventLoop.shutdown();
+        client.close();
+        serverSide.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldReceiveResponsesArrivingInPieces() throws Throwable
+    {
+        // Given
+        SocketResponseHandler handler = new SocketResponseHandler();
+        ResultBuilder builder = new ResultBuilder();
+        handler.appendResultCollector( builder );
+        handler.appendResultCollector( builder );
+
+        byte[] responses = encode(
+                new SuccessMessage( fields( "n" ) ),
+                new RecordMessage( new Value[]{value( 1 )} ),
+                new RecordMessage( new Value[]{value( 2 )} ),
+                new SuccessMessage( new HashMap<String,Value>() ) );
+
+        // When
+        Future<Void> received = receiver.receive( handler, SocketEventLoop.ALL_MESSAGES );
+        for ( byte b : responses )
+        {
+            serverSide.write( ByteBuffer.wrap( new byte[]{b} ) );
+        }
+        received.get( 10, TimeUnit.SECONDS );
+
+        // Then
+        Result result = builder.build();
+        assertTrue( result.next() );
+        assertThat( result.get( "n" ).javaInteger(), equalTo( 1 ) );
+        assertTrue( result.next() );
+        assertThat( result.get( "n" ).javaInteger(), equalTo( 2 ) );
+        assertFalse( result.next() );
+        assertThat( handler.collectorsWaiting(), equalTo( 0 ) );
+        assertTrue( client.isBlocking() );
+    }
+
+    @Test
+    public void shouldGrowBufferForLargeMessages() throws Throwable
+    {
+        // Given
+        SocketResponseHandler handler = new SocketResponseHandler();
+        ResultBuilder builder = new ResultBuilder();
+        handler.appendResultCollector( builder );
+
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            text.append( 'a' );
+        }
+        byte[] responses = encode(
+                new RecordMessage( new Value[]{value( text.toString() )} ),
+                new SuccessMessage( new HashMap<String,Value>() ) );
+
+        // When
+        Future<Void> received = receiver.receive( handler, SocketEventLoop.ALL_MESSAGES );
+        serverSide.write( ByteBuffer.wrap( responses ) );
+        received.get( 10, TimeUnit.SECONDS );
+
+        // Then
+        Result result = builder.build();
+        assertTrue( result.next() );
+        assertThat( result.get( 0 ).javaString(), equalTo( text.toString() ) );
+    }
+
+    @Test
+    public void shouldLeaveMessagesBeyondBudgetUnread() throws Throwable
+    {
+        // Given
+        SocketResponseHandler handler = new SocketResponseHandler();
+        ResultBuilder builder = new ResultBuilder();
+        handler.appendResultCollector( builder );
+
+        byte[] first = encode( new RecordMessage( new Value[]{value( 1 )} ) );
+        byte[] rest = encode( new RecordMessage( new Value[]{value( 2 )} ),
+                new SuccessMessage( new HashMap<String,Value>() ) );
+        serverSide.write( ByteBuffer.wrap( first ) );
+        serverSide.write( ByteBuffer.wrap( rest ) );
+
+        // When
+        receiver.receive( handler, 1 ).get( 10, TimeUnit.SECONDS );
+
+        // Then the first record was received
+        Result result = builder.build();
+        assertTrue( result.next() );
+        assertThat( result.get( 0 ).javaInteger(), equalTo( 1 ) );
+        assertFalse( result.next() );
+
+        // And the rest is still waiting in the socket
+        ByteBuffer unread = ByteBuffer.allocate( rest.length );
+        while ( unread.hasRemaining() )
+        {
+            client.read( unread );
+        }
+        assertThat( unread.array(), equalTo( rest ) );
+    }
+
+    @Test
+    public void shouldFailWhenConnectionIsClosedMidResponse() throws Throwable
+    {
+        // Given
+        SocketResponseHandler handler = new SocketResponseHandler();
+        handler.appendResultCollector( new ResultBuilder() );
+
+        // When
+        Future<Void> received = receiver.receive( handler, SocketEventLoop.ALL_MESSAGES );
+        serverSide.close();
+
+        // Then
+        try
+        {
+            received.get( 10, TimeUnit.SECONDS );
+            fail( "Should have failed" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertThat( e.getCause(), instanceOf( ClientException.class ) );
+        }
+    }
+
+    @Test
+    public void shouldFailReceivesInProgressWhenShutDown() throws Throwable
+    {
+        // Given
+        SocketResponseHandler handler = new SocketResponseHandler();
+        handler.appendResultCollector( new ResultBuilder() );
+        Future<Void> received = receiver.receive( handler, SocketEventLoop.ALL_MESSAGES );
+
+        // When
+        eventLoop.shutdown();
+
+        // Then
+        try
+        {
+            received.get( 10, TimeUnit.SECONDS );
+            fail( "Should have failed" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertThat( e.getCause(), instanceOf( ClientException.class ) );
+        }
+    }
+
+    @Test
+    public void shouldReceiveMessagesReadAheadByEarlierReceives() throws Throwable
+    {
+        // Given both responses arrive before the second request is made
+        SocketResponseHandler handler = new SocketResponseHandler();
+        ResultBuilder first = new ResultBuilder();
+        handler.appendResultCollector( first );
+        serverSide.write( ByteBuffer.wrap( encode(
+                new RecordMessage( new Value[]{value( 1 )} ),
+                new SuccessMessage( new HashMap<String,Value>() ),
+                new RecordMessage( new Value[]{value( 2 )} ),
+                new SuccessMessage( new HashMap<String,Value>() ) ) ) );
+        receiver.receive( handler, SocketEventLoop.ALL_MESSAGES ).get( 10, TimeUnit.SECONDS );
+
+        // When
+        ResultBuilder second = new ResultBuilder();
+        handler.appendResultCollector( second );
+        receiver.receive( handler, SocketEventLoop.ALL_MESSAGES ).get( 10, TimeUnit.SECONDS );
+
+        // Then
+        Result result = second.build();
+        assertTrue( result.next() );
+        assertThat( result.get( 0 ).javaInteger(), equalTo( 2 ) );
+        assertFalse( result.next() );
+        assertTrue( client.isBlocking() );
+    }
+
+    @Test
+    public void shouldLetBlockingReadsCarryOnWhereReceivesStopped() throws Throwable
+    {
+        // Given
+        SocketResponseHandler handler = new SocketResponseHandler();
+        ResultBuilder builder = new ResultBuilder();
+        handler.appendResultCollector( builder );
+        serverSide.write( ByteBuffer.wrap( encode(
+                new RecordMessage( new Value[]{value( 1 )} ),
+                new RecordMessage( new Value[]{value( 2 )} ),
+                new SuccessMessage( new HashMap<String,Value>() ) ) ) );
+
+        // When
+        receiver.receive( handler, 1 ).get( 10, TimeUnit.SECONDS );
+        while ( handler.collectorsWaiting() > 0 )
+        {
+            reader.read( handler );
+        }
+
+        // Then
+        Result result = builder.build();
+        assertTrue( result.next() );
+        assertThat( result.get( 0 ).javaInteger(), equalTo( 1 ) );
+        assertTrue( result.next() );
+        assertThat( result.get( 0 ).javaInteger(), equalTo( 2 ) );
+        assertFalse( result.next() );
+    }
+
+    private byte[] encode( Message... messages ) throws Throwable
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MessageFormat.Writer writer = format.newWriter( Channels.newChannel( out ) );
+        for ( Message message : messages )
+        {
+            writer.write( message );
+        }
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static HashMap<String,Value> fields( String... names )
+    {
+        HashMap<String,Value> meta = new HashMap<>();
+        meta.put( "fields", value( names ) );
+        return meta;
+    }
+}
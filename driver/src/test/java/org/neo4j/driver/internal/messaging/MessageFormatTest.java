@@ -21,6 +21,7 @@ package org.neo4j.driver.internal.messaging;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -29,20 +30,35 @@ import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.neo4j.driver.ParameterEncoder;
 import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.RecordFields;
 import org.neo4j.driver.internal.SimpleNode;
 import org.neo4j.driver.internal.SimplePath;
 import org.neo4j.driver.internal.SimpleRelationship;
 import org.neo4j.driver.internal.connector.socket.ChunkedOutput;
 import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.internal.util.BytePrinter;
+import org.neo4j.driver.internal.value.DoubleListValue;
+import org.neo4j.driver.internal.value.LongListValue;
 import org.neo4j.driver.util.DumpMessage;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
 import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.neo4j.driver.Values.parameters;
 import static org.neo4j.driver.Values.value;
 
@@ -96,6 +112,43 @@ public class MessageFormatTest
                         new SimpleNode( 1 )
                 ) ) );
         assertSerializesValue( value( new SimplePath( new SimpleNode( 1 ) ) ) );
+        assertSerializesValue( value( new byte[]{1, 2, (byte) 0xFF} ) );
+        assertSerializesValue( value( new byte[300] ) );
+        assertSerializesValue( value( asList( new byte[0], parameters( "b", new byte[]{3} ) ) ) );
+    }
+
+    @Test
+    public void shouldUnpackAllValuesLazily() throws Throwable
+    {
+        format = new PackStreamMessageFormatV1( true );
+        shouldUnpackAllValues();
+        assertSerializesValue( value( asList( parameters( "k", asList( 1, 2 ) ), value( 3 ) ) ) );
+    }
+
+    @Test
+    public void shouldUnpackNumberListsIntoPrimitiveArrays() throws Throwable
+    {
+        // Given
+        byte[] bytes = write( new RecordMessage( new Value[]{
+                value( new long[]{1, 1000, -1L << 40} ), value( new double[]{0.5, -2.0} ),
+                value( asList( 1, 2.0 ) ), value( asList( 1.0, 2 ) ), value( new long[0] )} ) );
+        MessageHandler handler = mock( MessageHandler.class );
+        when( handler.wantsRecords() ).thenReturn( true );
+
+        // When
+        format.newReader( Channels.newChannel( new ByteArrayInputStream( bytes ) ) ).read( handler );
+
+        // Then
+        ArgumentCaptor<RecordFields> captor = ArgumentCaptor.forClass( RecordFields.class );
+        verify( handler ).handleRecordMessage( captor.capture() );
+        RecordFields fields = captor.getValue();
+        assertThat( fields.get( 0 ), instanceOf( LongListValue.class ) );
+        assertArrayEquals( new long[]{1, 1000, -1L << 40}, fields.get( 0 ).asLongArray() );
+        assertThat( fields.get( 1 ), instanceOf( DoubleListValue.class ) );
+        assertArrayEquals( new double[]{0.5, -2.0}, fields.get( 1 ).asDoubleArray(), 0 );
+        assertThat( fields.get( 2 ), equalTo( value( asList( 1, 2.0 ) ) ) );
+        assertThat( fields.get( 3 ), equalTo( value( asList( 1.0, 2 ) ) ) );
+        assertThat( fields.get( 4 ).size(), equalTo( 0L ) );
     }
 
     @Test
@@ -121,6 +174,153 @@ public class MessageFormatTest
         unpack( format, out.toByteArray() );
     }
 
+    @Test
+    public void shouldKeepLastValueOfDuplicateMapKeys() throws Throwable
+    {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream( 128 );
+        WritableByteChannel writable = Channels.newChannel( out );
+        ChunkedOutput output = new ChunkedOutput( writable );
+        PackStream.Packer packer = new PackStream.Packer( output );
+
+        packer.packStructHeader( 1, PackStreamMessageFormatV1.MSG_RECORD );
+        packer.packListHeader( 1 );
+        packer.packMapHeader( 2 );
+        packer.pack( "a" );
+        packer.pack( 1 );
+        packer.pack( "a" );
+        packer.pack( 2 );
+        output.messageBoundaryHook().run();
+        packer.flush();
+
+        // When
+        ArrayList<Message> messages = unpack( format, out.toByteArray() );
+
+        // Then
+        assertThat( messages, equalTo( asList( (Message) new RecordMessage(
+                new Value[]{value( parameters( "a", 2 ) )} ) ) ) );
+    }
+
+    @Test
+    public void shouldSkipRecordsTheHandlerDoesNotWant() throws Throwable
+    {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream( 128 );
+        MessageFormat.Writer writer = format.newWriter( Channels.newChannel( out ) );
+        writer.write( new RecordMessage( new Value[]{value( asList( "a", 1, parameters( "k", 2.0 ) ) ), value( 3 )} ) );
+        writer.write( new SuccessMessage( new HashMap<String,Value>() ) );
+        writer.flush();
+
+        MessageHandler handler = mock( MessageHandler.class );
+        when( handler.wantsRecords() ).thenReturn( false );
+        MessageFormat.Reader reader = format.newReader(
+                Channels.newChannel( new ByteArrayInputStream( out.toByteArray() ) ) );
+
+        // When
+        reader.read( handler );
+        reader.read( handler );
+
+        // Then
+        verify( handler, never() ).handleRecordMessage( any( RecordFields.class ) );
+        verify( handler ).handleSuccessMessage( new HashMap<String,Value>() );
+    }
+
+    @Test
+    public void shouldPackDirectValuesLikeTheValuesTheyConvertTo() throws Throwable
+    {
+        // Given
+        Map<String,Object> map = new HashMap<>();
+        map.put( "k", asList( 1, 2.5, "three" ) );
+        map.put( "nested", parameters( "a", 1 ) );
+        Object[] objects = {null, true, (byte) 1, (short) -200, 70000, 1L << 40, 1.5f, 2.5, 'c', "text",
+                new long[]{1, 2}, new int[]{3}, new short[]{4}, new double[]{5.5}, new float[]{6.5f},
+                new boolean[]{true}, new char[]{'a', 'b'}, new String[]{"x"}, asList( 1, null ), map};
+
+        for ( Object object : objects )
+        {
+            // When
+            ArrayList<Message> messages = unpack( format,
+                    write( new RunMessage( "RETURN {p}", Values.directParameters( "p", object ) ) ) );
+
+            // Then
+            assertThat( messages, equalTo( asList(
+                    (Message) new RunMessage( "RETURN {p}", parameters( "p", object ) ) ) ) );
+        }
+    }
+
+    @Test
+    public void shouldPackDirectValuesWithRegisteredEncoders() throws Throwable
+    {
+        // Given
+        Map<Class<?>,ParameterEncoder<?>> registered = new LinkedHashMap<>();
+        registered.put( Point.class, new ParameterEncoder<Point>()
+        {
+            @Override
+            public Object encode( Point value )
+            {
+                return new double[]{value.x, value.y};
+            }
+        } );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChunkedOutput output = new ChunkedOutput( Channels.newChannel( out ) );
+        MessageFormat.Writer writer = new PackStreamMessageFormatV1.Writer(
+                output, output.messageBoundaryHook(), new ParameterEncoders( registered ) );
+
+        // When
+        writer.write( new RunMessage( "RETURN {p}",
+                Values.directParameters( "p", asList( new Point( 1, 2 ), new Point( 3, 4 ) {}, 5 ) ) ) );
+        writer.flush();
+        ArrayList<Message> messages = unpack( format, out.toByteArray() );
+
+        // Then
+        assertThat( messages, equalTo( asList( (Message) new RunMessage( "RETURN {p}", parameters( "p",
+                asList( new double[]{1, 2}, new double[]{3, 4}, 5 ) ) ) ) ) );
+    }
+
+    @Test
+    public void shouldRejectEncodersReturningWhatTheyEncode() throws Throwable
+    {
+        // Given
+        Map<Class<?>,ParameterEncoder<?>> registered = new LinkedHashMap<>();
+        registered.put( Point.class, new ParameterEncoder<Point>()
+        {
+            @Override
+            public Object encode( Point value )
+            {
+                return new Point( value.y, value.x );
+            }
+        } );
+        ChunkedOutput output = new ChunkedOutput( Channels.newChannel( new ByteArrayOutputStream() ) );
+        MessageFormat.Writer writer = new PackStreamMessageFormatV1.Writer(
+                output, output.messageBoundaryHook(), new ParameterEncoders( registered ) );
+
+        // Expect
+        exception.expect( ClientException.class );
+        exception.expectMessage( "which it encodes itself" );
+
+        // When
+        writer.write( new RunMessage( "RETURN {p}", Values.directParameters( "p", new Point( 1, 2 ) ) ) );
+    }
+
+    private static class Point
+    {
+        private final double x;
+        private final double y;
+
+        Point( double x, double y )
+        {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private byte[] write( Message message ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( 128 );
+        format.newWriter( Channels.newChannel( out ) ).write( message ).flush();
+        return out.toByteArray();
+    }
+
     private void assertSerializesValue( Value value ) throws IOException
     {
         assertSerializes( new RecordMessage( new Value[]{value} ) );
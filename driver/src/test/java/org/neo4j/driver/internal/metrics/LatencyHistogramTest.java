@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void shouldCountSmallValuesExactly() throws Throwable
+    {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for ( int i = 1; i <= 10; i++ )
+        {
+            histogram.record( i );
+        }
+
+        // Then
+        assertThat( histogram.count(), equalTo( 10L ) );
+        assertThat( histogram.valueAtPercentile( 50 ), equalTo( 5L ) );
+        assertThat( histogram.valueAtPercentile( 100 ), equalTo( 10L ) );
+        assertThat( histogram.max(), equalTo( 10L ) );
+        assertThat( histogram.mean(), equalTo( 5.5 ) );
+    }
+
+    @Test
+    public void shouldReportLargeValuesWithinPrecision() throws Throwable
+    {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for ( long value = 1000; value <= 1000000; value += 1000 )
+        {
+            histogram.record( value );
+        }
+
+        // Then
+        assertWithinPrecision( histogram.valueAtPercentile( 50 ), 500000 );
+        assertWithinPrecision( histogram.valueAtPercentile( 99 ), 990000 );
+        assertThat( histogram.valueAtPercentile( 100 ), equalTo( 1000000L ) );
+    }
+
+    @Test
+    public void shouldPlaceEveryValueInABucketThatHoldsIt() throws Throwable
+    {
+        for ( long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1 )
+        {
+            int index = LatencyHistogram.indexOf( value );
+            assertThat( LatencyHistogram.highestValueAt( index ), greaterThanOrEqualTo( value ) );
+            assertThat( LatencyHistogram.highestValueAt( index - 1 ), lessThanOrEqualTo( value - 1 ) );
+        }
+        assertThat( LatencyHistogram.highestValueAt( LatencyHistogram.indexOf( Long.MAX_VALUE ) ),
+                equalTo( Long.MAX_VALUE ) );
+    }
+
+    @Test
+    public void shouldReportZeroWhenEmpty() throws Throwable
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat( histogram.count(), equalTo( 0L ) );
+        assertThat( histogram.valueAtPercentile( 99 ), equalTo( 0L ) );
+    }
+
+    private static void assertWithinPrecision( long actual, long expected )
+    {
+        assertThat( actual, greaterThanOrEqualTo( expected ) );
+        assertThat( actual, lessThanOrEqualTo( expected + expected / 16 ) );
+    }
+}
@@ -39,6 +39,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -366,6 +368,240 @@ public class PackStreamTest
 
     }
 
+    @Test
+    public void testCanUnpackMixedAsciiAndNonAsciiStringsOneAfterAnother() throws Throwable
+    {
+        // Given strings that are ASCII and not, short and longer than the unpacker's scratch buffer
+        StringBuilder longAscii = new StringBuilder();
+        StringBuilder longNonAscii = new StringBuilder();
+        for ( int i = 0; i < 20000; i++ )
+        {
+            longAscii.append( (char) ('a' + i % 26) );
+            longNonAscii.append( i % 2 == 0 ? "\u00e5" : "\u4e2d" );
+        }
+        String[] strings = {"Hello", "Gr\u00fc\u00dfe", "\uD83D\uDE00 emoji", longAscii.toString(), "a",
+                longNonAscii.toString(), "\u007f\u0000", "tail"};
+
+        Machine machine = new Machine( 1000000 );
+        for ( String string : strings )
+        {
+            machine.packer().pack( string );
+        }
+        machine.packer().flush();
+
+        // When
+        PackStream.Unpacker unpacker = newUnpacker( machine.output() );
+        String[] unpacked = new String[strings.length];
+        for ( int i = 0; i < strings.length; i++ )
+        {
+            unpacked[i] = unpacker.unpackString();
+        }
+
+        // Then
+        assertArrayEquals( strings, unpacked );
+    }
+
+    @Test
+    public void testCanCopyValuesWithoutDecodingThem() throws Throwable
+    {
+        // Given values of every type, in every size class, one after another
+        StringBuilder longString = new StringBuilder();
+        Map<String,Object> wideMap = new LinkedHashMap<>();
+        Object[] longList = new Object[20];
+        for ( int i = 0; i < 70000; i++ )
+        {
+            longString.append( (char) ('a' + i % 26) );
+        }
+        for ( int i = 0; i < 20; i++ )
+        {
+            wideMap.put( "key" + i, i * 1000 );
+            longList[i] = "item" + i;
+        }
+
+        Machine machine = new Machine( 100000 );
+        PackStream.Packer packer = machine.packer();
+        packer.packNull();
+        packer.pack( true );
+        packer.pack( 7 );
+        packer.pack( -100 );
+        packer.pack( 1000 );
+        packer.pack( 100000 );
+        packer.pack( 1L << 40 );
+        packer.pack( 1.5 );
+        packer.pack( "tiny" );
+        packer.pack( longString.substring( 0, 20 ) );
+        packer.pack( longString.substring( 0, 300 ) );
+        packer.pack( longString.toString() );
+        packer.pack( new byte[]{1, 2, 3} );
+        packer.pack( asList( 1, "two", asList( 3.0, null ) ) );
+        packer.pack( asList( longList ) );
+        packer.pack( wideMap );
+        packer.packStructHeader( 2, (byte) 'N' );
+        packer.pack( 1 );
+        packer.pack( asList( "Person" ) );
+        packer.packStructHeader( 20, (byte) 'X' );
+        for ( int i = 0; i < 20; i++ )
+        {
+            packer.pack( i );
+        }
+        packer.flush();
+        byte[] packed = machine.output();
+
+        // When
+        PackStream.Unpacker unpacker = newUnpacker( packed );
+        ByteArrayOutput copy = new ByteArrayOutput( 16 );
+        for ( int i = 0; i < 18; i++ )
+        {
+            unpacker.copyValue( copy );
+        }
+
+        // Then
+        assertArrayEquals( packed, copy.toByteArray() );
+    }
+
+    @Test
+    public void testCanSkipValuesWithoutDecodingThem() throws Throwable
+    {
+        // Given
+        StringBuilder longString = new StringBuilder();
+        for ( int i = 0; i < 70000; i++ )
+        {
+            longString.append( (char) ('a' + i % 26) );
+        }
+
+        Machine machine = new Machine( 100000 );
+        PackStream.Packer packer = machine.packer();
+        packer.pack( longString.toString() );
+        packer.pack( asList( 1, "two", asList( 3.0, null ), new byte[]{4} ) );
+        packer.pack( asMap( "k", asList( 1L << 40, true ) ) );
+        packer.packStructHeader( 2, (byte) 'N' );
+        packer.pack( 1 );
+        packer.pack( asList( "Person" ) );
+        packer.pack( "after" );
+        packer.flush();
+
+        // When
+        PackStream.Unpacker unpacker = newUnpacker( machine.output() );
+        for ( int i = 0; i < 4; i++ )
+        {
+            unpacker.skip();
+        }
+
+        // Then
+        assertEquals( "after", unpacker.unpackString() );
+        assertFalse( unpacker.hasNext() );
+    }
+
+    @Test
+    public void testStringsAreEncodedTheWayJavaEncodesThem() throws Throwable
+    {
+        StringBuilder longString = new StringBuilder();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            longString.append( (char) ('a' + i % 26) ).append( i % 100 == 0 ? "\u00e9" : "" );
+        }
+        String[] strings = {"", "ascii", "Gr\u00f6\u00dfe", "\u4e2d\u6587", "\uD83D\uDE00 smile", "lone \uD83D",
+                "\uDE00 lone", "\u007F\u0080\u07FF\u0800\uFFFF", longString.substring( 0, 1000 ),
+                longString.toString()};
+        for ( String string : strings )
+        {
+            // Given
+            Machine machine = new Machine();
+            PackStream.Packer packer = machine.packer();
+
+            // When
+            packer.pack( string );
+            packer.flush();
+
+            // Then
+            Machine expected = new Machine();
+            expected.packer().packText( string.getBytes( UTF_8 ) );
+            expected.packer().flush();
+            assertArrayEquals( expected.output(), machine.output() );
+        }
+    }
+
+    @Test
+    public void testMarkerTypesMatchPeekedTypes() throws Throwable
+    {
+        for ( int i = 0; i < 256; i++ )
+        {
+            // Given
+            byte marker = (byte) i;
+
+            // When
+            PackStream.Unpacker unpacker = newUnpacker( new byte[]{marker} );
+
+            // Then
+            assertEquals( unpacker.peekNextType(), PackStream.Unpacker.typeOf( marker ) );
+        }
+    }
+
+    @Test
+    public void testCanUnpackValuesFromAlreadyReadMarkers() throws Throwable
+    {
+        // Given
+        Machine machine = new Machine();
+        PackStream.Packer packer = machine.packer();
+        packer.pack( 1L << 40 );
+        packer.pack( 2.5 );
+        packer.pack( "text" );
+        packer.pack( true );
+        packer.packListHeader( 3 );
+        packer.packMapHeader( 1 );
+        packer.packStructHeader( 2, (byte) 'N' );
+        packer.flush();
+
+        // When
+        PackStream.Unpacker unpacker = newUnpacker( machine.output() );
+
+        // Then
+        assertEquals( 1L << 40, unpacker.unpackLong( unpacker.unpackMarker() ) );
+        assertEquals( 2.5, unpacker.unpackDouble( unpacker.unpackMarker() ), 0.0 );
+        assertEquals( "text", unpacker.unpackString( unpacker.unpackMarker() ) );
+        assertTrue( unpacker.unpackBoolean( unpacker.unpackMarker() ) );
+        assertEquals( 3, unpacker.unpackListHeader( unpacker.unpackMarker() ) );
+        assertEquals( 1, unpacker.unpackMapHeader( unpacker.unpackMarker() ) );
+        assertEquals( 2, unpacker.unpackStructHeader( unpacker.unpackMarker() ) );
+        assertEquals( 'N', unpacker.unpackStructSignature() );
+        assertFalse( unpacker.hasNext() );
+    }
+
+    @Test
+    public void testRepeatedStringsAreUnpackedToTheSameInstance() throws Throwable
+    {
+        // Given
+        StringBuilder longKey = new StringBuilder();
+        for ( int i = 0; i < 100; i++ )
+        {
+            longKey.append( 'k' );
+        }
+        String[] strings = {"name", "Person", "näme", longKey.toString(), "name", "Person", "näme",
+                longKey.toString(), ""};
+
+        Machine machine = new Machine();
+        for ( String string : strings )
+        {
+            machine.packer().pack( string );
+        }
+        machine.packer().flush();
+
+        // When
+        PackStream.Unpacker unpacker = newUnpacker( machine.output() );
+        String[] unpacked = new String[strings.length];
+        for ( int i = 0; i < strings.length; i++ )
+        {
+            unpacked[i] = unpacker.unpackRepeatedString();
+        }
+
+        // Then
+        assertArrayEquals( strings, unpacked );
+        assertSame( unpacked[0], unpacked[4] );
+        assertSame( unpacked[1], unpacked[5] );
+        assertSame( unpacked[2], unpacked[6] );
+        assertNotSame( unpacked[3], unpacked[7] );
+    }
+
     @Test
     public void testCanPackAndUnpackBytes() throws Throwable
     {
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StringDictionaryTest
+{
+    @Test
+    public void shouldReturnSameInstanceForSameBytes() throws Throwable
+    {
+        // Given
+        StringDictionary dictionary = new StringDictionary();
+        byte[] buffer = new byte[16];
+
+        // When
+        String first = intern( dictionary, buffer, "KNOWS" );
+        String second = intern( dictionary, buffer, "KNOWS" );
+
+        // Then
+        assertThat( first, equalTo( "KNOWS" ) );
+        assertThat( second, sameInstance( first ) );
+    }
+
+    @Test
+    public void shouldOnlyConsiderTheGivenNumberOfBytes() throws Throwable
+    {
+        // Given
+        StringDictionary dictionary = new StringDictionary();
+        byte[] buffer = new byte[16];
+        intern( dictionary, buffer, "since" );
+
+        // When
+        String shorter = intern( dictionary, buffer, "sin" );
+
+        // Then
+        assertThat( shorter, equalTo( "sin" ) );
+    }
+
+    @Test
+    public void shouldReplaceCollidingEntries() throws Throwable
+    {
+        // Given a dictionary with a single slot, so every key collides
+        StringDictionary dictionary = new StringDictionary( 1 );
+        byte[] buffer = new byte[16];
+        String name = intern( dictionary, buffer, "name" );
+
+        // When
+        String age = intern( dictionary, buffer, "age" );
+        String nameAgain = intern( dictionary, buffer, "name" );
+
+        // Then
+        assertThat( age, equalTo( "age" ) );
+        assertThat( nameAgain, equalTo( "name" ) );
+        assertThat( nameAgain, not( sameInstance( name ) ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldRequirePowerOfTwoSlots() throws Throwable
+    {
+        new StringDictionary( 100 );
+    }
+
+    private static String intern( StringDictionary dictionary, byte[] buffer, String string )
+    {
+        byte[] utf8 = string.getBytes( UTF_8 );
+        System.arraycopy( utf8, 0, buffer, 0, utf8.length );
+        return dictionary.intern( buffer, utf8.length );
+    }
+}
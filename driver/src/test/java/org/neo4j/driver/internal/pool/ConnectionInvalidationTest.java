@@ -34,6 +34,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ConnectionInvalidationTest
@@ -48,9 +50,33 @@ public class ConnectionInvalidationTest
         doThrow(new ClientException( "That didn't work" )).when( delegate ).sync();
 
         // When/Then
-        assertTrue( new PooledConnectionValidator( 10 ).isValid( conn, 1 ) );
-        assertFalse(new PooledConnectionValidator( 10 ).isValid( conn, 100 ));
-        assertFalse(new PooledConnectionValidator( 10 ).isValid( conn, 10 ));
+        PooledConnectionMaintenance maintenance = new PooledConnectionMaintenance( 10, 0, 0, 0 );
+        assertTrue( maintenance.keep( conn, 1, 1, 1 ) );
+        assertFalse( maintenance.keep( conn, 100, 100, 100 ) );
+        assertFalse( maintenance.keep( conn, 100, 11, 100 ) );
+    }
+
+    @Test
+    public void shouldNotTestConnectionOnAcquire() throws Throwable
+    {
+        // Given a connection that's broken
+        doThrow( new ClientException( "That didn't work" ) ).when( delegate ).sync();
+
+        // When/Then
+        assertTrue( new PooledConnectionValidator().isValid( conn, 100 ) );
+        verify( delegate, never() ).sync();
+    }
+
+    @Test
+    public void shouldRetireConnectionsIdleOrAliveForTooLong() throws Throwable
+    {
+        // Given
+        PooledConnectionMaintenance maintenance = new PooledConnectionMaintenance( 1000, 100, 500, 0 );
+
+        // When/Then
+        assertTrue( maintenance.keep( conn, 50, 50, 400 ) );
+        assertFalse( maintenance.keep( conn, 101, 101, 400 ) );
+        assertFalse( maintenance.keep( conn, 50, 50, 501 ) );
     }
 
     @Test
@@ -85,7 +111,7 @@ public class ConnectionInvalidationTest
 
         // Then
         assertTrue( conn.hasUnrecoverableErrors() );
-        assertFalse( new PooledConnectionValidator( 100 ).isValid( conn, 1 ) );
+        assertFalse( new PooledConnectionValidator().isValid( conn, 1 ) );
     }
 
     private void assertRecoverable( Neo4jException exception )
@@ -105,6 +131,6 @@ public class ConnectionInvalidationTest
 
         // Then
         assertFalse( conn.hasUnrecoverableErrors() );
-        assertTrue( new PooledConnectionValidator( 100 ).isValid( conn, 1 ) );
+        assertTrue( new PooledConnectionValidator().isValid( conn, 1 ) );
     }
 }
@@ -23,6 +23,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.driver.Config;
 import org.neo4j.driver.exceptions.ClientException;
@@ -86,6 +87,42 @@ public class StandardConnectionPoolTest
         verify( connector, times( 1 ) ).connect( uri, config );
     }
 
+    @Test
+    public void shouldWarmUpConnectionsUpFront() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.defaultConfig();
+        StandardConnectionPool pool = new StandardConnectionPool( asList( connector ),
+                Clock.SYSTEM, config );
+
+        // When
+        pool.warmUp( uri, 3 ).get( 10, TimeUnit.SECONDS );
+        pool.warmUp( uri, 3 ).get( 10, TimeUnit.SECONDS );
+        pool.acquire( uri );
+
+        // Then
+        verify( connector, times( 3 ) ).connect( uri, config );
+    }
+
+    @Test
+    public void shouldNotWarmUpBeyondPoolSize() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withConnectionPoolSize( 2 ).toConfig();
+        StandardConnectionPool pool = new StandardConnectionPool( asList( connector ),
+                Clock.SYSTEM, config );
+
+        // When
+        pool.warmUp( uri, 5 ).get( 10, TimeUnit.SECONDS );
+
+        // Then
+        verify( connector, times( 2 ) ).connect( uri, config );
+    }
+
     private Connector connector( String scheme )
     {
         Connector mock = mock( Connector.class );
@@ -23,19 +23,25 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.driver.exceptions.ClientException;
+import org.neo4j.driver.internal.metrics.ConnectionPoolStatistics;
+import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.Consumer;
 
 import static junit.framework.TestCase.fail;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertNull;
 import static org.neo4j.driver.internal.util.Clock.SYSTEM;
 
@@ -122,6 +128,262 @@ public class ThreadCachingPoolTest
         assertNull( val );
     }
 
+    @Test
+    public void shouldHandReleasedValuesToWaitersInArrivalOrder() throws Throwable
+    {
+        // Given
+        final ThreadCachingPool<PooledObject>
+                pool = new ThreadCachingPool<>( 1, trackAllocator, checkInvalidateFlag, SYSTEM );
+        PooledObject value = pool.acquire( 10, TimeUnit.SECONDS );
+
+        final List<String> acquiredBy = Collections.synchronizedList( new LinkedList<String>() );
+        Thread first = waitFor( pool, "first", acquiredBy );
+        Thread second = waitFor( pool, "second", acquiredBy );
+
+        // When
+        value.release();
+        first.join( 10_000 );
+        second.join( 10_000 );
+
+        // Then
+        assertThat( acquiredBy, equalTo( Arrays.asList( "first", "second" ) ) );
+    }
+
+    @Test
+    public void shouldWakeUpWaitersOnClose() throws Throwable
+    {
+        // Given
+        final ThreadCachingPool<PooledObject>
+                pool = new ThreadCachingPool<>( 1, trackAllocator, checkInvalidateFlag, SYSTEM );
+        pool.acquire( 10, TimeUnit.SECONDS );
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    pool.acquire( 1, TimeUnit.MINUTES );
+                }
+                catch ( Throwable e )
+                {
+                    failure.set( e );
+                }
+            }
+        };
+        waiter.start();
+        awaitParked( waiter );
+
+        // When
+        pool.close();
+        waiter.join( 10_000 );
+
+        // Then
+        assertThat( failure.get(), instanceOf( IllegalStateException.class ) );
+    }
+
+    @Test
+    public void shouldDisposeOfIdleValuesMaintenanceRejects() throws Throwable
+    {
+        // Given
+        ThreadCachingPool<PooledObject>
+                pool = new ThreadCachingPool<>( 4, trackAllocator, checkInvalidateFlag, SYSTEM );
+        PooledObject o1 = pool.acquire( 10, TimeUnit.SECONDS );
+        PooledObject o2 = pool.acquire( 10, TimeUnit.SECONDS );
+        PooledObject o3 = pool.acquire( 10, TimeUnit.SECONDS );
+        o1.release();
+        o2.release();
+
+        // When
+        pool.maintain( keepUnlessIdIs( o1.id, 0 ) );
+
+        // Then o1 is gone, o2 is still there, and o3 was left alone since it is in use
+        assertThat( disposed, equalTo( items( o1 ) ) );
+        assertThat( inPool, equalTo( items( o2 ) ) );
+        assertThat( inUse, equalTo( items( o3 ) ) );
+    }
+
+    @Test
+    public void shouldAllocateValuesUpToMinIdle() throws Throwable
+    {
+        // Given
+        ThreadCachingPool<PooledObject>
+                pool = new ThreadCachingPool<>( 4, trackAllocator, checkInvalidateFlag, SYSTEM );
+        PooledObject inUse = pool.acquire( 10, TimeUnit.SECONDS );
+
+        // When
+        pool.maintain( keepUnlessIdIs( -1, 2 ) );
+
+        // Then
+        assertThat( inPool.size(), equalTo( 2 ) );
+
+        // And when asking for more than there is room for
+        pool.maintain( keepUnlessIdIs( -1, 10 ) );
+
+        // Then the pool stops at its max size
+        assertThat( inPool.size(), equalTo( 3 ) );
+        assertThat( this.inUse, equalTo( items( inUse ) ) );
+    }
+
+    @Test
+    public void shouldStopMaintenanceAtTheDeadlineAndCarryOnFromThereNextTime() throws Throwable
+    {
+        // Given a clock that moves 10ms every time a value is checked
+        final AtomicInteger time = new AtomicInteger();
+        Clock clock = new Clock()
+        {
+            @Override
+            public long millis()
+            {
+                return time.get();
+            }
+        };
+        final List<Integer> checked = new LinkedList<>();
+        MaintenanceStrategy<PooledObject> slowCheck = new MaintenanceStrategy<PooledObject>()
+        {
+            @Override
+            public boolean keep( PooledObject value, long idleTime, long uncheckedTime, long age )
+            {
+                checked.add( value.id );
+                time.addAndGet( 10 );
+                return true;
+            }
+
+            @Override
+            public int minIdle()
+            {
+                return 4;
+            }
+        };
+        ThreadCachingPool<PooledObject>
+                pool = new ThreadCachingPool<>( 4, trackAllocator, checkInvalidateFlag, clock );
+        PooledObject o1 = pool.acquire( 10, TimeUnit.SECONDS );
+        PooledObject o2 = pool.acquire( 10, TimeUnit.SECONDS );
+        PooledObject o3 = pool.acquire( 10, TimeUnit.SECONDS );
+        o1.release();
+        o2.release();
+        o3.release();
+
+        // When
+        pool.maintain( slowCheck, 15 );
+
+        // Then the check that started in time is finished, and nothing is allocated
+        assertThat( checked, equalTo( Arrays.asList( o1.id, o2.id ) ) );
+        assertThat( inPool.size(), equalTo( 3 ) );
+
+        // And when maintaining again
+        checked.clear();
+        pool.maintain( slowCheck, Long.MAX_VALUE );
+
+        // Then the values not checked last time go first, and the pool is topped up
+        assertThat( checked, equalTo( Arrays.asList( o3.id, o1.id, o2.id ) ) );
+        assertThat( inPool.size(), equalTo( 4 ) );
+    }
+
+    @Test
+    public void shouldNotQueueIdleValuesAgainEachTimeTheyAreMaintained() throws Throwable
+    {
+        // Given
+        ThreadCachingPool<PooledObject>
+                pool = new ThreadCachingPool<>( 4, trackAllocator, checkInvalidateFlag, SYSTEM );
+        pool.maintain( keepUnlessIdIs( -1, 3 ) );
+
+        // When
+        for ( int i = 0; i < 100; i++ )
+        {
+            pool.maintain( keepUnlessIdIs( -1, 3 ) );
+        }
+        PooledObject local = pool.acquire( 10, TimeUnit.SECONDS );
+        for ( int i = 0; i < 100; i++ )
+        {
+            local.release();
+            local = pool.acquire( 10, TimeUnit.SECONDS );
+        }
+
+        // Then
+        assertThat( pool.queuedSlots(), lessThanOrEqualTo( 3 ) );
+        assertThat( inPool.size(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldReportPoolActivityToMetrics() throws Throwable
+    {
+        // Given
+        ConnectionPoolStatistics metrics = new ConnectionPoolStatistics( URI.create( "bolt://localhost" ) );
+        ThreadCachingPool<PooledObject>
+                pool = new ThreadCachingPool<>( 2, trackAllocator, checkInvalidateFlag, SYSTEM, metrics );
+
+        // When
+        pool.acquire( 10, TimeUnit.SECONDS ).release();
+        pool.acquire( 10, TimeUnit.SECONDS );
+        pool.acquire( 10, TimeUnit.SECONDS ).invalidate().release();
+
+        // Then
+        assertThat( metrics.acquisitions(), equalTo( 3L ) );
+        assertThat( metrics.threadCacheHits(), equalTo( 1L ) );
+        assertThat( metrics.creations(), equalTo( 2L ) );
+        assertThat( metrics.disposals(), equalTo( 1L ) );
+        assertThat( metrics.open(), equalTo( 1L ) );
+        assertThat( metrics.inUse(), equalTo( 1L ) );
+        assertThat( metrics.idle(), equalTo( 0L ) );
+        assertThat( metrics.acquisitionTimes().count(), equalTo( 3L ) );
+        assertThat( metrics.creationTimes().count(), equalTo( 2L ) );
+    }
+
+    private MaintenanceStrategy<PooledObject> keepUnlessIdIs( final int id, final int minIdle )
+    {
+        return new MaintenanceStrategy<PooledObject>()
+        {
+            @Override
+            public boolean keep( PooledObject value, long idleTime, long uncheckedTime, long age )
+            {
+                return value.id != id;
+            }
+
+            @Override
+            public int minIdle()
+            {
+                return minIdle;
+            }
+        };
+    }
+
+    /** Start a thread that waits for a value, and releases it again once it gets it */
+    private Thread waitFor( final ThreadCachingPool<PooledObject> pool, final String name,
+            final List<String> acquiredBy ) throws InterruptedException
+    {
+        Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    PooledObject value = pool.acquire( 10, TimeUnit.SECONDS );
+                    acquiredBy.add( name );
+                    value.release();
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+        thread.start();
+        awaitParked( thread );
+        return thread;
+    }
+
+    private static void awaitParked( Thread thread ) throws InterruptedException
+    {
+        while ( thread.getState() != Thread.State.TIMED_WAITING )
+        {
+            Thread.sleep( 1 );
+        }
+    }
+
     @Test
     public void shouldDisposeOfInvalidItems() throws Throwable
     {
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.util;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class BufferArenaTest
+{
+    @Test
+    public void shouldLeaseBuffersAtMostAQuarterLargerThanAskedFor() throws Throwable
+    {
+        for ( int capacity = 1; capacity <= BufferArena.MAX_POOLED_SIZE; capacity += capacity / 7 + 1 )
+        {
+            int size = BufferArena.sizeOf( BufferArena.classOf( capacity ) );
+            assertThat( size, greaterThanOrEqualTo( capacity ) );
+            if ( capacity > BufferArena.MIN_SIZE )
+            {
+                assertThat( size, lessThan( capacity + capacity / 4 + 1 ) );
+            }
+        }
+        for ( int sizeClass = 0; sizeClass <= BufferArena.classOf( BufferArena.MAX_POOLED_SIZE ); sizeClass++ )
+        {
+            assertThat( BufferArena.classOf( BufferArena.sizeOf( sizeClass ) ), equalTo( sizeClass ) );
+        }
+    }
+
+    @Test
+    public void shouldReuseReleasedBuffers() throws Throwable
+    {
+        // Given
+        BufferArena arena = new BufferArena( 1 << 20 );
+        ByteBuffer buffer = arena.lease( 16709 );
+        buffer.putInt( 42 );
+
+        // When
+        arena.release( buffer );
+
+        // Then
+        assertThat( arena.leasedBytes(), equalTo( 0L ) );
+        assertThat( arena.idleBytes(), equalTo( 20480L ) );
+        ByteBuffer leased = arena.lease( 17000 );
+        assertThat( leased, sameInstance( buffer ) );
+        assertThat( leased.position(), equalTo( 0 ) );
+        assertThat( arena.leasedBytes(), equalTo( 20480L ) );
+        assertThat( arena.idleBytes(), equalTo( 0L ) );
+        assertThat( arena.lease( 8192 ), not( sameInstance( buffer ) ) );
+    }
+
+    @Test
+    public void shouldLetGoOfBuffersBeyondTheMostIdleBytes() throws Throwable
+    {
+        // Given
+        BufferArena arena = new BufferArena( 8192 );
+        ByteBuffer first = arena.lease( 8192 );
+        ByteBuffer second = arena.lease( 8192 );
+
+        // When
+        arena.release( first );
+        arena.release( second );
+
+        // Then
+        assertThat( arena.idleBytes(), equalTo( 8192L ) );
+        assertThat( arena.leasedBytes(), equalTo( 0L ) );
+        assertThat( arena.lease( 8192 ), sameInstance( first ) );
+        assertThat( arena.lease( 8192 ), not( sameInstance( second ) ) );
+    }
+}
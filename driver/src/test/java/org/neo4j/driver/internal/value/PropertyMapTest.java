@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2002-2015 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.value;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.driver.Value;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.driver.Values.value;
+
+public class PropertyMapTest
+{
+    @Test
+    public void shouldLookUpValuesByKey() throws Throwable
+    {
+        // Given
+        PropertyMap map = new PropertyMap( new PropertyMap.Shape( "name", "age" ),
+                new Value[]{value( "Alice" ), value( 42 )} );
+
+        // Then
+        assertThat( map.size(), equalTo( 2 ) );
+        assertThat( map.get( "name" ), equalTo( value( "Alice" ) ) );
+        assertThat( map.get( new String( "age" ) ), equalTo( value( 42 ) ) );
+        assertThat( map.get( "email" ), nullValue() );
+        assertTrue( map.containsKey( "age" ) );
+        assertFalse( map.containsKey( "email" ) );
+    }
+
+    @Test
+    public void shouldLookUpValuesInWideShapes() throws Throwable
+    {
+        // Given
+        String[] keys = new String[20];
+        Value[] values = new Value[keys.length];
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            keys[i] = "key" + i;
+            values[i] = value( i );
+        }
+
+        // When
+        PropertyMap map = new PropertyMap( new PropertyMap.Shape( keys ), values );
+
+        // Then
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            assertThat( map.get( "key" + i ), equalTo( value( i ) ) );
+        }
+        assertThat( map.get( "key20" ), nullValue() );
+    }
+
+    @Test
+    public void shouldKeepKeyOrderAndEqualOtherMaps() throws Throwable
+    {
+        // Given
+        PropertyMap map = new PropertyMap( new PropertyMap.Shape( "b", "a" ), new Value[]{value( 2 ), value( 1 )} );
+        Map<String,Value> hashMap = new HashMap<>();
+        hashMap.put( "a", value( 1 ) );
+        hashMap.put( "b", value( 2 ) );
+
+        // Then
+        assertThat( asList( map.keySet().toArray() ), equalTo( asList( (Object) "b", "a" ) ) );
+        assertThat( asList( map.values().toArray() ), equalTo( asList( (Object) value( 2 ), value( 1 ) ) ) );
+        assertThat( map, equalTo( (Map<String,Value>) hashMap ) );
+        assertThat( hashMap, equalTo( (Map<String,Value>) map ) );
+        assertThat( map.hashCode(), equalTo( hashMap.hashCode() ) );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void shouldBeImmutable() throws Throwable
+    {
+        new PropertyMap( new PropertyMap.Shape( "a" ), new Value[]{value( 1 )} ).put( "b", value( 2 ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldRejectDuplicateKeys() throws Throwable
+    {
+        new PropertyMap.Shape( "a", "b", "a" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldRejectValuesThatDoNotMatchShape() throws Throwable
+    {
+        new PropertyMap( new PropertyMap.Shape( "a", "b" ), new Value[]{value( 1 )} );
+    }
+
+    @Test
+    public void shouldShareShapesWithSameKeysInSameOrder() throws Throwable
+    {
+        // Given
+        PropertyMap.Shapes shapes = new PropertyMap.Shapes();
+
+        // When
+        PropertyMap.Shape first = shapes.shapeOf( new String[]{"name", "age"} );
+        PropertyMap.Shape second = shapes.shapeOf( new String[]{"name", "age"} );
+        PropertyMap.Shape reordered = shapes.shapeOf( new String[]{"age", "name"} );
+
+        // Then
+        assertThat( second, sameInstance( first ) );
+        assertThat( reordered, not( sameInstance( first ) ) );
+    }
+
+    @Test
+    public void shouldHaveNoSharedShapeForDuplicateKeys() throws Throwable
+    {
+        // Given
+        PropertyMap.Shapes shapes = new PropertyMap.Shapes();
+
+        // When
+        PropertyMap.Shape few = shapes.shapeOf( new String[]{"a", "b", "a"} );
+        PropertyMap.Shape many = shapes.shapeOf( new String[]{"a", "b", "c", "d", "e", "f", "g", "h", "i", "a"} );
+
+        // Then
+        assertThat( few, nullValue() );
+        assertThat( many, nullValue() );
+    }
+}
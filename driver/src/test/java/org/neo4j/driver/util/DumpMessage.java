@@ -29,6 +29,8 @@ import java.util.Map;
 
 import org.neo4j.driver.Value;
 import org.neo4j.driver.exceptions.Neo4jException;
+import org.neo4j.driver.internal.RecordFields;
+import org.neo4j.driver.internal.StandardPreparedStatement;
 import org.neo4j.driver.internal.connector.socket.ChunkedInput;
 import org.neo4j.driver.internal.messaging.AckFailureMessage;
 import org.neo4j.driver.internal.messaging.DiscardAllMessage;
@@ -39,6 +41,7 @@ import org.neo4j.driver.internal.messaging.Message;
 import org.neo4j.driver.internal.messaging.MessageFormat;
 import org.neo4j.driver.internal.messaging.MessageHandler;
 import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.messaging.PreparedRunMessage;
 import org.neo4j.driver.internal.messaging.PullAllMessage;
 import org.neo4j.driver.internal.messaging.RecordMessage;
 import org.neo4j.driver.internal.messaging.RunMessage;
@@ -338,6 +341,12 @@ public class DumpMessage
             outcome.add( new RunMessage( statement, parameters ) );
         }
 
+        @Override
+        public void handlePreparedRunMessage( StandardPreparedStatement statement, Value[] parameterValues )
+        {
+            outcome.add( new PreparedRunMessage( statement, parameterValues ) );
+        }
+
         @Override
         public void handleDiscardAllMessage()
         {
@@ -357,11 +366,17 @@ public class DumpMessage
         }
 
         @Override
-        public void handleRecordMessage( Value[] fields )
+        public void handleRecordMessage( RecordFields fields )
         {
             outcome.add( new RecordMessage( fields ) );
         }
 
+        @Override
+        public boolean wantsRecords()
+        {
+            return true;
+        }
+
         @Override
         public void handleFailureMessage( String code, String message )
         {
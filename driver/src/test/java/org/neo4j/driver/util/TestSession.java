@@ -22,11 +22,16 @@ import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
+import org.neo4j.driver.Pipeline;
+import org.neo4j.driver.PreparedStatement;
+import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.Transaction;
 import org.neo4j.driver.Value;
+import org.reactivestreams.Publisher;
 
 /**
  * A little utility for integration testing, this provides tests with a session they can work with.
@@ -72,12 +77,48 @@ public class TestSession extends TestNeo4j implements Session
         return realSession.newTransaction();
     }
 
+    @Override
+    public Pipeline pipeline()
+    {
+        return realSession.pipeline();
+    }
+
     @Override
     public Result run( String statement, Map<String,Value> parameters )
     {
         return realSession.run( statement, parameters );
     }
 
+    @Override
+    public CompletionStage<Result> runAsync( String statement, Map<String,Value> parameters )
+    {
+        return realSession.runAsync( statement, parameters );
+    }
+
+    @Override
+    public CompletionStage<Result> runAsync( String statement )
+    {
+        return realSession.runAsync( statement );
+    }
+
+    @Override
+    public Publisher<Record> runReactive( String statement, Map<String,Value> parameters )
+    {
+        return realSession.runReactive( statement, parameters );
+    }
+
+    @Override
+    public Publisher<Record> runReactive( String statement )
+    {
+        return realSession.runReactive( statement );
+    }
+
+    @Override
+    public Result run( PreparedStatement statement, Value... parameterValues )
+    {
+        return realSession.run( statement, parameterValues );
+    }
+
     @Override
     public Result run( String statement )
     {